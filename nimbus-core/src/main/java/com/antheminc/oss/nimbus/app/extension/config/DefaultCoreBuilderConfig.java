@@ -119,8 +119,8 @@ public class DefaultCoreBuilderConfig {
 	}
 	
 	@Bean
-	public ExecutionConfigFactory executionConfigFactory(BeanResolverStrategy beanResolver) {
-		return new ExecutionConfigFactory();
+	public ExecutionConfigFactory executionConfigFactory(BeanResolverStrategy beanResolver, PropertyResolver propertyResolver) {
+		return new ExecutionConfigFactory(propertyResolver);
 	}
 	
 	@Bean 
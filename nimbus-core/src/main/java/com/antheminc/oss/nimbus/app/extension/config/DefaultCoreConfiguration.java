@@ -21,8 +21,11 @@ import java.time.temporal.TemporalAccessor;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -30,9 +33,11 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.AuditorAware;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
 import com.antheminc.oss.nimbus.channel.messagequeue.MessageQueueCommandDispatcher;
+import com.antheminc.oss.nimbus.channel.web.AsyncWebCommandExecutor;
 import com.antheminc.oss.nimbus.channel.web.RemoteModelClientHttpRequestInterceptor;
 import com.antheminc.oss.nimbus.channel.web.WebActionController;
 import com.antheminc.oss.nimbus.channel.web.WebCommandBuilder;
@@ -44,11 +49,14 @@ import com.antheminc.oss.nimbus.domain.model.state.repo.DefaultModelRepositoryFa
 import com.antheminc.oss.nimbus.domain.model.state.repo.DefaultParamStateRepositoryDetached;
 import com.antheminc.oss.nimbus.domain.model.state.repo.DefaultParamStateRepositoryLocal;
 import com.antheminc.oss.nimbus.domain.model.state.repo.ModelRepository;
+import com.antheminc.oss.nimbus.domain.model.state.repo.ModelRepositoryCache;
 import com.antheminc.oss.nimbus.domain.model.state.repo.ModelRepositoryFactory;
 import com.antheminc.oss.nimbus.domain.model.state.repo.ParamStateRepository;
+import com.antheminc.oss.nimbus.domain.model.state.repo.ParamStatePrefetcher;
 import com.antheminc.oss.nimbus.domain.model.state.repo.ParamStateRepositoryGateway;
 import com.antheminc.oss.nimbus.domain.model.state.repo.RepoEventDelegator;
 import com.antheminc.oss.nimbus.domain.model.state.repo.SpringSecurityAuditorAware;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.PageTotalCountProvider;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.ParamStateAtomicPersistenceEventListener;
 import com.antheminc.oss.nimbus.domain.model.state.repo.ws.DefaultWSModelRepository;
 import com.antheminc.oss.nimbus.domain.model.state.repo.ws.ParamStateAtomicRemotePersistenceEventListener;
@@ -58,6 +66,7 @@ import com.antheminc.oss.nimbus.domain.rules.drools.DecisionTableConfigBuilder;
 import com.antheminc.oss.nimbus.domain.rules.drools.DrlConfigBuilder;
 import com.antheminc.oss.nimbus.domain.rules.drools.DroolsRulesEngineFactory;
 import com.antheminc.oss.nimbus.support.pojo.JavaBeanHandler;
+import com.antheminc.oss.nimbus.support.pojo.JavaBeanHandlerLambda;
 import com.antheminc.oss.nimbus.support.pojo.JavaBeanHandlerReflection;
 
 /**
@@ -70,7 +79,7 @@ import com.antheminc.oss.nimbus.support.pojo.JavaBeanHandlerReflection;
 public class DefaultCoreConfiguration {
 	
 	@Bean(name="default.repositoryFactory")
-	public DefaultModelRepositoryFactory defaultModelRepositoryFactory(BeanResolverStrategy beanResolver){
+	public DefaultModelRepositoryFactory defaultModelRepositoryFactory(BeanResolverStrategy beanResolver, ModelRepositoryCache modelRepositoryCache){
 		/*Add ModelRepository implementation beans to a lookup map*/
 		Map<String, ModelRepository> repoBeanLookup = new HashMap<>();
 
@@ -86,9 +95,24 @@ public class DefaultCoreConfiguration {
 		repoBeanLookup.put(Repo.Remote.rep_remote_ws.name(), beanResolver.get(ModelRepository.class, Repo.Remote.rep_remote_ws.name()));
 		repoBeanLookup.put(Repo.Database.rep_ws.name(), beanResolver.get(ModelRepository.class, Repo.Database.rep_ws.name()));
 
-		return new DefaultModelRepositoryFactory(beanResolver, repoBeanLookup);
+		return new DefaultModelRepositoryFactory(beanResolver, repoBeanLookup, modelRepositoryCache);
+	}
+	
+	@Bean(name="default.repo.modelRepositoryCache")
+	public ModelRepositoryCache modelRepositoryCache(
+			@Value("${nimbus.repo.cache.app.ttlSeconds:300}") long ttlSeconds,
+			@Value("${nimbus.repo.cache.app.maxEntries:10000}") int maxEntries,
+			@Value("${nimbus.repo.cache.app.search.enabled:false}") boolean searchEnabled) {
+		return new ModelRepositoryCache(TimeUnit.SECONDS.toMillis(ttlSeconds), maxEntries, searchEnabled);
 	}
 
+	@Bean(name="default.search.pageTotalCountProvider")
+	public PageTotalCountProvider pageTotalCountProvider(
+			@Value("${nimbus.search.totalCount.cache.ttlSeconds:300}") long ttlSeconds,
+			@Value("${nimbus.search.totalCount.cache.maxEntries:1000}") int maxEntries) {
+		return new PageTotalCountProvider(TimeUnit.SECONDS.toMillis(ttlSeconds), maxEntries);
+	}
+	
 	@Bean
 	public RepoEventDelegator repoEventDelegator(BeanResolverStrategy beanResolver) {
 		return new RepoEventDelegator(beanResolver);
@@ -135,8 +159,31 @@ public class DefaultCoreConfiguration {
 	}
 	
 	@Bean(name="default.param.state.rep_detached")
-	public DefaultParamStateRepositoryDetached defaultParamStateRepositoryDetached(BeanResolverStrategy beanResolver){
-		return new DefaultParamStateRepositoryDetached(beanResolver);
+	public DefaultParamStateRepositoryDetached defaultParamStateRepositoryDetached(BeanResolverStrategy beanResolver,
+			@Value("${nimbus.param.detached.cache.app.ttlSeconds:30}") long ttlSeconds,
+			@Value("${nimbus.param.detached.cache.app.maxEntries:1000}") int maxEntries){
+		return new DefaultParamStateRepositoryDetached(beanResolver, TimeUnit.SECONDS.toMillis(ttlSeconds), maxEntries);
+	}
+	
+	@Bean(name="default.param.state.prefetcher.executor")
+	@ConditionalOnProperty(name="nimbus.param.prefetch.enabled", havingValue="true", matchIfMissing=true)
+	public ThreadPoolTaskExecutor paramStatePrefetchExecutor(
+			@Value("${nimbus.param.prefetch.poolSize:16}") int poolSize,
+			@Value("${nimbus.param.prefetch.queueCapacity:256}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("nimbus-param-prefetch-");
+		executor.setDaemon(true);
+		return executor;
+	}
+	
+	@Bean(name="default.param.state.prefetcher")
+	@ConditionalOnProperty(name="nimbus.param.prefetch.enabled", havingValue="true", matchIfMissing=true)
+	public ParamStatePrefetcher paramStatePrefetcher(BeanResolverStrategy beanResolver,
+			@Qualifier("default.param.state.prefetcher.executor") ThreadPoolTaskExecutor executor) {
+		return new ParamStatePrefetcher(beanResolver, executor);
 	}
 	
 	@Bean(name="default.param.state.repository")
@@ -168,8 +215,8 @@ public class DefaultCoreConfiguration {
 	}
 	
 	@Bean(name="default.java.bean.handler")
-	public JavaBeanHandler javaBeanHandler(){
-		return new JavaBeanHandlerReflection();
+	public JavaBeanHandler javaBeanHandler(@Value("${nimbus.pojo.beanHandler:reflection}") String beanHandler){
+		return "lambda".equals(beanHandler) ? new JavaBeanHandlerLambda() : new JavaBeanHandlerReflection();
 	}
 	
 	//web
@@ -183,6 +230,15 @@ public class DefaultCoreConfiguration {
 		return new WebCommandDispatcher(beanResolver);
 	}
 	
+	@Bean(name="default.asyncWebCommandExecutor", destroyMethod="shutdown")
+	@ConditionalOnProperty(name="nimbus.web.async.enabled", havingValue="true")
+	public AsyncWebCommandExecutor asyncWebCommandExecutor(
+			@Value("${nimbus.web.async.poolSize:64}") int poolSize,
+			@Value("${nimbus.web.async.queueCapacity:1000}") int queueCapacity,
+			@Value("${nimbus.web.async.timeoutSeconds:120}") long timeoutSeconds) {
+		return new AsyncWebCommandExecutor(poolSize, queueCapacity, TimeUnit.SECONDS.toMillis(timeoutSeconds));
+	}
+	
 	@Bean
 	public MessageQueueCommandDispatcher messageQueueCommandDispatcher(BeanResolverStrategy beanResolver){
 		return new MessageQueueCommandDispatcher(beanResolver);
@@ -15,9 +15,15 @@
  */
 package com.antheminc.oss.nimbus.app.extension.config;
 
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.PropertyResolver;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
 import com.antheminc.oss.nimbus.domain.cmd.CommandMessageConverter;
@@ -41,9 +47,17 @@ import com.antheminc.oss.nimbus.domain.cmd.exec.internal.DefaultCommandExecutorG
 import com.antheminc.oss.nimbus.domain.cmd.exec.internal.DefaultCommandPathVariableResolver;
 import com.antheminc.oss.nimbus.domain.cmd.exec.internal.DefaultExecutionContextLoader;
 import com.antheminc.oss.nimbus.domain.cmd.exec.internal.DefaultExecutionContextPathVariableResolver;
+import com.antheminc.oss.nimbus.domain.cmd.exec.internal.ExecutionContextPassivator;
 import com.antheminc.oss.nimbus.domain.cmd.exec.internal.HierarchyMatchBasedBeanFinder;
+import com.antheminc.oss.nimbus.domain.cmd.exec.internal.ParallelConfigExecutor;
+import com.antheminc.oss.nimbus.domain.cmd.exec.internal.QuadModelStateCodec;
+import com.antheminc.oss.nimbus.domain.cmd.exec.internal.SharedQuadModelCache;
+import com.antheminc.oss.nimbus.domain.session.ExecutionContextStore;
+import com.antheminc.oss.nimbus.domain.session.FileExecutionContextStore;
+import com.antheminc.oss.nimbus.domain.session.InMemoryExecutionContextStore;
 import com.antheminc.oss.nimbus.support.expr.ExpressionEvaluator;
 import com.antheminc.oss.nimbus.support.expr.SpelExpressionEvaluator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * @author Sandeep Mantha
@@ -145,8 +159,63 @@ public class DefaultCoreExecutorConfig {
 	
 	
 	@Bean(name="default.processGateway")
-	public DefaultCommandExecutorGateway defaultProcessGateway(BeanResolverStrategy beanResolver){
-		return new DefaultCommandExecutorGateway(beanResolver);
+	public DefaultCommandExecutorGateway defaultProcessGateway(BeanResolverStrategy beanResolver,
+			@Value("${nimbus.execution.lockTimeoutMillis:30000}") long executionLockTimeoutMillis){
+		return new DefaultCommandExecutorGateway(beanResolver, executionLockTimeoutMillis);
+	}
+	
+	@Bean(name="default.parallelConfigExecutor.executor")
+	public ThreadPoolTaskExecutor parallelConfigTaskExecutor(
+			@Value("${nimbus.config.parallel.poolSize:16}") int poolSize,
+			@Value("${nimbus.config.parallel.queueCapacity:256}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("nimbus-config-group-");
+		executor.setDaemon(true);
+		return executor;
+	}
+	
+	@Bean(name="default.parallelConfigExecutor")
+	public ParallelConfigExecutor parallelConfigExecutor(
+			@Qualifier("default.parallelConfigExecutor.executor") ThreadPoolTaskExecutor executor,
+			@Value("${nimbus.config.parallel.timeoutMillis:30000}") long timeoutMillis) {
+		return new ParallelConfigExecutor(executor, timeoutMillis);
+	}
+
+	@Bean(name="default.sharedQuadModelCache")
+	public SharedQuadModelCache sharedQuadModelCache(
+			@Value("${nimbus.session.shared.ttlSeconds:300}") long ttlSeconds,
+			@Value("${nimbus.session.shared.maxEntries:1000}") int maxEntries,
+			@Value("${nimbus.session.shared.stopTimeoutMillis:5000}") long stopTimeoutMillis) {
+		return new SharedQuadModelCache(TimeUnit.SECONDS.toMillis(ttlSeconds), maxEntries, stopTimeoutMillis);
+	}
+	
+	@Bean(name="default.quadModelStateCodec")
+	public QuadModelStateCodec quadModelStateCodec(ObjectMapper om, DefaultCoreBuilderConfig builderConfig) {
+		return new QuadModelStateCodec(om, builderConfig.getBasePackages());
+	}
+	
+	@Bean(name="default.executionContextPassivator", destroyMethod="shutdown")
+	@ConditionalOnProperty(name="nimbus.session.passivation.enabled", havingValue="true")
+	public ExecutionContextPassivator executionContextPassivator(QuadModelStateCodec codec,
+			@Value("${nimbus.session.passivation.idleMinutes:30}") long idleMinutes,
+			@Value("${nimbus.session.passivation.sweepIntervalSeconds:60}") long sweepIntervalSeconds,
+			@Value("${nimbus.session.passivation.storeDirectory:}") String storeDirectory) {
+		return new ExecutionContextPassivator(codec, TimeUnit.MINUTES.toMillis(idleMinutes), TimeUnit.SECONDS.toMillis(sweepIntervalSeconds), storeDirectory);
+	}
+	
+	@Bean(name="default.executionContextStore")
+	@ConditionalOnProperty(name="nimbus.session.store.type", havingValue="file")
+	public ExecutionContextStore fileExecutionContextStore(@Value("${nimbus.session.store.directory}") String directory) {
+		return new FileExecutionContextStore(directory);
+	}
+	
+	@Bean(name="default.executionContextStore")
+	@ConditionalOnProperty(name="nimbus.session.store.type", havingValue="memory")
+	public ExecutionContextStore inMemoryExecutionContextStore() {
+		return new InMemoryExecutionContextStore();
 	}
 
 	@Bean(name="default._search$execute")
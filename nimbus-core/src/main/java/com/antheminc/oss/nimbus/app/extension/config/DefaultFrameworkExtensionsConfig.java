@@ -17,7 +17,9 @@ package com.antheminc.oss.nimbus.app.extension.config;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -100,8 +102,10 @@ public class DefaultFrameworkExtensionsConfig {
 	}
 	
 	@Bean(name="default.paramValuesHandler")
-	public ParamValuesOnLoadHandler extensionValuesOnStateLoadEventHandler(BeanResolverStrategy beanResolver) {
-		return new DefaultParamValuesHandler(beanResolver);
+	public ParamValuesOnLoadHandler extensionValuesOnStateLoadEventHandler(BeanResolverStrategy beanResolver,
+			@Value("${nimbus.param.values.cache.app.ttlSeconds:300}") long ttlSeconds,
+			@Value("${nimbus.param.values.cache.app.maxEntries:1000}") int maxEntries) {
+		return new DefaultParamValuesHandler(beanResolver, TimeUnit.SECONDS.toMillis(ttlSeconds), maxEntries);
 	}
 	
 	@Bean
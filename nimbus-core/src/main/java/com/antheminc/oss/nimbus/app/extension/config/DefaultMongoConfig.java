@@ -18,6 +18,9 @@
  */
 package com.antheminc.oss.nimbus.app.extension.config;
 
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -27,14 +30,18 @@ import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 
 import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
 import com.antheminc.oss.nimbus.domain.config.builder.DomainConfigBuilder;
+import com.antheminc.oss.nimbus.domain.defn.Constants;
 import com.antheminc.oss.nimbus.domain.defn.Repo;
 import com.antheminc.oss.nimbus.domain.model.state.extension.ChangeLogCommandEventHandler;
 import com.antheminc.oss.nimbus.domain.model.state.repo.ModelRepository;
 import com.antheminc.oss.nimbus.domain.model.state.repo.ModelRepositoryFactory;
+import com.antheminc.oss.nimbus.domain.model.state.repo.StaticCodeValueIndex;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.MongoDBModelRepositoryOptions;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.MongoSearchByExampleOperation;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.MongoSearchByQueryOperation;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.PageTotalCountProvider;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.mongo.DefaultMongoModelRepository;
+import com.antheminc.oss.nimbus.entity.StaticCodeValue;
 import com.antheminc.oss.nimbus.support.mongo.MongoConvertersBuilder;
 
 /**
@@ -58,10 +65,10 @@ public class DefaultMongoConfig {
 	}
 	
 	@Bean
-	public MongoDBModelRepositoryOptions defaultMongoDBModelRepositoryOptions(MongoOperations mongoOps, DomainConfigBuilder domainConfigBuilder) {
+	public MongoDBModelRepositoryOptions defaultMongoDBModelRepositoryOptions(MongoOperations mongoOps, DomainConfigBuilder domainConfigBuilder, PageTotalCountProvider totalCountProvider) {
 		return MongoDBModelRepositoryOptions.builder()
-			.addSearchOperation(new MongoSearchByExampleOperation(mongoOps, domainConfigBuilder))
-			.addSearchOperation(new MongoSearchByQueryOperation(mongoOps, domainConfigBuilder))
+			.addSearchOperation(new MongoSearchByExampleOperation(mongoOps, domainConfigBuilder, totalCountProvider))
+			.addSearchOperation(new MongoSearchByQueryOperation(mongoOps, domainConfigBuilder, totalCountProvider))
 			.build();
 	}
 	
@@ -70,4 +77,12 @@ public class DefaultMongoConfig {
 		ModelRepository modelRepository = modelRepositoryFactory.get(Repo.Database.rep_mongodb);
 		return new ChangeLogCommandEventHandler(beanResolver, modelRepository);
 	}
+	
+	@Bean(name="default.staticCodeValueIndex", initMethod="start", destroyMethod="shutdown")
+	@ConditionalOnProperty(name="nimbus.staticcodevalue.index.enabled", havingValue="true", matchIfMissing=true)
+	public StaticCodeValueIndex staticCodeValueIndex(MongoOperations mongoOps,
+			@Value("${nimbus.staticcodevalue.index.refreshSeconds:300}") long refreshSeconds) {
+		return new StaticCodeValueIndex(() -> mongoOps.findAll(StaticCodeValue.class, Constants.PARAM_VALUES_DOMAIN_ALIAS.code), 
+				TimeUnit.SECONDS.toMillis(refreshSeconds));
+	}
 }
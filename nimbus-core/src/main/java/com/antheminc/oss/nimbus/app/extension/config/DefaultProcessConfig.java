@@ -42,6 +42,7 @@ import com.antheminc.oss.nimbus.domain.cmd.exec.internal.process.UpdateFunctionH
 import com.antheminc.oss.nimbus.domain.cmd.exec.internal.search.DefaultSearchFunctionHandlerExample;
 import com.antheminc.oss.nimbus.domain.cmd.exec.internal.search.DefaultSearchFunctionHandlerLookup;
 import com.antheminc.oss.nimbus.domain.cmd.exec.internal.search.DefaultSearchFunctionHandlerQuery;
+import com.antheminc.oss.nimbus.domain.cmd.exec.internal.search.ViewProjectionPathsResolver;
 import com.antheminc.oss.nimbus.support.expr.ExpressionEvaluator;
 import com.antheminc.oss.nimbus.support.expr.SpelExpressionEvaluator;
 
@@ -54,6 +55,9 @@ public class DefaultProcessConfig {
 	
 	@Value("${nimbus.process.supportStatefulProcesses:#{true}}")
 	private Boolean supportStatefulProcesses;	
+	
+	@Value("${nimbus.search.projection.auto.enabled:#{true}}")
+	private Boolean autoProjectionEnabled;
 		
 	@Bean
 	public ActivitiExpressionManager activitiExpressionManager(){
@@ -85,6 +89,11 @@ public class DefaultProcessConfig {
 		return new PageIdEchoNavHandler<>();
 	}
 	
+	@Bean(name="default.search.viewProjectionPathsResolver")
+	public ViewProjectionPathsResolver viewProjectionPathsResolver(){
+		return new ViewProjectionPathsResolver(autoProjectionEnabled);
+	}
+	
 	@Bean(name="default._process$execute?fn=_set")
 	public SetFunctionHandler<?,?> setFunctionHandler(){
 		return new SetFunctionHandler<>();
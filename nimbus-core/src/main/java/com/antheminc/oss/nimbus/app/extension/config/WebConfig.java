@@ -28,6 +28,7 @@ import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
+import com.antheminc.oss.nimbus.channel.web.ExecutionOutputHoldInterceptor;
 import com.antheminc.oss.nimbus.channel.web.WebSessionIdLoggerInterceptor;
 import com.antheminc.oss.nimbus.support.json.CustomDateDeserializer;
 import com.antheminc.oss.nimbus.support.json.CustomDateSerializer;
@@ -91,6 +92,7 @@ public class WebConfig extends WebMvcConfigurerAdapter {
 	@Override
 	public void addInterceptors(InterceptorRegistry registry) {
 		registry.addInterceptor(new WebSessionIdLoggerInterceptor());
+		registry.addInterceptor(new ExecutionOutputHoldInterceptor());
 	}
 
 	@Override
@@ -0,0 +1,132 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.channel.web;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.antheminc.oss.nimbus.FrameworkRuntimeException;
+import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionScope;
+import com.antheminc.oss.nimbus.support.JustLogit;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * <p>Bounded pool on which {@link WebActionController} executes commands when asynchronous handling is enabled, releasing
+ * the servlet container thread for the duration of the execution.
+ *
+ * <p>The session, security and logging context of the container thread, along with the attributes of its request, are
+ * made available to the executing thread as {@link DetachedRequestAttributes}, and removed once the execution completes.
+ * The request itself is not handed to the executing thread, as the container may recycle it once the command times out;
+ * the commands executed are to be built from the request by the container thread. Each command executes within a
+ * {@link ExecutionScope#detached() detached} execution scope, so that no state of a previous command executed on the
+ * same thread carries over.
+ *
+ * <p>Commands arriving while the pool and its queue are exhausted are rejected rather than queued without bound.
+ *
+ * <p>A command exceeding the timeout is answered with an error, while its execution is left to complete, as
+ * interrupting it could leave the state of the session's models partially updated. A command still queued once timed out
+ * is abandoned.
+ */
+@Getter(value=AccessLevel.PROTECTED)
+public class AsyncWebCommandExecutor {
+
+	private static final JustLogit logit = new JustLogit(AsyncWebCommandExecutor.class);
+
+	private final ThreadPoolExecutor executor;
+
+	private final long timeoutMillis;
+
+	public AsyncWebCommandExecutor(int poolSize, int queueCapacity, long timeoutMillis) {
+		this.timeoutMillis = timeoutMillis;
+
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(queueCapacity), r -> {
+					Thread t = new Thread(r, "nimbus-web-command-" + threadCount.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				});
+	}
+
+	public void shutdown() {
+		getExecutor().shutdown();
+	}
+
+	/**
+	 * @throws java.util.concurrent.RejectedExecutionException if the pool and its queue are exhausted
+	 */
+	public DeferredResult<Object> submit(Supplier<Object> handler) {
+		final RequestAttributes callerAttributes = RequestContextHolder.getRequestAttributes();
+		final DetachedRequestAttributes requestAttributes = (callerAttributes instanceof ServletRequestAttributes)
+				? new DetachedRequestAttributes(((ServletRequestAttributes)callerAttributes).getRequest())
+				: null;
+		final SecurityContext securityContext = SecurityContextHolder.getContext();
+
+		final DeferredResult<Object> result = new DeferredResult<>(getTimeoutMillis());
+		result.onTimeout(() -> result.setErrorResult(
+				new FrameworkRuntimeException("Command execution did not complete within " + getTimeoutMillis() + " ms")));
+
+		final Callable<Object> execution = ExecutionScope.detachedWithContext(requestAttributes, () -> {
+			SecurityContextHolder.setContext(securityContext);
+			boolean resultSet = false;
+			try {
+				resultSet = result.setResult(handler.get());
+
+			} catch (Throwable ex) {
+				logit.debug(() -> "Asynchronous command execution failed", ex);
+				resultSet = result.setErrorResult(ex);
+
+			} finally {
+				// the request already completed with a timeout, no response will be written for the result
+				if(!resultSet)
+					ExecutionOutputHoldInterceptor.releaseOutputs(requestAttributes);
+
+				if(requestAttributes != null)
+					requestAttributes.requestCompleted();
+
+				SecurityContextHolder.clearContext();
+			}
+			return null;
+		});
+
+		getExecutor().execute(() -> {
+			// commands still queued once the request timed out are abandoned
+			if(result.isSetOrExpired()) {
+				logit.debug(() -> "Abandoned command execution queued beyond the timeout of " + getTimeoutMillis() + " ms");
+				return;
+			}
+			try {
+				execution.call();
+			} catch (Exception ex) {
+				logit.error(() -> "Failed to execute command asynchronously", ex);
+			}
+		});
+		return result;
+	}
+}
@@ -0,0 +1,43 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.channel.web;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * <p>Single entry of a request to the batch endpoint of {@link WebActionController}.
+ *
+ * <p>The {@code uri} is given as it would be requested on its own, relative to the servlet context and including any
+ * request params, e.g. {@code /client/org/app/p/domain:1/_get?b=$execute}. Request params are taken as is, without
+ * url decoding. The {@code payload}, if any, is the json otherwise sent as request body.
+ */
+@Getter @Setter @ToString
+public class BatchCommand {
+
+	private String uri;
+
+	private JsonNode payload;
+
+	@JsonIgnore
+	public String getPayloadJson() {
+		return getPayload() == null || getPayload().isNull() ? null : getPayload().toString();
+	}
+}
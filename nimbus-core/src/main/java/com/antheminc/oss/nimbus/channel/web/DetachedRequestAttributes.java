@@ -0,0 +1,134 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.channel.web;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+import org.springframework.web.context.request.DestructionCallbackBindingListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * <p>Request attributes of a request detached from the request itself, for its commands to execute on another thread
+ * while the servlet container may already have recycled the request, e.g. once its asynchronous result timed out.
+ *
+ * <p>The attributes of the request are copied when detached and are kept apart from the request thereafter. Session
+ * attributes are those of the session of the request, which is created when detached if not yet existing, as it cannot
+ * be created from another thread once the request is released.
+ */
+public class DetachedRequestAttributes implements RequestAttributes {
+
+	private final Map<String, Object> requestAttributes = new LinkedHashMap<>();
+	
+	private final Map<String, Runnable> requestDestructionCallbacks = new LinkedHashMap<>();
+	
+	private final HttpSession session;
+	
+	private final String sessionId;
+	
+	public DetachedRequestAttributes(HttpServletRequest request) {
+		Enumeration<String> names = request.getAttributeNames();
+		while(names.hasMoreElements()) {
+			String name = names.nextElement();
+			Object value = request.getAttribute(name);
+			if(value != null)
+				this.requestAttributes.put(name, value);
+		}
+		this.session = request.getSession();
+		this.sessionId = session.getId();
+	}
+	
+	@Override
+	public Object getAttribute(String name, int scope) {
+		if(scope == SCOPE_REQUEST)
+			return requestAttributes.get(name);
+		
+		try {
+			return session.getAttribute(name);
+		} catch (IllegalStateException ex) {
+			// session invalidated
+			return null;
+		}
+	}
+
+	@Override
+	public void setAttribute(String name, Object value, int scope) {
+		if(scope == SCOPE_REQUEST)
+			requestAttributes.put(name, value);
+		else
+			session.setAttribute(name, value);
+	}
+
+	@Override
+	public void removeAttribute(String name, int scope) {
+		if(scope == SCOPE_REQUEST) {
+			requestAttributes.remove(name);
+			requestDestructionCallbacks.remove(name);
+		} else {
+			session.removeAttribute(name);
+			session.removeAttribute(ServletRequestAttributes.DESTRUCTION_CALLBACK_NAME_PREFIX + name);
+		}
+	}
+
+	@Override
+	public String[] getAttributeNames(int scope) {
+		if(scope == SCOPE_REQUEST)
+			return requestAttributes.keySet().toArray(new String[requestAttributes.size()]);
+		
+		return Collections.list(session.getAttributeNames()).toArray(new String[0]);
+	}
+
+	@Override
+	public void registerDestructionCallback(String name, Runnable callback, int scope) {
+		if(scope == SCOPE_REQUEST)
+			requestDestructionCallbacks.put(name, callback);
+		else
+			session.setAttribute(ServletRequestAttributes.DESTRUCTION_CALLBACK_NAME_PREFIX + name, new DestructionCallbackBindingListener(callback));
+	}
+
+	/**
+	 * @return the session for {@link #REFERENCE_SESSION}, the request itself not being available
+	 */
+	@Override
+	public Object resolveReference(String key) {
+		return REFERENCE_SESSION.equals(key) ? session : null;
+	}
+
+	@Override
+	public String getSessionId() {
+		return sessionId;
+	}
+
+	@Override
+	public Object getSessionMutex() {
+		return WebUtils.getSessionMutex(session);
+	}
+	
+	/**
+	 * <p>Runs the destruction callbacks of request scoped attributes once the commands of the request completed.
+	 */
+	public void requestCompleted() {
+		requestDestructionCallbacks.values().forEach(Runnable::run);
+		requestDestructionCallbacks.clear();
+	}
+}
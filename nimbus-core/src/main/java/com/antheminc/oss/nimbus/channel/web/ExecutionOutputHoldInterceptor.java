@@ -0,0 +1,101 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.channel.web;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionScope;
+
+/**
+ * <p>Keeps the models executed by a request from being modified by commands of other threads until its response is
+ * written, as the response serializes the params of the models. Read-only commands against the models are still
+ * admitted meanwhile.
+ *
+ * <p>The outputs are held by {@link #holdOutputs(Supplier)} while the request is handled, and released once the
+ * request completes, i.e. once its response, or the response to its asynchronous result, is written.
+ */
+public class ExecutionOutputHoldInterceptor extends HandlerInterceptorAdapter {
+
+	/* release of the outputs held for the request, set once its handler returns, possibly on another thread */
+	private static final String KEY_RELEASE = ExecutionOutputHoldInterceptor.class.getName() + ".RELEASE";
+	
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+		// kept across the dispatch of an asynchronous result
+		if(request.getAttribute(KEY_RELEASE) == null)
+			request.setAttribute(KEY_RELEASE, new AtomicReference<Runnable>());
+		return true;
+	}
+	
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex)
+			throws Exception {
+		releaseOutputs(request);
+	}
+	
+	/**
+	 * Executes the handler of the current request, holding the outputs of the commands it executes until the request
+	 * completes. Requests not intercepted, e.g. handlers invoked directly, release the outputs once the handler returns.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Object holdOutputs(Supplier<Object> handler) {
+		final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+		final AtomicReference<Runnable> release = requestAttributes == null ? null
+				: (AtomicReference<Runnable>)requestAttributes.getAttribute(KEY_RELEASE, RequestAttributes.SCOPE_REQUEST);
+		if(release == null)
+			return handler.get();
+		
+		final ExecutionScope scope = ExecutionScope.current();
+		scope.startHoldingOutputs();
+		try {
+			return handler.get();
+		} finally {
+			release.set(scope.stopHoldingOutputs());
+		}
+	}
+	
+	/**
+	 * Releases the outputs held for the request once it completes.
+	 */
+	public static void releaseOutputs(HttpServletRequest request) {
+		if(request != null)
+			release(request.getAttribute(KEY_RELEASE));
+	}
+	
+	/**
+	 * Releases the outputs held for the request of the given attributes, e.g. detached from the request when its
+	 * asynchronous result is discarded as it did not complete in time.
+	 */
+	public static void releaseOutputs(RequestAttributes requestAttributes) {
+		if(requestAttributes != null)
+			release(requestAttributes.getAttribute(KEY_RELEASE, RequestAttributes.SCOPE_REQUEST));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static void release(Object holder) {
+		Runnable release = holder == null ? null : ((AtomicReference<Runnable>)holder).getAndSet(null);
+		if(release != null)
+			release.run();
+	}
+}
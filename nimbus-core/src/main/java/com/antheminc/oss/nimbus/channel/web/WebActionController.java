@@ -15,13 +15,18 @@
  */
 package com.antheminc.oss.nimbus.channel.web;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
@@ -31,6 +36,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.antheminc.oss.nimbus.InvalidArgumentException;
 import com.antheminc.oss.nimbus.domain.cmd.Action;
 import com.antheminc.oss.nimbus.domain.cmd.Command;
 import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
@@ -107,6 +113,11 @@ public class WebActionController {
 	
 	@Autowired WebCommandBuilder builder;
 	
+	@Autowired(required=false) AsyncWebCommandExecutor asyncExecutor;
+	
+	@Value("${nimbus.web.batch.maxCommands:50}")
+	private int maxBatchCommands;
+	
 	@RequestMapping(value=URI_PATTERN_P+"/clear", produces="application/json", method=RequestMethod.GET)
 	public void clear() {
 		ctxLoader.clear();
@@ -151,10 +162,66 @@ public class WebActionController {
 	
 	@RequestMapping(value=URI_PATTERN_P+"/event/notify", produces="application/json", method=RequestMethod.POST)
 	public Object handleEventNotify(HttpServletRequest req, @RequestBody ModelEvent<String> event) {
-		Object obj = dispatcher.handle(req, event);
-		filterInputParamFromOutput(obj);
-		Holder<Object> output = new Holder<>(obj);
-		return output;
+		Command cmd = builder.build(req, event);
+		return handleAsyncIfEnabled(() -> {
+			Object obj = dispatcher.handle(cmd, event.getPayload());
+			filterInputParamFromOutput(obj);
+			Holder<Object> output = new Holder<>(obj);
+			return output;
+		});
+	}
+	
+	/**
+	 * Executes the given commands in order and returns their outputs as one, in order. Each distinct param is contained once, all other outputs are kept as returned.
+	 * 
+	 * Usage Example: POST /client/org/p/batch with body [{"uri":"/client/org/app/p/domain:1/_get"}, {"uri":"/client/org/app/p/domain:1/param/_update", "payload":"value"}]
+	 * 
+	 * @param req
+	 * @param batch
+	 * @return
+	 */
+	@RequestMapping(value=URI_PATTERN_P+"/batch", produces="application/json", method=RequestMethod.POST)
+	public Object handleBatch(HttpServletRequest req, @RequestBody List<BatchCommand> batch) {
+		if(CollectionUtils.isEmpty(batch) || batch.size() > maxBatchCommands)
+			throw new InvalidArgumentException("Batch request must contain between 1 and "+maxBatchCommands+" commands, found: "
+					+(batch == null ? 0 : batch.size()));
+		
+		String batchUri = req.getRequestURI();
+		List<Command> cmds = dispatcher.build(req, batch);
+		return handleAsyncIfEnabled(() -> {
+			List<MultiOutput> outputs = dispatcher.handle(cmds, batch);
+			outputs.forEach(this::filterInputParamFromOutput);
+			
+			Holder<Object> output = new Holder<>(mergeOutputs(batchUri, outputs));
+			return output;
+		});
+	}
+	
+	private MultiOutput mergeOutputs(String batchUri, List<MultiOutput> outputs) {
+		List<Output<?>> mergedOutputs = new ArrayList<>();
+		// params are told apart by instance, as their paths do not carry the refId of their root domain
+		Map<Param<?>, Integer> paramPositions = new IdentityHashMap<>();
+		for(MultiOutput mOut : outputs) {
+			if(CollectionUtils.isEmpty(mOut.getOutputs()))
+				continue;
+			
+			for(Output<?> o : mOut.getOutputs()) {
+				// latest output of a param wins, as its state is serialized once the whole batch executed
+				if(o.getValue() instanceof Param) {
+					Integer position = paramPositions.putIfAbsent(Param.class.cast(o.getValue()), mergedOutputs.size());
+					if(position != null) {
+						mergedOutputs.set(position, o);
+						continue;
+					}
+				}
+				mergedOutputs.add(o);
+			}
+		}
+		
+		MultiOutput first = outputs.get(0);
+		MultiOutput merged = new MultiOutput(batchUri, first.getContext(), first.getAction(), first.getBehaviors());
+		mergedOutputs.forEach(merged.template()::add);
+		return merged;
 	}
 	
 	private void filterInputParamFromOutput(Object obj) {
@@ -194,8 +261,26 @@ public class WebActionController {
 	}
 	
 	protected Object handleInternal(HttpServletRequest req, RequestMethod httpMethod, String v, String json) {
-		Object obj = dispatcher.handle(req, json);
-		Holder<Object> output = new Holder<>(obj);
-		return output;
+		Command cmd = builder.build(req);
+		return handleAsyncIfEnabled(() -> {
+			Object obj = dispatcher.handle(cmd, json);
+			Holder<Object> output = new Holder<>(obj);
+			return output;
+		});
+	}
+	
+	/**
+	 * With asynchronous handling enabled the response is completed from the {@link AsyncWebCommandExecutor}, otherwise the
+	 * command executes on the calling container thread. The handler is not to read the request, which the container may
+	 * recycle once an asynchronous result times out, so its commands are built from the request up front. Either way the
+	 * models executed are not modified by other requests until the response is written, see
+	 * {@link ExecutionOutputHoldInterceptor}.
+	 */
+	protected Object handleAsyncIfEnabled(Supplier<Object> handler) {
+		Supplier<Object> holdingHandler = () -> ExecutionOutputHoldInterceptor.holdOutputs(handler);
+		if(asyncExecutor == null)
+			return holdingHandler.get();
+		
+		return asyncExecutor.submit(holdingHandler);
 	}
 }
@@ -21,6 +21,7 @@ import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.antheminc.oss.nimbus.InvalidArgumentException;
 import com.antheminc.oss.nimbus.domain.cmd.Command;
 import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
 import com.antheminc.oss.nimbus.domain.defn.Constants;
@@ -61,6 +62,24 @@ public class WebCommandBuilder {
 		return cmd;
 	}
 	
+	/**
+	 * Entries of a batch are limited to the client, org and app of the batch request itself.
+	 */
+	public Command build(HttpServletRequest request, BatchCommand batchCommand) {
+		final String batchUri = constructRequestUri(request);
+		final String entryUri = batchCommand.getUri();
+		logit.trace(()->"Received batch entry of http request URI: "+batchUri+" with entry URI: "+entryUri);
+		
+		String platformSeparator = Constants.SEPARATOR_URI_PLATFORM.code+Constants.SEPARATOR_URI.code; //separator = /p/
+		String clientUri = StringUtils.substringBefore(batchUri, platformSeparator);
+		
+		if(!StringUtils.startsWith(entryUri, clientUri + platformSeparator))
+			throw new InvalidArgumentException("Batch entry URI: "+entryUri+" must start with: "+clientUri+platformSeparator
+					+" of batch request URI: "+batchUri);
+		
+		return CommandBuilder.withUri(entryUri).getCommand();
+	}
+	
 	public Command handleInternal(String uri, Map<String, String[]> rParams) {
 		Command cmd = CommandBuilder.withUri(uri).addParams(rParams).getCommand();
 		return cmd;
@@ -18,6 +18,9 @@
  */
 package com.antheminc.oss.nimbus.channel.web;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.servlet.http.HttpServletRequest;
 
 import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
@@ -57,6 +60,33 @@ public class WebCommandDispatcher {
 		return handle(cmd, json);
 	}
 
+	/**
+	 * Executes the entries of the batch in order, each as a command of its own, stopping at the first failure.
+	 */
+	public List<MultiOutput> handle(HttpServletRequest httpReq, List<BatchCommand> batch) {
+		return handle(build(httpReq, batch), batch);
+	}
+	
+	/**
+	 * Builds the commands of the entries of the batch, all of which are validated ahead of executing any.
+	 */
+	public List<Command> build(HttpServletRequest httpReq, List<BatchCommand> batch) {
+		List<Command> cmds = new ArrayList<>(batch.size());
+		for(BatchCommand batchCommand : batch)
+			cmds.add(getBuilder().build(httpReq, batchCommand));
+		return cmds;
+	}
+	
+	/**
+	 * Executes the given commands built from the entries of the batch in order, stopping at the first failure.
+	 */
+	public List<MultiOutput> handle(List<Command> cmds, List<BatchCommand> batch) {
+		List<MultiOutput> outputs = new ArrayList<>(cmds.size());
+		for(int i = 0; i < cmds.size(); i++)
+			outputs.add(handle(cmds.get(i), batch.get(i).getPayloadJson()));
+		return outputs;
+	}
+
 	public MultiOutput handle(Command cmd, String payload) {
 		return getGateway().execute(cmd, payload);
 	}
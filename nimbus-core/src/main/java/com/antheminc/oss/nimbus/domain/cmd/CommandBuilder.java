@@ -99,6 +99,20 @@ public class CommandBuilder {
 		return withUri(newAbsoluteUri);
 	}
 	
+	/**
+	 * <p>The given command against another root domain, keeping its refId, param path, action, event, behaviors and
+	 * request params.
+	 */
+	public static CommandBuilder withRootDomainAlias(Command src, String replaceDomainRootAlias) {
+		Command tmpCmd = new Command(src);
+		tmpCmd.getRootDomainElement().setAlias(replaceDomainRootAlias);
+		tmpCmd.setRequestParams(src.getRequestParams());
+		
+		CommandBuilder cb = withUri(tmpCmd.toUri());
+		cb.getCommand().setClientUserId(src.getClientUserId());
+		return cb;
+	}
+	
 	public CommandBuilder stripRequestParams() {
 		cmd.setRequestParams(null);
 		return this;
@@ -154,12 +168,35 @@ public class CommandBuilder {
 		return this;
 	} 
 	
+	/**
+	 * Reuses the {@link CommandTemplate} of the shape of the given uri, parsing the uri only when the template cannot be
+	 * applied
+	 * 
+	 * @param uri
+	 * @return
+	 */
+	protected CommandBuilder handleOnlyUri(String uri) {
+		CommandTemplate.Shape shape = CommandTemplate.shapeOf(uri);
+		CommandTemplate template = CommandTemplate.find(shape, CommandBuilder::parseOnlyUri);
+		
+		if(template == null || !template.applyTo(cmd, shape))
+			handleOnlyUriInternal(uri);
+		
+		return this;
+	}
+	
+	private static Command parseOnlyUri(String uri) {
+		Command parsed = new Command(uri);
+		new CommandBuilder(parsed).handleOnlyUriInternal(uri);
+		return parsed;
+	}
+	
     /**
      * 
      * @param uri
      * @return
      */
-	protected CommandBuilder handleOnlyUri(String uri) {
+	protected CommandBuilder handleOnlyUriInternal(String uri) {
 		String uriSplit[] = StringUtils.split(uri, Constants.SEPARATOR_URI.code);
 		if(ArrayUtils.isEmpty(uriSplit)) return this;
 		
@@ -234,9 +271,15 @@ public class CommandBuilder {
 		String alias = StringUtils.substring(cmdElemVal, 0, i);
 		String refIdVal = StringUtils.substring(cmdElemVal, i+1);
 		
+		return cb.apply(alias, buildRefId(alias, refIdVal));
+	}
+	
+	static RefId<?> buildRefId(String alias, String refIdVal) {
 		// refId with one value {alias}:{id}
 		if(!StringUtils.contains(refIdVal, "="))
-			return cb.apply(alias, RefId.with(refIdVal));
+			return RefId.with(refIdVal);
+		
+		final String cmdElemVal = alias + Constants.SEPARATOR_URI_VALUE.code + refIdVal;
 		
 		// refId with multiple values {alias}:{k1=v1}{&k2=v2}
 		String[] keyValuePairs = StringUtils.split(refIdVal, "&");
@@ -263,7 +306,7 @@ public class CommandBuilder {
 				});
 		
 		Map<String, String> refMap = mvMap.toSingleValueMap();
-		return cb.apply(alias, RefId.with(refMap));
+		return RefId.with(refMap);
 	}
 	
 	/**
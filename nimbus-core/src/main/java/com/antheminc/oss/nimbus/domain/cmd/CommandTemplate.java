@@ -0,0 +1,234 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.antheminc.oss.nimbus.domain.cmd.CommandElement.Type;
+import com.antheminc.oss.nimbus.domain.defn.Constants;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <p>Immutable result of parsing the path of a command uri (the part preceding any request params), shared by all uris of
+ * the same shape. The shape of a uri is its path with the refId of every element, and every numeric segment such as the
+ * elemId of a collection element, replaced by a slot. So e.g. {@code /client/org/app/p/domain:1/list/0/_get} and
+ * {@code /client/org/app/p/domain:2/list/12/_get} share one template.
+ *
+ * <p>Applying a template to a {@link Command} only creates its element chain and parses the refIds of the uri, instead of
+ * splitting and classifying every segment again.
+ */
+@Getter(value=AccessLevel.PRIVATE)
+final class CommandTemplate {
+
+	/* upper bound on distinct shapes held, the least recently used shape is evicted beyond it */
+	private static final int MAX_TEMPLATES = 10_000;
+
+	private static final String REF_ID_SLOT = "#";
+
+	private static final String ALIAS_SLOT = "{#}";
+
+	private static final Map<String, CommandTemplate> templates = Collections.synchronizedMap(
+			new LinkedHashMap<String, CommandTemplate>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, CommandTemplate> eldest) {
+					return size() > MAX_TEMPLATES;
+				}
+			});
+
+	@Getter @RequiredArgsConstructor
+	static class Shape {
+
+		private final String key;
+
+		private final List<String> aliases;
+
+		private final List<String> refIds;
+	}
+
+	@Getter(value=AccessLevel.PRIVATE) @RequiredArgsConstructor
+	private static class ElementSpec {
+
+		private final int seqNum;
+
+		private final Type type;
+
+		private final String alias;
+
+		private final boolean refIdSlot;
+
+		boolean isAliasSlot() {
+			return ALIAS_SLOT.equals(getAlias());
+		}
+	}
+
+	private final String event;
+
+	private final Action action;
+
+	private final List<ElementSpec> elements;
+
+	private final int aliasSlots;
+
+	private final int refIdSlots;
+
+	private CommandTemplate(Command parsed) {
+		this.event = parsed.getEvent();
+		this.action = parsed.getAction();
+
+		List<ElementSpec> specs = new ArrayList<>();
+		parsed.traverseElements(parsed.getRoot(), e -> specs.add(new ElementSpec(((CommandElementLinked)e).getSeqNum(),
+				e.getType(), e.getAlias(), e.getRefId() != null)));
+
+		this.elements = Collections.unmodifiableList(specs);
+		this.aliasSlots = (int)specs.stream().filter(ElementSpec::isAliasSlot).count();
+		this.refIdSlots = (int)specs.stream().filter(ElementSpec::isRefIdSlot).count();
+	}
+
+	/**
+	 * @param parser parses a uri path into the given command as {@link CommandBuilder} does
+	 * @return the template of the given shape, or {@code null} if its parse fails
+	 */
+	static CommandTemplate find(Shape shape, Function<String, Command> parser) {
+		CommandTemplate template = templates.get(shape.getKey());
+		if(template != null)
+			return template;
+
+		try {
+			template = new CommandTemplate(parser.apply(shape.getKey()));
+		} catch (RuntimeException ex) {
+			// let the parse of the actual uri report the failure
+			return null;
+		}
+
+		templates.putIfAbsent(shape.getKey(), template);
+		return template;
+	}
+
+	/**
+	 * <p>Splits the given uri path into its shape, numeric aliases and refIds in a single pass, segmenting it the same way
+	 * as {@link CommandBuilder}. The leading event segment, if any, is part of the shape as is.
+	 */
+	static Shape shapeOf(String uri) {
+		int len = StringUtils.length(uri);
+		StringBuilder key = new StringBuilder(len);
+		List<String> aliases = null;
+		List<String> refIds = null;
+
+		int segment = 0;
+		int i = 0;
+		while(i < len) {
+			if(uri.charAt(i) == Constants.SEPARATOR_URI.code.charAt(0)) {
+				i++;
+				continue;
+			}
+
+			int end = uri.indexOf(Constants.SEPARATOR_URI.code.charAt(0), i);
+			if(end == -1)
+				end = len;
+
+			boolean event = segment == 0 && uri.startsWith(Constants.PREFIX_EVENT_URI.code, i);
+			int refIdStart = event ? -1 : uri.indexOf(Constants.SEPARATOR_URI_VALUE.code.charAt(0), i);
+
+			int aliasEnd = refIdStart != -1 && refIdStart < end ? refIdStart : end;
+
+			key.append(Constants.SEPARATOR_URI.code);
+			if(!event && isNumeric(uri, i, aliasEnd)) {
+				key.append(ALIAS_SLOT);
+
+				if(aliases == null)
+					aliases = new ArrayList<>();
+				aliases.add(uri.substring(i, aliasEnd));
+			} else {
+				key.append(uri, i, aliasEnd);
+			}
+
+			if(aliasEnd < end) {
+				key.append(Constants.SEPARATOR_URI_VALUE.code).append(REF_ID_SLOT);
+
+				if(refIds == null)
+					refIds = new ArrayList<>();
+				refIds.add(uri.substring(refIdStart + 1, end));
+			}
+
+			segment++;
+			i = end;
+		}
+
+		return new Shape(key.toString(), aliases == null ? Collections.emptyList() : aliases,
+				refIds == null ? Collections.emptyList() : refIds);
+	}
+
+	private static boolean isNumeric(String uri, int start, int end) {
+		if(start == end)
+			return false;
+
+		for(int i = start; i < end; i++) {
+			if(!Character.isDigit(uri.charAt(i)))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return {@code false} if the aliases and refIds of the shape do not fit this template, leaving the command untouched
+	 */
+	boolean applyTo(Command cmd, Shape shape) {
+		List<String> aliases = shape.getAliases();
+		List<String> refIds = shape.getRefIds();
+		if(aliases.size() != getAliasSlots() || refIds.size() != getRefIdSlots())
+			return false;
+
+		CommandElementLinked root = null;
+		CommandElementLinked prev = null;
+		int aliasSlot = 0;
+		int refIdSlot = 0;
+		for(ElementSpec spec : getElements()) {
+			String alias = spec.isAliasSlot() ? aliases.get(aliasSlot++) : spec.getAlias();
+			RefId<?> refId = spec.isRefIdSlot() ? CommandBuilder.buildRefId(alias, refIds.get(refIdSlot++)) : null;
+
+			CommandElementLinked elem = new CommandElementLinked(spec.getSeqNum(), spec.getType(), alias, refId);
+			if(prev == null)
+				root = elem;
+			else
+				prev.setNext(elem);
+
+			prev = elem;
+		}
+
+		if(root != null)
+			cmd.setRoot(root);
+
+		if(getEvent() != null)
+			cmd.setEvent(getEvent());
+
+		if(getAction() != null)
+			cmd.setAction(getAction());
+
+		return true;
+	}
+}
@@ -24,4 +24,12 @@ import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
 public interface CommandPathVariableResolver {
 
 	public String resolve(Param<?> commandParam, String pathToResolve);
+	
+	/**
+	 * @param path the path of a single placeholder, without its prefix and suffix
+	 * @return the value of the placeholder
+	 */
+	default String resolvePlaceholder(Param<?> commandParam, String path) {
+		return resolve(commandParam, ParamPathExpressionParser.KEY_PREFIX + path + ParamPathExpressionParser.KEY_SUFFIX);
+	}
 }
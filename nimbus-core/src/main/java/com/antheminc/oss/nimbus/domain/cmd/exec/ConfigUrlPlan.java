@@ -0,0 +1,156 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.antheminc.oss.nimbus.domain.defn.Constants;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <p>Pre-tokenized form of a {@link com.antheminc.oss.nimbus.domain.defn.Execution.Config#url() config url}, split into
+ * literal segments and typed placeholders once when the config is built, so that executing the config only substitutes
+ * the placeholders instead of scanning and resolving the url template again.
+ *
+ * <p>Placeholders referring to search markers of the executing command are resolved by the
+ * {@link ExecutionContextPathVariableResolver}, all others by the {@link CommandPathVariableResolver}, in the same manner
+ * as resolving the complete url with either: values of search markers are resolved by the
+ * {@link CommandPathVariableResolver} in turn, and the url is made relative to the executing command by its declared
+ * form rather than its property resolved one.
+ */
+@Getter
+public class ConfigUrlPlan {
+
+	private static final String NULL_STRING = "null";
+	private static final Pattern NULL_STRING_PATTERN = Pattern.compile("\\s*\"null\"\\s*");
+
+	public enum PlaceholderType {
+		EXECUTION_CONTEXT,
+		PARAM;
+	}
+
+	@Getter @RequiredArgsConstructor
+	public static class Segment {
+
+		private final String literal;
+
+		private final PlaceholderType placeholderType;
+
+		/* placeholder including its prefix and suffix */
+		private final String key;
+
+		public boolean isPlaceholder() {
+			return getPlaceholderType() != null;
+		}
+	}
+
+	/* url as declared */
+	private final String url;
+
+	/* url with property place-holders resolved */
+	private final String template;
+
+	private final List<Segment> segments;
+
+	private final boolean parameterized;
+
+	private ConfigUrlPlan(String url, String template, List<Segment> segments) {
+		this.url = url;
+		this.template = template;
+		this.segments = Collections.unmodifiableList(segments);
+		this.parameterized = segments.stream().anyMatch(Segment::isPlaceholder);
+	}
+
+	/**
+	 * @param url config url as declared
+	 * @param template config url with any property place-holders already resolved
+	 */
+	public static ConfigUrlPlan compile(String url, String template) {
+		List<Segment> segments = new ArrayList<>();
+
+		int pos = 0;
+		Map<Integer, String> entries = ParamPathExpressionParser.parse(template);
+		for(Map.Entry<Integer, String> entry : entries.entrySet()) {
+			if(entry.getKey() > pos)
+				segments.add(new Segment(template.substring(pos, entry.getKey()), null, null));
+
+			String key = entry.getValue();
+			segments.add(new Segment(null, findPlaceholderType(key), key));
+			pos = entry.getKey() + key.length();
+		}
+
+		if(pos < StringUtils.length(template))
+			segments.add(new Segment(template.substring(pos), null, null));
+
+		return new ConfigUrlPlan(url, template, segments);
+	}
+
+	private static PlaceholderType findPlaceholderType(String key) {
+		String entry = ParamPathExpressionParser.stripPrefixSuffix(key);
+
+		return StringUtils.equalsAnyIgnoreCase(entry, Constants.SERVER_PAGE_EXP_MARKER.code,
+					Constants.SERVER_AUTOSEARCH_MARKER.code, Constants.SERVER_FILTER_EXPR_MARKER.code)
+				? PlaceholderType.EXECUTION_CONTEXT
+				: PlaceholderType.PARAM;
+	}
+
+	/**
+	 * @return the url relative to the command of the given execution context, with all placeholders resolved
+	 */
+	public String resolve(ExecutionContext eCtx, Param<?> cmdParam, ExecutionContextPathVariableResolver eCtxResolver,
+			CommandPathVariableResolver cmdResolver) {
+		// the declared url decides the prefix, as property values may carry a platform marker of their own
+		String prefix = StringUtils.removeEnd(eCtx.getCommandMessage().getCommand().getRelativeUri(getUrl()), getUrl());
+		
+		if(!isParameterized())
+			return prefix + getTemplate();
+
+		StringBuilder out = new StringBuilder(prefix);
+		boolean paramResolved = false;
+		for(Segment segment : getSegments()) {
+			if(!segment.isPlaceholder()) {
+				out.append(segment.getLiteral());
+
+			} else if(segment.getPlaceholderType() == PlaceholderType.EXECUTION_CONTEXT) {
+				String val = eCtxResolver.resolvePlaceholder(eCtx, cmdParam, segment.getKey());
+
+				if(StringUtils.isNotBlank(val)) {
+					// values, e.g. filter criteria, may carry placeholders of their own
+					paramResolved |= ParamPathExpressionParser.containsPrefixSuffix(val);
+					out.append(cmdResolver.resolve(cmdParam, val));
+				}
+				else if(StringUtils.endsWith(out, Constants.PARAM_ASSIGNMENT_MARKER.code))
+					out.append(NULL_STRING);
+
+			} else {
+				String val = cmdResolver.resolvePlaceholder(cmdParam, ParamPathExpressionParser.stripPrefixSuffix(segment.getKey()));
+				out.append(val != null ? val : segment.getKey());
+				paramResolved = true;
+			}
+		}
+		// replaces all json="null" (including leading/trailing spaces) to json=null
+		return paramResolved ? NULL_STRING_PATTERN.matcher(out).replaceAll(NULL_STRING) : out.toString();
+	}
+}
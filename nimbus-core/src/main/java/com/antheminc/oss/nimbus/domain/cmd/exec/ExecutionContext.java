@@ -43,6 +43,14 @@ public class ExecutionContext implements Serializable {
 	
 	private QuadModel<?, ?> quadModel;
 	
+	/* compact form held in place of the quad model while this session cached context is passivated */
+	private volatile PassivatedQuadModel passivatedQuadModel;
+	
+	private transient volatile long lastAccessedAt = System.currentTimeMillis();
+	
+	/* version of the state of this session cached context last written to or restored from the execution context store */
+	private volatile long storedVersion;
+	
 	public ExecutionContext(Command command) {
 		this(new CommandMessage(command, null));
 	}
@@ -64,6 +72,14 @@ public class ExecutionContext implements Serializable {
 		return StringUtils.equals(getId(), cmd.getRootDomainUri());
 	}
 	
+	public boolean isPassivated() {
+		return getPassivatedQuadModel() != null;
+	}
+	
+	public void touch() {
+		setLastAccessedAt(System.currentTimeMillis());
+	}
+	
 	public ExecutionModel<?> getRootModel(){
 		return quadModel.getRoot();
 	}
@@ -64,5 +64,16 @@ public interface ExecutionContextLoader {
 	
 	public void unload(ExecutionContext eCtx);
 	
+	/**
+	 * <p>Notified once a root command modifying the model of the given context has executed successfully, while the
+	 * command still holds the execution of the model.
+	 * 
+	 * @return work to run once the command has released the execution of the model, e.g. writing state captured while
+	 * holding it to a store, or {@code null} if none
+	 */
+	default public Runnable onRootCommandExecuted(ExecutionContext eCtx) {
+		return null;
+	}
+	
 	public void clear();
 }
@@ -9,4 +9,12 @@ import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
 public interface ExecutionContextPathVariableResolver {
 
 	public String resolve(ExecutionContext eCtx, Param<?> commandParam, String pathToResolve);
+	
+	/**
+	 * @param key a single placeholder, including its prefix and suffix
+	 * @return the value of the placeholder, or blank if it has none
+	 */
+	default String resolvePlaceholder(ExecutionContext eCtx, Param<?> commandParam, String key) {
+		return resolve(eCtx, commandParam, key);
+	}
 }
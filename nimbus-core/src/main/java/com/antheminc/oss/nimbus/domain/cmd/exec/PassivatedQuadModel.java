@@ -0,0 +1,41 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec;
+
+import java.io.Serializable;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * <p>Compact form held by a session cached {@link ExecutionContext} in place of its quad model while the context is
+ * passivated: the compressed, self-describing snapshot of the model written by its codec, either in-heap or in a file
+ * of the local store.
+ */
+@Getter @RequiredArgsConstructor @ToString(exclude="compressed")
+public class PassivatedQuadModel implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/* null if stored in file */
+	private final byte[] compressed;
+	
+	/* null if held in-heap */
+	private final String file;
+	
+	private final long passivatedAt;
+}
@@ -23,22 +23,25 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.annotation.PostConstruct;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.antheminc.oss.nimbus.FrameworkRuntimeException;
 import com.antheminc.oss.nimbus.InvalidArgumentException;
 import com.antheminc.oss.nimbus.InvalidConfigException;
-import com.antheminc.oss.nimbus.channel.web.WebSessionIdLoggerInterceptor;
+import com.antheminc.oss.nimbus.InvalidOperationAttemptedException;
 import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
 import com.antheminc.oss.nimbus.domain.cmd.Action;
 import com.antheminc.oss.nimbus.domain.cmd.Behavior;
@@ -53,6 +56,7 @@ import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.Output;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecutor;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecutorGateway;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandPathVariableResolver;
+import com.antheminc.oss.nimbus.domain.cmd.exec.ConfigUrlPlan;
 import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContext;
 import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContextLoader;
 import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContextPathVariableResolver;
@@ -66,6 +70,7 @@ import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
 import com.antheminc.oss.nimbus.domain.model.config.builder.ExecutionConfigProvider;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.ExecutionModel;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.ExecutionRuntime;
 import com.antheminc.oss.nimbus.domain.model.state.ExecutionTxnContext;
 import com.antheminc.oss.nimbus.domain.model.state.InvalidStateException;
 import com.antheminc.oss.nimbus.domain.model.state.ParamEvent;
@@ -73,6 +78,7 @@ import com.antheminc.oss.nimbus.domain.model.state.StateEventListener;
 import com.antheminc.oss.nimbus.domain.model.state.extension.ChangeLogCommandEventHandler;
 import com.antheminc.oss.nimbus.domain.model.state.internal.BaseStateEventListener;
 import com.antheminc.oss.nimbus.domain.model.state.internal.DefaultStateEventDelegator;
+import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionScope;
 import com.antheminc.oss.nimbus.support.EnableAPIMetricCollection;
 import com.antheminc.oss.nimbus.support.EnableAPIMetricCollection.LogLevel;
 import com.antheminc.oss.nimbus.support.InjectSelf;
@@ -107,12 +113,24 @@ public class DefaultCommandExecutorGateway extends BaseCommandExecutorStrategies
 	
 	private ExpressionEvaluator expressionEvaluator;
 	
-	private static final ThreadLocal<String> cmdScopeInThread = new ThreadLocal<>();
+	private ParallelConfigExecutor parallelConfigExecutor;
+	
+	private final long executionLockTimeoutMillis;
+	
+	public static final long DEFAULT_EXECUTION_LOCK_TIMEOUT_MILLIS = 30000;
 	
 	public DefaultCommandExecutorGateway(BeanResolverStrategy beanResolver) {
+		this(beanResolver, DEFAULT_EXECUTION_LOCK_TIMEOUT_MILLIS);
+	}
+	
+	/**
+	 * @param executionLockTimeoutMillis maximum wait of a root command for root commands of other threads executing
+	 * against the same model, e.g. concurrent requests of one session
+	 */
+	public DefaultCommandExecutorGateway(BeanResolverStrategy beanResolver, long executionLockTimeoutMillis) {
 		super(beanResolver);
 		this.executors = new HashMap<>();
-		
+		this.executionLockTimeoutMillis = executionLockTimeoutMillis;
 	}
 	
 	@PostConstruct
@@ -124,6 +142,7 @@ public class DefaultCommandExecutorGateway extends BaseCommandExecutorStrategies
 		this.expressionEvaluator = getBeanResolver().get(ExpressionEvaluator.class);
 		// optional
 		this.cmdHandler = getBeanResolver().find(ChangeLogCommandEventHandler.class);
+		this.parallelConfigExecutor = getBeanResolver().find(ParallelConfigExecutor.class);
 	}
 
 	
@@ -133,25 +152,47 @@ public class DefaultCommandExecutorGateway extends BaseCommandExecutorStrategies
 	}
 	
 	@Override
-	public MultiOutput execute(CommandMessage cmdMsg) {
+	public MultiOutput execute(CommandMessage inputCmdMsg) {
 		// validate
-		validateCommand(cmdMsg);
+		validateCommand(inputCmdMsg);
+		
+		// params of a shared domain which its overlay declares as well are served by the overlay in the user session
+		final CommandMessage cmdMsg = resolveOverlayIfApplicable(inputCmdMsg);
 		
 		// load execution context 
 		ExecutionContext eCtx = loadExecutionContext(cmdMsg);
 		
+		final ExecutionScope scope = ExecutionScope.current();
 		final String lockId;
+		final boolean readOnly;
 		
-		if(cmdScopeInThread.get()==null) {
+		if(!scope.isRootCommandInProgress()) {
+			if(scope.getAwaitingModelIds().contains(eCtx.getId()))
+				throw new InvalidOperationAttemptedException("Config group member must not execute against a model admitted by the command awaiting it, "
+						+ "declare the config calling back into the model outside of the group, but found: " + cmdMsg.getCommand().getAbsoluteUri());
+			
+			readOnly = acquireExecution(eCtx);
+			
+			if(!readOnly && SharedQuadModelCache.isEnabled(getDomainConfigBuilder().getRootDomainOrThrowEx(cmdMsg.getCommand().getRootDomainAlias()))) {
+				eCtx.getRootModel().getExecutionRuntime().releaseExecution(false);
+				throw new InvalidOperationAttemptedException("Model shared across sessions only admits commands reading it, "
+						+ "declare the params written per user in its overlay domain, but found: " + cmdMsg.getCommand().getAbsoluteUri());
+			}
 			lockId = UUID.randomUUID().toString();
-			cmdScopeInThread.set(lockId);
-			eCtx.getRootModel().getExecutionRuntime().onStartRootCommandExecution(cmdMsg.getCommand());
+			scope.setRootCommandId(lockId);
+			scope.setRootCommand(cmdMsg.getCommand());
+			scope.getAdmittedModelIds().add(eCtx.getId());
 			
 		} else {
+			readOnly = false;
 			lockId = null;
 		}
 		
+		boolean executed = false;
 		try {
+			if(lockId!=null)
+				eCtx.getRootModel().getExecutionRuntime().onStartRootCommandExecution(cmdMsg.getCommand());
+			
 			MultiOutput mOut = executeInternal(eCtx, cmdMsg);
 			
 			if(lockId!=null) {
@@ -159,19 +200,82 @@ public class DefaultCommandExecutorGateway extends BaseCommandExecutorStrategies
 				if (null != getCmdHandler()) {
 					getCmdHandler().handleOnRootStopEvents(cmdMsg.getCommand(), mOut);
 				}
-
+				
+				executed = true;
 				return createFlattenedOutput(mOut);
 			}
 			
 			return mOut;
 		} finally {
 			if(lockId!=null) {
-				eCtx.getRootModel().getExecutionRuntime().onStopRootCommandExecution(cmdMsg.getCommand());
-				cmdScopeInThread.set(null);
+				Runnable onReleased = null;
+				try {
+					eCtx.getRootModel().getExecutionRuntime().onStopRootCommandExecution(cmdMsg.getCommand());
+					
+					if(executed && !readOnly)
+						onReleased = getLoader().onRootCommandExecuted(eCtx);
+				} finally {
+					scope.setRootCommandId(null);
+					scope.setRootCommand(null);
+					scope.getAdmittedModelIds().remove(eCtx.getId());
+					
+					// the output refers to the params of the model, which are not to be modified until it is serialized
+					scope.holdOutput(eCtx.getRootModel().getExecutionRuntime());
+					eCtx.getRootModel().getExecutionRuntime().releaseExecution(readOnly);
+				}
+				
+				if(onReleased != null)
+					onReleased.run();
 			}
 		}
 	}
 	
+	/**
+	 * Admits the root command against the runtime of the model it executes on, serializing it with root commands of
+	 * other threads against the same model. A _get executing no configs only reads the model and is admitted concurrently
+	 * with other such commands.
+	 * 
+	 * @return whether admitted as read-only
+	 */
+	private boolean acquireExecution(ExecutionContext eCtx) {
+		final ExecutionRuntime runtime = eCtx.getRootModel().getExecutionRuntime();
+		
+		if(eCtx.getCommandMessage().getCommand().getAction() == Action._get) {
+			acquireExecution(runtime, true, eCtx);
+			
+			boolean readOnly = false;
+			try {
+				Param<?> cmdParam = findParamByCommand(eCtx);
+				ExecutionConfig executionConfig = cmdParam != null ? cmdParam.getConfig().getExecutionConfig() : null;
+				readOnly = executionConfig == null || CollectionUtils.isEmpty(executionConfig.get());
+			} finally {
+				if(!readOnly)
+					runtime.releaseExecution(true);
+			}
+			
+			if(readOnly)
+				return true;
+		}
+		
+		acquireExecution(runtime, false, eCtx);
+		return false;
+	}
+	
+	private void acquireExecution(ExecutionRuntime runtime, boolean readOnly, ExecutionContext eCtx) {
+		if(!readOnly)
+			ExecutionScope.current().releaseOutput(runtime);
+		
+		try {
+			if(!runtime.tryAcquireExecution(readOnly, getExecutionLockTimeoutMillis()))
+				throw new FrameworkRuntimeException("Commands in progress against the model did not complete within "
+						+ getExecutionLockTimeoutMillis() + " ms, for execution context: "+eCtx);
+			
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new FrameworkRuntimeException("Interrupted while awaiting commands in progress against the model, for execution context: "+eCtx, ex);
+		}
+	}
+	
 	private MultiOutput createFlattenedOutput(MultiOutput in) {
 		Map<Object, Output<?>> uniqueValues = new LinkedHashMap<>();
 		
@@ -241,50 +345,217 @@ public class DefaultCommandExecutorGateway extends BaseCommandExecutorStrategies
 		cmdMsg.getCommand().validate();
 	}
 	
-	@SuppressWarnings("unchecked")
+	/**
+	 * <p>Answers the given command against the overlay domain of the same refId, if the command is against a param of a
+	 * root domain shared across sessions whose overlay domain declares the param's path as well.
+	 * 
+	 * @see com.antheminc.oss.nimbus.domain.defn.Repo#overlay()
+	 */
+	protected CommandMessage resolveOverlayIfApplicable(CommandMessage cmdMsg) {
+		Command cmd = cmdMsg.getCommand();
+		if(cmd.isRootDomainOnly())
+			return cmdMsg;
+		
+		ModelConfig<?> rootDomainConfig = getDomainConfigBuilder().getRootDomain(cmd.getRootDomainAlias());
+		if(!SharedQuadModelCache.isEnabled(rootDomainConfig) || StringUtils.isEmpty(rootDomainConfig.getRepo().overlay()))
+			return cmdMsg;
+		
+		String overlay = rootDomainConfig.getRepo().overlay();
+		String paramPath = StringUtils.removeStart(cmd.getAbsoluteDomainAlias(), Constants.SEPARATOR_URI.code + cmd.getRootDomainAlias());
+		if(getDomainConfigBuilder().getRootDomainOrThrowEx(overlay).findParamByPath(paramPath) == null)
+			return cmdMsg;
+		
+		Command overlayCmd = CommandBuilder.withRootDomainAlias(cmd, overlay).getCommand();
+		return new CommandMessage(overlayCmd, cmdMsg.getRawPayload());
+	}
+	
 	@Override
 	public List<MultiOutput> executeConfig(ExecutionContext eCtx, Param<?> cmdParam, List<Annotation> execConfigs) {
+		final List<MultiOutput> configExecOutputs = new ArrayList<>();
+		
+		int i = 0;
+		while(i < execConfigs.size()) {
+			// consecutive configs of the same group are executed together
+			String group = findMainConfig(execConfigs.get(i)).group();
+			int end = i + 1;
+			while(StringUtils.isNotBlank(group) && end < execConfigs.size() && StringUtils.equals(group, findMainConfig(execConfigs.get(end)).group()))
+				end++;
+			
+			if(end - i > 1)
+				executeConfigGroup(eCtx, cmdParam, execConfigs.subList(i, end), configExecOutputs);
+			else
+				executeConfig(eCtx, cmdParam, execConfigs.get(i), configExecOutputs);
+			
+			i = end;
+		}
+		return configExecOutputs;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private ExecutionConfigProvider<Annotation> findExecConfigProvider(Annotation ec) {
+		return getBeanResolver().get(ExecutionConfigProvider.class, ec.annotationType());
+	}
+	
+	private Config findMainConfig(Annotation ec) {
+		return findExecConfigProvider(ec).getMain(ec);
+	}
+	
+	private void executeConfig(ExecutionContext eCtx, Param<?> cmdParam, Annotation ec, List<MultiOutput> configExecOutputs) {
+		final ExecutionConfigProvider<Annotation> execConfigProvider = findExecConfigProvider(ec);
+		Config config = execConfigProvider.getMain(ec);
+		try {
+			boolean evalWhen = getExpressionEvaluator().getValue(config.when(), cmdParam, Boolean.class);
+			if(!evalWhen)
+				return;
+			
+			if(StringUtils.isNotBlank(config.col())) {
+				buildAndExecuteColExecConfig(eCtx, cmdParam, config);
+			}
+			else {
+				CommandMessage configCmdMsg = buildConfigCommandMessage(eCtx, cmdParam, config);
+				
+				// execute & add output to mOutput
+				MultiOutput configOutput = executeConfig(eCtx.getCommandMessage().getCommand(), configCmdMsg);
+				configExecOutputs.add(configOutput);
+			} 
+		} catch(Exception ex) {
+			Config exceptionConfig = execConfigProvider.getException(ec);
+			
+			if(exceptionConfig == null) // if exception config not configured, default to throw ex
+				throw ex; 
+			
+			logit.error(() -> "Failed to execute main config "+ config +" on param "+ cmdParam +" , executing the onException config", ex);
+			executeConfig(eCtx, cmdParam, Arrays.asList(exceptionConfig));
+		}
+	}
+	
+	private CommandMessage buildConfigCommandMessage(ExecutionContext eCtx, Param<?> cmdParam, Config config) {
 		final CommandMessage cmdMsg = eCtx.getCommandMessage();
-		boolean isPayloadUsed = false;
 		
-		final List<MultiOutput> configExecOutputs = new ArrayList<>();
-		execConfigs.stream().forEach(ec-> {
-			final ExecutionConfigProvider<Annotation> execConfigProvider = getBeanResolver().get(ExecutionConfigProvider.class, ec.annotationType());
-			Config config = execConfigProvider.getMain(ec);
-			try {
-				boolean evalWhen = getExpressionEvaluator().getValue(config.when(), cmdParam, Boolean.class);
-				if(!evalWhen)
-					return;
+		final String resolvedConfigUri;
+		ConfigUrlPlan urlPlan = findUrlPlan(cmdParam, config);
+		if(urlPlan != null) {
+			resolvedConfigUri = urlPlan.resolve(eCtx, cmdParam, getECtxPathVariableResolver(), getPathVariableResolver());
+			
+		} else {
+			String completeConfigUri = cmdMsg.getCommand().getRelativeUri(config.url());
+			String eCtxResolvedConfigUri = getECtxPathVariableResolver().resolve(eCtx, cmdParam, completeConfigUri);
+			resolvedConfigUri = getPathVariableResolver().resolve(cmdParam, eCtxResolvedConfigUri);
+		}
+			
+		Command configExecCmd = CommandBuilder.withUri(resolvedConfigUri).getCommand();
+		return new CommandMessage(configExecCmd, resolvePayload(cmdMsg, configExecCmd, false));
+	}
+	
+	private ConfigUrlPlan findUrlPlan(Param<?> cmdParam, Config config) {
+		ExecutionConfig executionConfig = cmdParam.getConfig().getExecutionConfig();
+		return executionConfig == null ? null : executionConfig.findUrlPlan(config);
+	}
+	
+	/**
+	 * Members of a config group are prepared in declared order, each once the inline members declared before it have
+	 * executed. Members executing against another model are executed concurrently as root commands of that model, others
+	 * are executed on the calling thread. Outputs are added in declared order.
+	 */
+	private void executeConfigGroup(ExecutionContext eCtx, Param<?> cmdParam, List<Annotation> group, List<MultiOutput> configExecOutputs) {
+		// concurrent members cannot take part in the transaction of the calling thread
+		if(getParallelConfigExecutor() == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+			group.forEach(ec -> executeConfig(eCtx, cmdParam, ec, configExecOutputs));
+			return;
+		}
+		
+		final Command inputCmd = eCtx.getCommandMessage().getCommand();
+		final ExecutionScope scope = ExecutionScope.current();
+		final Set<String> awaitingModelIds = new HashSet<>(scope.getAdmittedModelIds());
+		awaitingModelIds.addAll(scope.getAwaitingModelIds());
+		
+		final List<List<MultiOutput>> memberOutputs = new ArrayList<>();
+		final Map<Integer, Future<MultiOutput>> futures = new LinkedHashMap<>();
+		long timeoutMillis = 0;
+		
+		try {
+			for(int i = 0; i < group.size(); i++) {
+				Config config = findMainConfig(group.get(i));
+				timeoutMillis = Math.max(timeoutMillis, config.groupTimeoutMillis());
+				memberOutputs.add(new ArrayList<>());
 				
-				if(StringUtils.isNotBlank(config.col())) {
-					buildAndExecuteColExecConfig(eCtx, cmdParam, config);
+				Optional<Future<MultiOutput>> future = Optional.empty();
+				try {
+					if(StringUtils.isBlank(config.col()) && getExpressionEvaluator().getValue(config.when(), cmdParam, Boolean.class)) {
+						CommandMessage configCmdMsg = buildConfigCommandMessage(eCtx, cmdParam, config);
+						if(!isSameModel(inputCmd, configCmdMsg, awaitingModelIds))
+							future = getParallelConfigExecutor().submit(() -> executeGroupMember(awaitingModelIds, configCmdMsg));
+					}
+				} catch(RuntimeException ex) {
+					logit.warn(() -> "Failed to prepare config "+ config +" on param "+ cmdParam +" for parallel execution, executing in sequence", ex);
 				}
-				else {
-					String completeConfigUri = eCtx.getCommandMessage().getCommand().getRelativeUri(config.url());
-					String eCtxResolvedConfigUri = getECtxPathVariableResolver().resolve(eCtx, cmdParam, completeConfigUri);
-					String resolvedConfigUri = getPathVariableResolver().resolve(cmdParam, eCtxResolvedConfigUri);
-						
-					Command configExecCmd = CommandBuilder.withUri(resolvedConfigUri).getCommand();
-					CommandMessage configCmdMsg = new CommandMessage(configExecCmd, resolvePayload(cmdMsg, configExecCmd, isPayloadUsed));
-					
-					// execute & add output to mOutput
-					MultiOutput configOutput = executeConfig(eCtx.getCommandMessage().getCommand(), configCmdMsg);
-					configExecOutputs.add(configOutput);
-				} 
-			} catch(Exception ex) {
-				Config exceptionConfig = execConfigProvider.getException(ec);
-				
-				if(exceptionConfig == null) // if exception config not configured, default to throw ex
-					throw ex; 
 				
-				logit.error(() -> "Failed to execute main config "+ config +" on param "+ cmdParam +" , executing the onException config", ex);
-				executeConfig(eCtx, cmdParam, Arrays.asList(exceptionConfig));
+				if(future.isPresent())
+					futures.put(i, future.get());
+				else
+					executeConfig(eCtx, cmdParam, group.get(i), memberOutputs.get(i));
 			}
-		});	
-		return configExecOutputs;
+			
+			final long deadline = System.currentTimeMillis() + (timeoutMillis > 0 ? timeoutMillis : getParallelConfigExecutor().getDefaultTimeoutMillis());
+			for(Map.Entry<Integer, Future<MultiOutput>> entry : futures.entrySet()) {
+				Annotation ec = group.get(entry.getKey());
+				Config config = findMainConfig(ec);
+				try {
+					memberOutputs.get(entry.getKey()).add(awaitConfig(entry.getValue(), deadline, config, cmdParam));
+					
+				} catch(RuntimeException ex) {
+					Config exceptionConfig = findExecConfigProvider(ec).getException(ec);
+					
+					if(exceptionConfig == null)
+						throw ex;
+					
+					logit.error(() -> "Failed to execute main config "+ config +" on param "+ cmdParam +" , executing the onException config", ex);
+					executeConfig(eCtx, cmdParam, Arrays.asList(exceptionConfig));
+				}
+			}
+		} finally {
+			futures.values().forEach(f -> f.cancel(true));
+		}
+		
+		memberOutputs.forEach(configExecOutputs::addAll);
 	}
 	
-	private MultiOutput executeConfig(Command inputCmd, CommandMessage configCmdMsg) {
+	private MultiOutput executeGroupMember(Set<String> awaitingModelIds, CommandMessage configCmdMsg) {
+		final ExecutionScope scope = ExecutionScope.current();
+		final Set<String> previous = scope.getAwaitingModelIds();
+		scope.setAwaitingModelIds(awaitingModelIds);
+		try {
+			return getSelf().execute(configCmdMsg);
+		} finally {
+			scope.setAwaitingModelIds(previous);
+		}
+	}
+	
+	/**
+	 * A member executing against a model admitted by the calling thread, e.g. a model of an enclosing root command, would
+	 * wait for the calling thread which in turn awaits the member.
+	 */
+	private boolean isSameModel(Command inputCmd, CommandMessage configCmdMsg, Set<String> awaitingModelIds) {
+		return isSameDomain(inputCmd, configCmdMsg) || awaitingModelIds.contains(configCmdMsg.getCommand().getRootDomainUri());
+	}
+	
+	private MultiOutput awaitConfig(Future<MultiOutput> future, long deadline, Config config, Param<?> cmdParam) {
+		try {
+			return future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+			
+		} catch (ExecutionException ex) {
+			throw new FrameworkRuntimeException("Failed to execute config "+config.url()+" of group "+config.group()+" on param "+cmdParam, ex.getCause());
+			
+		} catch (TimeoutException ex) {
+			throw new FrameworkRuntimeException("Timed out awaiting config "+config.url()+" of group "+config.group()+" on param "+cmdParam, ex);
+			
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new FrameworkRuntimeException("Interrupted while awaiting config "+config.url()+" of group "+config.group()+" on param "+cmdParam, ex);
+		}
+	}
+	
+	private boolean isSameDomain(Command inputCmd, CommandMessage configCmdMsg) {
 		final String inputDomainRootAlias = inputCmd.buildAlias(Type.DomainAlias);
 		
 		String configDomainAlias = configCmdMsg.getCommand().getRootDomainAlias();
@@ -301,44 +572,15 @@ public class DefaultCommandExecutorGateway extends BaseCommandExecutorStrategies
 			
 			matched = StringUtils.equals(inputDomainRootAlias, configDomainRootAlias);
 		} 
-		
-		if(matched)
+		return matched;
+	}
+	
+	private MultiOutput executeConfig(Command inputCmd, CommandMessage configCmdMsg) {
+		if(isSameDomain(inputCmd, configCmdMsg))
 			return getSelf().execute(configCmdMsg);
 		
-		try {
-			Map<Object, Object> outerThreadResources = TransactionSynchronizationManager.getResourceMap();
-			boolean outerThreadTxnIsActive = TransactionSynchronizationManager.isActualTransactionActive();
-			List<TransactionSynchronization> outerThreadTxnSyncs = outerThreadTxnIsActive ? TransactionSynchronizationManager.getSynchronizations() : null;
-			
-			return Executors.newSingleThreadExecutor().submit(() -> {
-				try {
-					if(outerThreadResources!=null) {
-						outerThreadResources.keySet().stream()
-							.forEach(k->TransactionSynchronizationManager.bindResource(k, outerThreadResources.get(k)));
-					}
-
-					if(outerThreadTxnIsActive)
-						TransactionSynchronizationManager.setActualTransactionActive(outerThreadTxnIsActive);
-					
-					if(outerThreadTxnSyncs!=null) {
-						if(!TransactionSynchronizationManager.isSynchronizationActive())
-							TransactionSynchronizationManager.initSynchronization();
-						
-						outerThreadTxnSyncs.stream()
-							.forEach(t->TransactionSynchronizationManager.registerSynchronization(t));
-					}
-
-					
-					WebSessionIdLoggerInterceptor.addSessionIdIfAny();
-					return getSelf().execute(configCmdMsg);
-				} finally {
-					TransactionSynchronizationManager.clear();
-					WebSessionIdLoggerInterceptor.clearSessionIdIfAny();
-				}
-			}).get();
-		} catch (Exception ex) {
-			throw new FrameworkRuntimeException("Failed to execute config command in async-wait thread for configCmdMsg: "+configCmdMsg+" originating from inputCmd: "+inputCmd, ex);
-		}
+		// executes as root command of the other domain, within the spring txn and request of the calling thread
+		return ExecutionScope.current().detach().execute(() -> getSelf().execute(configCmdMsg));
 	}	
 	
 	private void buildAndExecuteColExecConfig(ExecutionContext eCtx, Param<?> cmdParam, Config ec) {
@@ -94,6 +94,11 @@ public class DefaultCommandPathVariableResolver implements CommandPathVariableRe
 	}
 	
 	
+	@Override
+	public String resolvePlaceholder(Param<?> param, String path) {
+		return map(param, path);
+	}
+	
 	protected String resolveInternal(Param<?> param, String urlToResolve) {
 		Map<Integer, String> entries = ParamPathExpressionParser.parse(urlToResolve);
 		if(MapUtils.isEmpty(entries))
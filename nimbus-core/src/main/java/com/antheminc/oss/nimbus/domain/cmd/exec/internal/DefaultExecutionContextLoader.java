@@ -16,7 +16,12 @@
 package com.antheminc.oss.nimbus.domain.cmd.exec.internal;
 
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
+import com.antheminc.oss.nimbus.FrameworkRuntimeException;
 import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
 import com.antheminc.oss.nimbus.domain.cmd.Action;
 import com.antheminc.oss.nimbus.domain.cmd.Behavior;
@@ -27,13 +32,20 @@ import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.Output;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecutor;
 import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContext;
 import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContextLoader;
+import com.antheminc.oss.nimbus.domain.cmd.exec.internal.QuadModelStateCodec.Snapshot;
 import com.antheminc.oss.nimbus.domain.config.builder.DomainConfigBuilder;
 import com.antheminc.oss.nimbus.domain.defn.Repo;
 import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.ExecutionModel;
 import com.antheminc.oss.nimbus.domain.model.state.QuadModel;
 import com.antheminc.oss.nimbus.domain.model.state.builder.QuadModelBuilder;
+import com.antheminc.oss.nimbus.domain.model.state.repo.ParamStatePrefetcher;
+import com.antheminc.oss.nimbus.domain.session.ExecutionContextStore;
+import com.antheminc.oss.nimbus.domain.session.ExecutionContextStore.StoredState;
 import com.antheminc.oss.nimbus.domain.session.SessionProvider;
+import com.antheminc.oss.nimbus.entity.client.user.ClientUser;
 import com.antheminc.oss.nimbus.support.EnableLoggingInterceptor;
+import com.antheminc.oss.nimbus.support.JustLogit;
 
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -46,6 +58,8 @@ import lombok.Getter;
 @Getter(value=AccessLevel.PROTECTED)
 public class DefaultExecutionContextLoader implements ExecutionContextLoader {
 
+	private static final JustLogit logit = new JustLogit(DefaultExecutionContextLoader.class);
+	
 	private final DomainConfigBuilder domainConfigBuilder;
 	private final CommandExecutor<?> executorActionNew;
 	private final CommandExecutor<?> executorActionGet;
@@ -54,6 +68,18 @@ public class DefaultExecutionContextLoader implements ExecutionContextLoader {
 	
 	private final SessionProvider sessionProvider;
 	
+	private final BeanResolverStrategy beanResolver;
+	
+	private final SharedQuadModelCache sharedQuadModelCache;
+	
+	private volatile Optional<ParamStatePrefetcher> paramStatePrefetcher;
+	
+	private volatile Optional<ExecutionContextPassivator> passivator;
+	
+	private volatile Optional<ExecutionContextStore> store;
+	
+	private final ConcurrentMap<String, ReentrantLock> sessionLoadLocks = new ConcurrentHashMap<>();
+	
 	public static final ThreadLocal<Action> TH_ACTION = new ThreadLocal<>();
 	
 	public DefaultExecutionContextLoader(BeanResolverStrategy beanResolver) {
@@ -62,6 +88,8 @@ public class DefaultExecutionContextLoader implements ExecutionContextLoader {
 		this.executorActionNew = beanResolver.get(CommandExecutor.class, Action._new.name() + Behavior.$execute.name());
 		this.executorActionGet = beanResolver.get(CommandExecutor.class, Action._get.name() + Behavior.$execute.name());
 		this.sessionProvider = beanResolver.get(SessionProvider.class);
+		this.sharedQuadModelCache = beanResolver.get(SharedQuadModelCache.class);
+		this.beanResolver = beanResolver;
 	}
 	
 
@@ -77,20 +105,76 @@ public class DefaultExecutionContextLoader implements ExecutionContextLoader {
 		} else // _new takes priority
 		if(rootDomainCmd.isRootDomainOnly() && rootDomainCmd.getAction()==Action._new) {
 			eCtx = loadEntity(eCtx, getExecutorActionNew());
-		} else // check if already exists in session
-		if(sessionExists(eCtx)) { 
+		} else // shared across sessions
+		if(isShared(rootDomainCmd)) {
+			QuadModel<?, ?> q = sharedGet(eCtx);
+			eCtx.setQuadModel(q);
+			
+		} else // check if already exists in session, unless stored since by a command served on another node
+		if(sessionExists(eCtx) && !isStoredSince(eCtx)) { 
 			QuadModel<?, ?> q = sessionGet(eCtx);
 			eCtx.setQuadModel(q);
 			
-		} else { // all else requires resurrecting entity
-			eCtx = loadEntity(eCtx, getExecutorActionGet());
+		} else {
+			eCtx = sessionLoad(eCtx);
 		}
 		return eCtx;
 	}
 	
+	/**
+	 * <p>Commands of one session concurrently missing the model in session load it once. The command loading it holds a
+	 * lock per session key, for which the others wait to use the model it put in session, or to load the model themselves
+	 * if it was not.
+	 */
+	private ExecutionContext sessionLoad(ExecutionContext eCtx) {
+		String sessionId = getSessionProvider().getSessionId();
+		if(sessionId == null)
+			return storeRestoreOrLoad(eCtx);
+		
+		String lockKey = sessionId + getSessionKey(eCtx);
+		ReentrantLock lock = getSessionLoadLocks().computeIfAbsent(lockKey, k -> new ReentrantLock());
+		acquireSessionLoad(lock, eCtx);
+		try {
+			// loaded by the command holding the lock before
+			if(sessionExists(eCtx) && !isStoredSince(eCtx)) {
+				QuadModel<?, ?> q = sessionGet(eCtx);
+				eCtx.setQuadModel(q);
+				return eCtx;
+			}
+			return storeRestoreOrLoad(eCtx);
+		} finally {
+			if(lock.getHoldCount() == 1 && !lock.hasQueuedThreads())
+				getSessionLoadLocks().remove(lockKey, lock);
+			
+			lock.unlock();
+		}
+	}
+	
+	private ExecutionContext storeRestoreOrLoad(ExecutionContext eCtx) {
+		// restore if stored, e.g. by a command served on another node
+		if(storeRestore(eCtx))
+			return eCtx;
+		
+		// all else requires resurrecting entity
+		return loadEntity(eCtx, getExecutorActionGet());
+	}
+	
+	private void acquireSessionLoad(ReentrantLock lock, ExecutionContext eCtx) {
+		try {
+			if(!lock.tryLock(DefaultCommandExecutorGateway.DEFAULT_EXECUTION_LOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+				throw new FrameworkRuntimeException("Command of the session loading the model did not complete within "
+						+ DefaultCommandExecutorGateway.DEFAULT_EXECUTION_LOCK_TIMEOUT_MILLIS + " ms, for execution context: "+eCtx);
+			
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new FrameworkRuntimeException("Interrupted while awaiting command of the session loading the model, for execution context: "+eCtx, ex);
+		}
+	}
+	
 	@Override
 	public final void unload(ExecutionContext eCtx) {
 		sessionRemomve(eCtx);
+		storeRemove(eCtx);
 		
 		// also do an explicit shutdown
 		eCtx.getQuadModel().getRoot().getExecutionRuntime().stop();
@@ -101,7 +185,24 @@ public class DefaultExecutionContextLoader implements ExecutionContextLoader {
 				|| cmd.getAction()==Action._config;
 	}
 	
+	private boolean isShared(Command cmd) {
+		return SharedQuadModelCache.isEnabled(getDomainConfigBuilder().getRootDomainOrThrowEx(cmd.getRootDomainAlias()));
+	}
+	
+	protected QuadModel<?, ?> sharedGet(ExecutionContext eCtx) {
+		Command cmd = eCtx.getCommandMessage().getCommand();
+		ModelConfig<?> rootDomainConfig = getDomainConfigBuilder().getRootDomainOrThrowEx(cmd.getRootDomainAlias());
+		ClientUser user = getSessionProvider().getLoggedInUser();
+		
+		ExecutionContext sharedCtx = getSharedQuadModelCache().get(rootDomainConfig, eCtx.getId(), user == null ? null : user.getRoles(), 
+				() -> loadEntity(new ExecutionContext(cmd), getExecutorActionGet()));
+		
+		return sharedCtx.getQuadModel();
+	}
+	
 	private ExecutionContext loadEntity(ExecutionContext eCtx, CommandExecutor<?> executor) {
+		// nested loads, e.g. of configs executing against another domain, restore the action of the enclosing load
+		final Action enclosingAction = TH_ACTION.get();
 		TH_ACTION.set(eCtx.getCommandMessage().getCommand().getAction());
 		try {
 			CommandMessage cmdMsg = eCtx.getCommandMessage();
@@ -112,16 +213,200 @@ public class DefaultExecutionContextLoader implements ExecutionContextLoader {
 			
 			// update context
 			eCtx = output.getContext();
-			ModelConfig<?> rootDomainConfig = getDomainConfigBuilder().getRootDomainOrThrowEx(cmdMsg.getCommand().getRootDomainAlias());
-			sessionPutIfApplicable(rootDomainConfig, eCtx);
-			eCtx.getRootModel().initState();
+			ExecutionModel<?> rootModel = eCtx.getRootModel();
+			
+			// commands of other threads finding the model in session wait for its initialization to complete
+			acquireExecution(rootModel);
+			try {
+				ModelConfig<?> rootDomainConfig = getDomainConfigBuilder().getRootDomainOrThrowEx(cmdMsg.getCommand().getRootDomainAlias());
+				sessionPutIfApplicable(rootDomainConfig, eCtx);
+				
+				findParamStatePrefetcher().ifPresent(prefetcher->prefetcher.prefetch(rootModel));
+				try {
+					rootModel.initState();
+				} catch (RuntimeException ex) {
+					rootModel.getExecutionRuntime().getPrefetchedStates().clear();
+					throw ex;
+				}
+			} finally {
+				rootModel.getExecutionRuntime().releaseExecution(false);
+			}
 		}finally {
-			TH_ACTION.set(null);
+			TH_ACTION.set(enclosingAction);
 		}
 		
 		return eCtx;
 	}
 	
+	// the model just loaded is not yet visible to other threads, so is admitted without waiting
+	private void acquireExecution(ExecutionModel<?> rootModel) {
+		try {
+			if(!rootModel.getExecutionRuntime().tryAcquireExecution(false, 0))
+				throw new FrameworkRuntimeException("Model being loaded was admitted to another execution ahead of its initialization: "+rootModel);
+			
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new FrameworkRuntimeException("Interrupted while loading model: "+rootModel, ex);
+		}
+	}
+	
+	/**
+	 * <p>Rebuilds the quad model of the given context from the entity state of a snapshot, written on passivation of the
+	 * context or to the {@link ExecutionContextStore}, and restores the ui state recorded with it. The model is set to the
+	 * context ahead of its initialization, so that commands executing against it while initializing find it, while
+	 * commands of other threads wait for its ui state to be restored as well.
+	 */
+	protected QuadModel<?, ?> restore(ExecutionContext eCtx, Snapshot snapshot, boolean sessionPut) {
+		Command cmd = eCtx.getCommandMessage().getCommand();
+		QuadModel<?, ?> q = getQuadModelBuilder().build(cmd, snapshot.getEntityState());
+		
+		ExecutionModel<?> rootModel = q.getRoot();
+		acquireExecution(rootModel);
+		try {
+			eCtx.setQuadModel(q);
+			if(sessionPut)
+				sessionPutIfApplicable(getDomainConfigBuilder().getRootDomainOrThrowEx(cmd.getRootDomainAlias()), eCtx);
+			
+			rootModel.initState();
+			getQuadModelStateCodec().restoreUiState(rootModel, snapshot);
+		} finally {
+			rootModel.getExecutionRuntime().releaseExecution(false);
+		}
+		return q;
+	}
+	
+	/**
+	 * <p>Captures the state of the model of the given context, if an {@link ExecutionContextStore} is configured and the
+	 * context is session cached, to be written to the store once the command has released the model. Failing to capture
+	 * or to write the state leaves the store behind the model, which is logged rather than failing the command.
+	 * 
+	 * <p>The state is stored with the time of writing as its version, kept increasing for each context. Nodes are thus
+	 * expected to have synchronized clocks.
+	 */
+	@Override
+	public Runnable onRootCommandExecuted(ExecutionContext eCtx) {
+		if(!findStore().isPresent())
+			return null;
+		
+		String sessionId = getSessionProvider().getSessionId();
+		if(sessionId == null)
+			return null;
+		
+		// transient models and models no longer or never session cached are not stored
+		ExecutionContext sessionCtx = queueGet(eCtx);
+		if(sessionCtx == null || sessionCtx.getQuadModel() == null || sessionCtx.getQuadModel() != eCtx.getQuadModel())
+			return null;
+		
+		ModelConfig<?> rootDomainConfig = getDomainConfigBuilder().getRootDomainOrThrowEx(eCtx.getCommandMessage().getCommand().getRootDomainAlias());
+		ExecutionModel<?> rootModel = eCtx.getRootModel();
+		final byte[] state;
+		try {
+			if(rootDomainConfig.isMapped() || getQuadModelStateCodec().isMappedByOthers(rootModel))
+				return null;
+			
+			state = getQuadModelStateCodec().write(rootModel);
+		} catch (RuntimeException ex) {
+			logit.warn(() -> "Failed to capture state of model: "+rootModel+" to store", ex);
+			return null;
+		}
+		
+		long version = Math.max(System.currentTimeMillis(), sessionCtx.getStoredVersion() + 1);
+		sessionCtx.setStoredVersion(version);
+		
+		String key = getSessionKey(eCtx);
+		return () -> storeSave(sessionCtx, sessionId, key, version, state);
+	}
+	
+	// commands releasing the model in turn may write in any order, of which the state captured last is kept
+	private void storeSave(ExecutionContext sessionCtx, String sessionId, String key, long version, byte[] state) {
+		synchronized (sessionCtx) {
+			if(version < sessionCtx.getStoredVersion())
+				return;
+			
+			try {
+				findStore().get().save(sessionId, key, version, state);
+			} catch (RuntimeException ex) {
+				logit.warn(() -> "Failed to store state of session: "+sessionId+" with key: "+key+", leaving the store behind the model", ex);
+			}
+		}
+	}
+	
+	/**
+	 * @return whether the state of the session cached context was stored by a command served on another node since the
+	 * context last wrote or restored it, which leaves the model of the context behind the store
+	 */
+	protected boolean isStoredSince(ExecutionContext eCtx) {
+		if(!findStore().isPresent())
+			return false;
+		
+		String sessionId = getSessionProvider().getSessionId();
+		ExecutionContext sessionCtx = queueGet(eCtx);
+		if(sessionId == null || sessionCtx == null)
+			return false;
+		
+		Long version = findStore().get().findVersion(sessionId, getSessionKey(eCtx));
+		return version != null && version > sessionCtx.getStoredVersion();
+	}
+	
+	protected boolean storeRestore(ExecutionContext eCtx) {
+		if(!findStore().isPresent())
+			return false;
+		
+		String sessionId = getSessionProvider().getSessionId();
+		if(sessionId == null)
+			return false;
+		
+		ModelConfig<?> rootDomainConfig = getDomainConfigBuilder().getRootDomainOrThrowEx(eCtx.getCommandMessage().getCommand().getRootDomainAlias());
+		if(rootDomainConfig.isMapped() || rootDomainConfig.isRemote() || rootDomainConfig.getRepo() == null 
+				|| rootDomainConfig.getRepo().cache() != Repo.Cache.rep_device)
+			return false;
+		
+		StoredState stored = findStore().get().load(sessionId, getSessionKey(eCtx));
+		if(stored == null)
+			return false;
+		
+		// written by a newer version, leave the model to be loaded anew
+		Snapshot snapshot = getQuadModelStateCodec().read(stored.getState());
+		if(snapshot == null)
+			return false;
+		
+		eCtx.setStoredVersion(stored.getVersion());
+		restore(eCtx, snapshot, true);
+		return true;
+	}
+	
+	protected void storeRemove(ExecutionContext eCtx) {
+		String sessionId = getSessionProvider().getSessionId();
+		if(sessionId != null)
+			findStore().ifPresent(s -> s.remove(sessionId, getSessionKey(eCtx)));
+	}
+	
+	protected Optional<ExecutionContextStore> findStore() {
+		if(store == null)
+			store = Optional.ofNullable(getBeanResolver().find(ExecutionContextStore.class));
+		
+		return store;
+	}
+	
+	protected QuadModelStateCodec getQuadModelStateCodec() {
+		return getBeanResolver().get(QuadModelStateCodec.class);
+	}
+	
+	protected Optional<ExecutionContextPassivator> findPassivator() {
+		if(passivator == null)
+			passivator = Optional.ofNullable(getBeanResolver().find(ExecutionContextPassivator.class));
+		
+		return passivator;
+	}
+	
+	// looked up lazily, as the prefetcher executes commands through the gateway which in turn depends on this loader
+	protected Optional<ParamStatePrefetcher> findParamStatePrefetcher() {
+		if(paramStatePrefetcher == null)
+			paramStatePrefetcher = Optional.ofNullable(getBeanResolver().find(ParamStatePrefetcher.class));
+		
+		return paramStatePrefetcher;
+	}
+	
 	protected boolean sessionPutIfApplicable(ModelConfig<?> rootDomainConfig, ExecutionContext eCtx) {		
 		if (rootDomainConfig.isRemote())
 			return false;	
@@ -130,7 +415,13 @@ public class DefaultExecutionContextLoader implements ExecutionContextLoader {
 			return false;
 		
 		if(repo.cache()==Repo.Cache.rep_device) {
-			return queuePut(eCtx);
+			boolean put = queuePut(eCtx);
+			
+			// a mapped model refers to the model it maps to, so cannot be rebuilt on its own
+			if(put && !rootDomainConfig.isMapped())
+				findPassivator().ifPresent(p -> p.register(eCtx));
+			
+			return put;
 		}
 
 		return false;
@@ -146,7 +437,9 @@ public class DefaultExecutionContextLoader implements ExecutionContextLoader {
 	
 	protected QuadModel<?, ?> sessionGet(ExecutionContext eCtx) {
 		return Optional.ofNullable(queueGet(eCtx))
-				.map(ExecutionContext::getQuadModel)
+				.map(sessionCtx -> findPassivator()
+						.<QuadModel<?, ?>>map(p -> p.activate(sessionCtx, (ctx, snapshot) -> restore(ctx, snapshot, false)))
+						.orElseGet(sessionCtx::getQuadModel))
 				.orElse(null);
 	}
 	
@@ -55,6 +55,11 @@ public class DefaultExecutionContextPathVariableResolver implements ExecutionCon
 		
 		return resolveInternal(eCtx, param, pathToResolve);
 	}
+	
+	@Override
+	public String resolvePlaceholder(ExecutionContext eCtx, Param<?> param, String key) {
+		return mapSearchMarkers(eCtx, param, key);
+	}
 
 	
 	protected String resolveInternal(ExecutionContext eCtx, Param<?> param, String pathToResolve) {
@@ -110,6 +115,7 @@ public class DefaultExecutionContextPathVariableResolver implements ExecutionCon
 		String pageSize = eCtx.getCommandMessage().getCommand().getFirstParameterValue(Constants.SEARCH_REQ_PAGINATION_SIZE.code);
 		String page = eCtx.getCommandMessage().getCommand().getFirstParameterValue(Constants.SEARCH_REQ_PAGINATION_PAGE_NUM.code);
 		String[] sortBy = eCtx.getCommandMessage().getCommand().getParameterValue(Constants.SEARCH_REQ_PAGINATION_SORT_PROPERTY.code);
+		String totalCount = eCtx.getCommandMessage().getCommand().getFirstParameterValue(Constants.SEARCH_REQ_PAGINATION_TOTAL_COUNT.code);
 		
 		StringBuilder url = new StringBuilder();
 		
@@ -117,6 +123,11 @@ public class DefaultExecutionContextPathVariableResolver implements ExecutionCon
 			url.append(Constants.SEARCH_REQ_PAGINATION_SIZE.code).append(Constants.PARAM_ASSIGNMENT_MARKER.code).append(pageSize)
 					.append(Constants.REQUEST_PARAMETER_DELIMITER.code).append(Constants.SEARCH_REQ_PAGINATION_PAGE_NUM.code)
 					.append(Constants.PARAM_ASSIGNMENT_MARKER.code).append(page);
+			
+			if(StringUtils.isNotBlank(totalCount)) {
+				url.append(Constants.REQUEST_PARAMETER_DELIMITER.code).append(Constants.SEARCH_REQ_PAGINATION_TOTAL_COUNT.code)
+					.append(Constants.PARAM_ASSIGNMENT_MARKER.code).append(totalCount);
+			}
 		}
 		
 		if(sortBy != null && sortBy.length > 0) {
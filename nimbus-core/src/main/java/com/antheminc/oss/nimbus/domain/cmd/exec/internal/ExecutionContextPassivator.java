@@ -0,0 +1,247 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec.internal;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.antheminc.oss.nimbus.FrameworkRuntimeException;
+import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContext;
+import com.antheminc.oss.nimbus.domain.cmd.exec.PassivatedQuadModel;
+import com.antheminc.oss.nimbus.domain.cmd.exec.internal.QuadModelStateCodec.Snapshot;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.ExecutionModel;
+import com.antheminc.oss.nimbus.domain.model.state.ExecutionRuntime;
+import com.antheminc.oss.nimbus.domain.model.state.QuadModel;
+import com.antheminc.oss.nimbus.support.JustLogit;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * <p>Passivates session cached execution contexts whose quad model has not been accessed for the configured idle time,
+ * replacing the model with a {@link PassivatedQuadModel} holding its {@link QuadModelStateCodec snapshot}. The compact
+ * form is held in-heap, or in a file of the local store directory if one is configured.
+ *
+ * <p>A passivated context is activated again on its next access, by restoring the quad model from the snapshot just as a
+ * model of the {@link com.antheminc.oss.nimbus.domain.session.ExecutionContextStore} is: rebuilt from the entity state,
+ * which fires the state load handlers of the model, with the recorded ui state restored onto it.
+ *
+ * <p>A model is left as is while a command executes against it, and while params of other models are mapped to it, as
+ * those would keep referring to the passivated model.
+ */
+@Getter(value=AccessLevel.PROTECTED)
+public class ExecutionContextPassivator {
+
+	private static final JustLogit logit = new JustLogit(ExecutionContextPassivator.class);
+	
+	private final QuadModelStateCodec codec;
+	
+	private final long idleMillis;
+	
+	/* null to hold passivated models in-heap */
+	private final Path storeDirectory;
+	
+	private final ScheduledExecutorService sweeper;
+	
+	private final Queue<Tracked> tracked = new ConcurrentLinkedQueue<>();
+	
+	/* the file of a context is kept apart from it, to be removed once the context is no longer reachable */
+	private static class Tracked {
+		
+		private final WeakReference<ExecutionContext> ref;
+		
+		private volatile String file;
+		
+		private Tracked(ExecutionContext eCtx) {
+			this.ref = new WeakReference<>(eCtx);
+		}
+	}
+	
+	public ExecutionContextPassivator(QuadModelStateCodec codec, long idleMillis, long sweepIntervalMillis, String storeDirectory) {
+		this.codec = codec;
+		this.idleMillis = idleMillis;
+		this.storeDirectory = StringUtils.isBlank(storeDirectory) ? null : Paths.get(storeDirectory);
+		
+		if(this.storeDirectory != null) {
+			try {
+				Files.createDirectories(this.storeDirectory);
+			} catch (IOException ex) {
+				throw new FrameworkRuntimeException("Failed to create passivation store directory: "+storeDirectory, ex);
+			}
+		}
+		
+		AtomicInteger threadCount = new AtomicInteger();
+		this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "nimbus-passivation-" + threadCount.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		this.sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	public void shutdown() {
+		getSweeper().shutdown();
+	}
+	
+	/**
+	 * <p>Tracks the given session cached context for passivation once idle.
+	 */
+	public void register(ExecutionContext sessionCtx) {
+		sessionCtx.touch();
+		getTracked().add(new Tracked(sessionCtx));
+	}
+	
+	public void sweep() {
+		Iterator<Tracked> it = getTracked().iterator();
+		while(it.hasNext()) {
+			Tracked t = it.next();
+			ExecutionContext eCtx = t.ref.get();
+			try {
+				if(eCtx == null) {
+					it.remove();
+					deleteFile(t.file);
+				} else {
+					passivateIfIdle(eCtx, t);
+				}
+			} catch (RuntimeException ex) {
+				logit.error(() -> "Failed to passivate execution context: "+eCtx+", leaving it active", ex);
+			}
+		}
+	}
+	
+	private boolean passivateIfIdle(ExecutionContext eCtx, Tracked t) {
+		synchronized (eCtx) {
+			QuadModel<?, ?> q = eCtx.getQuadModel();
+			if(q == null || eCtx.isPassivated() || System.currentTimeMillis() - eCtx.getLastAccessedAt() < getIdleMillis())
+				return false;
+			
+			ExecutionModel<?> rootModel = q.getRoot();
+			ExecutionRuntime runtime = rootModel.getExecutionRuntime();
+			if(!tryAcquireExecution(runtime))
+				return false;
+			
+			try {
+				if(getCodec().isMappedByOthers(rootModel))
+					return false;
+				
+				PassivatedQuadModel passivated = store(getCodec().write(rootModel), rootModel);
+				t.file = passivated.getFile();
+				
+				eCtx.setPassivatedQuadModel(passivated);
+				eCtx.setQuadModel(null);
+			} finally {
+				runtime.releaseExecution(false);
+			}
+			
+			runtime.stop();
+			logit.debug(() -> "Passivated execution context: "+eCtx);
+			return true;
+		}
+	}
+	
+	/**
+	 * <p>Answers the quad model of the given session cached context, activating it first if passivated.
+	 * 
+	 * @param restore rebuilds and initializes the quad model of the context from the snapshot and restores its ui state,
+	 * setting the model to the context before initializing it
+	 */
+	public QuadModel<?, ?> activate(ExecutionContext sessionCtx, BiFunction<ExecutionContext, Snapshot, QuadModel<?, ?>> restore) {
+		synchronized (sessionCtx) {
+			sessionCtx.touch();
+			
+			PassivatedQuadModel passivated = sessionCtx.getPassivatedQuadModel();
+			if(passivated == null)
+				return sessionCtx.getQuadModel();
+			
+			Snapshot snapshot = getCodec().read(load(passivated));
+			if(snapshot == null)
+				throw new FrameworkRuntimeException("Unsupported version of passivated state: "+passivated);
+			
+			sessionCtx.setPassivatedQuadModel(null);
+			QuadModel<?, ?> q;
+			try {
+				q = restore.apply(sessionCtx, snapshot);
+			} catch (RuntimeException ex) {
+				sessionCtx.setQuadModel(null);
+				sessionCtx.setPassivatedQuadModel(passivated);
+				throw ex;
+			}
+			
+			deleteFile(passivated.getFile());
+			
+			logit.debug(() -> "Activated passivated execution context: "+sessionCtx);
+			return q;
+		}
+	}
+	
+	private boolean tryAcquireExecution(ExecutionRuntime runtime) {
+		try {
+			return runtime.tryAcquireExecution(false, 0);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	
+	private PassivatedQuadModel store(byte[] compressed, ExecutionModel<?> rootModel) {
+		if(getStoreDirectory() == null)
+			return new PassivatedQuadModel(compressed, null, System.currentTimeMillis());
+		
+		Path file = getStoreDirectory().resolve(UUID.randomUUID().toString());
+		try {
+			Files.write(file, compressed);
+		} catch (IOException ex) {
+			throw new FrameworkRuntimeException("Failed to write state of model: "+rootModel+" to file: "+file, ex);
+		}
+		return new PassivatedQuadModel(null, file.toString(), System.currentTimeMillis());
+	}
+	
+	private byte[] load(PassivatedQuadModel passivated) {
+		if(passivated.getFile() == null)
+			return passivated.getCompressed();
+		
+		try {
+			return Files.readAllBytes(Paths.get(passivated.getFile()));
+		} catch (IOException ex) {
+			throw new FrameworkRuntimeException("Failed to read passivated state: "+passivated, ex);
+		}
+	}
+	
+	private void deleteFile(String file) {
+		if(file == null)
+			return;
+		
+		try {
+			Files.deleteIfExists(Paths.get(file));
+		} catch (IOException ex) {
+			logit.warn(() -> "Failed to delete passivated state file: "+file);
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec.internal;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionScope;
+import com.antheminc.oss.nimbus.support.JustLogit;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * <p>Executes the members of a parallel {@link com.antheminc.oss.nimbus.domain.defn.Execution.Config#group() config group}
+ * for {@link DefaultCommandExecutorGateway} on a managed executor.
+ *
+ * <p>The request attributes and logging context of the submitting thread are made available to each task for the duration
+ * of its execution. Each task executes within an execution scope {@link ExecutionScope#detach() detached} from the scope of
+ * the submitting thread, i.e. as root command of its own.
+ */
+@Getter(value=AccessLevel.PROTECTED)
+public class ParallelConfigExecutor {
+
+	private final JustLogit logit = new JustLogit(getClass());
+	
+	private final AsyncTaskExecutor executor;
+
+	@Getter
+	private final long defaultTimeoutMillis;
+
+	public ParallelConfigExecutor(AsyncTaskExecutor executor, long defaultTimeoutMillis) {
+		this.executor = executor;
+		this.defaultTimeoutMillis = defaultTimeoutMillis;
+	}
+
+	/**
+	 * @return the future of the submitted task, or empty if the executor is saturated, in which case the caller is to
+	 * execute the task itself
+	 */
+	public <T> Optional<Future<T>> submit(Callable<T> task) {
+		try {
+			return Optional.of(getExecutor().submit(ExecutionScope.detachedWithCallerContext(task)));
+			
+		} catch (TaskRejectedException ex) {
+			logit.debug(() -> "Config group executor saturated, leaving task to be executed by the calling thread", ex);
+			return Optional.empty();
+		}
+	}
+}
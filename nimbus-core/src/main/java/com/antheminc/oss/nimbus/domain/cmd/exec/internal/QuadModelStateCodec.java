@@ -0,0 +1,425 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import com.antheminc.oss.nimbus.FrameworkRuntimeException;
+import com.antheminc.oss.nimbus.domain.model.config.ParamValue;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.ExecutionModel;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param.LabelState;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param.Message;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param.StyleState;
+import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionEntity;
+import com.antheminc.oss.nimbus.entity.process.ProcessFlow;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectMapper.DefaultTyping;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.exc.InvalidTypeIdException;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <p>Compact, versioned serialization of the state of a quad model: its entity state, i.e. core, view and process flow,
+ * along with the ui state of params deviating from the defaults, as gzipped json.
+ *
+ * <p>Entity state is written by field, including fields ignored by the json of the client, with the type of polymorphic
+ * values, so that it reads back as written. Snapshots may be read back by any node sharing the store they are kept in, so
+ * the types read are restricted to those of the framework, of the domain packages given and to collection and value
+ * types of the jdk; snapshots naming other types fail to be read.
+ *
+ * <p>The ui state written is the activation, visibility and enablement of params, along with their labels, style,
+ * messages and values. Rebuilding and initializing the model from its entity state re-evaluates the conditionals of
+ * the model, which may not reproduce the ui state written, e.g. of conditionals evaluated against state since changed.
+ * Hence the ui state written is restored onto the rebuilt model as a whole, resetting params not recorded to defaults.
+ *
+ * <p>Snapshots of a newer version than {@link #VERSION} are not read, leaving the model to be loaded anew.
+ */
+@Getter(value=AccessLevel.PROTECTED)
+public class QuadModelStateCodec {
+
+	public static final int VERSION = 1;
+	
+	private static final String FRAMEWORK_PACKAGE = "com.antheminc.oss.nimbus";
+	
+	private static final List<String> JDK_PACKAGES = Arrays.asList("java.util", "java.time", "java.math");
+	
+	private static final Set<String> JDK_TYPES = new HashSet<>(Arrays.asList(Object.class.getName(), java.sql.Date.class.getName(), Timestamp.class.getName()));
+	
+	private final ObjectMapper om;
+	
+	/**
+	 * @param domainPackages packages of the domain models whose state is written, along with the types they refer to;
+	 * wildcard patterns allow the packages under their leading package
+	 */
+	public QuadModelStateCodec(ObjectMapper om, List<String> domainPackages) {
+		List<String> allowedPackages = new ArrayList<>(JDK_PACKAGES);
+		allowedPackages.add(FRAMEWORK_PACKAGE);
+		if(domainPackages != null)
+			allowedPackages.addAll(domainPackages);
+		
+		this.om = om.copy()
+				.setAnnotationIntrospector(new IgnoreMarkerDisablingIntrospector())
+				.setVisibility(PropertyAccessor.GETTER, Visibility.NONE)
+				.setVisibility(PropertyAccessor.IS_GETTER, Visibility.NONE)
+				.setVisibility(PropertyAccessor.SETTER, Visibility.NONE)
+				.setVisibility(PropertyAccessor.FIELD, Visibility.ANY)
+				.setDefaultTyping(new AllowedTypesResolverBuilder(allowedPackages)
+						.init(JsonTypeInfo.Id.CLASS, null)
+						.inclusion(JsonTypeInfo.As.WRAPPER_ARRAY))
+				.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+				.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	}
+	
+	/**
+	 * <p>Entity state read from a snapshot, along with the ui state to restore once the model is rebuilt from it.
+	 */
+	@Getter @RequiredArgsConstructor
+	public static class Snapshot {
+		
+		private final ExecutionEntity<?, ?> entityState;
+		
+		@Getter(AccessLevel.NONE)
+		private final Map<String, UiState> uiState;
+	}
+	
+	/* json form of a snapshot */
+	private static final class State {
+		
+		private int version;
+		
+		private Long id;
+		
+		private Object core;
+		
+		private Object view;
+		
+		private ProcessFlow flow;
+		
+		private Map<String, UiState> ui;
+	}
+	
+	/* ui state of a param, defaults being those of a param without context state; labels and style are copied, as those 
+	 * held by params may be shared states of their own type */
+	private static final class UiState {
+		
+		private static final UiState DEFAULT = new UiState();
+		
+		private boolean active = true;
+		
+		private boolean visible = true;
+		
+		private boolean enabled = true;
+		
+		private Set<LabelState> labels;
+		
+		private StyleState style;
+		
+		private List<MessageState> messages;
+		
+		private List<ParamValue> values;
+		
+		private static UiState of(Param<?> p) {
+			UiState s = new UiState();
+			s.active = p.isActive();
+			s.visible = p.isVisible();
+			s.enabled = p.isEnabled();
+			s.labels = CollectionUtils.isEmpty(p.getLabels()) ? null : p.getLabels().stream().map(UiState::copyOf).collect(Collectors.toSet());
+			s.style = p.getStyle() == null ? null : copyOf(p.getStyle());
+			s.messages = CollectionUtils.isEmpty(p.getMessages()) ? null : p.getMessages().stream().map(MessageState::of).collect(Collectors.toList());
+			s.values = p.getValues() == null ? null : new ArrayList<>(p.getValues());
+			return s;
+		}
+		
+		private static LabelState copyOf(LabelState l) {
+			LabelState copy = new LabelState();
+			copy.setLocale(l.getLocale());
+			copy.setText(l.getText());
+			copy.setHelpText(l.getHelpText());
+			copy.setCssClass(l.getCssClass());
+			return copy;
+		}
+		
+		private static StyleState copyOf(StyleState st) {
+			StyleState copy = new StyleState();
+			copy.setCssClass(st.getCssClass());
+			return copy;
+		}
+		
+		private boolean isDefault() {
+			return active && visible && enabled && labels == null && style == null && messages == null && values == null;
+		}
+		
+		private void applyTo(Param<?> p) {
+			// toggling activation runs a state change, even if already toggled
+			if(p.isActive() != active) {
+				if(active)
+					p.activate();
+				else
+					p.deactivate();
+			}
+			if(!active)
+				return;
+			
+			p.setVisible(visible);
+			p.setEnabled(enabled);
+			p.setLabels(labels);
+			p.setStyle(style);
+			p.setMessages(messages == null ? null : messages.stream().map(MessageState::toMessage).collect(Collectors.toSet()));
+			
+			if(!Objects.equals(p.getValues(), values))
+				p.setValues(values);
+		}
+	}
+	
+	/* messages are immutable, so are written apart */
+	private static final class MessageState {
+		
+		private String uniqueId;
+		
+		private String text;
+		
+		private Message.Type type;
+		
+		private Message.Context context;
+		
+		private String styleClass;
+		
+		private boolean isTransient;
+		
+		private static MessageState of(Message m) {
+			MessageState s = new MessageState();
+			s.uniqueId = m.getUniqueId();
+			s.text = m.getText();
+			s.type = m.getType();
+			s.context = m.getContext();
+			s.styleClass = m.getStyleClass();
+			s.isTransient = m.isTransient();
+			return s;
+		}
+		
+		private Message toMessage() {
+			Message m = new Message(uniqueId, text, type, context, styleClass);
+			m.setTransient(isTransient);
+			return m;
+		}
+	}
+	
+	/* default typing of non final types, as enabled by ObjectMapper#enableDefaultTyping, reading only the types allowed */
+	private static class AllowedTypesResolverBuilder extends ObjectMapper.DefaultTypeResolverBuilder {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final List<String> allowedPackages;
+		
+		private AllowedTypesResolverBuilder(List<String> allowedPackages) {
+			super(DefaultTyping.NON_FINAL);
+			this.allowedPackages = allowedPackages.stream()
+					.map(pkg -> StringUtils.appendIfMissing(StringUtils.substringBefore(pkg, "*"), "."))
+					.collect(Collectors.toList());
+		}
+		
+		@Override
+		protected TypeIdResolver idResolver(MapperConfig<?> config, JavaType baseType, Collection<NamedType> subtypes, boolean forSer, boolean forDeser) {
+			if(!forDeser)
+				return super.idResolver(config, baseType, subtypes, forSer, forDeser);
+			
+			return new ClassNameIdResolver(baseType, config.getTypeFactory()) {
+				@Override
+				public JavaType typeFromId(DatabindContext context, String id) throws IOException {
+					if(!isAllowed(id))
+						throw new InvalidTypeIdException(null, "Type not allowed in state snapshots: "+id, baseType, id);
+					
+					return super.typeFromId(context, id);
+				}
+			};
+		}
+		
+		/* type ids are class names, or canonical names of parameterized types such as of enum sets; checked ahead of loading */
+		private boolean isAllowed(String id) {
+			for(String name : StringUtils.split(id, "<>, ")) {
+				String className = name;
+				if(className.startsWith("[")) {
+					className = StringUtils.stripStart(className, "[");
+					// arrays of primitives
+					if(!className.startsWith("L"))
+						continue;
+					
+					className = StringUtils.removeEnd(className.substring(1), ";");
+				}
+				
+				if(!JDK_TYPES.contains(className) && allowedPackages.stream().noneMatch(className::startsWith))
+					return false;
+			}
+			return true;
+		}
+	}
+	
+	/* ignored properties are ignored by the json of the client, not by the state of the model */
+	private static class IgnoreMarkerDisablingIntrospector extends JacksonAnnotationIntrospector {
+		
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		public boolean hasIgnoreMarker(AnnotatedMember m) {
+			return false;
+		}
+		
+		@Override
+		public JsonIgnoreProperties.Value findPropertyIgnorals(Annotated a) {
+			return JsonIgnoreProperties.Value.empty();
+		}
+	}
+	
+	public byte[] write(ExecutionModel<?> rootModel) {
+		ExecutionEntity<?, ?> eState = (ExecutionEntity<?, ?>)rootModel.getState();
+		
+		State state = new State();
+		state.version = VERSION;
+		state.id = eState.getId();
+		state.core = eState.getCore();
+		state.view = eState.getView();
+		state.flow = eState.getFlow();
+		state.ui = new LinkedHashMap<>();
+		captureUiState(rootModel.getParams(), state.ui);
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(OutputStream out = new GZIPOutputStream(bytes)) {
+			getOm().writeValue(out, state);
+		} catch (IOException ex) {
+			throw new FrameworkRuntimeException("Failed to write state of model: "+rootModel, ex);
+		}
+		return bytes.toByteArray();
+	}
+	
+	/**
+	 * @return the snapshot read, or {@code null} if written by a newer version
+	 */
+	public Snapshot read(byte[] compressed) {
+		final State state;
+		try(InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			JsonNode tree = getOm().readTree(in);
+			if(tree.path("version").asInt() > VERSION)
+				return null;
+			
+			state = getOm().treeToValue(tree, State.class);
+		} catch (IOException ex) {
+			throw new FrameworkRuntimeException("Failed to read state snapshot", ex);
+		}
+		
+		ExecutionEntity<Object, Object> eState = new ExecutionEntity<>(state.view, state.core);
+		eState.setId(state.id);
+		eState.setFlow(state.flow);
+		
+		return new Snapshot(eState, state.ui == null ? Collections.<String, UiState>emptyMap() : state.ui);
+	}
+	
+	/**
+	 * <p>Restores the ui state of the given snapshot onto the model rebuilt and initialized from its entity state.
+	 */
+	public void restoreUiState(ExecutionModel<?> rootModel, Snapshot snapshot) {
+		restoreUiState(rootModel.getParams(), snapshot.uiState);
+	}
+	
+	/**
+	 * @return whether params of other models are mapped to the given model, which would keep referring to it rather than
+	 * to a model rebuilt from its snapshot
+	 */
+	public boolean isMappedByOthers(ExecutionModel<?> rootModel) {
+		return isMappedByOthers(rootModel, rootModel.getParams());
+	}
+	
+	private boolean isMappedByOthers(ExecutionModel<?> rootModel, List<Param<?>> params) {
+		if(params == null)
+			return false;
+		
+		for(Param<?> p : params) {
+			if(p.getEventSubscribers().stream().anyMatch(s -> s.getRootExecution() != rootModel))
+				return true;
+			
+			if(p.isNested() && isMappedByOthers(rootModel, p.findIfNested().getParams()))
+				return true;
+		}
+		return false;
+	}
+	
+	/* children of an inactive param are inactive as well, so are not recorded */
+	private void captureUiState(List<Param<?>> params, Map<String, UiState> ui) {
+		if(params == null)
+			return;
+		
+		for(Param<?> p : params) {
+			UiState s = UiState.of(p);
+			if(!s.isDefault())
+				ui.put(p.getPath(), s);
+			
+			if(p.isActive() && p.isNested())
+				captureUiState(p.findIfNested().getParams(), ui);
+		}
+	}
+	
+	/* parents are restored ahead of their children, as changes to a parent ripple to its children */
+	private void restoreUiState(List<Param<?>> params, Map<String, UiState> ui) {
+		if(params == null)
+			return;
+		
+		for(Param<?> p : params) {
+			ui.getOrDefault(p.getPath(), UiState.DEFAULT).applyTo(p);
+			
+			if(p.isActive() && p.isNested())
+				restoreUiState(p.findIfNested().getParams(), ui);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec.internal;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContext;
+import com.antheminc.oss.nimbus.domain.defn.Repo;
+import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.ExecutionRuntime;
+import com.antheminc.oss.nimbus.domain.model.state.InvalidStateException;
+import com.antheminc.oss.nimbus.domain.model.state.QuadModel;
+import com.antheminc.oss.nimbus.domain.model.state.repo.RepoParamEvent;
+import com.antheminc.oss.nimbus.entity.user.UserRole;
+import com.antheminc.oss.nimbus.support.JustLogit;
+import com.antheminc.oss.nimbus.support.cache.ExpiringCache;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * <p>Application wide cache of the execution contexts of root domains configured with {@link Repo.Cache#rep_shared}, one
+ * per domain uri, i.e. domain and refId, and set of roles of the logged in user. The quad model of a cached context is
+ * shared by the sessions of all users with the same roles, and only read by the commands executing against it.
+ *
+ * <p>All contexts whose core is persisted under a repository alias are invalidated on write of any of its entities,
+ * through the {@link RepoParamEvent} published by the underlying repository. Contexts further expire after the configured
+ * time-to-live, to bound the staleness of state not written through a repository of the framework. The runtime of a
+ * context no longer cached is stopped once the commands reading its model have completed, waiting for them at most the
+ * configured stop timeout.
+ */
+@Getter(value=AccessLevel.PROTECTED)
+public class SharedQuadModelCache {
+
+	public static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000L;
+	public static final int DEFAULT_MAX_ENTRIES = 1000;
+	public static final long DEFAULT_STOP_TIMEOUT_MILLIS = 5 * 1000L;
+	
+	private static final String KEY_SEPARATOR = "|";
+	
+	private static final JustLogit logit = new JustLogit(SharedQuadModelCache.class);
+	
+	private final ExpiringCache<String, ExecutionContext> contexts;
+	
+	private final long stopTimeoutMillis;
+	
+	public SharedQuadModelCache() {
+		this(DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES, DEFAULT_STOP_TIMEOUT_MILLIS);
+	}
+	
+	public SharedQuadModelCache(long ttlMillis, int maxEntries, long stopTimeoutMillis) {
+		this.contexts = new ExpiringCache<>(ttlMillis, maxEntries, this::stop);
+		this.stopTimeoutMillis = stopTimeoutMillis;
+	}
+	
+	public static boolean isEnabled(ModelConfig<?> rootDomainConfig) {
+		return rootDomainConfig != null && Repo.Cache.isShared(rootDomainConfig.getRepo());
+	}
+	
+	/**
+	 * @param loader loads the context anew, if not cached. Concurrent callers for the same key wait for the one load in
+	 * flight, which is not cached if its alias is evicted while loading.
+	 */
+	public ExecutionContext get(ModelConfig<?> rootDomainConfig, String rootDomainUri, Collection<UserRole> roles, Supplier<ExecutionContext> loader) {
+		String alias = resolveCoreAlias(rootDomainConfig);
+		String key = buildKey(alias, rootDomainUri, roles);
+		
+		return getContexts().computeIfAbsent(key, k -> loader.get());
+	}
+	
+	public void evict(String alias) {
+		String prefix = alias + KEY_SEPARATOR;
+		getContexts().invalidateIf(k -> StringUtils.startsWith(k, prefix));
+	}
+	
+	public void clear() {
+		getContexts().clear();
+	}
+	
+	@TransactionalEventListener(phase=TransactionPhase.AFTER_COMMIT, fallbackExecution=true)
+	public void handleEvent(RepoParamEvent event) {
+		Param<?> param = event.getParam();
+		if(param == null || param.getRootDomain() == null)
+			return;
+		
+		String alias = param.getRootDomain().getConfig().getRepoAlias();
+		logit.trace(() -> "Evicting shared quad models of alias: "+alias);
+		evict(alias);
+	}
+	
+	protected void stop(ExecutionContext eCtx) {
+		QuadModel<?, ?> q = eCtx.getQuadModel();
+		if(q == null)
+			return;
+		
+		ExecutionRuntime runtime = q.getRoot().getExecutionRuntime();
+		if(tryAcquireExecution(runtime))
+			runtime.releaseExecution(false);
+		else
+			logit.warn(() -> "Commands reading shared model did not complete within "+getStopTimeoutMillis()+" ms, stopping its runtime regardless: "+eCtx);
+		
+		runtime.stop();
+		logit.trace(() -> "Stopped runtime of shared model no longer cached: "+eCtx);
+	}
+	
+	private boolean tryAcquireExecution(ExecutionRuntime runtime) {
+		try {
+			return runtime.tryAcquireExecution(false, getStopTimeoutMillis());
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (InvalidStateException ex) {
+			// removed while read by this very thread, e.g. found expired by a nested command
+			return false;
+		}
+	}
+	
+	/* shared models are invalidated on write of their core */
+	protected String resolveCoreAlias(ModelConfig<?> rootDomainConfig) {
+		ModelConfig<?> coreConfig = rootDomainConfig.isMapped() ? rootDomainConfig.findIfMapped().getMapsToConfig() : rootDomainConfig;
+		return coreConfig.getRepoAlias();
+	}
+	
+	protected String buildKey(String alias, String rootDomainUri, Collection<UserRole> roles) {
+		String roleSet = roles == null ? "" : roles.stream()
+				.filter(Objects::nonNull)
+				.map(UserRole::getRoleCode)
+				.filter(Objects::nonNull)
+				.distinct()
+				.sorted()
+				.collect(Collectors.joining(","));
+		
+		return alias + KEY_SEPARATOR + rootDomainUri + KEY_SEPARATOR + roleSet;
+	}
+}
@@ -17,10 +17,15 @@ package com.antheminc.oss.nimbus.domain.cmd.exec.internal.process;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.antheminc.oss.nimbus.domain.cmd.Action;
 import com.antheminc.oss.nimbus.domain.cmd.Command;
 import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
 import com.antheminc.oss.nimbus.domain.cmd.CommandMessage;
@@ -28,6 +33,8 @@ import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.MultiOutput;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecutorGateway;
 import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContext;
 import com.antheminc.oss.nimbus.domain.cmd.exec.FunctionHandler;
+import com.antheminc.oss.nimbus.domain.cmd.exec.internal.search.DefaultSearchFunctionHandler;
+import com.antheminc.oss.nimbus.domain.cmd.exec.internal.search.ViewProjectionPathsResolver;
 import com.antheminc.oss.nimbus.domain.defn.Constants;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
 import lombok.Getter;
@@ -41,9 +48,15 @@ import lombok.Getter;
 @Getter
 abstract public class URLBasedAssignmentFunctionHandler<T,R,S> implements FunctionHandler<T,R> {
 	
+	public static final String SEARCH_FN_QUERY = "query";
+	public static final String SEARCH_FN_EXAMPLE = "example";
+	
 	@Autowired
 	private CommandExecutorGateway executorGateway; 
 	
+	@Autowired(required=false)
+	private ViewProjectionPathsResolver viewProjectionPathsResolver;
+	
 	@SuppressWarnings("unchecked")
 	@Override
 	public R execute(ExecutionContext executionContext, Param<T> actionParameter) {
@@ -120,19 +133,44 @@ abstract public class URLBasedAssignmentFunctionHandler<T,R,S> implements Functi
 	
 	protected S getExternalState(ExecutionContext executionContext){
 		CommandMessage commandToExecute = buildExternalCommand(executionContext.getCommandMessage());
+		applyViewProjection(executionContext, commandToExecute.getCommand());
 		
 		MultiOutput response = getExecutorGateway().execute(commandToExecute);
 		//TODO Soham: temp fix, need to talk to Jayant
 		return (S)response.getOutputs().get(0).getValue();
 	}
 	
+	/**
+	 * <p>Narrows down a query or example search populating a mapped view collection to the core paths read by the view, 
+	 * unless the url already specifies its own projection, fetch or aggregation.
+	 */
+	protected void applyViewProjection(ExecutionContext executionContext, Command searchCmd) {
+		if(getViewProjectionPathsResolver() == null || searchCmd.getAction() != Action._search || MapUtils.isEmpty(searchCmd.getRequestParams()))
+			return;
+		
+		String fn = searchCmd.getFirstParameterValue(Constants.KEY_FUNCTION.code);
+		if(!StringUtils.equalsAny(fn, SEARCH_FN_QUERY, SEARCH_FN_EXAMPLE))
+			return;
+		
+		boolean hasOwnProjection = Stream.of(Constants.SEARCH_REQ_PROJECT_ALIAS_MARKER, Constants.SEARCH_REQ_PROJECT_MAPPING_MARKER, 
+				Constants.SEARCH_REQ_PROJECT_PATHS_MARKER, Constants.SEARCH_REQ_FETCH_MARKER, Constants.SEARCH_REQ_AGGREGATE_MARKER)
+					.anyMatch(c -> searchCmd.getRequestParams().containsKey(c.code));
+		if(hasOwnProjection)
+			return;
+		
+		Optional<Set<String>> paths = getViewProjectionPathsResolver().resolve(findTargetParam(executionContext), searchCmd.getRootDomainAlias());
+		paths.ifPresent(p -> searchCmd.getRequestParams().put(Constants.SEARCH_REQ_PROJECT_PATHS_MARKER.code, 
+				new String[] { String.join(DefaultSearchFunctionHandler.PROJECTIONS_SEPARATOR, p) }));
+	}
+	
 	// TODO - move this to config lookup
 	private List<String> getQueryParamsToInclude() {
 		return Arrays.asList(Constants.SEARCH_REQ_WHERE_MARKER.code,Constants.SEARCH_REQ_ORDERBY_MARKER.code, 
 				Constants.SEARCH_REQ_FETCH_MARKER.code,Constants.SEARCH_REQ_AGGREGATE_MARKER.code,
 				Constants.SEARCH_REQ_PAGINATION_SIZE.code,Constants.SEARCH_REQ_PAGINATION_PAGE_NUM.code, 
-				Constants.SEARCH_REQ_PAGINATION_SORT_PROPERTY.code,
-				Constants.SEARCH_REQ_PROJECT_MAPPING_MARKER.code, Constants.SEARCH_REQ_LIMIT_MARKER.code);
+				Constants.SEARCH_REQ_PAGINATION_SORT_PROPERTY.code, Constants.SEARCH_REQ_PAGINATION_TOTAL_COUNT.code,
+				Constants.SEARCH_REQ_PROJECT_MAPPING_MARKER.code, Constants.SEARCH_REQ_PROJECT_PATHS_MARKER.code, 
+				Constants.SEARCH_REQ_LIMIT_MARKER.code);
 	}
 
 }
@@ -15,6 +15,7 @@
  */
 package com.antheminc.oss.nimbus.domain.cmd.exec.internal.search;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -37,6 +38,7 @@ import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
 import com.antheminc.oss.nimbus.domain.model.state.repo.ModelRepository;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.ProjectCriteria;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.TotalCountStrategy;
 import com.antheminc.oss.nimbus.support.EnableLoggingInterceptor;
 
 /**
@@ -94,6 +96,10 @@ public abstract class DefaultSearchFunctionHandler<T, R> extends AbstractFunctio
 		return null;
 	}
 	
+	protected TotalCountStrategy buildTotalCountStrategy(Command cmd) {
+		return TotalCountStrategy.getByName(cmd.getFirstParameterValue(Constants.SEARCH_REQ_PAGINATION_TOTAL_COUNT.code));
+	}
+	
 	protected ProjectCriteria buildProjectCriteria(Command cmd) {
 		if(cmd.getRequestParams().get(Constants.SEARCH_REQ_PROJECT_ALIAS_MARKER.code) != null) {
 			ProjectCriteria projectCriteria = new ProjectCriteria();
@@ -115,6 +121,13 @@ public abstract class DefaultSearchFunctionHandler<T, R> extends AbstractFunctio
 			});
 			return projectCriteria;
 		}
+
+		if(cmd.getRequestParams().get(Constants.SEARCH_REQ_PROJECT_PATHS_MARKER.code) != null) {
+			ProjectCriteria projectCriteria = new ProjectCriteria();
+			String projectPaths = cmd.getFirstParameterValue(Constants.SEARCH_REQ_PROJECT_PATHS_MARKER.code);
+			projectCriteria.setPaths(Arrays.asList(StringUtils.split(projectPaths, PROJECTIONS_SEPARATOR)));
+			return projectCriteria;
+		}
 		return null;
 	}
 	
@@ -46,6 +46,7 @@ public class DefaultSearchFunctionHandlerExample<T, R> extends DefaultSearchFunc
 		
 		exampleSearchCriteria.setProjectCriteria(buildProjectCriteria(cmd));
 		exampleSearchCriteria.setPageRequest(buildPageCriteria(cmd));
+		exampleSearchCriteria.setTotalCountStrategy(buildTotalCountStrategy(cmd));
 		
 		exampleSearchCriteria.setCmd(executionContext.getCommandMessage().getCommand());
 		return exampleSearchCriteria;
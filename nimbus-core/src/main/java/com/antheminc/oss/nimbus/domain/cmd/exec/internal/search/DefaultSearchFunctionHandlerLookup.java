@@ -35,6 +35,7 @@ import com.antheminc.oss.nimbus.domain.defn.Constants;
 import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
 import com.antheminc.oss.nimbus.domain.model.config.ParamValue;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.repo.StaticCodeValueIndex;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.LookupSearchCriteria;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.ProjectCriteria;
 import com.antheminc.oss.nimbus.entity.StaticCodeValue;
@@ -59,6 +60,8 @@ public class DefaultSearchFunctionHandlerLookup<T, R> extends DefaultSearchFunct
 	
 	private ExpressionEvaluator expressionEvaluator;
 	
+	private StaticCodeValueIndex staticCodeValueIndex;
+	
 	@Value(value="${nimbus.search.lookup.inMemory.sortThreshold:500}")
 	private int inMemorySortThreshold;
 	
@@ -67,21 +70,33 @@ public class DefaultSearchFunctionHandlerLookup<T, R> extends DefaultSearchFunct
 	
 	public DefaultSearchFunctionHandlerLookup(BeanResolverStrategy beanResolver) {
 		this.expressionEvaluator = beanResolver.find(ExpressionEvaluator.class);
+		this.staticCodeValueIndex = beanResolver.find(StaticCodeValueIndex.class);
 	}
 	
+	/**
+	 * Static code value lookups are cached by their where clause only when no in-memory index is available to serve them
+	 */
 	@Override
 	@Cacheable(value="staticcodevalues", 
 		key = "#executionContext.getCommandMessage().getCommand().getFirstParameterValue(\"where\")", 
-		condition = "T(org.apache.commons.lang3.StringUtils).equalsIgnoreCase(#executionContext.getCommandMessage().getCommand().getElementSafely(T(com.antheminc.oss.nimbus.domain.cmd.CommandElement.Type).DomainAlias).getAlias(), \"staticCodeValue\")",
+		condition = "!#root.target.hasStaticCodeValueIndex() && T(org.apache.commons.lang3.StringUtils).equalsIgnoreCase(#executionContext.getCommandMessage().getCommand().getElementSafely(T(com.antheminc.oss.nimbus.domain.cmd.CommandElement.Type).DomainAlias).getAlias(), \"staticCodeValue\")",
 		unless = "#result == null")
 	public R execute(ExecutionContext executionContext, Param<T> actionParameter) {
 		
 		ModelConfig<?> mConfig = getRootDomainConfig(executionContext);
 		
+		Command cmd = executionContext.getCommandMessage().getCommand();
+		boolean staticCodeValueLookup = StringUtils.equalsIgnoreCase(cmd.getElementSafely(Type.DomainAlias).getAlias(), Constants.PARAM_VALUES_DOMAIN_ALIAS.code);
+		
+		if(staticCodeValueLookup) {
+			List<ParamValue> indexedValues = findIndexedParamValues(cmd);
+			if(indexedValues != null)
+				return sortIfApplicable(indexedValues, mConfig, cmd);
+		}
+		
 		List<?> searchResult = (List<?>)super.execute(executionContext, actionParameter);
 				
-		Command cmd = executionContext.getCommandMessage().getCommand();
-		if(StringUtils.equalsIgnoreCase(cmd.getElementSafely(Type.DomainAlias).getAlias(), Constants.PARAM_VALUES_DOMAIN_ALIAS.code)) {
+		if(staticCodeValueLookup) {
 			return getStaticParamValues((List<StaticCodeValue>)searchResult, mConfig, cmd);
 		}
 		return getDynamicParamValues(mConfig, searchResult, cmd);
@@ -108,6 +123,21 @@ public class DefaultSearchFunctionHandlerLookup<T, R> extends DefaultSearchFunct
 		return lookupSearchCriteria;
 	}
 	
+	public boolean hasStaticCodeValueIndex() {
+		return staticCodeValueIndex != null;
+	}
+	
+	/**
+	 * Static code values looked up by paramCode alone are served from the in-memory index, when available
+	 */
+	private List<ParamValue> findIndexedParamValues(Command cmd) {
+		if(staticCodeValueIndex == null || StringUtils.isNotBlank(cmd.getFirstParameterValue(Constants.SEARCH_REQ_AGGREGATE_MARKER.code)))
+			return null;
+		
+		String paramCode = StaticCodeValueIndex.findParamCode(cmd.getFirstParameterValue(Constants.SEARCH_REQ_WHERE_MARKER.code));
+		return staticCodeValueIndex.findParamValues(paramCode);
+	}
+	
 	private R getStaticParamValues(List<StaticCodeValue> searchResult, ModelConfig<?> mConfig, Command cmd) {	
 		if(CollectionUtils.isEmpty(searchResult))
 			return null;
@@ -56,6 +56,7 @@ public class DefaultSearchFunctionHandlerQuery<T, R> extends DefaultSearchFuncti
 		
 		querySearchCriteria.setProjectCriteria(buildProjectCriteria(cmd));
 		querySearchCriteria.setPageRequest(buildPageCriteria(cmd));
+		querySearchCriteria.setTotalCountStrategy(buildTotalCountStrategy(cmd));
 		
 		querySearchCriteria.setCmd(executionContext.getCommandMessage().getCommand());
 		
@@ -0,0 +1,178 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec.internal.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import com.antheminc.oss.nimbus.domain.defn.MapsTo;
+import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
+import com.antheminc.oss.nimbus.domain.model.config.ParamConfig;
+import com.antheminc.oss.nimbus.domain.model.config.ParamConfig.MappedParamConfig;
+import com.antheminc.oss.nimbus.domain.model.config.ParamConfigType.NestedCollection;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+
+import lombok.Getter;
+
+/**
+ * <p>Derives the core document paths that a mapped view model actually reads, so that a search populating a detached view 
+ * collection (e.g. a grid) can project only those fields instead of loading complete core entities. Attached view collections
+ * are not considered, as the partially loaded entities would otherwise be persisted along with their core state.
+ *
+ * <p>Paths are resolved from the {@link MapsTo.Path} configuration of the view element model: attached params contribute
+ * their mapped path (or code when no path is configured) and nested mapped models are walked recursively. Detached params
+ * are skipped as they are loaded separately. When any mapped path cannot be expressed as a plain dotted path (e.g. relative
+ * or indexed paths), no projection is resolved and the search falls back to loading complete entities.
+ *
+ * <p>Resolved paths are cached per view model config.
+ */
+@Getter
+public class ViewProjectionPathsResolver {
+
+	public static final String PATH_SEPARATOR = ".";
+
+	private static final Pattern SUPPORTED_PATH = Pattern.compile("/?[A-Za-z0-9_]+(/[A-Za-z0-9_]+)*");
+
+	private final boolean enabled;
+
+	private final Map<ModelConfig<?>, Optional<Set<String>>> cache = new ConcurrentHashMap<>();
+
+	public ViewProjectionPathsResolver(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * @param targetParam the param being assigned with the search results, either the detached view collection or its mapsTo param
+	 * @param coreAlias the domain alias being searched
+	 * @return the core paths read by all views of the target param, or empty if no projection can be applied
+	 */
+	public Optional<Set<String>> resolve(Param<?> targetParam, String coreAlias) {
+		if(!isEnabled() || targetParam == null)
+			return Optional.empty();
+
+		List<Param<?>> candidates = new ArrayList<>();
+		candidates.add(targetParam);
+		if(CollectionUtils.isNotEmpty(targetParam.getEventSubscribers()))
+			candidates.addAll(targetParam.getEventSubscribers());
+
+		Set<String> paths = new LinkedHashSet<>();
+		for(Param<?> candidate : candidates) {
+			ModelConfig<?> viewElemConfig = findMappedElementConfig(candidate.getConfig(), coreAlias);
+			if(viewElemConfig == null)
+				continue;
+
+			Optional<Set<String>> viewPaths = resolve(viewElemConfig);
+			if(!viewPaths.isPresent())
+				return Optional.empty();
+
+			paths.addAll(viewPaths.get());
+		}
+		return paths.isEmpty() ? Optional.empty() : Optional.of(paths);
+	}
+
+	/**
+	 * @param viewConfig a mapped view model config
+	 * @return the core paths read by the given view model, or empty if no projection can be applied
+	 */
+	public Optional<Set<String>> resolve(ModelConfig<?> viewConfig) {
+		return getCache().computeIfAbsent(viewConfig, this::doResolve);
+	}
+
+	protected ModelConfig<?> findMappedElementConfig(ParamConfig<?> paramConfig, String coreAlias) {
+		if(!paramConfig.isMapped() || paramConfig.getMappingMode() != MapsTo.Mode.MappedDetached || !paramConfig.getType().isCollection())
+			return null;
+
+		ParamConfig<?> elemConfig = ((NestedCollection<?>)paramConfig.getType()).getElementConfig();
+		if(elemConfig == null || !elemConfig.getType().isNested())
+			return null;
+
+		ModelConfig<?> elemModelConfig = elemConfig.getType().findIfNested().getModelConfig();
+		if(elemModelConfig == null || !elemModelConfig.isMapped())
+			return null;
+
+		ModelConfig<?> mapsToConfig = elemModelConfig.findIfMapped().getMapsToConfig();
+		return StringUtils.equals(mapsToConfig.getAlias(), coreAlias) ? elemModelConfig : null;
+	}
+
+	protected Optional<Set<String>> doResolve(ModelConfig<?> viewConfig) {
+		if(!viewConfig.isMapped())
+			return Optional.empty();
+
+		Set<String> paths = new LinkedHashSet<>();
+
+		ParamConfig<?> idConfig = viewConfig.findIfMapped().getMapsToConfig().getIdParamConfig();
+		if(idConfig != null)
+			paths.add(idConfig.getCode());
+
+		if(!collect(viewConfig, StringUtils.EMPTY, paths, new HashSet<>()))
+			return Optional.empty();
+
+		return Optional.of(Collections.unmodifiableSet(paths));
+	}
+
+	private boolean collect(ModelConfig<?> viewConfig, String prefix, Set<String> paths, Set<ModelConfig<?>> visiting) {
+		if(!visiting.add(viewConfig))
+			return true;
+
+		try {
+			for(ParamConfig<?> p : viewConfig.getParamConfigs()) {
+				ModelConfig<?> nestedConfig = p.getType().isNested() && !p.getType().isCollection()
+						? p.getType().findIfNested().getModelConfig() : null;
+
+				if(!p.isMapped()) {
+					// unmapped nested models are built against the same mapsTo model as their parent
+					if(nestedConfig != null && !collect(nestedConfig, prefix, paths, visiting))
+						return false;
+
+					continue;
+				}
+
+				MappedParamConfig<?, ?> mapped = p.findIfMapped();
+				if(mapped.getMappingMode() != MapsTo.Mode.MappedAttached)
+					continue;
+
+				String configuredPath = StringUtils.defaultIfBlank(mapped.getPath().value(), p.getCode());
+				if(!SUPPORTED_PATH.matcher(configuredPath).matches())
+					return false;
+
+				String path = prefix + StringUtils.removeStart(configuredPath, "/").replace("/", PATH_SEPARATOR);
+
+				if(nestedConfig != null && nestedConfig.isMapped() && mapped.getPath().nature() == MapsTo.Nature.Default) {
+					if(!collect(nestedConfig, path + PATH_SEPARATOR, paths, visiting))
+						return false;
+
+					continue;
+				}
+				paths.add(path);
+			}
+			return true;
+
+		} finally {
+			visiting.remove(viewConfig);
+		}
+	}
+}
@@ -15,16 +15,23 @@
  */
 package com.antheminc.oss.nimbus.domain.config.builder;
 
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
 
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.core.annotation.AnnotationUtils;
@@ -32,9 +39,14 @@ import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.RegexPatternTypeFilter;
 
 import com.antheminc.oss.nimbus.InvalidConfigException;
+import com.antheminc.oss.nimbus.domain.defn.Constants;
 import com.antheminc.oss.nimbus.domain.defn.Domain;
+import com.antheminc.oss.nimbus.domain.defn.Repo;
+import com.antheminc.oss.nimbus.domain.model.config.ExecutionConfig;
 import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
 import com.antheminc.oss.nimbus.domain.model.config.ModelConfig.MappedModelConfig;
+import com.antheminc.oss.nimbus.domain.model.config.ParamConfig;
+import com.antheminc.oss.nimbus.domain.model.config.ParamConfigType;
 import com.antheminc.oss.nimbus.domain.model.config.builder.EntityConfigBuilder;
 import com.antheminc.oss.nimbus.domain.model.config.builder.EntityConfigVisitor;
 import com.antheminc.oss.nimbus.support.JustLogit;
@@ -50,6 +62,8 @@ import lombok.Getter;
 @Getter(value=AccessLevel.PROTECTED)
 public class DomainConfigBuilder {
 
+	private static final String USER_PATH_MARKER = Constants.MARKER_PLATFROM_EXPR_PREFIX.code + Constants.MARKER_SESSION_SELF.code;
+
 	private final Map<String, ModelConfig<?>> cacheDomainRootModel;
 	private final Map<ModelConfig<?>, List<MappedModelConfig<?, ?>>> cachedMapsTo2MappedModel;
 	
@@ -129,6 +143,8 @@ public class DomainConfigBuilder {
 		
 		rootBasePackages.forEach(this::handlePackage);
 		
+		getCacheDomainRootModel().values().forEach(this::validateShared);
+		
 		logit.trace(()->"End-> Load model config...");
 	}
 	
@@ -148,4 +164,76 @@ public class DomainConfigBuilder {
 		ModelConfig<T> mConfig = getConfigBuilder().load(clazz, getConfigVisitor());
 		getCacheDomainRootModel().put(domain.value(), mConfig);
 	}
+	
+	/**
+	 * <p>Validates a root domain shared across sessions with {@link Repo.Cache#rep_shared}. Its model is built under the
+	 * session of the first user loading it, so neither its params nor those of its core may resolve paths against the
+	 * logged in user. Its overlay, if any, must be a root domain cached in the user session.
+	 */
+	public void validateShared(ModelConfig<?> rootDomainConfig) {
+		if(!Repo.Cache.isShared(rootDomainConfig.getRepo()))
+			return;
+		
+		Set<ModelConfig<?>> visited = new HashSet<>();
+		validateNotUserDependent(rootDomainConfig, rootDomainConfig, visited);
+		if(rootDomainConfig.isMapped())
+			validateNotUserDependent(rootDomainConfig, rootDomainConfig.findIfMapped().getMapsToConfig(), visited);
+		
+		String overlay = rootDomainConfig.getRepo().overlay();
+		if(StringUtils.isEmpty(overlay))
+			return;
+		
+		ModelConfig<?> overlayConfig = getRootDomain(overlay);
+		if(overlayConfig == null || overlayConfig.getRepo() == null || overlayConfig.getRepo().cache() != Repo.Cache.rep_device)
+			throw new InvalidConfigException("Overlay \""+overlay+"\" of shared domain \""+rootDomainConfig.getAlias()
+					+"\" must be a root domain cached in the user session with "+Repo.Cache.rep_device);
+	}
+	
+	private void validateNotUserDependent(ModelConfig<?> rootDomainConfig, ModelConfig<?> mConfig, Set<ModelConfig<?>> visited) {
+		if(mConfig == null || !visited.add(mConfig) || mConfig.getParamConfigs() == null)
+			return;
+		
+		mConfig.getParamConfigs().forEach(p -> validateNotUserDependent(rootDomainConfig, mConfig, p, visited));
+	}
+	
+	private void validateNotUserDependent(ModelConfig<?> rootDomainConfig, ModelConfig<?> mConfig, ParamConfig<?> p, Set<ModelConfig<?>> visited) {
+		Optional<Annotation> userDependent = findUserDependentAnnotation(p);
+		if(userDependent.isPresent())
+			throw new InvalidConfigException("Param \""+p.getCode()+"\" of model: "+mConfig.getReferredClass()+" resolves a path against the logged in user in: "
+					+userDependent.get()+", which is not supported in shared domain \""+rootDomainConfig.getAlias()+"\". Declare it in the overlay domain instead.");
+		
+		ParamConfigType type = p.getType();
+		if(type.isCollection())
+			validateNotUserDependent(rootDomainConfig, mConfig, type.findIfCollection().getElementConfig(), visited);
+		else if(type.isNested())
+			validateNotUserDependent(rootDomainConfig, type.findIfNested().getModelConfig(), visited);
+	}
+	
+	private static Optional<Annotation> findUserDependentAnnotation(ParamConfig<?> p) {
+		List<Annotation> annotations = new ArrayList<>();
+		Optional.ofNullable(p.getExecutionConfig()).map(ExecutionConfig::get).ifPresent(annotations::addAll);
+		Optional.ofNullable(p.getValues()).ifPresent(annotations::add);
+		Optional.ofNullable(p.getEventHandlerConfig())
+			.ifPresent(h -> Stream.of(h.getOnParamCreateAnnotations(), h.getOnStateLoadAnnotations(), h.getOnStateLoadNewAnnotations(), 
+						h.getOnStateChangeAnnotations(), h.getOnPersistAnnotations())
+					.filter(Objects::nonNull)
+					.forEach(annotations::addAll));
+		
+		return annotations.stream()
+				.filter(a -> isUserDependent(AnnotationUtils.getAnnotationAttributes(a, false, true)))
+				.findFirst();
+	}
+	
+	private static boolean isUserDependent(Object attributeValue) {
+		if(attributeValue instanceof String)
+			return StringUtils.containsIgnoreCase((String)attributeValue, USER_PATH_MARKER);
+		
+		if(attributeValue instanceof Object[])
+			return Stream.of((Object[])attributeValue).anyMatch(DomainConfigBuilder::isUserDependent);
+		
+		if(attributeValue instanceof Map)
+			return ((Map<?, ?>)attributeValue).values().stream().anyMatch(DomainConfigBuilder::isUserDependent);
+		
+		return false;
+	}
 }
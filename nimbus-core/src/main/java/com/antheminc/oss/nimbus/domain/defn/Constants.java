@@ -102,6 +102,7 @@ public enum Constants {
 	/* search request param constants */
 	SEARCH_REQ_PROJECT_ALIAS_MARKER("projection.alias"),
 	SEARCH_REQ_PROJECT_MAPPING_MARKER("projection.mapsTo"),
+	SEARCH_REQ_PROJECT_PATHS_MARKER("projection.paths"),
 	
 	SEARCH_REQ_AGGREGATE_MARKER("aggregate"),
 	SEARCH_REQ_AGGREGATE_PIPELINE("pipeline"),
@@ -117,6 +118,7 @@ public enum Constants {
 	SEARCH_REQ_PAGINATION_SIZE("pageSize"),
 	SEARCH_REQ_PAGINATION_PAGE_NUM("page"),
 	SEARCH_REQ_PAGINATION_SORT_PROPERTY("sortBy"),
+	SEARCH_REQ_PAGINATION_TOTAL_COUNT("totalCount"),
 	
 	SEARCH_NAMED_QUERY_DELIMTER("~~"),
 	SEARCH_NAMED_QUERY_RESULT("result"),
@@ -90,6 +90,30 @@ public @interface Execution {
 		 * &#64;{@code Config} will always execute.
 		 */
 		String when() default TRUE;
+
+		/**
+		 * <p>Key of the parallel group this &#64;{@code Config} belongs to.
+		 * <p>Consecutive configs declaring the same group are executed
+		 * concurrently and their outputs are merged in declared order. Only
+		 * configs executing against a domain other than that of the
+		 * decorated param are run concurrently, and only outside of an
+		 * active transaction; others run one after another as usual.
+		 * The {@link #when()} condition and url of each member are
+		 * resolved in declared order, after the preceding members running
+		 * on the calling thread have executed. Members of a group must not
+		 * depend on the outcome of concurrently running members, nor call
+		 * back into the model of the decorated param.
+		 * <p>If not provided, this &#64;{@code Config} is executed on its own.
+		 */
+		String group() default StringUtils.EMPTY;
+
+		/**
+		 * <p>Maximum time in milliseconds to await completion of the
+		 * {@link #group()} this &#64;{@code Config} belongs to. The largest
+		 * value declared within a group applies. If not provided,
+		 * {@code nimbus.config.parallel.timeoutMillis} applies.
+		 */
+		long groupTimeoutMillis() default 0;
 	}
 
 	/**
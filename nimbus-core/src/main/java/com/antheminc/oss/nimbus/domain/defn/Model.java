@@ -76,9 +76,47 @@ public @interface Model {
 			 * caching defined within the {@link Command} execution lifecycle,
 			 * but enabling this property will result in a more aggressive cache
 			 * retrieval strategy by fetching from the cache before the
-			 * {@link Command} has a chance to execute.
+			 * {@link Command} has a chance to execute. Plain lookups by
+			 * paramCode not found in the cache are read from the in-memory
+			 * static code value index, when available.
 			 */
 			boolean useParamValuesCacheOnLoad() default true;
+			
+			/**
+			 * <p>When {@code true}, values retrieved with {@link #url()} are
+			 * held in an application wide cache keyed by the resolved url, for
+			 * the duration configured by
+			 * {@code nimbus.param.values.cache.app.ttlSeconds}. Applies to any
+			 * values source, and should only be used for urls whose result
+			 * does not depend on the user.
+			 */
+			boolean useAppCacheOnLoad() default false;
+		}
+		
+		/**
+		 * <p>Identifies the elements of the decorated collection by the
+		 * value of the given attribute of the element, e.g. its {@code id}.
+		 * Setting the state of the collection then updates the current
+		 * element having the same key as a new element, adds new elements
+		 * having no match and removes current elements left unmatched,
+		 * instead of setting the elements by position, so that retained
+		 * elements keep their params. This applies as long as the new
+		 * state keeps the retained elements in their current order, with
+		 * the added ones at its end, since element params are not moved.
+		 * A new state ordering them otherwise is set by position, so that
+		 * the collection always takes the order of the new state.
+		 * 
+		 * <p>Applies to collections of nested elements only.
+		 */
+		@Retention(RetentionPolicy.RUNTIME)
+		@Target({ElementType.FIELD})
+		@ConfigExtension
+		public @interface ElemKey {
+			
+			/**
+			 * name of the attribute of the element holding its key
+			 */
+			String value() default "id";
 		}
 
 	}
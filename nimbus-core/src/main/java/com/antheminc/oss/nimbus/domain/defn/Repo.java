@@ -60,13 +60,53 @@ public @interface Repo {
 	/* 1nd level repository: cache (distributed session or sticky) */
 	public enum Cache {
 		rep_none,
-		rep_device;
+		rep_device,
+		/**
+		 * <p>Caches the persisted state of the decorated domain entity across
+		 * sessions, for read-mostly domains such as reference data. {@code _get}
+		 * by refId and, when enabled, {@code _search} results are served from an
+		 * application wide cache that is bounded in size and time-to-live and is
+		 * invalidated on write of the domain entity. <p>The domain state itself is
+		 * not held in the user session.
+		 * 
+		 * @see com.antheminc.oss.nimbus.domain.model.state.repo.ModelRepositoryCache
+		 */
+		rep_app,
+		/**
+		 * <p>Shares one quad model of the decorated root domain across the
+		 * sessions of all users with the same roles, for read-only pages such as
+		 * reference data views and dashboards. The model is built once per domain
+		 * uri and set of roles, and only admits commands which read it, i.e.
+		 * {@code _get} executing no configs. It is invalidated on write of its
+		 * core entity. <p>State specific to the user is held by the session
+		 * cached domain named by {@link Repo#overlay()}. <p>The model is built
+		 * under the session of the first user loading it, so its params must not
+		 * resolve paths against the logged in user, e.g. {@code <!#self.loginId!>},
+		 * which is rejected when the domain config is loaded.
+		 * 
+		 * @see com.antheminc.oss.nimbus.domain.cmd.exec.internal.SharedQuadModelCache
+		 */
+		rep_shared,
+		/**
+		 * <p>Only applies to the {@code cacheState} of a
+		 * {@link com.antheminc.oss.nimbus.domain.defn.MapsTo.DetachedState}
+		 * with auto load. Holds the state loaded by the detached param for a
+		 * short time-to-live, shared across sessions, for commands whose result
+		 * does not depend on the user.
+		 * 
+		 * @see com.antheminc.oss.nimbus.domain.model.state.repo.DefaultParamStateRepositoryDetached
+		 */
+		rep_app_detached;
 //		rep_user,
 //		rep_entity;
 		
 		public static boolean exists(Repo repo) {
 			return repo!=null && repo.cache()!=Repo.Cache.rep_none;
 		}
+		
+		public static boolean isShared(Repo repo) {
+			return repo!=null && repo.cache()==Repo.Cache.rep_shared;
+		}
 	}
 	
 	public enum Remote {
@@ -97,6 +137,19 @@ public @interface Repo {
 	 */
 	String modelRepositoryBean() default "";
 	
+	/**
+	 * <p>The alias of a domain, cached in the user session with
+	 * {@link Cache#rep_device}, which overlays a domain shared across sessions
+	 * with {@link Cache#rep_shared} with the state specific to the user.
+	 * <p>Commands against a param of the shared domain whose path the overlay
+	 * domain declares as well are executed against the overlay domain of the
+	 * same refId instead, e.g. {@code /dashboard:1/filter/_update} against
+	 * {@code /dashboard_user:1/filter}. All other commands are executed against
+	 * the shared model.
+	 * <p>{@code overlay} is used exclusively with {@link Cache#rep_shared}.
+	 */
+	String overlay() default "";
+	
 	@Retention(RetentionPolicy.RUNTIME)
 	@Target(value=ElementType.TYPE)
 	@interface NamedNativeQuery {
@@ -5,6 +5,8 @@ package com.antheminc.oss.nimbus.domain.defn.builder.internal;
 
 import java.lang.annotation.Annotation;
 
+import org.apache.commons.lang3.StringUtils;
+
 import com.antheminc.oss.nimbus.domain.Event;
 import com.antheminc.oss.nimbus.domain.defn.Execution;
 import com.antheminc.oss.nimbus.domain.defn.Execution.Config;
@@ -45,6 +47,12 @@ public class ExecutionConfigBuilder {
 			public int order() {
 				return order;
 			}
+			public String group() {
+				return StringUtils.EMPTY;
+			}
+			public long groupTimeoutMillis() {
+				return 0;
+			}
 			public Class<? extends Annotation> annotationType() {
 		        return Execution.Config.class;
 		    }
@@ -6,6 +6,9 @@ package com.antheminc.oss.nimbus.domain.model.config;
 import java.lang.annotation.Annotation;
 import java.util.List;
 
+import com.antheminc.oss.nimbus.domain.cmd.exec.ConfigUrlPlan;
+import com.antheminc.oss.nimbus.domain.defn.Execution.Config;
+
 /**
  * @author Rakesh Patel
  *
@@ -13,5 +16,12 @@ import java.util.List;
 public interface ExecutionConfig {
 
 	public List<Annotation> get();
+	
+	/**
+	 * @return the url plan compiled for the given config when built, or {@code null} if none was compiled
+	 */
+	default ConfigUrlPlan findUrlPlan(Config config) {
+		return null;
+	}
 
 }
@@ -28,6 +28,7 @@ import com.antheminc.oss.nimbus.domain.defn.Domain.ListenerType;
 import com.antheminc.oss.nimbus.domain.defn.MapsTo;
 import com.antheminc.oss.nimbus.domain.defn.MapsTo.Mode;
 import com.antheminc.oss.nimbus.domain.defn.MapsTo.Path;
+import com.antheminc.oss.nimbus.domain.defn.Model.Param.ElemKey;
 import com.antheminc.oss.nimbus.domain.defn.Model.Param.Values;
 import com.antheminc.oss.nimbus.domain.defn.extension.Content.Label;
 import com.antheminc.oss.nimbus.entity.Findable;
@@ -104,6 +105,19 @@ public interface ParamConfig<P> extends EntityConfig<P>, Findable<String> {
 		}
 		return false;
 	}
+	
+	@JsonIgnore
+	default ElemKey findElemKey() {
+		if(CollectionUtils.isEmpty(getExtensions()))
+			return null;
+		
+		return getExtensions().stream()
+				.map(AnnotationConfig::getAnnotation)
+				.filter(a->a.annotationType()==ElemKey.class)
+				.map(ElemKey.class::cast)
+				.findFirst()
+				.orElse(null);
+	}
 
 	
 	public interface MappedParamConfig<P, M> extends ParamConfig<P>, MappedConfig<P, M> {
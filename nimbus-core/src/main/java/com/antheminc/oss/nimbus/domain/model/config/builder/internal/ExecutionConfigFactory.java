@@ -4,11 +4,18 @@
 package com.antheminc.oss.nimbus.domain.model.config.builder.internal;
 
 import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
 
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.env.PropertyResolver;
+
+import com.antheminc.oss.nimbus.domain.cmd.exec.ConfigUrlPlan;
+import com.antheminc.oss.nimbus.domain.cmd.exec.ParamPathExpressionParser;
 import com.antheminc.oss.nimbus.domain.defn.Execution.Config;
 import com.antheminc.oss.nimbus.domain.defn.Execution.DetourConfig;
 import com.antheminc.oss.nimbus.domain.model.config.ExecutionConfig;
 import com.antheminc.oss.nimbus.domain.model.config.internal.DefaultExecutionConfig;
+import com.antheminc.oss.nimbus.support.JustLogit;
 
 /**
  * @author Rakesh Patel
@@ -16,6 +23,20 @@ import com.antheminc.oss.nimbus.domain.model.config.internal.DefaultExecutionCon
  */
 public class ExecutionConfigFactory {
 	
+	private static final JustLogit logit = new JustLogit(ExecutionConfigFactory.class);
+	
+	private static final String PROPERTY_PLACEHOLDER_PREFIX = "${";
+	
+	private final PropertyResolver propertyResolver;
+	
+	public ExecutionConfigFactory() {
+		this(null);
+	}
+	
+	public ExecutionConfigFactory(PropertyResolver propertyResolver) {
+		this.propertyResolver = propertyResolver;
+	}
+	
 	public ExecutionConfig build(AnnotatedElement aElem) {
 		final DefaultExecutionConfig executionConfig = new DefaultExecutionConfig();
 		
@@ -27,7 +48,43 @@ public class ExecutionConfigFactory {
 		
 		executionConfig.sort();
 		
+		for(Config config : arr)
+			compileUrlPlan(executionConfig, config);
+		
+		for(DetourConfig detourConfig : arr2) {
+			compileUrlPlan(executionConfig, detourConfig.main());
+			compileUrlPlan(executionConfig, detourConfig.onException());
+		}
+		
 		return executionConfig;	
 		
 	}
+	
+	/**
+	 * Configs whose url cannot be compiled, e.g. due to a missing property, are left to be resolved on execution where the
+	 * failure surfaces as before. So are urls whose property values add or alter placeholders, as on execution those are
+	 * resolved as param paths only, after search markers have been resolved.
+	 */
+	protected void compileUrlPlan(DefaultExecutionConfig executionConfig, Config config) {
+		if(StringUtils.isBlank(config.url()))
+			return;
+		
+		try {
+			String template = config.url();
+			if(StringUtils.contains(template, PROPERTY_PLACEHOLDER_PREFIX)) {
+				if(propertyResolver == null)
+					return;
+				
+				template = propertyResolver.resolveRequiredPlaceholders(template);
+				
+				if(!new ArrayList<>(ParamPathExpressionParser.parse(config.url()).values())
+						.equals(new ArrayList<>(ParamPathExpressionParser.parse(template).values())))
+					return;
+			}
+			executionConfig.addUrlPlan(config, ConfigUrlPlan.compile(config.url(), template));
+			
+		} catch (RuntimeException ex) {
+			logit.debug(() -> "Skipping url plan of config: " + config + ", resolving its url on execution", ex);
+		}
+	}
 }
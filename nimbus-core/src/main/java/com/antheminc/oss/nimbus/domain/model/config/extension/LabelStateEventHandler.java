@@ -17,13 +17,17 @@ package com.antheminc.oss.nimbus.domain.model.config.extension;
 
 import java.util.HashSet;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import com.antheminc.oss.nimbus.InvalidConfigException;
+import com.antheminc.oss.nimbus.InvalidOperationAttemptedException;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandPathVariableResolver;
+import com.antheminc.oss.nimbus.domain.cmd.exec.ParamPathExpressionParser;
 import com.antheminc.oss.nimbus.domain.defn.extension.Content;
 import com.antheminc.oss.nimbus.domain.defn.extension.Content.Label;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
@@ -37,6 +41,45 @@ import com.antheminc.oss.nimbus.domain.model.state.event.StateEventHandlers.OnSt
  */
 public class LabelStateEventHandler extends AbstractConfigEventHandler implements OnStateLoadHandler<Label> {
 
+	private static final String PROPERTY_PLACEHOLDER_PREFIX = "${";
+	
+	/* label states of labels resolving alike for every param, keyed by the label annotation which includes its locale */
+	private final Map<Label, LabelState> sharedLabelStates = new ConcurrentHashMap<>();
+	
+	/**
+	 * <p>{@link LabelState} shared by all params configured with the same {@link Label}, which therefore must not be
+	 * modified.
+	 */
+	static final class SharedLabelState extends LabelState {
+		
+		SharedLabelState(LabelState resolved) {
+			super.setLocale(resolved.getLocale());
+			super.setText(resolved.getText());
+			super.setHelpText(resolved.getHelpText());
+			super.setCssClass(resolved.getCssClass());
+		}
+		
+		@Override
+		public void setLocale(String locale) {
+			throw new InvalidOperationAttemptedException("Shared label state must not be modified: "+this);
+		}
+		
+		@Override
+		public void setText(String text) {
+			throw new InvalidOperationAttemptedException("Shared label state must not be modified: "+this);
+		}
+		
+		@Override
+		public void setHelpText(String helpText) {
+			throw new InvalidOperationAttemptedException("Shared label state must not be modified: "+this);
+		}
+		
+		@Override
+		public void setCssClass(String cssClass) {
+			throw new InvalidOperationAttemptedException("Shared label state must not be modified: "+this);
+		}
+	}
+	
 	public LabelStateEventHandler(CommandPathVariableResolver cmdPathResolver) {
 		super(cmdPathResolver);
 	}
@@ -65,7 +108,7 @@ public class LabelStateEventHandler extends AbstractConfigEventHandler implement
 			return;
 		}
 
-		LabelState labelState = convert(configuredAnnotation, contextParam);
+		LabelState labelState = resolve(configuredAnnotation, contextParam);
 		validateAndAdd(labelState, targetParam, contextParam);
 	}
 
@@ -96,6 +139,37 @@ public class LabelStateEventHandler extends AbstractConfigEventHandler implement
 		return labelState;
 	}
 
+	/**
+	 * <p>Resolve the provided {@code label} into its {@link LabelState}
+	 * equivalent as {@link #convert(Label, Param)} does. <p>A label without
+	 * any placeholders resolves alike for every param, so is converted once
+	 * and the resulting {@link SharedLabelState} returned for every param
+	 * configured with it.
+	 * @param label the {@link Label} object to resolve
+	 * @param param the {@link Param} from which to resolve pathing information
+	 *            from
+	 * @return the resolved {@link LabelState} object
+	 */
+	public LabelState resolve(Label label, Param<?> param) {
+		if(!isParamIndependent(label))
+			return convert(label, param);
+		
+		LabelState shared = sharedLabelStates.get(label);
+		if(shared != null)
+			return shared;
+		
+		shared = new SharedLabelState(convert(label, param));
+		LabelState existing = sharedLabelStates.putIfAbsent(label, shared);
+		return existing != null ? existing : shared;
+	}
+	
+	private boolean isParamIndependent(Label label) {
+		return !ParamPathExpressionParser.containsPrefixSuffix(label.value()) 
+				&& !ParamPathExpressionParser.containsPrefixSuffix(label.helpText())
+				&& !StringUtils.contains(label.value(), PROPERTY_PLACEHOLDER_PREFIX)
+				&& !StringUtils.contains(label.helpText(), PROPERTY_PLACEHOLDER_PREFIX);
+	}
+	
 	@Override
 	public void onStateLoad(Label configuredAnnotation, Param<?> param) {
 		addLabelToState(configuredAnnotation, param);
@@ -55,7 +55,7 @@ public class TableBasedStateLoadEventHandler<T extends Annotation> extends Abstr
 				if (CollectionUtils.isNotEmpty(colElemParamConfig.getLabels())) {
 					Set<LabelState> listParamLabels = new HashSet<>();
 					colElemParamConfig.getLabels()
-							.forEach((label) -> listParamLabels.add(getLabelStateLoadHandler().convert(label, param)));
+							.forEach((label) -> listParamLabels.add(getLabelStateLoadHandler().resolve(label, param)));
 					elemLabels.put(colElemParamConfig.getId(), listParamLabels);
 				}
 			}
@@ -7,11 +7,15 @@ import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.CollectionUtils;
 
+import com.antheminc.oss.nimbus.domain.cmd.exec.ConfigUrlPlan;
+import com.antheminc.oss.nimbus.domain.defn.Execution.Config;
 import com.antheminc.oss.nimbus.domain.model.config.ExecutionConfig;
 
 /**
@@ -21,6 +25,8 @@ import com.antheminc.oss.nimbus.domain.model.config.ExecutionConfig;
 public class DefaultExecutionConfig implements ExecutionConfig {
 	
 	private List<Annotation> execConfigs;
+	
+	private final Map<Config, ConfigUrlPlan> urlPlans = new IdentityHashMap<>();
 
 	public void addAll(Annotation[] configAnnotations) {
 		if(execConfigs == null) {
@@ -43,9 +49,18 @@ public class DefaultExecutionConfig implements ExecutionConfig {
 		});
 	}
 	
+	public void addUrlPlan(Config config, ConfigUrlPlan urlPlan) {
+		urlPlans.put(config, urlPlan);
+	}
+	
 	@Override
 	public List<Annotation> get() {
 		return execConfigs;
 	}
+	
+	@Override
+	public ConfigUrlPlan findUrlPlan(Config config) {
+		return urlPlans.get(config);
+	}
 
 }
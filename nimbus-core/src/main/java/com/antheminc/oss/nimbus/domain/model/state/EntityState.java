@@ -21,7 +21,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -105,12 +107,19 @@ public interface EntityState<T> {
 	
 	Mapped<T, ?> findIfMapped();
 	
-	@Getter @RequiredArgsConstructor @ToString
+	@Getter @RequiredArgsConstructor @ToString(of="pd")
 	public static class ValueAccessor {
 
 		@JsonIgnore
 		private final PropertyDescriptor pd;
 		
+		/* accessors generated by JavaBeanHandlerLambda, bound on first use */
+		@JsonIgnore @Setter
+		private volatile Function<Object, Object> boundReader;
+		
+		@JsonIgnore @Setter
+		private volatile BiConsumer<Object, Object> boundWriter;
+		
 		public Method getReadMethod() {
 			return pd.getReadMethod();
 		}
@@ -183,6 +192,9 @@ public interface EntityState<T> {
 		T instantiateOrGet();
 		T instantiateAndSet();
 		
+		/**
+		 * @return leaf state of the associated param, shared and not to be modified, see {@link Param#getLeafState()}
+		 */
 		T getLeafState();
 		
 		T getState();
@@ -235,8 +247,25 @@ public interface EntityState<T> {
 		ParamConfig<T> getConfig();
 		
 		T getPreviousLeafState();
+		
+		/**
+		 * <p>Entity pojo of this param's state. For mapped nested params, the entity is assembled from the state of the
+		 * nested params and reused, together with the entities of its nested params, until the state of the runtime
+		 * changes. It is hence shared with other callers and must not be modified, nor kept as the state of another
+		 * param. Use {@link #assembleLeafState()} for an entity of the caller's own.
+		 * @return entity pojo of this param's state
+		 */
 		T getLeafState();
 		
+		/**
+		 * <p>Same as {@link #getLeafState()}, except that the entity of a mapped nested param, and of each of its nested
+		 * params, is assembled anew and not reused by other callers.
+		 * @return entity pojo of this param's state, owned by the caller when this param is mapped
+		 */
+		default T assembleLeafState() {
+			return getLeafState();
+		}
+		
 		@JsonIgnore
 		Model<?> getParentModel();
 		
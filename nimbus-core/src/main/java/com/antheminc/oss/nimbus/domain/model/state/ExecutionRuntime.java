@@ -15,6 +15,7 @@
  */
 package com.antheminc.oss.nimbus.domain.model.state;
 
+import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 
@@ -45,6 +46,45 @@ public interface ExecutionRuntime extends Notification.Dispatcher<Object> {
 	
 	public ExecutionTxnContext getTxnContext();
 	
+	/**
+	 * @return states loaded while the root model is being initialized, keyed by the command uri they were loaded from. 
+	 * These are carried into the memoized states of the next root command execution on this runtime.
+	 */
+	public Map<String, Object> getPrefetchedStates();
+	
+	/**
+	 * @return the states memoized for the current root command execution, or the prefetched states while the root model is
+	 * being initialized ahead of it, otherwise {@code null}. States are keyed by the command uri they were loaded from,
+	 * optionally prefixed with a marker, and are discarded once a param of the domain they were loaded from changes.
+	 */
+	public Map<String, Object> findMemoizedStates();
+	
+	/**
+	 * Admits a root command execution against this runtime, i.e. against the model it executes. Read-only executions are
+	 * admitted concurrently with each other, others exclusively. An execution already admitted on the calling thread
+	 * admits any nested execution.
+	 * 
+	 * @return {@code false} if executions of other threads did not complete, or their {@link #holdOutput() held outputs}
+	 * were not released, within the given time
+	 */
+	public boolean tryAcquireExecution(boolean readOnly, long timeoutMillis) throws InterruptedException;
+	public void releaseExecution(boolean readOnly);
+	
+	/**
+	 * Holds the output of an admitted execution, which refers to the params of the model, e.g. until it is serialized.
+	 * Exclusive executions are not admitted while outputs are held, read-only ones still are.
+	 * 
+	 * @return the release of the held output, to be run once it is no longer read
+	 */
+	public Runnable holdOutput();
+	
+	/**
+	 * @return version of the state of the models executed on this runtime, which changes whenever their state is changed 
+	 * as well as at the start and stop of each root command execution
+	 */
+	public long getStateVersion();
+	public void onStateChange();
+	
 	public <R> R executeInLock(BiFunction<ExecutionTxnContext, String, R> cb);
 	public void executeInLock(BiConsumer<ExecutionTxnContext, String> cb);
 	
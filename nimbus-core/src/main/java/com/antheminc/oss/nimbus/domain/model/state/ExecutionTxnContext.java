@@ -16,6 +16,7 @@
 package com.antheminc.oss.nimbus.domain.model.state;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 
 /**
@@ -31,4 +32,10 @@ public interface ExecutionTxnContext {
 	
 	public void addEvent(ParamEvent event);
 	public List<ParamEvent> getEvents();
+	
+	/**
+	 * @return states memoized for the life of the current root command execution, keyed by the command uri they were 
+	 * loaded from, or {@code null} when no root command is being executed
+	 */
+	public Map<String, Object> getMemoizedStates();
 }
@@ -240,6 +240,11 @@ public class StateHolder {
 			return this.ref.getLeafState();
 		}
 		
+		@Override
+		public T assembleLeafState() {
+			return this.ref.assembleLeafState();
+		}
+		
 		@Override
 		public T getPreviousLeafState() {
 			return this.ref.getPreviousLeafState();
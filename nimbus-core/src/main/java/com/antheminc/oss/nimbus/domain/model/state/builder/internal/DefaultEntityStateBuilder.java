@@ -15,8 +15,12 @@
  */
 package com.antheminc.oss.nimbus.domain.model.state.builder.internal;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import com.antheminc.oss.nimbus.InvalidConfigException;
 import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
@@ -43,6 +47,9 @@ import com.antheminc.oss.nimbus.entity.process.ProcessFlow;
  */
 public class DefaultEntityStateBuilder extends AbstractEntityStateBuilder implements EntityStateBuilder {
 
+	/* configs of params of models mapped without conversion, simulated once per model config and shared by all builds */
+	private final Map<ModelConfig<?>, List<ParamConfig<?>>> noConversionParamConfigs = new ConcurrentHashMap<>();
+	
 	public DefaultEntityStateBuilder(BeanResolverStrategy beanResolver) {
 		super(beanResolver);
 	}
@@ -144,18 +151,13 @@ public class DefaultEntityStateBuilder extends AbstractEntityStateBuilder implem
 										? !requiresConversion(associatedParam)
 												: false;
 		
+		// use Mapped ParamConfigs, if associated param is known to be mapped but w/o any conversion needed (simualate mapped)
+		List<? extends ParamConfig<?>> paramConfigs = isMappedNoConversion ? findNoConversionParamConfigs(mConfig) : mConfig.getParamConfigs();
+		
 		/* iterate through config params and create state instances in the same order */
-		for(ParamConfig<?> mpConfigRawType : mConfig.getParamConfigs()) {
+		for(ParamConfig<?> mpConfigRawType : paramConfigs) {
 			@SuppressWarnings("unchecked")
-			final ParamConfig<P> mpConfig = (ParamConfig<P>)mpConfigRawType;
-			final ParamConfig<P> resolvedParamConfig;
-			
-			// create Mapped ParamConfig during state build, if associated param is known to be mapped but w/o any conversion needed (simualate mapped)
-			if(isMappedNoConversion) {
-				resolvedParamConfig = new MappedDefaultParamConfig.NoConversion<>(mConfig, mpConfig);
-			} else {
-				resolvedParamConfig = mpConfig;
-			}
+			final ParamConfig<P> resolvedParamConfig = (ParamConfig<P>)mpConfigRawType;
 			
 			final DefaultParamState<P> mpState = buildParam(aspectHandlers, mState, resolvedParamConfig, mapsToSAC);
 			 
@@ -166,6 +168,13 @@ public class DefaultEntityStateBuilder extends AbstractEntityStateBuilder implem
 		return mState;
 	}
 	
+	private List<ParamConfig<?>> findNoConversionParamConfigs(ModelConfig<?> mConfig) {
+		return noConversionParamConfigs.computeIfAbsent(mConfig, 
+				c -> c.getParamConfigs().stream()
+						.<ParamConfig<?>>map(mpConfig -> new MappedDefaultParamConfig.NoConversion<>(c, mpConfig))
+						.collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList)));
+	}
+	
 	private boolean requiresConversion(Param<?> p) {
 		Class<?> mappedClass = p.getConfig().getReferredClass();
 		Class<?> mapsToClass = p.findIfMapped().getMapsTo().getConfig().getReferredClass();
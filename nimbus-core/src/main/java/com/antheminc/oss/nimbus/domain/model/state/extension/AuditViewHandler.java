@@ -64,7 +64,8 @@ public class AuditViewHandler implements OnPersistHandler<AuditView> {
 		Object mappedEntity = instantiateEntity(cmd, mappedModelConfig);
 		
 		QuadModel<?, ?> q = getQuadModelBuilder().build(cmd, mappedEntity, coreParam);
-		Object populatedMappedEntity = q.getView().getLeafState();
+		// saved, which assigns its id, hence not shared with the readers of the view
+		Object populatedMappedEntity = q.getView().getAssociatedParam().assembleLeafState();
 		
 		MappedParam auditViewParam = q.getView().getAssociatedParam().findIfMapped();
 		coreParam.deregisterConsumer(auditViewParam, true);
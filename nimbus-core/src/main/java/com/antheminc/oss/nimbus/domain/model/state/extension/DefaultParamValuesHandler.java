@@ -15,8 +15,18 @@
  */
 package com.antheminc.oss.nimbus.domain.model.state.extension;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.cache.Cache;
 import org.springframework.cache.Cache.ValueWrapper;
 import org.springframework.cache.CacheManager;
@@ -25,6 +35,7 @@ import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
 import com.antheminc.oss.nimbus.domain.cmd.Action;
 import com.antheminc.oss.nimbus.domain.cmd.Command;
 import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
+import com.antheminc.oss.nimbus.domain.cmd.CommandElement.Type;
 import com.antheminc.oss.nimbus.domain.cmd.CommandMessage;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.MultiOutput;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecutorGateway;
@@ -35,7 +46,10 @@ import com.antheminc.oss.nimbus.domain.defn.Model.Param.Values.EMPTY;
 import com.antheminc.oss.nimbus.domain.defn.Model.Param.Values.Source;
 import com.antheminc.oss.nimbus.domain.model.config.ParamValue;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.repo.StaticCodeValueIndex;
+import com.antheminc.oss.nimbus.entity.StaticCodeValue;
 import com.antheminc.oss.nimbus.support.JustLogit;
+import com.antheminc.oss.nimbus.support.cache.ExpiringCache;
 import com.antheminc.oss.nimbus.support.pojo.ClassLoadUtils;
 
 import lombok.Getter;
@@ -48,16 +62,32 @@ import lombok.Getter;
 @Getter
 public class DefaultParamValuesHandler implements ParamValuesOnLoadHandler {
 
+	public static final String LOAD_KEY_PREFIX = "@Values:";
+
+	public static final long DEFAULT_APP_CACHE_TTL_MILLIS = 5 * 60 * 1000L;
+	public static final int DEFAULT_APP_CACHE_MAX_ENTRIES = 1000;
+
+	private static final Set<String> BATCHABLE_REQUEST_PARAMS = new HashSet<>(Arrays.asList(
+			Constants.KEY_FUNCTION.code, Constants.SEARCH_REQ_WHERE_MARKER.code, Constants.MARKER_URI_BEHAVIOR.code));
+
 	private final JustLogit logIt = new JustLogit(DefaultParamValuesHandler.class);
 
 	protected final CommandPathVariableResolver pathVariableResolver;
 	protected final CommandExecutorGateway gateway;
 	private final CacheManager cacheManager;
+	private final ExpiringCache<String, List<ParamValue>> appCache;
+	private final StaticCodeValueIndex staticCodeValueIndex;
 
 	public DefaultParamValuesHandler(BeanResolverStrategy beanResolver) {
+		this(beanResolver, DEFAULT_APP_CACHE_TTL_MILLIS, DEFAULT_APP_CACHE_MAX_ENTRIES);
+	}
+
+	public DefaultParamValuesHandler(BeanResolverStrategy beanResolver, long appCacheTtlMillis, int appCacheMaxEntries) {
 		this.pathVariableResolver = beanResolver.get(CommandPathVariableResolver.class);
 		this.gateway = beanResolver.get(CommandExecutorGateway.class);
 		this.cacheManager = beanResolver.get(CacheManager.class);
+		this.appCache = new ExpiringCache<>(appCacheTtlMillis, appCacheMaxEntries);
+		this.staticCodeValueIndex = beanResolver.find(StaticCodeValueIndex.class);
 	}
 
 	@Override
@@ -90,25 +120,145 @@ public class DefaultParamValuesHandler implements ParamValuesOnLoadHandler {
 
 	@SuppressWarnings("unchecked")
 	protected List<ParamValue> fromCommandURL(Values values, Param<?> srcParam) {
+		Command cmd = buildValuesCommand(values, srcParam);
+
+		// retrieve staticCodeValue lookup searches from cache if it
+		// exists, otherwise continue
+		List<ParamValue> cachedValue = findCachedParamValue(values, cmd);
+		if (null != cachedValue) {
+			return cachedValue;
+		}
+
+		// load once per resolved url within the root command execution, e.g. for each element of a grid
+		Map<String, Object> memoizedStates = srcParam.getRootExecution().getExecutionRuntime().findMemoizedStates();
+		if (null == memoizedStates) {
+			return load(values, cmd);
+		}
+
+		String key = buildLoadKey(cmd);
+		if (!memoizedStates.containsKey(key)) {
+			memoizedStates.put(key, load(values, cmd));
+		}
+		return copyOf((List<ParamValue>) memoizedStates.get(key));
+	}
+
+	public Command buildValuesCommand(Values values, Param<?> srcParam) {
 		String valuesUrl = getPathVariableResolver().resolve(srcParam, values.url());
 		valuesUrl = srcParam.getRootExecution().getRootCommand().getRelativeUri(valuesUrl);
 		Command cmd = CommandBuilder.withUri(valuesUrl).getCommand();
 		cmd.setAction(Action._search);
+		return cmd;
+	}
 
-		// retrieve staticCodeValue lookup searches from cache if it
-		// exists, otherwise continue
+	public List<ParamValue> findCachedParamValue(Values values, Command cmd) {
+		if (values.useAppCacheOnLoad()) {
+			List<ParamValue> appCachedValue = getAppCache().get(buildLoadKey(cmd));
+			if (null != appCachedValue) {
+				return copyOf(appCachedValue);
+			}
+		}
 		if (cmd.getRootDomainAlias().equals(Constants.PARAM_VALUES_DOMAIN_ALIAS.code)
 				&& values.useParamValuesCacheOnLoad()) {
 			List<ParamValue> cachedValue = getCachedParamValue(cmd);
-			if (null != cachedValue) {
-				return cachedValue;
+			if (null == cachedValue && null != getStaticCodeValueIndex() && isBatchable(cmd)) {
+				return getStaticCodeValueIndex().findParamValues(findLookupParamCode(cmd));
 			}
+			return cachedValue;
 		}
+		return null;
+	}
+
+	public String buildLoadKey(Command cmd) {
+		return LOAD_KEY_PREFIX + cmd.toUri();
+	}
+
+	public List<ParamValue> load(Values values, Command cmd) {
+		List<ParamValue> result = execute(cmd);
+		cacheIfApplicable(values, cmd, result);
+		return result;
+	}
 
+	@SuppressWarnings("unchecked")
+	protected List<ParamValue> execute(Command cmd) {
 		MultiOutput multiOp = getGateway().execute(new CommandMessage(cmd, null));
 		return (List<ParamValue>) multiOp.getSingleResult();
 	}
 
+	protected void cacheIfApplicable(Values values, Command cmd, List<ParamValue> result) {
+		if (null != values && values.useAppCacheOnLoad() && null != result) {
+			getAppCache().put(buildLoadKey(cmd), copyOf(result));
+		}
+	}
+
+	/**
+	 * <p>Returns {@code true} if the given values command is a plain
+	 * {@code staticCodeValue} lookup by paramCode, which can be loaded along
+	 * with other such lookups in a single query.
+	 */
+	public boolean isBatchable(Command cmd) {
+		if (!StringUtils.equals(cmd.getRootDomainAlias(), Constants.PARAM_VALUES_DOMAIN_ALIAS.code)
+				|| !StringUtils.equals(cmd.getFirstParameterValue(Constants.KEY_FUNCTION.code), Constants.PARAM_VALUES_LOOKUP_FN_KEY.code)) {
+			return false;
+		}
+		if (cmd.getRequestParams().keySet().stream().anyMatch(k -> !BATCHABLE_REQUEST_PARAMS.contains(k))) {
+			return false;
+		}
+		return null != findLookupParamCode(cmd);
+	}
+
+	/**
+	 * <p>Loads the given batchable {@code staticCodeValue} lookups with a
+	 * single query by paramCode.
+	 * 
+	 * @return the values of each lookup keyed by {@link #buildLoadKey(Command)}.
+	 *         Lookups without a matching record are left out, so that they
+	 *         are loaded on their own when read.
+	 * @see #isBatchable(Command)
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, List<ParamValue>> loadBatch(Map<Command, Values> lookups) {
+		Map<String, List<Command>> cmdsByParamCode = new LinkedHashMap<>();
+		lookups.keySet().forEach(cmd -> cmdsByParamCode.computeIfAbsent(findLookupParamCode(cmd), k -> new ArrayList<>()).add(cmd));
+
+		Command first = lookups.keySet().iterator().next();
+		String inClause = cmdsByParamCode.keySet().stream().map(c -> "'" + c + "'").collect(Collectors.joining(","));
+		String batchUri = first.buildUri(Type.DomainAlias) + Constants.SEPARATOR_URI.code + Action._search.name()
+				+ "?" + Constants.KEY_FUNCTION.code + "=query"
+				+ "&" + Constants.SEARCH_REQ_WHERE_MARKER.code + "=" + Constants.PARAM_VALUES_DOMAIN_ALIAS.code + ".paramCode.in(" + inClause + ")";
+
+		MultiOutput multiOp = getGateway().execute(new CommandMessage(CommandBuilder.withUri(batchUri).getCommand(), null));
+		List<StaticCodeValue> records = (List<StaticCodeValue>) multiOp.getSingleResult();
+
+		Map<String, List<StaticCodeValue>> recordsByParamCode = CollectionUtils.isEmpty(records) ? new HashMap<>()
+				: records.stream().collect(Collectors.groupingBy(StaticCodeValue::getParamCode));
+
+		Map<String, List<ParamValue>> result = new LinkedHashMap<>();
+		cmdsByParamCode.forEach((paramCode, cmds) -> {
+			List<StaticCodeValue> matched = recordsByParamCode.get(paramCode);
+
+			// no record, or more than one which is an error of the lookup: leave it to surface when loaded on its own
+			if (null == matched || matched.size() > 1) {
+				return;
+			}
+
+			List<ParamValue> paramValues = matched.get(0).getParamValues();
+
+			cmds.forEach(cmd -> {
+				cacheIfApplicable(lookups.get(cmd), cmd, paramValues);
+				result.put(buildLoadKey(cmd), copyOf(paramValues));
+			});
+		});
+		return result;
+	}
+
+	protected String findLookupParamCode(Command cmd) {
+		return StaticCodeValueIndex.findParamCode(cmd.getFirstParameterValue(Constants.SEARCH_REQ_WHERE_MARKER.code));
+	}
+
+	protected static List<ParamValue> copyOf(List<ParamValue> values) {
+		return null == values ? null : new ArrayList<>(values);
+	}
+
 	@SuppressWarnings("unchecked")
 	protected List<ParamValue> getCachedParamValue(Command cmd) {
 		if (null == this.cacheManager) {
@@ -16,6 +16,7 @@
 package com.antheminc.oss.nimbus.domain.model.state.extension;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -27,9 +28,13 @@ import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
 import com.antheminc.oss.nimbus.domain.cmd.CommandMessage;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.MultiOutput;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecutorGateway;
+import com.antheminc.oss.nimbus.domain.defn.Constants;
 import com.antheminc.oss.nimbus.domain.defn.Converters.ParamConverter;
 import com.antheminc.oss.nimbus.domain.model.config.ParamValue;
+import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionScope;
+import com.antheminc.oss.nimbus.domain.model.state.repo.StaticCodeValueIndex;
 import com.antheminc.oss.nimbus.support.EnableLoggingInterceptor;
+import com.antheminc.oss.nimbus.support.JustLogit;
 
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -42,17 +47,44 @@ import lombok.Getter;
 @Getter(AccessLevel.PROTECTED)
 public class StaticCodeValueBasedCodeToLabelConverter implements ParamConverter<String, String> {
 
+	private static final JustLogit logit = new JustLogit(StaticCodeValueBasedCodeToLabelConverter.class);
+	
 	private CommandExecutorGateway gateway;
 	
+	private StaticCodeValueIndex staticCodeValueIndex;
+	
 	public StaticCodeValueBasedCodeToLabelConverter(BeanResolverStrategy beanResolver) {
 		this.gateway = beanResolver.find(CommandExecutorGateway.class);
+		this.staticCodeValueIndex = beanResolver.find(StaticCodeValueIndex.class);
 	}
 	
-	@SuppressWarnings("unchecked")
+	/**
+	 * @return the label of the given code as indexed by the {@link StaticCodeValueIndex}, otherwise as searched for in
+	 * the static code values of the client and app of the root command in progress, otherwise the code itself
+	 */
 	@Override
 	public String serialize(String input) {
-		//TODO - need to make this generic
-		Command cmd = CommandBuilder.withUri("Anthem/icr/p/staticCodeValue/_search?fn=lookup&where=staticCodeValue.paramValues.any().code.eq('"+input+"')").getCommand();
+		if(getStaticCodeValueIndex() != null) {
+			Optional<String> label = getStaticCodeValueIndex().findLabel(input);
+			if(label.isPresent())
+				return label.get();
+		}
+		
+		Command rootCmd = ExecutionScope.current().getRootCommand();
+		if(rootCmd == null) {
+			logit.debug(() -> "No root command in progress to search static code values of, returning code as is: "+input);
+			return input;
+		}
+		
+		return search(rootCmd, input);
+	}
+	
+	@SuppressWarnings("unchecked")
+	protected String search(Command rootCmd, String input) {
+		String searchUri = rootCmd.getRelativeUri(Constants.SEGMENT_PLATFORM_MARKER.code + Constants.PARAM_VALUES_DOMAIN_ALIAS.code 
+				+ "/_search?fn=lookup&where=" + Constants.PARAM_VALUES_DOMAIN_ALIAS.code + ".paramValues.any().code.eq('"+input+"')");
+		
+		Command cmd = CommandBuilder.withUri(searchUri).getCommand();
 		cmd.setAction(Action._search);
 		
 		CommandMessage cmdMsg = new CommandMessage();
@@ -70,8 +102,6 @@ public class StaticCodeValueBasedCodeToLabelConverter implements ParamConverter<
 					.map((pv)-> pv.getLabel())
 					.findFirst()
 					.orElse(input);
-					
-		
 	}
 	
 	@Override
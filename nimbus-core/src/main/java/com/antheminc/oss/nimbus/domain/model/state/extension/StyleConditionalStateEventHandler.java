@@ -16,8 +16,11 @@
 package com.antheminc.oss.nimbus.domain.model.state.extension;
 
 import java.lang.annotation.Annotation;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.antheminc.oss.nimbus.InvalidOperationAttemptedException;
 import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
 import com.antheminc.oss.nimbus.domain.defn.extension.Style;
 import com.antheminc.oss.nimbus.domain.defn.extension.StyleConditional;
@@ -34,6 +37,24 @@ public class StyleConditionalStateEventHandler extends AssignThenToTargetCaseCon
 
 	public static final JustLogit LOG = new JustLogit();
 
+	/* style states are derived from the style annotation alone, so are shared by all params assigned the same style */
+	private final Map<Style, StyleState> sharedStyleStates = new ConcurrentHashMap<>();
+	
+	/**
+	 * <p>{@link StyleState} shared by all params assigned the same {@link Style}, which therefore must not be modified.
+	 */
+	static final class SharedStyleState extends StyleState {
+		
+		SharedStyleState(String cssClass) {
+			super.setCssClass(cssClass);
+		}
+		
+		@Override
+		public void setCssClass(String cssClass) {
+			throw new InvalidOperationAttemptedException("Shared style state must not be modified: "+this);
+		}
+	}
+	
 	public StyleConditionalStateEventHandler(BeanResolverStrategy beanResolver) {
 		super(beanResolver);
 	}
@@ -48,8 +69,7 @@ public class StyleConditionalStateEventHandler extends AssignThenToTargetCaseCon
 	@Override
 	protected void whenConditionTrue(Object thenValue, Param<?> onChangeParam, Param<?> targetParam) {
 		Style thenAnnotation = (Style) thenValue;
-		StyleState styleState = new StyleState();
-		styleState.setCssClass(thenAnnotation.cssClass());
+		StyleState styleState = sharedStyleStates.computeIfAbsent(thenAnnotation, style -> new SharedStyleState(style.cssClass()));
 		targetParam.setStyle(styleState);
 	}
 }
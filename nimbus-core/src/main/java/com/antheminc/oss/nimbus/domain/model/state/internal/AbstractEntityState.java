@@ -174,6 +174,7 @@ public abstract class AbstractEntityState<T> implements EntityState<T> {
 		String lockId = execRt.tryLock();
 		final Holder<Action> h = new Holder<>();
 		try {
+			execRt.onStateChange();
 			R resp = cb.affectChange(execRt, h, lockId);
 			
 			// fire rules if available at this param level
@@ -181,6 +182,8 @@ public abstract class AbstractEntityState<T> implements EntityState<T> {
 			
 			return resp;
 		} finally {
+			execRt.onStateChange();
+			
 			if(execRt.isLocked(lockId)) {
 				logit.trace(()->"Executing within changeStateTemplate->finally block with lockId: "+lockId+" on param: "+this);
 				
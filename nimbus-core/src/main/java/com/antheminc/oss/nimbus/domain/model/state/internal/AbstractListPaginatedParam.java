@@ -89,12 +89,24 @@ public abstract class AbstractListPaginatedParam<T> extends DefaultParamState<Li
 	@Getter
 	public static class PageWrapper<T> extends PageImpl<T> {
 		
+		/**
+		 * <p>{@code true} when {@link #getTotalElements()} is a lower bound or an estimate rather than an exact count, 
+		 * e.g. so that clients can display "more than N" results.
+		 */
+		private final boolean totalApproximate;
+		
 		public PageWrapper(ListParam<T> p) {
 			super(new ReadOnlyListSupplier<>(p));
+			this.totalApproximate = false;
 		}
 		
 		public PageWrapper(ListParam<T> p, Pageable pageable, long total) {
+			this(p, pageable, total, false);
+		}
+		
+		public PageWrapper(ListParam<T> p, Pageable pageable, long total, boolean totalApproximate) {
 			super(new ReadOnlyListSupplier<>(p), pageable, total);
+			this.totalApproximate = totalApproximate;
 		}
 		
 		@JsonIgnore
@@ -111,6 +123,37 @@ public abstract class AbstractListPaginatedParam<T> extends DefaultParamState<Li
 			private final Supplier<Long> totalSupplier;
 		}
 		
+		/**
+		 * <p>Total count supplier that resolves its delegate at most once per page response and tracks whether the 
+		 * resolved total is exact.
+		 */
+		public static class TotalSupplier implements Supplier<Long> {
+			
+			private final Supplier<Long> delegate;
+			
+			@Getter
+			private final boolean approximate;
+			
+			private volatile Long total;
+			
+			public TotalSupplier(Supplier<Long> delegate, boolean approximate) {
+				this.delegate = delegate;
+				this.approximate = approximate;
+			}
+			
+			@Override
+			public Long get() {
+				if(total == null)
+					total = delegate.get();
+				
+				return total;
+			}
+		}
+		
+		private static boolean isApproximate(Supplier<Long> totalSupplier) {
+			return totalSupplier instanceof TotalSupplier && ((TotalSupplier)totalSupplier).isApproximate();
+		}
+		
 		public static <T> Page<T> getPage(ListParam<T> p, Pageable pageable, Supplier<Long> totalSupplier) {
 
 			Assert.notNull(totalSupplier, "TotalSupplier must not be null!");
@@ -122,7 +165,7 @@ public abstract class AbstractListPaginatedParam<T> extends DefaultParamState<Li
 				} else if(pageable.getPageSize() > p.size()) {
 					return new PageWrapper<T>(p, pageable, p.size());
 				} else {
-					return new PageWrapper<T>(p, pageable, totalSupplier.get());
+					return new PageWrapper<T>(p, pageable, totalSupplier.get(), isApproximate(totalSupplier));
 				}
 			}
 
@@ -130,7 +173,7 @@ public abstract class AbstractListPaginatedParam<T> extends DefaultParamState<Li
 				return new PageWrapper<T>(p, pageable, ((long) pageable.getOffset()) + p.size());
 			}
 
-			return new PageWrapper<T>(p, pageable, totalSupplier.get());
+			return new PageWrapper<T>(p, pageable, totalSupplier.get(), isApproximate(totalSupplier));
 		}
 	}
 }
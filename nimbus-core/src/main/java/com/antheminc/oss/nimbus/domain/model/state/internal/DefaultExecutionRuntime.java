@@ -16,16 +16,30 @@
 package com.antheminc.oss.nimbus.domain.model.state.internal;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 
 import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
+import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.ExecutionModel;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Model;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
 import com.antheminc.oss.nimbus.domain.model.state.ExecutionRuntime;
 import com.antheminc.oss.nimbus.domain.model.state.ExecutionTxnContext;
@@ -35,6 +49,7 @@ import com.antheminc.oss.nimbus.domain.model.state.ParamEvent;
 import com.antheminc.oss.nimbus.domain.model.state.StateEventDelegator;
 import com.antheminc.oss.nimbus.support.JustLogit;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -57,15 +72,27 @@ public class DefaultExecutionRuntime implements ExecutionRuntime {
 	
 	private boolean isStarted;
 	
-	protected JustLogit logit = new JustLogit(this.getClass());
+	/* filled by prefetching threads, values may be null so no ConcurrentHashMap: compound operations synchronize on the map */
+	private final Map<String, Object> prefetchedStates = Collections.synchronizedMap(new HashMap<>());
 	
-	private static final ThreadLocal<DefaultExecutionTxnContext> txnScopeInThread = new ThreadLocal<DefaultExecutionTxnContext>() {
-		@Override
-		protected DefaultExecutionTxnContext initialValue() {
-			return new DefaultExecutionTxnContext();
-		}
-	};
+	/* domain alias each memoized state was loaded from, keyed by its memo key */
+	@Getter(AccessLevel.NONE)
+	private final Map<String, String> memoizedDomainAliases = new ConcurrentHashMap<>();
+	
+	/* fair, so that a waiting exclusive execution is not starved by a stream of read-only ones */
+	private final ReentrantReadWriteLock executionLock = new ReentrantReadWriteLock(true);
+	
+	/* outputs of admitted executions still being read, e.g. serialized, awaited by an exclusive execution */
+	@Getter(AccessLevel.NONE)
+	private int heldOutputs;
+	
+	@Getter(AccessLevel.NONE)
+	private final Object heldOutputsMonitor = new Object();
 	
+	@Getter(AccessLevel.NONE)
+	private final AtomicLong stateVersion = new AtomicLong();
+	
+	protected JustLogit logit = new JustLogit(this.getClass());
 	
 	@Override
 	public synchronized void start() {
@@ -82,9 +109,19 @@ public class DefaultExecutionRuntime implements ExecutionRuntime {
 		this.isStarted = false;
 	}
 	
+	@Override
+	public long getStateVersion() {
+		return stateVersion.get();
+	}
+	
+	@Override
+	public void onStateChange() {
+		stateVersion.incrementAndGet();
+	}
+	
 	@Override
 	public DefaultExecutionTxnContext getTxnContext() {
-		return txnScopeInThread.get();
+		return ExecutionScope.current().getTxnContext();
 	}
 	
 	
@@ -147,6 +184,68 @@ public class DefaultExecutionRuntime implements ExecutionRuntime {
 		return false;
 	}
 	
+	@Override
+	public boolean tryAcquireExecution(boolean readOnly, long timeoutMillis) throws InterruptedException {
+		if(readOnly)
+			return executionLock.readLock().tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+		
+		// a read-only execution cannot be upgraded in place, waiting for it would only time out
+		if(executionLock.getReadHoldCount() > 0 && !executionLock.isWriteLockedByCurrentThread())
+			throw new InvalidStateException("Cannot admit exclusive execution nested within a read-only execution of runtime: "+this);
+		
+		final long deadline = System.currentTimeMillis() + timeoutMillis;
+		if(!executionLock.writeLock().tryLock(timeoutMillis, TimeUnit.MILLISECONDS))
+			return false;
+		
+		boolean admitted = false;
+		try {
+			admitted = executionLock.getWriteHoldCount() > 1 || awaitHeldOutputs(deadline);
+			return admitted;
+		} finally {
+			if(!admitted)
+				executionLock.writeLock().unlock();
+		}
+	}
+	
+	private boolean awaitHeldOutputs(long deadline) throws InterruptedException {
+		synchronized (heldOutputsMonitor) {
+			while(heldOutputs > 0) {
+				long remaining = deadline - System.currentTimeMillis();
+				if(remaining <= 0)
+					return false;
+				
+				heldOutputsMonitor.wait(remaining);
+			}
+			return true;
+		}
+	}
+	
+	@Override
+	public Runnable holdOutput() {
+		synchronized (heldOutputsMonitor) {
+			heldOutputs++;
+		}
+		
+		final AtomicBoolean released = new AtomicBoolean();
+		return () -> {
+			if(!released.compareAndSet(false, true))
+				return;
+			
+			synchronized (heldOutputsMonitor) {
+				heldOutputs--;
+				heldOutputsMonitor.notifyAll();
+			}
+		};
+	}
+	
+	@Override
+	public void releaseExecution(boolean readOnly) {
+		if(readOnly)
+			executionLock.readLock().unlock();
+		else
+			executionLock.writeLock().unlock();
+	}
+	
 	@Override
 	public <R> R executeInLock(BiFunction<ExecutionTxnContext, String, R> cb) {
 		String lockId = tryLock();
@@ -218,29 +317,114 @@ public class DefaultExecutionRuntime implements ExecutionRuntime {
 		} 
 	}
 	
+	@Override
+	public Map<String, Object> findMemoizedStates() {
+		Map<String, Object> memoizedStates = getTxnContext().getMemoizedStates();
+		if(memoizedStates != null) {
+			// domains changed by root commands executing within the current one, e.g. configs of other domains
+			invalidateMemoizedStates(memoizedStates, ExecutionScope.current().pollDomainsChangedByDetached());
+			return memoizedStates;
+		}
+		
+		// root model is being initialized ahead of its root command execution: memoize along with the prefetched states
+		return isRootStateInitializing() ? getPrefetchedStates() : null;
+	}
+	
+	protected boolean isRootStateInitializing() {
+		return getRootExecution() != null && !getRootExecution().isStateInitialized();
+	}
+	
 	@Override
 	public void emitEvent(ParamEvent event) {
-		ExecutionTxnContext txnCtx = getTxnContext();
+		DefaultExecutionTxnContext txnCtx = getTxnContext();
 		txnCtx.addEvent(event);
 		
+		// state of the changed domain may have been loaded before the change, states of other domains are still in sync
+		Set<String> changedDomainAliases = findDomainAliases(event.getParam());
+		invalidateMemoizedStates(txnCtx.getMemoizedStates(), changedDomainAliases);
+		ExecutionScope.current().recordDomainsChanged(changedDomainAliases);
+		
+		// events emitted while the root model is initialized assemble its state, states prefetched for it are still in sync
+		if(!isRootStateInitializing())
+			invalidateMemoizedStates(getPrefetchedStates(), changedDomainAliases);
+		
 		eventDelegator.onEvent(txnCtx, event);
 	}
+	
+	/**
+	 * <p>Removes the memoized states loaded from the domain of the changed param, or from the domain it is mapped to.
+	 * States whose memo key cannot be resolved to a domain are removed on any change.
+	 */
+	protected void invalidateMemoizedStates(Map<String, Object> memoizedStates, Param<?> changed) {
+		invalidateMemoizedStates(memoizedStates, findDomainAliases(changed));
+	}
+	
+	protected void invalidateMemoizedStates(Map<String, Object> memoizedStates, Set<String> changedDomainAliases) {
+		if(memoizedStates == null || memoizedStates.isEmpty() || changedDomainAliases.isEmpty())
+			return;
+		
+		synchronized (memoizedStates) {
+			memoizedStates.keySet().removeIf(key -> {
+				String domainAlias = memoizedDomainAliases.computeIfAbsent(key, DefaultExecutionRuntime::resolveDomainAlias);
+				return StringUtils.isEmpty(domainAlias) || changedDomainAliases.contains(domainAlias);
+			});
+		}
+	}
+	
+	protected Set<String> findDomainAliases(Param<?> changed) {
+		Set<String> aliases = new HashSet<>();
+		Model<?> rootDomain = changed == null ? null : changed.getRootDomain();
+		if(rootDomain == null)
+			return aliases;
+		
+		ModelConfig<?> config = rootDomain.getConfig();
+		aliases.add(config.getAlias());
+		if(config.isMapped())
+			aliases.add(config.findIfMapped().getMapsToConfig().getAlias());
+		
+		return aliases;
+	}
+	
+	/**
+	 * Memo keys are command uris, optionally prefixed with a marker such as {@code @Values:}
+	 */
+	private static String resolveDomainAlias(String memoKey) {
+		int uriStart = StringUtils.indexOf(memoKey, '/');
+		if(uriStart < 0)
+			return StringUtils.EMPTY;
+		
+		try {
+			return StringUtils.defaultString(CommandBuilder.withUri(memoKey.substring(uriStart)).getCommand().getRootDomainAlias());
+		} catch (RuntimeException ex) {
+			return StringUtils.EMPTY;
+		}
+	}
 
 	@Override
 	public void onStartRootCommandExecution(Command cmd) {
+		getTxnContext().startMemoization();
+		synchronized (getPrefetchedStates()) {
+			getTxnContext().getMemoizedStates().putAll(getPrefetchedStates());
+			getPrefetchedStates().clear();
+		}
+		onStateChange();
+		
 		eventDelegator.onStartRootCommandExecution(cmd);
 	}
 	
 	@Override
 	public void onStopRootCommandExecution(Command cmd) {
 		eventDelegator.onStopRootCommandExecution(cmd, getTxnContext());
-		txnScopeInThread.set(new DefaultExecutionTxnContext());
+		getPrefetchedStates().clear();
+		memoizedDomainAliases.clear();
+		ExecutionScope.current().resetTxnContext();
+		onStateChange();
 	}
 	
 	@Override
 	public void onStartCommandExecution(Command cmd) {
 		// TODO change events based command lifecycle
-		txnScopeInThread.get().getEvents().clear();
+		getTxnContext().getEvents().clear();
 		
 		eventDelegator.onStartCommandExecution(cmd);	
 	}
@@ -250,6 +434,6 @@ public class DefaultExecutionRuntime implements ExecutionRuntime {
 		eventDelegator.onStopCommandExecution(cmd, getTxnContext());
 		
 		// TODO change events based command lifecycle
-		txnScopeInThread.get().getEvents().clear();
+		getTxnContext().getEvents().clear();
 	}
 }
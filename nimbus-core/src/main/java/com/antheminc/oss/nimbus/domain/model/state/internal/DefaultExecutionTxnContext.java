@@ -16,7 +16,9 @@
 package com.antheminc.oss.nimbus.domain.model.state.internal;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
@@ -40,6 +42,8 @@ public class DefaultExecutionTxnContext implements ExecutionTxnContext {
 
 	private final BlockingQueue<Notification<Object>> notifications = new LinkedBlockingQueue<>();
 	private final List<ParamEvent> events = new ArrayList<>();
+	
+	private Map<String, Object> memoizedStates;
 	private final static JustLogit LOG = new JustLogit();
 	
 	@Override
@@ -57,4 +61,8 @@ public class DefaultExecutionTxnContext implements ExecutionTxnContext {
 	public void addEvent(ParamEvent event) {
 		getEvents().add(event);
 	}
+	
+	public void startMemoization() {
+		setMemoizedStates(new HashMap<>());
+	}
 }
@@ -62,6 +62,7 @@ import com.antheminc.oss.nimbus.support.pojo.JavaBeanHandlerUtils;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -90,50 +91,72 @@ public class DefaultParamState<T> extends AbstractEntityState<T> implements Para
 	@JsonIgnore
 	private T previousLeafState;
 	
-	@JsonIgnore
-	private RemnantState<Boolean> visibleState = this.new RemnantState<>(true);
+	@SuppressWarnings("unchecked")
+	private static final Class<? extends ValidationGroup>[] NO_VALIDATION_GROUPS = new Class[0];
 	
-	@JsonIgnore
-	private RemnantState<Boolean> enabledState = this.new RemnantState<>(true);
+	/* most params keep their context states at the defaults, so these are only allocated once one of them changes */
+	@JsonIgnore @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+	private ContextStates contextStates;
 	
-	@JsonIgnore
-	@SuppressWarnings("unchecked")
-	private RemnantState<Class<? extends ValidationGroup>[]> activeValidationGroupsState = new RemnantState<>(new Class[0]);
+	@JsonIgnore @Getter(AccessLevel.PACKAGE) @Setter(AccessLevel.PACKAGE)
+	private transient volatile MappedStateAssembler.Assembled assembled;
 	
 	private List<ParamValue> values;
 	
-	@JsonIgnore
-	private RemnantState<Set<Message>> messageState = this.new RemnantState<Set<Message>>(null) {
-		@Override
-		public boolean hasChanged() {
-			Set<Message> prev = CollectionUtils.isEmpty(getPrevState()) ? null : getPrevState();
-			Set<Message> curr = CollectionUtils.isEmpty(getCurrState()) ? null : getCurrState();
-			
-			boolean isEquals = new EqualsBuilder().append(curr, prev).isEquals();
-			return !isEquals;
-		}
-	};
-	
-	@JsonIgnore
-	private RemnantState<Set<LabelState>> labelState = this.new RemnantState<Set<LabelState>>(null) {
-		@Override
+	@Getter
+	protected class ContextStates {
+		
+		private final RemnantState<Boolean> visibleState = new RemnantState<>(true);
+		
+		private final RemnantState<Boolean> enabledState = new RemnantState<>(true);
+		
+		private final RemnantState<Class<? extends ValidationGroup>[]> activeValidationGroupsState = new RemnantState<>(NO_VALIDATION_GROUPS);
+		
+		private final RemnantState<Set<Message>> messageState = new RemnantState<Set<Message>>(null) {
+			@Override
+			public boolean hasChanged() {
+				Set<Message> prev = CollectionUtils.isEmpty(getPrevState()) ? null : getPrevState();
+				Set<Message> curr = CollectionUtils.isEmpty(getCurrState()) ? null : getCurrState();
+				
+				boolean isEquals = new EqualsBuilder().append(curr, prev).isEquals();
+				return !isEquals;
+			}
+		};
+		
+		private final RemnantState<Set<LabelState>> labelState = new RemnantState<Set<LabelState>>(null) {
+			@Override
+			public boolean hasChanged() {
+				Set<LabelState> prev = CollectionUtils.isEmpty(getPrevState()) ? null : getPrevState();
+				Set<LabelState> curr = CollectionUtils.isEmpty(getCurrState()) ? null : getCurrState();
+				
+				boolean isEquals = new EqualsBuilder().append(curr, prev).isEquals();
+				return !isEquals;
+			}
+		};
+		
+		private final RemnantState<StyleState> styleState = new RemnantState<>(null);
+		
 		public boolean hasChanged() {
-			Set<LabelState> prev = CollectionUtils.isEmpty(getPrevState()) ? null : getPrevState();
-			Set<LabelState> curr = CollectionUtils.isEmpty(getCurrState()) ? null : getCurrState();
-			
-			boolean isEquals = new EqualsBuilder().append(curr, prev).isEquals();
-			return !isEquals;
+			return visibleState.hasChanged() || enabledState.hasChanged() || messageState.hasChanged() || 
+					activeValidationGroupsState.hasChanged() || labelState.hasChanged() || 
+					styleState.hasChanged();
 		}
-	};
+	}
 	
-	@JsonIgnore
-	private RemnantState<StyleState> styleState = this.new RemnantState<>(null);
+	/**
+	 * @param allocate whether to allocate the context states if not yet, i.e. if a state is set to other than its default
+	 * @return the context states, or {@code null} if all are at their defaults
+	 */
+	protected ContextStates findContextStates(boolean allocate) {
+		if(contextStates == null && allocate)
+			contextStates = this.new ContextStates();
+		
+		return contextStates;
+	}
 	
 	@Override
 	public boolean hasContextStateChanged() {
-		return visibleState.hasChanged() || enabledState.hasChanged() || messageState.hasChanged() || 
-				activeValidationGroupsState.hasChanged() || labelState.hasChanged() || 
-				styleState.hasChanged();
+		return contextStates != null && contextStates.hasChanged();
 	}
 	
 	
@@ -144,8 +167,9 @@ public class DefaultParamState<T> extends AbstractEntityState<T> implements Para
 	//@JsonIgnore @Getter(AccessLevel.PRIVATE)
 	//final private List<WeakReference<MappedParam<?, T>>> weakReferencedEventSubscribers = new ArrayList<>();
 	
-	@JsonIgnore 
-	List<MappedParam<?, T>> eventSubscribers = new ArrayList<>(); 
+	/* allocated once a first subscriber registers */
+	@JsonIgnore @Getter(AccessLevel.NONE)
+	List<MappedParam<?, T>> eventSubscribers; 
 	
 	
 	@JsonIgnore 
@@ -284,10 +308,30 @@ public class DefaultParamState<T> extends AbstractEntityState<T> implements Para
 		return getMappedState(this);
 	}
 	
+	@Override
+	final public T assembleLeafState() {
+		if(!isMapped())
+			return getState();
+		
+		return getMappedState(this, false);
+	}
+	
 	final static protected <T> T getMappedState(Param<T> p) {
+		return getMappedState(p, true);
+	}
+	
+	// entities assembled for the caller's own are assembled anew at every depth, shared ones are reused and kept
+	private static <T> T getMappedState(Param<T> p, boolean shared) {
 		if(!p.isNested())
 			return p.getState();
 		
+		if(!shared)
+			return assembleMappedState(p, false);
+		
+		return MappedStateAssembler.reuseOrAssemble(p, nested -> assembleMappedState(nested, true));
+	}
+	
+	private static <T> T assembleMappedState(Param<T> p, boolean shared) {
 		// create new entity instance
 		T entity = p.getAspectHandlers().getParamStateGateway().instantiate(p.getConfig().getReferredClass());
 		
@@ -301,12 +345,12 @@ public class DefaultParamState<T> extends AbstractEntityState<T> implements Para
 		if(p.isCollection()) {
 			List<Object> colEntity = (List<Object>)entity;
 			for(Param<?> pColElem : p.findIfNested().getParams()) {
-				Object colElemState = getMappedState(pColElem);//pColElem.getLeafState();
+				Object colElemState = getMappedState(pColElem, shared);//pColElem.getLeafState();
 				colEntity.add(colElemState);
 			}
 		} else { // nested
 			for(Param<?> pNestedParam : p.findIfNested().getParams()) {
-				Object nestedParamLeafState = getMappedState(pNestedParam);//pNestedParam.getLeafState();
+				Object nestedParamLeafState = getMappedState(pNestedParam, shared);//pNestedParam.getLeafState();
 				if(nestedParamLeafState!=null)
 					p.getAspectHandlers().getParamStateGateway().setValue(pNestedParam.getValueAccessor(), entity, nestedParamLeafState);
 			}
@@ -482,7 +526,15 @@ public class DefaultParamState<T> extends AbstractEntityState<T> implements Para
 			throw new InvalidOperationAttemptedException("Registering subscriber for Mapped entities are not supported. Found for: "+this.getPath()
 						+" while trying to add subscriber: "+subscriber.getPath());
 		
-		getEventSubscribers().add(subscriber);
+		if(eventSubscribers == null)
+			eventSubscribers = new ArrayList<>(2);
+		
+		eventSubscribers.add(subscriber);
+	}
+	
+	@Override
+	public List<MappedParam<?, T>> getEventSubscribers() {
+		return eventSubscribers == null ? Collections.emptyList() : eventSubscribers;
 	}
 	
 	@Override
@@ -500,7 +552,7 @@ public class DefaultParamState<T> extends AbstractEntityState<T> implements Para
 	}
 	
 	private boolean degisterThis(MappedParam<?, ?> subscriber) {
-		return getEventSubscribers().remove(subscriber);
+		return eventSubscribers != null && eventSubscribers.remove(subscriber);
 	}
 	
 	private void traverse(Param<?> p) {
@@ -724,11 +776,13 @@ public class DefaultParamState<T> extends AbstractEntityState<T> implements Para
 	
 	@Override
 	public boolean isVisible() {
-		return visibleState.getCurrState();
+		ContextStates states = findContextStates(false);
+		return states == null || states.getVisibleState().getCurrState();
 	}
 	
 	public void setVisible(boolean visible) {
-		boolean changed = this.visibleState.setStateConditional(visible, ()->isActive() || !visible);
+		ContextStates states = findContextStates(!visible);
+		boolean changed = states != null && states.getVisibleState().setStateConditional(visible, ()->isActive() || !visible);
 		if (!changed)
 			return;
 		
@@ -754,12 +808,14 @@ public class DefaultParamState<T> extends AbstractEntityState<T> implements Para
 	
 	@Override
 	public boolean isEnabled() {
-		return enabledState.getCurrState();
+		ContextStates states = findContextStates(false);
+		return states == null || states.getEnabledState().getCurrState();
 	}
 	
 	@Override
 	public void setEnabled(boolean enabled) {
-		boolean changed = this.enabledState.setStateConditional(enabled, ()->isActive() || !enabled);
+		ContextStates states = findContextStates(!enabled);
+		boolean changed = states != null && states.getEnabledState().setStateConditional(enabled, ()->isActive() || !enabled);
 		if (!changed)
 			return;
 		
@@ -796,7 +852,10 @@ public class DefaultParamState<T> extends AbstractEntityState<T> implements Para
 
 	@Override
 	public Set<LabelState> getLabels() {
-		return Optional.ofNullable(this.labelState.getCurrState()).map(Collections::unmodifiableSet).orElse(null);
+		return Optional.ofNullable(findContextStates(false))
+				.map(states -> states.getLabelState().getCurrState())
+				.map(Collections::unmodifiableSet)
+				.orElse(null);
 	}
 	
 	@Override
@@ -840,18 +899,23 @@ public class DefaultParamState<T> extends AbstractEntityState<T> implements Para
 		}
 		
 		
-		this.labelState.setState(labelstate);
+		Optional.ofNullable(findContextStates(labelstate != null))
+			.ifPresent(states -> states.getLabelState().setState(labelstate));
 	}
 	
 	@Override
 	public Set<Message> getMessages() {
-		return Optional.ofNullable(this.messageState.getCurrState()).map(Collections::unmodifiableSet).orElse(null);
+		return Optional.ofNullable(findContextStates(false))
+				.map(states -> states.getMessageState().getCurrState())
+				.map(Collections::unmodifiableSet)
+				.orElse(null);
 	}
 
 	@Override
 	public void setMessages(Set<Message> msgs) {
 		Set<Message> inMsgs = CollectionUtils.isEmpty(msgs) ? null : new HashSet<>(msgs);
-		this.messageState.setState(inMsgs);
+		Optional.ofNullable(findContextStates(inMsgs != null))
+			.ifPresent(states -> states.getMessageState().setState(inMsgs));
 	}
 	
 	private void emitParamContextEvent() {
@@ -963,12 +1027,14 @@ public class DefaultParamState<T> extends AbstractEntityState<T> implements Para
 
 	@Override
 	public Class<? extends ValidationGroup>[] getActiveValidationGroups() {
-		return this.activeValidationGroupsState.getCurrState();
+		ContextStates states = findContextStates(false);
+		return states == null ? NO_VALIDATION_GROUPS : states.getActiveValidationGroupsState().getCurrState();
 	}
 
 	@Override
 	public void setActiveValidationGroups(Class<? extends ValidationGroup>[] activeValidationGroups) {
-		this.activeValidationGroupsState.setState(activeValidationGroups);
+		Optional.ofNullable(findContextStates(activeValidationGroups == null || activeValidationGroups.length > 0))
+			.ifPresent(states -> states.getActiveValidationGroupsState().setState(activeValidationGroups));
 	}
 
 	@JsonIgnore
@@ -1058,12 +1124,14 @@ public class DefaultParamState<T> extends AbstractEntityState<T> implements Para
 
 	@Override
 	public StyleState getStyle() {
-		return this.styleState.getCurrState();
+		ContextStates states = findContextStates(false);
+		return states == null ? null : states.getStyleState().getCurrState();
 	}
 
 	@Override
 	public void setStyle(StyleState styleState) {
-		this.styleState.setState(styleState);
+		Optional.ofNullable(findContextStates(styleState != null))
+			.ifPresent(states -> states.getStyleState().setState(styleState));
 	}
 
 	@Override
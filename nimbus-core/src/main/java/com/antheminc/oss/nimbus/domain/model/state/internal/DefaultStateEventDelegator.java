@@ -55,13 +55,6 @@ public class DefaultStateEventDelegator implements StateEventDelegator {
 	
 	private final ChangeLogCommandEventHandler cmdHandler; 
 	
-	private static final ThreadLocal<List<StateEventListener>> listenersInThread = new ThreadLocal<List<StateEventListener>>() {
-		@Override
-	 	protected List<StateEventListener> initialValue() {
-			return new ArrayList<>();
-		}
-	};
-	
 	public DefaultStateEventDelegator(EntityStateAspectHandlers provider) {
 		this.provider = provider;
 		this.cmdHandler = provider.getBeanResolver().find(ChangeLogCommandEventHandler.class);
@@ -70,12 +63,12 @@ public class DefaultStateEventDelegator implements StateEventDelegator {
 	
 	@Override
 	public void addTxnScopedListener(StateEventListener listener) {
-		listenersInThread.get().add(listener);
+		ExecutionScope.current().getTxnScopedListeners().add(listener);
 	}
 	
 	@Override
 	public boolean removeTxnScopedListener(StateEventListener listener) {
-		return listenersInThread.get().remove(listener);
+		return ExecutionScope.current().getTxnScopedListeners().remove(listener);
 	}
 	
 	@Override
@@ -123,8 +116,8 @@ public class DefaultStateEventDelegator implements StateEventDelegator {
 		
 		delegate(l->l.onStopRootCommandExecution(cmd, aggregatedEvents));
 		
-		// reset thread local
-		listenersInThread.get().clear();
+		// reset txn scoped listeners
+		ExecutionScope.current().getTxnScopedListeners().clear();
 	}
 	
 	@Override
@@ -218,7 +211,7 @@ public class DefaultStateEventDelegator implements StateEventDelegator {
 	}
 	
 	private void nullSafeGetTxn(Consumer<StateEventListener> cb) {
-		Optional.ofNullable(listenersInThread.get())
+		Optional.ofNullable(ExecutionScope.current().getTxnScopedListeners())
 			.ifPresent(list->list.forEach(cb));
 	}
 
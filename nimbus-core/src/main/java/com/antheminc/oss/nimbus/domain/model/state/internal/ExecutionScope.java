@@ -0,0 +1,255 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.antheminc.oss.nimbus.channel.web.WebSessionIdLoggerInterceptor;
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.model.state.ExecutionRuntime;
+import com.antheminc.oss.nimbus.domain.model.state.StateEventListener;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <p>Execution state of the root command being executed: its txn context, the listeners scoped to that txn and the id
+ * marking the root command itself.
+ *
+ * <p>The scope is bound to the executing thread and looked up through {@link #current()}. Work handed to another thread
+ * is bound to a scope explicitly, either to the {@link #capture() captured} scope of the submitting thread to continue its
+ * execution, or to a {@link #detached()} scope to execute as a root command of its own. The scope previously bound to the
+ * executing thread, if any, is restored once the work completes.
+ *
+ * <p>A root command executing within another, e.g. a config of another domain, executes in a scope {@link #detach()
+ * detached} from the scope of the other. Domains changed within it are recorded with the scopes it is detached from, whose
+ * threads discard the states they memoized from those domains on their next lookup of the memoized states.
+ *
+ * <p>A scope is not thread-safe: a captured scope must only be used by one thread at a time, i.e. the submitting thread
+ * waits for the work handed off before continuing within the scope.
+ */
+@Getter
+public final class ExecutionScope {
+
+	private static final ThreadLocal<ExecutionScope> scopeInThread = ThreadLocal.withInitial(ExecutionScope::new);
+
+	private DefaultExecutionTxnContext txnContext = new DefaultExecutionTxnContext();
+
+	private final List<StateEventListener> txnScopedListeners = new ArrayList<>();
+
+	@Setter
+	private String rootCommandId;
+
+	@Setter
+	private Command rootCommand;
+
+	/* ids of the models admitted to the root commands in progress within this scope and the scopes it is detached from */
+	private final List<String> admittedModelIds = new ArrayList<>();
+
+	/* ids of the models admitted by the threads awaiting the config group member executing within this scope */
+	@Setter
+	private Set<String> awaitingModelIds = Collections.emptySet();
+
+	/* outputs of the completed root commands held while holding, keyed by the runtime they are held on */
+	@Getter(AccessLevel.NONE)
+	private Map<ExecutionRuntime, Runnable> heldOutputs;
+
+	/* scope this scope is detached from, if any */
+	@Getter(AccessLevel.NONE)
+	private final ExecutionScope enclosing;
+
+	/* aliases of the domains changed within scopes detached from this scope, possibly recorded by other threads */
+	@Getter(AccessLevel.NONE)
+	private final Queue<String> domainsChangedByDetached = new ConcurrentLinkedQueue<>();
+
+	private ExecutionScope() {
+		this(null);
+	}
+
+	private ExecutionScope(ExecutionScope enclosing) {
+		this.enclosing = enclosing;
+
+		if(enclosing != null) {
+			this.admittedModelIds.addAll(enclosing.getAdmittedModelIds());
+			this.awaitingModelIds = enclosing.getAwaitingModelIds();
+		}
+	}
+
+	public static ExecutionScope current() {
+		return scopeInThread.get();
+	}
+
+	public static ExecutionScope capture() {
+		return current();
+	}
+
+	public static ExecutionScope detached() {
+		return new ExecutionScope();
+	}
+
+	public boolean isRootCommandInProgress() {
+		return getRootCommandId() != null;
+	}
+
+	/**
+	 * @return scope to execute a root command of its own within the root command of this scope, whose changes are
+	 * recorded with this scope
+	 */
+	public ExecutionScope detach() {
+		return new ExecutionScope(this);
+	}
+
+	/**
+	 * <p>Records the domains changed within this scope with the scopes it is detached from, for as long as their root
+	 * commands are in progress.
+	 */
+	public void recordDomainsChanged(Set<String> domainAliases) {
+		for(ExecutionScope scope = enclosing; scope != null; scope = scope.enclosing) {
+			if(scope.isRootCommandInProgress())
+				scope.domainsChangedByDetached.addAll(domainAliases);
+		}
+	}
+
+	/**
+	 * @return aliases of the domains changed within scopes detached from this scope since last polled
+	 */
+	public Set<String> pollDomainsChangedByDetached() {
+		Set<String> domainAliases = new HashSet<>();
+		for(String alias = domainsChangedByDetached.poll(); alias != null; alias = domainsChangedByDetached.poll())
+			domainAliases.add(alias);
+		return domainAliases;
+	}
+
+	/**
+	 * <p>Holds the outputs of the root commands completing within this scope, until the release returned by
+	 * {@link #stopHoldingOutputs()} is run. Their models are not modified by other threads until then, e.g. while the
+	 * outputs are serialized.
+	 */
+	public void startHoldingOutputs() {
+		this.heldOutputs = new LinkedHashMap<>();
+	}
+
+	/**
+	 * @return release of the outputs held since {@link #startHoldingOutputs()}
+	 */
+	public Runnable stopHoldingOutputs() {
+		final Map<ExecutionRuntime, Runnable> held = this.heldOutputs;
+		this.heldOutputs = null;
+		return () -> {
+			if(held != null)
+				held.values().forEach(Runnable::run);
+		};
+	}
+
+	/**
+	 * <p>Holds the output of the root command admitted against the given runtime, if holding outputs.
+	 */
+	public void holdOutput(ExecutionRuntime runtime) {
+		if(heldOutputs != null)
+			heldOutputs.computeIfAbsent(runtime, ExecutionRuntime::holdOutput);
+	}
+
+	/**
+	 * <p>Releases the output held against the given runtime, if any, ahead of a root command of this scope modifying the
+	 * model of that runtime. Otherwise the command would await its own held output.
+	 */
+	public void releaseOutput(ExecutionRuntime runtime) {
+		Runnable release = heldOutputs == null ? null : heldOutputs.remove(runtime);
+		if(release != null)
+			release.run();
+	}
+
+	/**
+	 * <p>Starts a new txn context once the root command completes.
+	 */
+	void resetTxnContext() {
+		this.txnContext = new DefaultExecutionTxnContext();
+		this.domainsChangedByDetached.clear();
+	}
+
+	public <T> T execute(Supplier<T> work) {
+		ExecutionScope previous = scopeInThread.get();
+		scopeInThread.set(this);
+		try {
+			return work.get();
+		} finally {
+			scopeInThread.set(previous);
+		}
+	}
+
+	public <T> Callable<T> bind(Callable<T> task) {
+		return () -> {
+			ExecutionScope previous = scopeInThread.get();
+			scopeInThread.set(this);
+			try {
+				return task.call();
+			} finally {
+				scopeInThread.set(previous);
+			}
+		};
+	}
+
+	public Runnable bind(Runnable task) {
+		return () -> execute(() -> {
+			task.run();
+			return null;
+		});
+	}
+
+	/**
+	 * <p>Binds the given task to a scope {@link #detach() detached} from the current scope along with the request
+	 * attributes of the calling thread, for it to execute on another thread as a root command of its own, which the
+	 * calling thread awaits.
+	 */
+	public static <T> Callable<T> detachedWithCallerContext(Callable<T> task) {
+		return withContext(current().detach(), RequestContextHolder.getRequestAttributes(), task);
+	}
+
+	/**
+	 * <p>Binds the given task to a {@link #detached()} scope along with the given request attributes and the session id
+	 * logging context these resolve to, all of which are removed from the executing thread once the task completes.
+	 */
+	public static <T> Callable<T> detachedWithContext(RequestAttributes requestAttributes, Callable<T> task) {
+		return withContext(detached(), requestAttributes, task);
+	}
+
+	private static <T> Callable<T> withContext(ExecutionScope scope, RequestAttributes requestAttributes, Callable<T> task) {
+		return scope.bind(() -> {
+			RequestContextHolder.setRequestAttributes(requestAttributes);
+			WebSessionIdLoggerInterceptor.addSessionIdIfAny();
+			try {
+				return task.call();
+			} finally {
+				WebSessionIdLoggerInterceptor.clearSessionIdIfAny();
+				RequestContextHolder.resetRequestAttributes();
+			}
+		});
+	}
+}
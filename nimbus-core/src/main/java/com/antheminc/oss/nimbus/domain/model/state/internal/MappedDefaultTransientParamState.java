@@ -94,7 +94,8 @@ public class MappedDefaultTransientParamState<T, M> extends DefaultParamState<T>
 			Param<M> resolvedMapsTo = mapsToTransient.isCollection() ? mapsToTransient.findIfCollection().add() : mapsToTransient;
 			setMapsToTransient(resolvedMapsTo);
 			
-			copyStateToDetached(resolvedMapsTo.getLeafState());
+			// held by the detached param, hence not shared with other readers of the mapsTo
+			copyStateToDetached(resolvedMapsTo.assembleLeafState());
 			
 			emitEvent(Action._update, this);
 			
@@ -141,7 +142,7 @@ public class MappedDefaultTransientParamState<T, M> extends DefaultParamState<T>
 	}
 
 	private void copyStateFromDetached() {
-		M state = detachedMapsTo.getLeafState();
+		M state = detachedMapsTo.assembleLeafState();
 		mapsToTransient.setState(state);
 	}
 
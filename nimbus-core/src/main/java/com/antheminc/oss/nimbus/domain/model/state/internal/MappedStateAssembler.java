@@ -0,0 +1,117 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.internal;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.antheminc.oss.nimbus.domain.defn.MapsTo;
+import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
+import com.antheminc.oss.nimbus.domain.model.config.ParamConfig;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.ExecutionRuntime;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <p>Reuses the entity assembled for a nested param by {@link DefaultParamState#getLeafState()} for as long as the state
+ * of its runtime is unchanged, see {@link ExecutionRuntime#getStateVersion()}. The entity of every nested param is kept
+ * on the param itself, so that repeated calls on a view, and on its nested params while serializing it, build each
+ * entity at most once between state changes.
+ *
+ * <p>Reuse applies to params of models holding no transient or detached params at any depth, as the state of those is
+ * not changed through the runtime. Whether a model qualifies is determined once per {@link ModelConfig}.
+ *
+ * <p>The entity handed out is shared by all callers until the state changes, it must not be modified by them. Callers
+ * keeping or modifying it assemble their own through {@link Param#assembleLeafState()}, which neither reuses nor keeps
+ * the entities of nested params.
+ *
+ * <p>The state version is one per runtime, so that any state change invalidates the entities of all params of its models,
+ * not only of the subtree changed.
+ */
+final class MappedStateAssembler {
+
+	private static final Map<ModelConfig<?>, Boolean> reusableModels = new ConcurrentHashMap<>();
+
+	@RequiredArgsConstructor
+	static final class Assembled {
+
+		private final long stateVersion;
+
+		private final Object entity;
+	}
+
+	private MappedStateAssembler() {}
+
+	@SuppressWarnings("unchecked")
+	static <T> T reuseOrAssemble(Param<T> p, Function<Param<T>, T> assembler) {
+		if(!(p instanceof DefaultParamState) || p.getRootExecution() == null || !isReusable(p.getConfig()))
+			return assembler.apply(p);
+
+		DefaultParamState<T> param = (DefaultParamState<T>)p;
+		long stateVersion = param.resolveRuntime().getStateVersion();
+
+		Assembled assembled = param.getAssembled();
+		if(assembled != null && assembled.stateVersion == stateVersion)
+			return (T)assembled.entity;
+
+		T entity = assembler.apply(p);
+		param.setAssembled(new Assembled(stateVersion, entity));
+		return entity;
+	}
+
+	static boolean isReusable(ParamConfig<?> pConfig) {
+		return isReusable(pConfig, null);
+	}
+
+	private static boolean isReusable(ParamConfig<?> pConfig, Set<ModelConfig<?>> visited) {
+		if(pConfig.isTransient() || pConfig.getMappingMode() == MapsTo.Mode.MappedDetached)
+			return false;
+
+		if(pConfig.getType() == null || !pConfig.getType().isNested())
+			return true;
+
+		if(pConfig.getType().isCollection()) {
+			ParamConfig<?> elemConfig = pConfig.getType().findIfCollection().getElementConfig();
+			return elemConfig == null || isReusable(elemConfig, visited);
+		}
+
+		ModelConfig<?> mConfig = pConfig.getType().findIfNested().getModelConfig();
+		if(mConfig == null)
+			return true;
+
+		Boolean reusable = reusableModels.get(mConfig);
+		if(reusable != null)
+			return reusable;
+
+		// recursive models are taken as reusable while being determined
+		Set<ModelConfig<?>> inProgress = (visited == null) ? new HashSet<>() : visited;
+		if(!inProgress.add(mConfig))
+			return true;
+
+		boolean result = mConfig.getParamConfigs() == null
+				|| mConfig.getParamConfigs().stream().allMatch(c -> isReusable(c, inProgress));
+
+		// only the outermost result is final, inner ones may depend on models still being determined
+		if(visited == null)
+			reusableModels.put(mConfig, result);
+
+		return result;
+	}
+}
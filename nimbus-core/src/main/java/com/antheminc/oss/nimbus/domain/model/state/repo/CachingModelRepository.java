@@ -0,0 +1,106 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.repo;
+
+import java.util.function.Supplier;
+
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.CommandElement.Type;
+import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria;
+import com.antheminc.oss.nimbus.support.RefIdHolder;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <p>Read-through {@link ModelRepository} for domain entities configured with
+ * {@link com.antheminc.oss.nimbus.domain.defn.Repo.Cache#rep_app}, serving {@code _get} and {@code _search} from the
+ * {@link ModelRepositoryCache} and invalidating it on every write made through the delegate.
+ */
+@Getter @RequiredArgsConstructor
+public class CachingModelRepository implements ModelRepository {
+
+	private final ModelRepository delegate;
+
+	private final ModelRepositoryCache cache;
+
+	@Override
+	public <T> RefIdHolder<T> _new(Command cmd, ModelConfig<T> mConfig) {
+		getCache().evict(mConfig.getRepoAlias());
+		return getDelegate()._new(cmd, mConfig);
+	}
+
+	@Override
+	public <T> RefIdHolder<T> _new(Command cmd, ModelConfig<T> mConfig, T newState) {
+		getCache().evict(mConfig.getRepoAlias());
+		return getDelegate()._new(cmd, mConfig, newState);
+	}
+
+	@Override
+	public <T> T _save(String alias, T state) {
+		try {
+			return getDelegate()._save(alias, state);
+		} finally {
+			getCache().evict(alias);
+		}
+	}
+
+	@Override
+	public void _save(Param<?> param) {
+		try {
+			getDelegate()._save(param);
+		} finally {
+			evict(param);
+		}
+	}
+
+	@Override
+	public <T> T _get(Command cmd, ModelConfig<T> mConfig) {
+		return getCache().getEntity(mConfig.getRepoAlias(), cmd.getRefId(Type.DomainAlias), () -> getDelegate()._get(cmd, mConfig));
+	}
+
+	@Override
+	public <T> T _update(Param<?> param, T state) {
+		try {
+			return getDelegate()._update(param, state);
+		} finally {
+			evict(param);
+		}
+	}
+
+	@Override
+	public <T> T _delete(Param<?> param) {
+		try {
+			return getDelegate()._delete(param);
+		} finally {
+			evict(param);
+		}
+	}
+
+	@Override
+	public <T> Object _search(Param<?> param, Supplier<SearchCriteria<?>> criteria) {
+		SearchCriteria<?> sc = criteria.get();
+		String alias = param.getRootDomain().getConfig().getRepoAlias();
+
+		return getCache().getSearchResult(alias, sc, () -> getDelegate()._search(param, () -> sc));
+	}
+
+	private void evict(Param<?> param) {
+		getCache().evict(param.getRootDomain().getConfig().getRepoAlias());
+	}
+}
@@ -16,6 +16,7 @@
 package com.antheminc.oss.nimbus.domain.model.state.repo;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -40,10 +41,19 @@ public class DefaultModelRepositoryFactory implements ModelRepositoryFactory {
 	private final BeanResolverStrategy beanResolver;
 	
 	private final Map<String, ModelRepository> REPO_BEAN_LOOKUP;
+	
+	private final ModelRepositoryCache modelRepositoryCache;
+	
+	private final Map<ModelRepository, CachingModelRepository> cachingRepos = new ConcurrentHashMap<>();
 		
 	public DefaultModelRepositoryFactory(BeanResolverStrategy beanResolver, Map<String, ModelRepository> repoBeanLookup) {
+		this(beanResolver, repoBeanLookup, null);
+	}
+	
+	public DefaultModelRepositoryFactory(BeanResolverStrategy beanResolver, Map<String, ModelRepository> repoBeanLookup, ModelRepositoryCache modelRepositoryCache) {
 		this.beanResolver = beanResolver;
 		this.REPO_BEAN_LOOKUP = repoBeanLookup;
+		this.modelRepositoryCache = modelRepositoryCache;
 	}
 
 	@Override
@@ -69,7 +79,12 @@ public class DefaultModelRepositoryFactory implements ModelRepositoryFactory {
 		if(mConfig.isRemote()) {
 			return REPO_BEAN_LOOKUP.get(mConfig.getRepo().remote().name());
 		} 			
-		return get(mConfig.getRepo());
+		
+		ModelRepository repo = get(mConfig.getRepo());
+		if(repo == null || getModelRepositoryCache() == null || !ModelRepositoryCache.isEnabled(mConfig))
+			return repo;
+		
+		return getCachingRepos().computeIfAbsent(repo, r -> new CachingModelRepository(r, getModelRepositoryCache()));
 	}
 
 	public ModelRepository get(Repo.Database db) {
@@ -15,6 +15,12 @@
  */
 package com.antheminc.oss.nimbus.domain.model.state.repo;
 
+import java.io.Serializable;
+import java.util.Map;
+
+import org.apache.commons.lang3.SerializationException;
+import org.apache.commons.lang3.SerializationUtils;
+
 import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
 import com.antheminc.oss.nimbus.domain.cmd.Action;
 import com.antheminc.oss.nimbus.domain.cmd.Command;
@@ -23,14 +29,30 @@ import com.antheminc.oss.nimbus.domain.cmd.CommandMessage;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.MultiOutput;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecutorGateway;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandPathVariableResolver;
+import com.antheminc.oss.nimbus.domain.defn.Repo.Cache;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.ExecutionRuntime;
 import com.antheminc.oss.nimbus.support.EnableLoggingInterceptor;
 import com.antheminc.oss.nimbus.support.JustLogit;
+import com.antheminc.oss.nimbus.support.cache.ExpiringCache;
 
 import lombok.AccessLevel;
 import lombok.Getter;
 
 /**
+ * <p>Loads the state of detached params with auto load by executing the command configured in their mapped path.
+ * 
+ * <p>Loaded states are memoized for the life of the root command execution, keyed by the resolved command uri, so that
+ * repeated reads of the same detached param (e.g. from conditionals) execute the command only once. A change to a param
+ * the uri is resolved from resolves to another key, and the memoized states loaded from a domain are discarded once a
+ * param of that domain changes. Each read of a memoized state is handed its own copy, unless the state is not 
+ * {@link Serializable}, in which case it is shared and must not be mutated. States loaded while the root model is being initialized, 
+ * ahead of the root command execution, are held in the {@link ExecutionRuntime#getPrefetchedStates() prefetched states}
+ * of its runtime instead, see {@link ParamStatePrefetcher}.
+ * 
+ * <p>Detached params configured with {@code cacheState=Cache.rep_app_detached} are additionally held in a short lived cache 
+ * shared across sessions, which should only be used for commands whose result does not depend on the user.
+ * 
  * @author Rakesh Patel
  *
  */
@@ -44,23 +66,85 @@ public class DefaultParamStateRepositoryDetached implements ParamStateRepository
 	
 	protected final CommandPathVariableResolver pathVariableResolver;
 	
+	protected final ExpiringCache<String, byte[]> sharedStates;
+	
+	public static final long DEFAULT_SHARED_TTL_MILLIS = 30 * 1000L;
+	public static final int DEFAULT_SHARED_MAX_ENTRIES = 1000;
+	
 	public DefaultParamStateRepositoryDetached(BeanResolverStrategy beanResolver) {
+		this(beanResolver, DEFAULT_SHARED_TTL_MILLIS, DEFAULT_SHARED_MAX_ENTRIES);
+	}
+	
+	public DefaultParamStateRepositoryDetached(BeanResolverStrategy beanResolver, long sharedTtlMillis, int sharedMaxEntries) {
 		this.gateway = beanResolver.get(CommandExecutorGateway.class);
 		this.pathVariableResolver = beanResolver.get(CommandPathVariableResolver.class);
+		this.sharedStates = new ExpiringCache<>(sharedTtlMillis, sharedMaxEntries);
 	}
 	
 	@SuppressWarnings("unchecked")
 	@Override
 	public <P> P _get(Param<P> param) {
+		String resolvedUri = resolveUri(param);
+		
+		Map<String, Object> memoizedStates = param.getRootExecution().getExecutionRuntime().findMemoizedStates();
+		if(memoizedStates == null)
+			return load(param, resolvedUri);
+		
+		if(memoizedStates.containsKey(resolvedUri))
+			return copyOf((P)memoizedStates.get(resolvedUri));
+		
+		P state = load(param, resolvedUri);
+		memoizedStates.put(resolvedUri, state);
+		return copyOf(state);
+	}
+	
+	@SuppressWarnings("unchecked")
+	protected <P> P copyOf(P state) {
+		if(!(state instanceof Serializable))
+			return state;
 		
+		try {
+			return (P)SerializationUtils.clone((Serializable)state);
+		} catch (SerializationException ex) {
+			logit.debug(()->"Sharing memoized detached state that cannot be copied: "+state.getClass(), ex);
+			return state;
+		}
+	}
+	
+	public String resolveUri(Param<?> param) {
 		String completeUri = param.getRootExecution().getRootCommand().getRelativeUri(param.getConfig().findIfMapped().getPath().value());
-		String resolvedUri = this.getPathVariableResolver().resolve(param, completeUri);
+		return this.getPathVariableResolver().resolve(param, completeUri);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public <P> P load(Param<P> param, String resolvedUri) {
+		if(param.getConfig().findIfMapped().getPath().detachedState().cacheState() != Cache.rep_app_detached)
+			return execute(resolvedUri);
+		
+		byte[] shared = getSharedStates().get(resolvedUri);
+		if(shared != null)
+			return (P)SerializationUtils.deserialize(shared);
+		
+		P state = execute(resolvedUri);
+		if(state instanceof Serializable) {
+			try {
+				getSharedStates().put(resolvedUri, SerializationUtils.serialize((Serializable)state));
+			} catch (SerializationException ex) {
+				logit.debug(()->"Skipping shared cache of non serializable detached state loaded from: "+resolvedUri);
+			}
+		}
+		return state;
+	}
+	
+	@SuppressWarnings("unchecked")
+	protected <P> P execute(String resolvedUri) {
 		Command cmd = CommandBuilder.withUri(resolvedUri).getCommand();
 		CommandMessage cmdMsg = new CommandMessage(cmd, null);
 		MultiOutput multiOp = this.getGateway().execute(cmdMsg);
 		Param<P> pState = (Param<P>)multiOp.getSingleResult();
-		return pState.getLeafState();
-	
+		
+		// held as the state of the detached param, hence not shared with the model it is read from
+		return pState.assembleLeafState();
 	}
 	
 	@Override
@@ -0,0 +1,182 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.repo;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.SerializationException;
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.antheminc.oss.nimbus.domain.cmd.RefId;
+import com.antheminc.oss.nimbus.domain.defn.Repo;
+import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria;
+import com.antheminc.oss.nimbus.support.JustLogit;
+import com.antheminc.oss.nimbus.support.cache.ExpiringCache;
+
+import lombok.Getter;
+
+/**
+ * <p>Application wide cache of persisted domain entities configured with {@link Repo.Cache#rep_app}.
+ *
+ * <p>Entries are held in serialized form so that every read hands out a fresh copy: cached entities become the state of
+ * a {@code QuadModel} and must never be shared between sessions. Results that cannot be serialized are not cached.
+ *
+ * <p>All entries of a domain alias are invalidated on write of any of its entities, either through
+ * {@link CachingModelRepository} or through the {@link RepoParamEvent} published by the underlying repository.
+ *
+ * @see CachingModelRepository
+ */
+@Getter
+public class ModelRepositoryCache {
+
+	public static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000L;
+	public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+	private static final String KEY_SEPARATOR = "|";
+
+	private static final JustLogit logit = new JustLogit(ModelRepositoryCache.class);
+
+	private final ExpiringCache<String, byte[]> entities;
+
+	private final ExpiringCache<String, byte[]> searches;
+
+	private final boolean searchEnabled;
+
+	/* incremented on every invalidation of an alias, so that loads racing with a write do not cache stale state */
+	private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+	public ModelRepositoryCache() {
+		this(DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES, false);
+	}
+
+	public ModelRepositoryCache(long ttlMillis, int maxEntries, boolean searchEnabled) {
+		this.entities = new ExpiringCache<>(ttlMillis, maxEntries);
+		this.searches = new ExpiringCache<>(ttlMillis, maxEntries);
+		this.searchEnabled = searchEnabled;
+	}
+
+	public static boolean isEnabled(ModelConfig<?> mConfig) {
+		return mConfig != null && mConfig.getRepo() != null && mConfig.getRepo().cache() == Repo.Cache.rep_app;
+	}
+
+	public <T> T getEntity(String alias, RefId<?> refId, Supplier<T> loader) {
+		if(refId == null || refId.getValue() == null)
+			return loader.get();
+
+		return read(getEntities(), alias, buildEntityKey(alias, refId), loader);
+	}
+
+	public Object getSearchResult(String alias, SearchCriteria<?> criteria, Supplier<Object> loader) {
+		String key = isSearchEnabled() ? buildSearchKey(alias, criteria) : null;
+		if(key == null)
+			return loader.get();
+
+		return read(getSearches(), alias, key, loader);
+	}
+
+	public void evict(String alias) {
+		generation(alias).incrementAndGet();
+
+		String prefix = alias + KEY_SEPARATOR;
+		getEntities().invalidateIf(k -> StringUtils.startsWith(k, prefix));
+		getSearches().invalidateIf(k -> StringUtils.startsWith(k, prefix));
+	}
+
+	public void clear() {
+		getGenerations().values().forEach(AtomicLong::incrementAndGet);
+		getEntities().clear();
+		getSearches().clear();
+	}
+
+	@TransactionalEventListener(phase=TransactionPhase.AFTER_COMMIT, fallbackExecution=true)
+	public void handleEvent(RepoParamEvent event) {
+		Param<?> param = event.getParam();
+		if(param == null || param.getRootDomain() == null)
+			return;
+
+		ModelConfig<?> rootConfig = param.getRootDomain().getConfig();
+		if(isEnabled(rootConfig))
+			evict(rootConfig.getRepoAlias());
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T read(ExpiringCache<String, byte[]> cache, String alias, String key, Supplier<T> loader) {
+		byte[] cached = cache.get(key);
+		if(cached != null)
+			return (T)SerializationUtils.deserialize(cached);
+
+		long generation = generation(alias).get();
+		T loaded = loader.get();
+
+		if(!(loaded instanceof Serializable))
+			return loaded;
+
+		try {
+			byte[] serialized = SerializationUtils.serialize((Serializable)loaded);
+
+			if(generation == generation(alias).get())
+				cache.put(key, serialized);
+
+		} catch (SerializationException ex) {
+			logit.debug(()->"Skipping application cache for non serializable state of alias: "+alias+" with key: "+key);
+		}
+		return loaded;
+	}
+
+	private AtomicLong generation(String alias) {
+		return getGenerations().computeIfAbsent(alias, k -> new AtomicLong());
+	}
+
+	protected String buildEntityKey(String alias, RefId<?> refId) {
+		return alias + KEY_SEPARATOR + refId.getValue();
+	}
+
+	/**
+	 * @return the cache key for the given criteria, or {@code null} if the search must not be cached, e.g. paged searches or
+	 * searches by example whose criteria is an entity instance
+	 */
+	protected String buildSearchKey(String alias, SearchCriteria<?> criteria) {
+		if(criteria == null || criteria.getPageRequest() != null)
+			return null;
+
+		if(criteria.getWhere() != null && !(criteria.getWhere() instanceof String))
+			return null;
+
+		StringBuilder key = new StringBuilder(alias)
+				.append(KEY_SEPARATOR).append(criteria.getClass().getSimpleName())
+				.append(KEY_SEPARATOR).append(StringUtils.normalizeSpace((String)criteria.getWhere()))
+				.append(KEY_SEPARATOR).append(criteria.getOrderby())
+				.append(KEY_SEPARATOR).append(criteria.getFetch())
+				.append(KEY_SEPARATOR).append(criteria.getAggregateCriteria())
+				.append(KEY_SEPARATOR).append(criteria.getLimit());
+
+		if(criteria.getProjectCriteria() != null) {
+			key.append(KEY_SEPARATOR).append(criteria.getProjectCriteria().getAlias())
+				.append(KEY_SEPARATOR).append(criteria.getProjectCriteria().getMapsTo())
+				.append(KEY_SEPARATOR).append(criteria.getProjectCriteria().getPaths());
+		}
+		return key.toString();
+	}
+}
@@ -0,0 +1,254 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.repo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.antheminc.oss.nimbus.FrameworkRuntimeException;
+import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
+import com.antheminc.oss.nimbus.domain.cmd.Action;
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
+import com.antheminc.oss.nimbus.domain.defn.MapsTo;
+import com.antheminc.oss.nimbus.domain.defn.Model.Param.Values;
+import com.antheminc.oss.nimbus.domain.defn.Model.Param.Values.EMPTY;
+import com.antheminc.oss.nimbus.domain.model.config.ParamConfig.MappedParamConfig;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.ExecutionModel;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Model;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.extension.DefaultParamValuesHandler;
+import com.antheminc.oss.nimbus.domain.model.state.extension.ParamValuesOnLoadHandler;
+import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionScope;
+import com.antheminc.oss.nimbus.support.JustLogit;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * <p>Loads the state of detached params with auto load and the {@link Values} of params configured with a url in parallel,
+ * while a root model is being loaded, instead of one after another on the request thread as each is first read.
+ *
+ * <p>Commands are resolved on the calling thread in model order, executed on a managed executor with a bounded pool and
+ * queue, and joined before the root
+ * model state is initialized. Results are held in the {@link com.antheminc.oss.nimbus.domain.model.state.ExecutionRuntime#getPrefetchedStates()
+ * prefetched states} of the runtime, from where the params pick them up on read. To keep the semantics of sequential loading:
+ * <ul>
+ * <li>only {@code _search} and {@code _config} commands are prefetched, as these build transient models and do not
+ * alter session state</li>
+ * <li>nothing is prefetched while a root command is executing on the calling thread, or within an active transaction,
+ * as the loads take part in those</li>
+ * <li>loads that an url resolution depends on are loaded by the resolution itself on the calling thread, and are not
+ * executed again</li>
+ * <li>failed loads, and loads rejected by a saturated executor, are not held, so that they are loaded when the param is
+ * read</li>
+ * </ul>
+ *
+ * <p>Values lookups that {@link DefaultParamValuesHandler#isBatchable(Command) can be batched} are loaded together with a
+ * single query.
+ */
+@Getter(value=AccessLevel.PROTECTED)
+public class ParamStatePrefetcher {
+
+	private static final JustLogit logit = new JustLogit(ParamStatePrefetcher.class);
+
+	private static final ThreadLocal<Boolean> prefetchInThread = new ThreadLocal<>();
+
+	private final BeanResolverStrategy beanResolver;
+
+	private final AsyncTaskExecutor executor;
+
+	private DefaultParamStateRepositoryDetached detachedStateRepository;
+
+	private DefaultParamValuesHandler paramValuesHandler;
+
+	private volatile boolean initialized;
+
+	public ParamStatePrefetcher(BeanResolverStrategy beanResolver, AsyncTaskExecutor executor) {
+		this.beanResolver = beanResolver;
+		this.executor = executor;
+	}
+
+	@SuppressWarnings("unchecked")
+	public void prefetch(ExecutionModel<?> rootModel) {
+		if(!isPrefetchAllowed(rootModel))
+			return;
+
+		initDependencies();
+
+		List<Param<?>> detachedParams = new ArrayList<>();
+		List<Param<?>> valuesParams = new ArrayList<>();
+		collect(rootModel, detachedParams, valuesParams);
+
+		// resolve all commands up front: a resolution may itself load a detached param it depends on
+		Map<String, Supplier<Object>> loads = new LinkedHashMap<>();
+
+		if(getDetachedStateRepository() != null) {
+			detachedParams.forEach(p -> {
+				String resolvedUri = getDetachedStateRepository().resolveUri(p);
+				if(isPrefetchable(CommandBuilder.withUri(resolvedUri).getCommand()))
+					loads.putIfAbsent(resolvedUri, () -> getDetachedStateRepository().load(p, resolvedUri));
+			});
+		}
+
+		Map<String, Object> prefetchedStates = rootModel.getExecutionRuntime().getPrefetchedStates();
+
+		// plain static code value lookups are loaded with a single query
+		Map<Command, Values> batchedLookups = new LinkedHashMap<>();
+		Set<String> batchedKeys = new HashSet<>();
+
+		if(getParamValuesHandler() != null) {
+			valuesParams.forEach(p -> {
+				Values values = p.getConfig().getValues();
+				Command cmd = getParamValuesHandler().buildValuesCommand(values, p);
+				String key = getParamValuesHandler().buildLoadKey(cmd);
+				if(prefetchedStates.containsKey(key) || getParamValuesHandler().findCachedParamValue(values, cmd) != null)
+					return;
+
+				if(getParamValuesHandler().isBatchable(cmd)) {
+					if(batchedKeys.add(key))
+						batchedLookups.put(cmd, values);
+				} else {
+					loads.putIfAbsent(key, () -> getParamValuesHandler().load(values, cmd));
+				}
+			});
+		}
+
+		synchronized (prefetchedStates) {
+			prefetchedStates.keySet().forEach(loads::remove);
+		}
+
+		if(batchedLookups.size() == 1) {
+			Map.Entry<Command, Values> lookup = batchedLookups.entrySet().iterator().next();
+			loads.put(getParamValuesHandler().buildLoadKey(lookup.getKey()), () -> getParamValuesHandler().load(lookup.getValue(), lookup.getKey()));
+			batchedLookups.clear();
+		}
+
+		int loadCount = loads.size() + (batchedLookups.isEmpty() ? 0 : 1);
+		if(loadCount < 2)
+			return;
+
+		Map<String, Future<Object>> futures = new LinkedHashMap<>();
+		loads.forEach((k, load) -> submit(k, load).ifPresent(f -> futures.put(k, f)));
+
+		Optional<Future<Object>> batchFuture = batchedLookups.isEmpty() ? Optional.empty()
+				: submit("batch of " + batchedKeys, () -> getParamValuesHandler().loadBatch(batchedLookups));
+
+		futures.forEach((k, f) -> join(k, f, state -> prefetchedStates.put(k, state)));
+
+		batchFuture.ifPresent(f -> join("batch of " + batchedKeys, f, states -> prefetchedStates.putAll((Map<String, ?>)states)));
+	}
+
+	private Optional<Future<Object>> submit(String key, Supplier<Object> load) {
+		try {
+			return Optional.of(getExecutor().submit(withCallerContext(load)));
+
+		} catch (TaskRejectedException ex) {
+			logit.debug(() -> "Prefetch executor saturated, leaving state from: " + key + " to be loaded on read", ex);
+			return Optional.empty();
+		}
+	}
+
+	private void join(String key, Future<Object> f, Consumer<Object> onLoad) {
+		try {
+			onLoad.accept(f.get());
+
+		} catch (ExecutionException ex) {
+			logit.debug(() -> "Failed to prefetch state from: " + key + ", leaving it to be loaded on read", ex.getCause());
+
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new FrameworkRuntimeException("Interrupted while awaiting prefetch of state from: " + key, ex);
+		}
+	}
+
+	protected boolean isPrefetchAllowed(ExecutionModel<?> rootModel) {
+		return rootModel != null
+				&& !rootModel.isStateInitialized()
+				&& prefetchInThread.get() == null
+				&& rootModel.getExecutionRuntime().getTxnContext().getMemoizedStates() == null
+				&& !TransactionSynchronizationManager.isActualTransactionActive();
+	}
+
+	protected boolean isPrefetchable(Command cmd) {
+		return cmd.getAction() == Action._search || cmd.getAction() == Action._config;
+	}
+
+	private void initDependencies() {
+		if(isInitialized())
+			return;
+
+		ParamStateRepository detached = getBeanResolver().find(ParamStateRepository.class, "param.state.rep_detached");
+		if(detached instanceof DefaultParamStateRepositoryDetached)
+			this.detachedStateRepository = (DefaultParamStateRepositoryDetached)detached;
+
+		ParamValuesOnLoadHandler valuesHandler = getBeanResolver().find(ParamValuesOnLoadHandler.class);
+		if(valuesHandler instanceof DefaultParamValuesHandler)
+			this.paramValuesHandler = (DefaultParamValuesHandler)valuesHandler;
+
+		this.initialized = true;
+	}
+
+	private void collect(Model<?> m, List<Param<?>> detachedParams, List<Param<?>> valuesParams) {
+		if(m == null || m.getParams() == null)
+			return;
+
+		for(Param<?> p : m.getParams()) {
+			Values values = p.getConfig().getValues();
+			if(values != null && values.value() == EMPTY.class && StringUtils.isNotBlank(values.url()))
+				valuesParams.add(p);
+
+			if(p.getConfig().isMapped()) {
+				MappedParamConfig<?, ?> mappedConfig = p.getConfig().findIfMapped();
+				if(mappedConfig.isDetachedWithAutoLoad())
+					detachedParams.add(p);
+
+				// state of detached params is loaded as a whole
+				if(mappedConfig.isDetachedWithAutoLoad() || mappedConfig.getMappingMode() != MapsTo.Mode.MappedAttached)
+					continue;
+			}
+
+			if(p.isNested() && !p.isCollection())
+				collect(p.findIfNested(), detachedParams, valuesParams);
+		}
+	}
+
+	private Callable<Object> withCallerContext(Supplier<Object> load) {
+		return ExecutionScope.detachedWithCallerContext(() -> {
+			prefetchInThread.set(Boolean.TRUE);
+			try {
+				return load.get();
+			} finally {
+				prefetchInThread.remove();
+			}
+		});
+	}
+}
@@ -15,20 +15,28 @@
  */
 package com.antheminc.oss.nimbus.domain.model.state.repo;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.apache.commons.collections.CollectionUtils;
 
 import com.antheminc.oss.nimbus.InvalidArgumentException;
+import com.antheminc.oss.nimbus.InvalidConfigException;
 import com.antheminc.oss.nimbus.UnsupportedScenarioException;
 import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
 import com.antheminc.oss.nimbus.domain.cmd.Action;
 import com.antheminc.oss.nimbus.domain.defn.Converters.ParamConverter;
+import com.antheminc.oss.nimbus.domain.defn.Model.Param.ElemKey;
 import com.antheminc.oss.nimbus.domain.defn.Repo.Cache;
+import com.antheminc.oss.nimbus.domain.model.config.ParamConfig;
 import com.antheminc.oss.nimbus.domain.model.config.ParamConfig.MappedParamConfig;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.ListElemParam;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.ListParam;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.MappedParam;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.Model;
@@ -202,7 +210,7 @@ public class ParamStateRepositoryGateway implements ParamStateGateway {
 			MappedParamConfig<P, ?> mappedParamConfig = param.findIfMapped().getConfig().findIfMapped();
 			
 			if(mappedParamConfig.isDetachedWithAutoLoad())
-				return mappedParamConfig.getPath().detachedState().cacheState() == Cache.rep_none 
+				return mappedParamConfig.getPath().detachedState().cacheState() != Cache.rep_device 
 					|| currRep._get(param) == null ? detachedStateRepository._get(param) : currRep._get(param);
 		}
 
@@ -268,26 +276,10 @@ public class ParamStateRepositoryGateway implements ParamStateGateway {
 				return currRep._set(param, newState);	
 				
 			} else if(param.isCollection()) {
-				ListParam<P> listParam = (ListParam<P>)param.findIfCollection();
-				//reset collection
-				listParam.clear();
-				
-				//_instantiateAndSet(currRep, param);
-				//listParam.getType().getModel().instantiateAndSet();
-
 				if(!(newState instanceof Collection))
 					throw new InvalidArgumentException("Collection param with path: "+param.getPath()+" must have argument of type "+Collection.class);
 				
-				
-				Collection<P> state = (Collection<P>)newState;
-				// add element parameters
-				Optional.ofNullable(state)
-					.ifPresent(list->
-						list.stream()
-							.forEach(listParam::add)
-					);
-				
-				return Action._new;
+				return _setCollection((ListParam<Object>)param.findIfCollection(), (Collection<Object>)newState);
 				
 			} else // scenario: when model is mapped to a type, but param is not -- needs to refer to its root param 
 			//if(param.getConfig().getType().findIfNested().getModel().isMapped())
@@ -318,25 +310,10 @@ public class ParamStateRepositoryGateway implements ParamStateGateway {
 			}
 			
 
-			ListParam<P> mappedListParam = (ListParam<P>)param.findIfCollection();
-			
-			// reset collection
-			mappedListParam.clear();
-			
-			//_instantiateAndSet(currRep, param);
-			//mappedListParam.getType().getModel().instantiateAndSet();
-
 			if(!(newState instanceof Collection))
 				throw new InvalidArgumentException("Collection param with path: "+param.getPath()+" must have argument of type "+Collection.class);
 			
-			Collection<P> newColState = (Collection<P>)newState;
-			// add element parameters
-			Optional.ofNullable(newColState)
-				.ifPresent(list->
-					list.stream()
-						.forEach(mappedListParam::add)
-				);
-			return Action._new;
+			return _setCollection((ListParam<Object>)param.findIfCollection(), (Collection<Object>)newState);
 			
 		} else if(param.isNested()) {
 			// mapped nested: ..handling..  <TypeStateAndConfig.Nested<P>>
@@ -362,6 +339,12 @@ public class ParamStateRepositoryGateway implements ParamStateGateway {
 	
 	}
 	
+	/**
+	 * <p>Sets each param of the nested model to the value of its attribute in the new state.
+	 * 
+	 * @return {@link Action#_replace} if the model was instantiated, any of its params changed, or the new state is the 
+	 * current state itself, as changes made directly to it cannot be detected; {@code null} otherwise
+	 */
 	protected <P> Action _setNestedModel(ParamStateRepository currRep, Param<P> param, P newState) {
 		// if param is mapped && requires NO conversion, then use mapsToParam
 //		if(param.isMapped() && !param.findIfMapped().requiresConversion()) {
@@ -371,8 +354,13 @@ public class ParamStateRepositoryGateway implements ParamStateGateway {
 //		}
 		
 		// ensure model is instantiated
+		P currState = param.getState();
+		boolean instantiated = currState == null;
 		param.findIfNested().instantiateOrGet();
 		
+		// the current state itself, possibly modified by the caller, compares equal to its params and is taken as changed
+		boolean sameState = newState != null && newState == currState;
+		
 //		if(param.isMapped())
 //			param.findIfMapped().getMapsTo().findIfNested().instantiateOrGet();
 		
@@ -381,7 +369,7 @@ public class ParamStateRepositoryGateway implements ParamStateGateway {
 		if(nestedModel.templateParams().isNullOrEmpty()) return null;
 		
 		// iterate child params
-		
+		boolean changed = false;
 		for(Param<? extends Object> childParam : nestedModel.getParams()) {
 			
 			//PropertyDescriptor pd = (childParam.isMapped() ? childParam.findIfMapped().getMapsTo() : childParam).getPropertyDescriptor();
@@ -389,11 +377,136 @@ public class ParamStateRepositoryGateway implements ParamStateGateway {
 			Object childParamState = javaBeanHandler.getValue(pd, newState);
 			
 			//_set(currRep, (Param<Object>)childParam, childParamState);
-			((Param<Object>)childParam).setState(childParamState);
+			if(((Param<Object>)childParam).setState(childParamState) != null)
+				changed = true;
+		}
+		
+		return (instantiated || sameState || changed) ? Action._replace : null;
+	}
+	
+	/**
+	 * <p>Sets the elements of a collection param in place. Each new element is matched to a current element, by position or
+	 * by key if the collection is configured with {@link ElemKey}, and set to its element param, so that only the params 
+	 * that changed are updated. New elements left unmatched are added and current ones left unmatched removed. Element
+	 * params are not moved, so elements matched by key out of their current order are matched by position instead.
+	 * 
+	 * <p>Changes made by the caller directly to the current state cannot be told apart by comparison. Elements identical to 
+	 * the current one they are matched to are hence reported as changed, see {@link #_setNestedModel}, and the current 
+	 * list itself, whose elements may have been added or removed directly, is set anew.
+	 * 
+	 * @return {@code null} if no element changed
+	 */
+	protected <E> Action _setCollection(ListParam<E> listParam, Collection<E> newState) {
+		List<E> currState = listParam.getState();
+		if(currState == null) {
+			newState.forEach(listParam::add);
+			return Action._new;
+		}
+		
+		// copy first, as the new state may as well be the current one
+		List<E> newElems = new ArrayList<>(newState);
+		if(newState == currState) {
+			listParam.clear();
+			newElems.forEach(listParam::add);
+			return Action._new;
+		}
+		
+		List<Param<?>> currElemParams = listParam.findIfNested().templateParams().isNullOrEmpty() 
+				? Collections.emptyList() : new ArrayList<>(listParam.findIfNested().getParams());
+		
+		String elemKey = findElemKey(listParam);
+		int[] matches = (elemKey == null) ? null : matchByKey(listParam, elemKey, currElemParams, newElems);
+		if(matches == null || !isInOrder(matches))
+			matches = matchByPosition(currElemParams, newElems);
+		
+		boolean changed = false;
+		boolean[] retained = new boolean[currElemParams.size()];
+		List<E> added = new ArrayList<>();
+		for(int i=0; i<newElems.size(); i++) {
+			E newElem = newElems.get(i);
+			int match = matches[i];
+			if(match == -1) {
+				added.add(newElem);
+				continue;
+			}
+			
+			retained[match] = true;
+			ListElemParam<E> pElem = (ListElemParam<E>)currElemParams.get(match);
+			if(pElem.setState(newElem) != null)
+				changed = true;
+		}
+		
+		for(int i=currElemParams.size()-1; i>=0; i--) {
+			if(!retained[i] && listParam.remove((ListElemParam<E>)currElemParams.get(i)))
+				changed = true;
+		}
+		
+		for(E newElem : added) {
+			listParam.add(newElem);
+			changed = true;
+		}
+		
+		return changed ? Action._new : null;
+	}
+	
+	private static String findElemKey(ListParam<?> listParam) {
+		ElemKey elemKey = listParam.getConfig().findElemKey();
+		if(elemKey == null || listParam.isLeafElements())
+			return null;
+		
+		return elemKey.value();
+	}
+	
+	private static int[] matchByPosition(List<Param<?>> currElemParams, List<?> newElems) {
+		int[] matches = new int[newElems.size()];
+		for(int i=0; i<matches.length; i++)
+			matches[i] = i < currElemParams.size() ? i : -1;
+		
+		return matches;
+	}
+	
+	/* retained elements in their current order, followed by the added ones, which are appended */
+	private static boolean isInOrder(int[] matches) {
+		int last = -1;
+		boolean adding = false;
+		for(int match : matches) {
+			if(match == -1) {
+				adding = true;
+			} else if(adding || match < last) {
+				return false;
+			} else {
+				last = match;
+			}
+		}
+		return true;
+	}
+	
+	private int[] matchByKey(ListParam<?> listParam, String elemKey, List<Param<?>> currElemParams, List<?> newElems) {
+		ParamConfig<?> elemKeyConfig = listParam.getConfig().getType().findIfCollection().getElementConfig()
+				.getType().findIfNested().getModelConfig().templateParamConfigs().find(elemKey);
+		
+		if(elemKeyConfig == null)
+			throw new InvalidConfigException("Collection param with path: "+listParam.getPath()+" is configured with "+ElemKey.class.getSimpleName()
+				+" attribute: "+elemKey+" which is not found on its element: "+listParam.getConfig().getType().findIfCollection().getElementConfig());
+		
+		// elements with a duplicate key, or none, are left unmatched
+		Map<Object, Integer> currByKey = new HashMap<>();
+		for(int i=0; i<currElemParams.size(); i++) {
+			Param<?> pKey = currElemParams.get(i).findIfNested().templateParams().find(elemKey);
+			Object key = (pKey == null) ? null : pKey.getState();
+			if(key != null && currByKey.putIfAbsent(key, i) != null)
+				currByKey.put(key, -1);
+		}
+		
+		int[] matches = new int[newElems.size()];
+		for(int i=0; i<matches.length; i++) {
+			Object newElem = newElems.get(i);
+			Object key = (newElem == null) ? null : javaBeanHandler.getValue(elemKeyConfig.getType().getValueAccessor(), newElem);
+			Integer match = (key == null) ? null : currByKey.remove(key);
+			matches[i] = (match == null) ? -1 : match;
 		}
 		
-		//TODO detect change
-		return Action._replace;
+		return matches;
 	}
 	
 	public static <P> Action _equals(P newState, P currState) {
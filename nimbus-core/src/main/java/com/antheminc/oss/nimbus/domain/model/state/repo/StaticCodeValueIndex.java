@@ -0,0 +1,223 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.repo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.antheminc.oss.nimbus.domain.defn.Constants;
+import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
+import com.antheminc.oss.nimbus.domain.model.config.ParamValue;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.entity.StaticCodeValue;
+import com.antheminc.oss.nimbus.support.JustLogit;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * <p>Immutable in-memory index of all {@link StaticCodeValue} records by paramCode and by code, so that static code value
+ * lookups and code to label conversions are served as map reads instead of searches.
+ *
+ * <p>The index is loaded on {@link #start()} and rebuilt in the background every refresh interval, as well as after every
+ * write of a {@code staticCodeValue} made through the framework. Between such a write and the completion of the rebuild
+ * the index reports every lookup as a miss, as does a failed load, in which case callers fall back to searching the
+ * repository. ParamCodes and codes present in more than one record are not indexed either, so that the error raised by
+ * the search for those still surfaces.
+ */
+@Getter(value=AccessLevel.PROTECTED)
+public class StaticCodeValueIndex {
+
+	private static final JustLogit logit = new JustLogit(StaticCodeValueIndex.class);
+
+	private static final Pattern PARAM_CODE_LOOKUP = Pattern
+			.compile(Constants.PARAM_VALUES_DOMAIN_ALIAS.code + "\\.paramCode\\.eq\\('([^']+)'\\)");
+
+	private final Supplier<List<StaticCodeValue>> loader;
+
+	private final long refreshIntervalMillis;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final AtomicBoolean refreshPending = new AtomicBoolean();
+
+	/* incremented on every write, so that a snapshot loaded before the write is not served */
+	private final AtomicLong generation = new AtomicLong();
+
+	private volatile Snapshot snapshot;
+
+	public StaticCodeValueIndex(Supplier<List<StaticCodeValue>> loader, long refreshIntervalMillis) {
+		this.loader = loader;
+		this.refreshIntervalMillis = refreshIntervalMillis;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "nimbus-staticcodevalue-index");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	public void start() {
+		refresh();
+
+		if(getRefreshIntervalMillis() > 0)
+			getScheduler().scheduleWithFixedDelay(this::refresh, getRefreshIntervalMillis(), getRefreshIntervalMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	public void shutdown() {
+		getScheduler().shutdownNow();
+	}
+
+	/**
+	 * <p>Rebuilds the index from the repository on the calling thread.
+	 */
+	public void refresh() {
+		getRefreshPending().set(false);
+		long loadGeneration = getGeneration().get();
+		try {
+			this.snapshot = new Snapshot(getLoader().get(), loadGeneration);
+
+		} catch (RuntimeException ex) {
+			logit.error(() -> "Failed to load static code values, lookups fall back to the repository until the next refresh", ex);
+			this.snapshot = null;
+		}
+	}
+
+	/**
+	 * <p>Marks the index as stale and rebuilds it in the background.
+	 */
+	public void requestRefresh() {
+		getGeneration().incrementAndGet();
+
+		if(getRefreshPending().compareAndSet(false, true))
+			getScheduler().execute(this::refresh);
+	}
+
+	@TransactionalEventListener(phase=TransactionPhase.AFTER_COMMIT, fallbackExecution=true)
+	public void handleEvent(RepoParamEvent event) {
+		Param<?> param = event.getParam();
+		if(param == null || param.getRootDomain() == null)
+			return;
+
+		ModelConfig<?> rootConfig = param.getRootDomain().getConfig();
+		if(StringUtils.equals(rootConfig.getAlias(), Constants.PARAM_VALUES_DOMAIN_ALIAS.code))
+			requestRefresh();
+	}
+
+	/**
+	 * @return a copy of the values of the given paramCode, or {@code null} if not indexed
+	 */
+	public List<ParamValue> findParamValues(String paramCode) {
+		Snapshot current = findCurrent();
+		if(current == null || paramCode == null)
+			return null;
+
+		List<ParamValue> values = current.getValuesByParamCode().get(paramCode);
+		return values == null ? null : new ArrayList<>(values);
+	}
+
+	/**
+	 * @return the label of the given code, or empty if not indexed
+	 */
+	public Optional<String> findLabel(String code) {
+		Snapshot current = findCurrent();
+		if(current == null || code == null)
+			return Optional.empty();
+
+		return Optional.ofNullable(current.getLabelsByCode().get(code));
+	}
+
+	/**
+	 * @return the paramCode of a {@code where} clause consisting of a plain
+	 * {@code staticCodeValue.paramCode.eq('..')} condition, or {@code null} otherwise
+	 */
+	public static String findParamCode(String where) {
+		Matcher m = where == null ? null : PARAM_CODE_LOOKUP.matcher(where.trim());
+		return m != null && m.matches() ? m.group(1) : null;
+	}
+
+	private Snapshot findCurrent() {
+		Snapshot current = this.snapshot;
+		return current != null && current.getGeneration() == getGeneration().get() ? current : null;
+	}
+
+	@Getter
+	private static class Snapshot {
+
+		private final long generation;
+
+		private final Map<String, List<ParamValue>> valuesByParamCode;
+
+		private final Map<String, String> labelsByCode;
+
+		Snapshot(List<StaticCodeValue> records, long generation) {
+			this.generation = generation;
+
+			Map<String, List<ParamValue>> values = new HashMap<>();
+			Map<String, String> labels = new HashMap<>();
+			Set<String> ambiguousParamCodes = new HashSet<>();
+			Set<String> ambiguousCodes = new HashSet<>();
+
+			if(CollectionUtils.isNotEmpty(records)) {
+				for(StaticCodeValue record : records) {
+					if(record.getParamCode() == null)
+						continue;
+
+					List<ParamValue> paramValues = record.getParamValues() == null ? Collections.emptyList()
+							: Collections.unmodifiableList(new ArrayList<>(record.getParamValues()));
+
+					if(values.putIfAbsent(record.getParamCode(), paramValues) != null)
+						ambiguousParamCodes.add(record.getParamCode());
+
+					Set<String> recordCodes = new HashSet<>();
+					for(ParamValue pv : paramValues) {
+						if(!(pv.getCode() instanceof String) || !recordCodes.add((String)pv.getCode()))
+							continue;
+
+						if(labels.containsKey(pv.getCode()))
+							ambiguousCodes.add((String)pv.getCode());
+						else
+							labels.put((String)pv.getCode(), pv.getLabel());
+					}
+				}
+			}
+
+			ambiguousParamCodes.forEach(values::remove);
+			ambiguousCodes.forEach(labels::remove);
+
+			this.valuesByParamCode = Collections.unmodifiableMap(values);
+			this.labelsByCode = Collections.unmodifiableMap(labels);
+		}
+	}
+}
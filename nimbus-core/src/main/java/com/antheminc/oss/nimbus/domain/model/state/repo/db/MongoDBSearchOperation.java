@@ -15,6 +15,8 @@
  */
 package com.antheminc.oss.nimbus.domain.model.state.repo.db;
 
+import java.util.function.Supplier;
+
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.util.Assert;
@@ -35,6 +37,15 @@ public abstract class MongoDBSearchOperation implements DBSearchOperation {
 	
 	private final MongoOperations mongoOps;
 	private final DomainConfigBuilder domainConfigBuilder;
+	private final PageTotalCountProvider totalCountProvider;
+	
+	public MongoDBSearchOperation(MongoOperations mongoOps, DomainConfigBuilder domainConfigBuilder) {
+		this(mongoOps, domainConfigBuilder, new PageTotalCountProvider());
+	}
+	
+	protected Supplier<Long> estimatedCount(String alias) {
+		return () -> getMongoOps().getCollection(alias).count();
+	}
 	
 	public <T> Class<?> findOutputClass(SearchCriteria<?> criteria, Class<T> referredClass) {
 		if(criteria.getProjectCriteria() != null && StringUtils.isNotBlank(criteria.getProjectCriteria().getAlias())) {
@@ -25,7 +25,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -51,6 +50,10 @@ public class MongoSearchByExampleOperation extends MongoDBSearchOperation {
 	public MongoSearchByExampleOperation(MongoOperations mongoOps, DomainConfigBuilder domainConfigBuilder) {
 		super(mongoOps, domainConfigBuilder);
 	}
+	
+	public MongoSearchByExampleOperation(MongoOperations mongoOps, DomainConfigBuilder domainConfigBuilder, PageTotalCountProvider totalCountProvider) {
+		super(mongoOps, domainConfigBuilder, totalCountProvider);
+	}
 
 	@Override
 	public <T> Object search(Class<T> referredClass, String alias, SearchCriteria<?> criteria) {
@@ -64,8 +67,12 @@ public class MongoSearchByExampleOperation extends MongoDBSearchOperation {
 			referredClass = (Class<T>)findOutputClass(criteria, referredClass);
 		}
 		
+		if(criteria.getProjectCriteria() != null && CollectionUtils.isNotEmpty(criteria.getProjectCriteria().getPaths())) {
+			criteria.getProjectCriteria().getPaths().forEach(query.fields()::include);
+		}
+		
 		if(criteria.getPageRequest() != null) {
-			return findAllPageable(referredClass, alias, criteria.getPageRequest(), query);
+			return findAllPageable(referredClass, alias, criteria, query);
 		}
 		
 		return getMongoOps().find(query, referredClass, alias);
@@ -86,15 +93,15 @@ public class MongoSearchByExampleOperation extends MongoDBSearchOperation {
 		return query;
 	}
 	
-	private <T> PageRequestAndRespone<T> findAllPageable(Class<T> referredClass, String alias, Pageable pageRequest, Query query) {
-		Query qPage = query.with(pageRequest);
+	private <T> PageRequestAndRespone<T> findAllPageable(Class<T> referredClass, String alias, SearchCriteria<?> criteria, Query query) {
+		Query qPage = query.with(criteria.getPageRequest()).limit(getTotalCountProvider().getFetchSize(criteria));
 		
 		List<T> results = getMongoOps().find(qPage, referredClass, alias);
 		
 		if(CollectionUtils.isEmpty(results))
 			return null;
 		
-		return new PageRequestAndRespone<T>(results, pageRequest, () -> getMongoOps().count(query, referredClass, alias));
+		return getTotalCountProvider().toPage(alias, criteria, results, () -> getMongoOps().count(query, referredClass, alias), estimatedCount(alias));
 		
 	}
 
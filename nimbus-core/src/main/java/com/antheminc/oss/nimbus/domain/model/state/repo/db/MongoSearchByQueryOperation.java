@@ -16,6 +16,7 @@
 package com.antheminc.oss.nimbus.domain.model.state.repo.db;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -40,6 +41,7 @@ import com.antheminc.oss.nimbus.domain.defn.Constants;
 import com.antheminc.oss.nimbus.domain.model.state.internal.AbstractListPaginatedParam.PageWrapper.PageRequestAndRespone;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.LookupSearchCriteria;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.QuerySearchCriteria;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.TotalCountStrategy;
 import com.antheminc.oss.nimbus.support.EnableAPIMetricCollection;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.OrderSpecifier;
@@ -62,6 +64,10 @@ public class MongoSearchByQueryOperation extends MongoDBSearchOperation {
 	public MongoSearchByQueryOperation(MongoOperations mongoOps, DomainConfigBuilder domainConfigBuilder) {
 		super(mongoOps, domainConfigBuilder);
 	}
+	
+	public MongoSearchByQueryOperation(MongoOperations mongoOps, DomainConfigBuilder domainConfigBuilder, PageTotalCountProvider totalCountProvider) {
+		super(mongoOps, domainConfigBuilder, totalCountProvider);
+	}
 
 	private static final ScriptEngine groovyEngine = new ScriptEngineManager().getEngineByName("groovy");
 	private static final String orderByAliasSuffix = ".";
@@ -155,15 +161,16 @@ public class MongoSearchByQueryOperation extends MongoDBSearchOperation {
 		}
 
 		if(criteria.getPageRequest() != null) {
-			return findAllPageable(referredClass, alias, criteria.getPageRequest(), query, projectionPaths);
+			return findAllPageable(referredClass, alias, criteria, query, projectionPaths);
 		}
 		
 		return query.fetch(projectionPaths);
 		
 	}
 
-	private PageRequestAndRespone<Object> findAllPageable(Class<?> referredClass, String alias, Pageable pageRequest, AbstractMongodbQuery query, PathBuilder[] projectionPaths) {
-		AbstractMongodbQuery qPage = query.offset(pageRequest.getOffset()).limit(pageRequest.getPageSize());
+	private PageRequestAndRespone<Object> findAllPageable(Class<?> referredClass, String alias, SearchCriteria<?> criteria, AbstractMongodbQuery query, PathBuilder[] projectionPaths) {
+		Pageable pageRequest = criteria.getPageRequest();
+		AbstractMongodbQuery qPage = query.offset(pageRequest.getOffset()).limit(getTotalCountProvider().getFetchSize(criteria));
 		
 		if(pageRequest.getSort() != null){
 			PathBuilder<?> entityPath = new PathBuilder(referredClass, alias);
@@ -172,7 +179,9 @@ public class MongoSearchByQueryOperation extends MongoDBSearchOperation {
 			    qPage.orderBy(new OrderSpecifier(com.querydsl.core.types.Order.valueOf(order.getDirection().name().toUpperCase()), path));
 			}
 		}
-		return new PageRequestAndRespone<Object>(qPage.fetchResults(projectionPaths).getResults(), pageRequest, () -> query.fetchCount());
+		
+		List<Object> results = qPage.fetch(projectionPaths);
+		return getTotalCountProvider().toPage(alias, criteria, results, () -> query.fetchCount(), estimatedCount(alias));
 	}
 	
 	private PathBuilder[] buildProjectionPathBuilder(Class<?> referredClass, SearchCriteria criteria, AbstractMongodbQuery query) {
@@ -182,17 +191,63 @@ public class MongoSearchByQueryOperation extends MongoDBSearchOperation {
 			fields.forEach((f)->paths.add(new PathBuilder(referredClass, f)));
 			return paths.toArray(new PathBuilder[paths.size()]);
 		}
+		if(criteria.getProjectCriteria() != null && CollectionUtils.isNotEmpty(criteria.getProjectCriteria().getPaths())) {
+			List<String> fields = criteria.getProjectCriteria().getPaths();
+			fields.forEach((f)->paths.add(new PathBuilder(referredClass, f)));
+			return paths.toArray(new PathBuilder[paths.size()]);
+		}
 		return paths.toArray(new PathBuilder[paths.size()]);
 	}
 	
 	private  <T> Object searchByAggregation(Class<?> referredClass, String alias, SearchCriteria<T> criteria) {
-		List<?> output = new ArrayList();
 		String cr = (String)criteria.getWhere();
 		Document query = Document.parse(cr);
 		List<Document> pipeline = (List<Document>)query.get(Constants.SEARCH_REQ_AGGREGATE_PIPELINE.code);
 		String aggregateCollection = query.getString(Constants.SEARCH_REQ_AGGREGATE_MARKER.code);
+		
+		if(criteria.getPageRequest() != null) {
+			return findAllPageableByAggregation(aggregateCollection, pipeline, criteria);
+		}
+		
+		return readAggregateContent(aggregate(aggregateCollection, pipeline));
+	}
+	
+	/**
+	 * <p>Appends a single {@code $facet} stage to the given pipeline so that the requested page (sort, skip, limit) and the 
+	 * total count of the unpaged pipeline are both computed by the database and returned in the same round trip.
+	 * 
+	 * <pre>
+	 * { $facet: { 
+	 * 	content: [ { $sort: { livingArrangement: -1, subscriberId: -1 } }, { $skip: 5 }, { $limit: 5 } ],
+	 * 	total: [ { $count: "count" } ] 
+	 * } }
+	 * </pre>
+	 */
+	private PageRequestAndRespone<Object> findAllPageableByAggregation(String aggregateCollection, List<Document> pipeline, SearchCriteria<?> criteria) {
+		boolean includeTotal = criteria.getTotalCountStrategy() != TotalCountStrategy.HAS_NEXT;
+		
+		List<Document> pagePipeline = new ArrayList<>(pipeline);
+		pagePipeline.add(new AggregatePageStageBuilder(criteria.getPageRequest(), getTotalCountProvider().getFetchSize(criteria), includeTotal).build());
+		
+		List<Document> result = aggregate(aggregateCollection, pagePipeline);
+		Document facet = CollectionUtils.isNotEmpty(result) ? result.get(0) : new Document();
+		
+		List<Document> content = (List<Document>)facet.get(AggregatePageStageBuilder.CONTENT_KEY);
+		List<Document> total = (List<Document>)facet.get(AggregatePageStageBuilder.TOTAL_KEY);
+		
+		long totalCount = CollectionUtils.isNotEmpty(total) ? ((Number)total.get(0).get(AggregatePageStageBuilder.COUNT_KEY)).longValue() : 0L;
+		
+		return getTotalCountProvider().toPage(aggregateCollection, criteria, readAggregateContent(content), () -> totalCount, null);
+	}
+	
+	private List<Document> aggregate(String aggregateCollection, List<Document> pipeline) {
 		List<Document> result = new ArrayList<Document>();
 		getMongoOps().getCollection(aggregateCollection).aggregate(pipeline).iterator().forEachRemaining(a -> result.add(a));
+		return result;
+	}
+	
+	private List<Object> readAggregateContent(List<Document> result) {
+		List<Object> output = new ArrayList();
 		if(CollectionUtils.isNotEmpty(result)) {
 			GenericType gt = getMongoOps().getConverter().read(GenericType.class, new org.bson.Document(GenericType.CONTENT_KEY, result));
 			output.addAll(gt.getContent());
@@ -206,139 +261,50 @@ public class MongoSearchByQueryOperation extends MongoDBSearchOperation {
 		
 		List<T> content;
 	}
+	
+	@RequiredArgsConstructor
+	static class AggregatePageStageBuilder {
+		
+		static final String CONTENT_KEY = "content";
+		static final String TOTAL_KEY = "total";
+		static final String COUNT_KEY = "count";
+		
+		private final Pageable pageable;
+		private final int limit;
+		private final boolean includeTotal;
+		
+		Document build() {
+			List<Document> contentStages = new ArrayList<>();
+			
+			Document sort = buildSort();
+			if(!sort.isEmpty())
+				contentStages.add(new Document("$sort", sort));
+			
+			contentStages.add(new Document("$skip", pageable.getOffset()));
+			contentStages.add(new Document("$limit", limit));
+			
+			Document facet = new Document(CONTENT_KEY, contentStages);
+			if(includeTotal)
+				facet.append(TOTAL_KEY, Arrays.asList(new Document("$count", COUNT_KEY)));
+			
+			return new Document("$facet", facet);
+		}
+		
+		private Document buildSort() {
+			Document sort = new Document();
+			if(pageable.getSort() == null)
+				return sort;
+			
+			for(Order order : pageable.getSort()) {
+				sort.append(order.getProperty(), order.isAscending() ? 1 : -1);
+			}
+			return sort;
+		}
+	}
 
 	@Override
 	public boolean shouldAllow(SearchCriteria<?> criteria) {
 		return criteria instanceof QuerySearchCriteria || criteria instanceof LookupSearchCriteria;
 	}
 	
-	/*
-	 * WIP: sorting and pagination for aggregate queries:
-	 * 
-	 * { $sort : { livingArrangement : -1,subscriberId: -1} },
-	 * { $skip : 5 },
-	 * { $limit : 5 }
-	 *
-	 */
-//	private  <T> Object searchByAggregation1(Class<?> referredClass, String alias, SearchCriteria<T> criteria) {
-//		List<?> output = new ArrayList();
-//		String cr = (String)criteria.getWhere();
-//		
-//		criteria.setPageRequest(new PageRequest(0, 1, new Sort(Direction.ASC, "_id")));
-//		
-//		//if(criteria.getPageRequest() != null) {
-//		int index = cr.lastIndexOf("]"); 
-//		Integer count = executeCountQuery(cr, index); //TODO if count is null return error ?
-//		
-//		String pageQuery = new StringBuilder(cr).insert(index, addAggregatePageCriteria(criteria)).toString();
-//		//}
-//		CommandResult commndResult = getMongoOps().executeCommand(pageQuery);
-//		logIt.info(()-> "&&& Aggregation Query: "+pageQuery+" --- Result: "+commndResult);
-//		if (commndResult != null && commndResult.get(Constants.SEARCH_NAMED_QUERY_RESULT.code) != null
-//				&& commndResult.get(Constants.SEARCH_NAMED_QUERY_RESULT.code) instanceof BasicDBList) {
-//			BasicDBList result = (BasicDBList)commndResult.get(Constants.SEARCH_NAMED_QUERY_RESULT.code);
-//			if(criteria.getProjectCriteria() != null && StringUtils.isNotBlank(criteria.getProjectCriteria().getAlias())) {
-//				BasicDBObject dbObject = (BasicDBObject)result.get(0);
-//				if(dbObject != null && dbObject.get(criteria.getProjectCriteria().getAlias()) instanceof BasicDBList) {
-//					result = (BasicDBList)dbObject.get(criteria.getProjectCriteria().getAlias());
-//				}
-//			}
-//			output.addAll(getMongoOps().getConverter().read(List.class, result));
-//		}
-//		
-//		return output;
-//	}
-//
-//
-//	private Integer executeCountQuery(String cr, int index) {
-//		String countQuery = new StringBuilder(cr).insert(index, addAggregateCountCriteria()).toString();
-//		CommandResult commndResult1 = getMongoOps().executeCommand(countQuery);
-//		//{ "result" : [ { "state" : 12}] , "ok" : 1.0}
-//		if (commndResult1 != null && commndResult1.get(Constants.SEARCH_NAMED_QUERY_RESULT.code) != null
-//				&& commndResult1.get(Constants.SEARCH_NAMED_QUERY_RESULT.code) instanceof BasicDBList) {
-//			BasicDBList result1 = (BasicDBList)commndResult1.get(Constants.SEARCH_NAMED_QUERY_RESULT.code);
-//			if(result1 != null && result1.size() > 0) {
-//				Holder<Integer> count = getMongoOps().getConverter().read(Holder.class, ((BasicDBObject)result1.get(0)));
-//				System.out.println("Total count: "+count);
-//				return count.getState();
-//			}
-//		}
-//		return null;
-//	}
-//	
-//	private <T> String addAggregateCountCriteria() {
-//		AggregatePageCriteriaBuilder builder = new AggregatePageCriteriaBuilder(new StringBuilder());
-//		
-//		return builder.count().build();
-//	}
-//	
-//	private <T> String addAggregatePageCriteria(SearchCriteria<T> criteria) {
-//		Pageable pageable = criteria.getPageRequest();
-//		AggregatePageCriteriaBuilder builder = new AggregatePageCriteriaBuilder(new StringBuilder());
-//		
-//		return builder.sort(pageable.getSort())
-//				.skip(pageable.getPageNumber() * pageable.getPageSize())
-//				.limit(pageable.getPageSize())
-//				.build();
-//	}
-//	
-//	
-//	class AggregatePageCriteriaBuilder<T> {
-//		
-//		private static final String PREFIX = ",{";
-//		private static final String SUFFIX = "}";
-//				
-//		private static final String COUNT = PREFIX+" $count: \"state\" "+SUFFIX;
-//		
-//		private static final String SORT_PREFIX = PREFIX+" $sort: {";
-//		private static final String SKIP_PREFIX = PREFIX+" $skip: ";
-//		private static final String LIMIT_PREFIX = PREFIX+" $limit: ";
-//		
-//		
-//		private StringBuilder pageBuilder;
-//		
-//		AggregatePageCriteriaBuilder(StringBuilder pageBuilder){
-//			this.pageBuilder = pageBuilder;
-//		}
-//		
-//		private String build() {
-//			return pageBuilder.toString();
-//		}
-//		
-//		private AggregatePageCriteriaBuilder count() {
-//			pageBuilder.append(COUNT);
-//			return this;
-//		}
-//		
-//		private AggregatePageCriteriaBuilder sort(Sort sort) {
-//			if(sort != null) {
-//				pageBuilder.append(SORT_PREFIX);
-//				
-//				sort.forEach(o -> {
-//					String key = o.getProperty();
-//					int direction = o.getDirection() == Direction.ASC ? 1 : -1;
-//					pageBuilder.append(key + " : " + direction +", ");
-//				});
-//				
-//				pageBuilder.append(SUFFIX+SUFFIX);
-//			}
-//			return this;
-//		}
-//		
-//		private AggregatePageCriteriaBuilder skip(int skip) {
-//			 pageBuilder.append(SKIP_PREFIX)
-//					.append(skip)
-//					.append(SUFFIX);
-//			 return this;
-//		}
-//		
-//		private AggregatePageCriteriaBuilder limit(int limit) {
-//			pageBuilder.append(LIMIT_PREFIX)
-//					.append(limit)
-//					.append(SUFFIX);
-//			return this;
-//		}
-//	}
-	
-	
-}
\ No newline at end of file
+}
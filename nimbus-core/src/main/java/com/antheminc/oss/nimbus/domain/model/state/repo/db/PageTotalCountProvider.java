@@ -0,0 +1,176 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.repo.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.internal.AbstractListPaginatedParam.PageWrapper.PageRequestAndRespone;
+import com.antheminc.oss.nimbus.domain.model.state.internal.AbstractListPaginatedParam.PageWrapper.TotalSupplier;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.TotalCountStrategy;
+import com.antheminc.oss.nimbus.domain.model.state.repo.RepoParamEvent;
+import com.antheminc.oss.nimbus.support.JustLogit;
+import com.antheminc.oss.nimbus.support.cache.ExpiringCache;
+
+import lombok.Getter;
+
+/**
+ * <p>Resolves the total count of a paginated search as per the {@link TotalCountStrategy} requested in the
+ * {@link SearchCriteria}, so that search operations need not execute a separate count query for every page request.
+ *
+ * <p>Search operations use {@link #getFetchSize(SearchCriteria)} as the limit of the page query and hand over the fetched
+ * results to {@link #toPage(String, SearchCriteria, List, Supplier, Supplier)}.
+ *
+ * <p>Cached counts of an alias are evicted by the repositories on every write to that alias, and additionally once the
+ * transaction publishing a {@link RepoParamEvent} has committed.
+ *
+ * @see TotalCountStrategy
+ */
+@Getter
+public class PageTotalCountProvider {
+
+	public static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000L;
+	public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+	private static final String KEY_SEPARATOR = "|";
+
+	private static final JustLogit logit = new JustLogit(PageTotalCountProvider.class);
+
+	/**
+	 * Serializes example criteria deterministically, so that equal examples always produce the same cache key.
+	 */
+	private static final ObjectMapper KEY_MAPPER = new ObjectMapper()
+			.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+			.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+			.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+
+	private final ExpiringCache<String, Long> cache;
+
+	public PageTotalCountProvider() {
+		this(DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES);
+	}
+
+	public PageTotalCountProvider(long ttlMillis, int maxEntries) {
+		this.cache = new ExpiringCache<>(ttlMillis, maxEntries);
+	}
+
+	public int getFetchSize(SearchCriteria<?> criteria) {
+		int pageSize = criteria.getPageRequest().getPageSize();
+		return getStrategy(criteria) == TotalCountStrategy.HAS_NEXT ? pageSize + 1 : pageSize;
+	}
+
+	/**
+	 * @param alias the collection or table alias the search was executed against
+	 * @param criteria the search criteria carrying the page request and the total count strategy
+	 * @param results the results fetched with a limit of {@link #getFetchSize(SearchCriteria)}
+	 * @param exactCount executes the count query
+	 * @param estimatedCount estimates the count of the whole alias from repository metadata, {@code null} if not supported.
+	 * Only used when the criteria has no where clause, as the estimate ignores any filter.
+	 */
+	public <T> PageRequestAndRespone<T> toPage(String alias, SearchCriteria<?> criteria, List<T> results, Supplier<Long> exactCount, Supplier<Long> estimatedCount) {
+		Pageable pageable = criteria.getPageRequest();
+
+		switch(getStrategy(criteria)) {
+			case HAS_NEXT:
+				boolean hasNext = results.size() > pageable.getPageSize();
+				List<T> content = hasNext ? new ArrayList<>(results.subList(0, pageable.getPageSize())) : results;
+				long lowerBound = pageable.getOffset() + results.size();
+				return new PageRequestAndRespone<>(content, pageable, new TotalSupplier(() -> lowerBound, hasNext));
+
+			case ESTIMATED:
+				if(estimatedCount != null && isUnfiltered(criteria))
+					return new PageRequestAndRespone<>(results, pageable, new TotalSupplier(estimatedCount, true));
+
+				// fall through to cached when the repository cannot estimate the filtered count
+			case CACHED:
+				String key = buildKey(alias, criteria);
+				if(key == null)
+					return new PageRequestAndRespone<>(results, pageable, new TotalSupplier(exactCount, false));
+
+				return new PageRequestAndRespone<>(results, pageable, new TotalSupplier(() -> getCache().computeIfAbsent(key, k -> exactCount.get()), false));
+
+			default:
+				return new PageRequestAndRespone<>(results, pageable, new TotalSupplier(exactCount, false));
+		}
+	}
+
+	public void evict(String alias) {
+		if(StringUtils.isEmpty(alias))
+			return;
+
+		getCache().invalidateIf(k -> StringUtils.startsWith(k, alias + KEY_SEPARATOR));
+	}
+
+	@TransactionalEventListener(phase=TransactionPhase.AFTER_COMMIT, fallbackExecution=true)
+	public void handleEvent(RepoParamEvent event) {
+		Param<?> param = event.getParam();
+		if(param == null || param.getRootDomain() == null)
+			return;
+
+		evict(param.getRootDomain().getConfig().getRepoAlias());
+	}
+
+	protected TotalCountStrategy getStrategy(SearchCriteria<?> criteria) {
+		return criteria.getTotalCountStrategy() == null ? TotalCountStrategy.EXACT : criteria.getTotalCountStrategy();
+	}
+
+	protected boolean isUnfiltered(SearchCriteria<?> criteria) {
+		Object where = criteria.getWhere();
+		boolean noWhere = where == null || (where instanceof String && StringUtils.isBlank((String)where));
+		return noWhere && StringUtils.isBlank(criteria.getAggregateCriteria());
+	}
+
+	/**
+	 * @return the cache key, or {@code null} if the where clause cannot be serialized deterministically and the count must not be cached
+	 */
+	protected String buildKey(String alias, SearchCriteria<?> criteria) {
+		String where = normalize(criteria.getWhere());
+		if(where == null)
+			return null;
+
+		return new StringBuilder(alias)
+				.append(KEY_SEPARATOR).append(where)
+				.append(KEY_SEPARATOR).append(StringUtils.defaultString(criteria.getAggregateCriteria()))
+				.toString();
+	}
+
+	private String normalize(Object where) {
+		if(where == null)
+			return StringUtils.EMPTY;
+
+		if(where instanceof String)
+			return StringUtils.normalizeSpace((String)where);
+
+		try {
+			return where.getClass().getName() + KEY_MAPPER.writeValueAsString(where);
+		} catch (JsonProcessingException ex) {
+			logit.warn(() -> "Not caching total count of search by "+where.getClass()+" as it cannot be serialized into a cache key", ex);
+			return null;
+		}
+	}
+}
@@ -20,6 +20,7 @@ import static com.antheminc.oss.nimbus.domain.defn.Constants.SEARCH_REQ_PROJECT_
 import static com.antheminc.oss.nimbus.domain.defn.Constants.SEARCH_REQ_WHERE_MARKER;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -48,6 +49,7 @@ public abstract class SearchCriteria<T> implements Serializable {
 	protected ProjectCriteria projectCriteria;
 	protected String fetch;
 	protected Pageable pageRequest;
+	protected TotalCountStrategy totalCountStrategy = TotalCountStrategy.EXACT;
 	
 	protected Long limit;
 
@@ -69,6 +71,35 @@ public abstract class SearchCriteria<T> implements Serializable {
 		
 	}
 	
+	/**
+	 * <p>Determines how the total count is resolved for a paginated search.
+	 */
+	public enum TotalCountStrategy {
+		
+		/** a count query is executed along with every page request */
+		EXACT,
+		
+		/** the exact count is cached for a configured time-to-live, keyed by the normalized search criteria */
+		CACHED,
+		
+		/** the count is estimated from collection metadata when supported by the repository, else falls back to {@link #CACHED} */
+		ESTIMATED,
+		
+		/** no count query is executed; pageSize+1 elements are fetched to determine if a next page exists */
+		HAS_NEXT;
+		
+		public static TotalCountStrategy getByName(String name) {
+			if(StringUtils.isBlank(name))
+				return EXACT;
+			
+			for(TotalCountStrategy strategy : values()) {
+				if(strategy.name().equalsIgnoreCase(StringUtils.trim(name)))
+					return strategy;
+			}
+			throw new FrameworkRuntimeException("Unsupported total count strategy: "+name+" expected one of: "+Arrays.toString(values()));
+		}
+	}
+	
 	public abstract void validate(ExecutionContext executionContext);
 	
 	@Getter @Setter
@@ -79,6 +110,9 @@ public abstract class SearchCriteria<T> implements Serializable {
 		private String alias;
 		private Map<String, String> mapsTo;
 		
+		/* paths to include in the results, e.g. as derived from the view mappings of the param being populated */
+		private List<String> paths;
+		
 	}
 	
 	@Getter @Setter
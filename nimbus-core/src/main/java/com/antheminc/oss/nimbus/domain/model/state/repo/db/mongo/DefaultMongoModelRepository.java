@@ -47,6 +47,7 @@ import com.antheminc.oss.nimbus.domain.model.state.repo.MongoIdSequenceRepositor
 import com.antheminc.oss.nimbus.domain.model.state.repo.RepoParamEvent;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.MongoDBModelRepositoryOptions;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.MongoDBSearchOperation;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.PageTotalCountProvider;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria;
 import com.antheminc.oss.nimbus.support.RefIdHolder;
 import com.antheminc.oss.nimbus.support.pojo.JavaBeanHandler;
@@ -65,6 +66,7 @@ public class DefaultMongoModelRepository implements ModelRepository, Application
 	private final IdSequenceRepository idSequenceRepo;
 	private final JavaBeanHandler beanHandler;
 	private final MongoDBModelRepositoryOptions options;
+	private final PageTotalCountProvider totalCountProvider;
 	
 	private ApplicationContext appCtx;
 	
@@ -73,6 +75,7 @@ public class DefaultMongoModelRepository implements ModelRepository, Application
 		this.mongoOps = mongoOps;
 		this.beanHandler = beanResolver.get(JavaBeanHandler.class);
 		this.options = options;
+		this.totalCountProvider = beanResolver.find(PageTotalCountProvider.class);
 		
 		this.idSequenceRepo = new MongoIdSequenceRepository(mongoOps);
 	}
@@ -106,6 +109,7 @@ public class DefaultMongoModelRepository implements ModelRepository, Application
 	@Override
 	public <T> T _save(String alias, T state) {
 		getMongoOps().save(state, alias);
+		evictTotalCounts(alias);
 		return state;
 	}
 	
@@ -178,6 +182,8 @@ public class DefaultMongoModelRepository implements ModelRepository, Application
 			getMongoOps().upsert(query, update, repoAlias);
 		} 
 		
+		evictTotalCounts(param.getRootDomain().getConfig().getRepoAlias());
+		
 		// emit event
 		appCtx.publishEvent(new RepoParamEvent(Action._save, param));
 		
@@ -197,8 +203,14 @@ public class DefaultMongoModelRepository implements ModelRepository, Application
 		
 		Query query = new Query(Criteria.where("_id").is(id));
 		T state = getMongoOps().findAndRemove(query, referredClass, alias);
+		evictTotalCounts(alias);
 		return state;
 	}
+	
+	protected void evictTotalCounts(String alias) {
+		if(getTotalCountProvider() != null)
+			getTotalCountProvider().evict(alias);
+	}
 
 	@Override
 	public <T> Object _search(Param<?> param, Supplier<SearchCriteria<?>> criteria) {
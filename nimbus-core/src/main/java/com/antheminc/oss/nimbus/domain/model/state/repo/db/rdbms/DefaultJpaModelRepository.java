@@ -55,6 +55,7 @@ import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionEntity;
 import com.antheminc.oss.nimbus.domain.model.state.repo.ModelRepository;
 import com.antheminc.oss.nimbus.domain.model.state.repo.RepoParamEvent;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.DBSearchOperation;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.PageTotalCountProvider;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria;
 import com.antheminc.oss.nimbus.support.EnableAPIMetricCollection;
 import com.antheminc.oss.nimbus.support.RefIdHolder;
@@ -80,6 +81,9 @@ public class DefaultJpaModelRepository implements ModelRepository, ApplicationCo
 	@PersistenceContext
 	private EntityManager em;
 	
+	@Autowired(required=false)
+	private PageTotalCountProvider totalCountProvider;
+	
 	private ApplicationContext appCtx;
 	
 	public DefaultJpaModelRepository(EntityManagerFactory entityManagerFactory, JavaBeanHandler beanHandler, DBSearchOperation dbSearch) {
@@ -245,6 +249,7 @@ public class DefaultJpaModelRepository implements ModelRepository, ApplicationCo
 		entityManager.merge(state);
 		entityManager.flush();
 		
+		evictTotalCounts(alias);
 		return state;
 	}
 	
@@ -273,6 +278,8 @@ public class DefaultJpaModelRepository implements ModelRepository, ApplicationCo
 			execEntity.setCore(attachedState);
 		}
 		
+		evictTotalCounts(root.getConfig().getRepoAlias());
+		
 		// emit event
 		appCtx.publishEvent(new RepoParamEvent(Action._save, param));
 	}
@@ -294,9 +301,15 @@ public class DefaultJpaModelRepository implements ModelRepository, ApplicationCo
 		entityManager.remove(mergedState);
 		entityManager.flush();
 		
+		evictTotalCounts(root.getConfig().getRepoAlias());
 		return state;
 	} 
 	
+	protected void evictTotalCounts(String alias) {
+		if(getTotalCountProvider() != null)
+			getTotalCountProvider().evict(alias);
+	}
+	
 	@Override
 	public <T> Object _search(Param<?> param, Supplier<SearchCriteria<?>> criteria) {
 		SearchCriteria<?> sc = criteria.get();
@@ -15,6 +15,8 @@
  */
 package com.antheminc.oss.nimbus.domain.model.state.repo.db.rdbms;
 
+import java.util.Optional;
+
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
@@ -25,6 +27,7 @@ import org.springframework.data.jpa.repository.support.JpaEntityInformationSuppo
 
 import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
 import com.antheminc.oss.nimbus.domain.defn.Constants;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.PageTotalCountProvider;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.LookupSearchCriteria;
 import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.QuerySearchCriteria;
@@ -45,9 +48,12 @@ public class JpaSearchByQuery extends AbstractDBSearchByQuery {
 	@PersistenceContext
 	private EntityManager em;
 	
+	private final PageTotalCountProvider totalCountProvider;
+	
 	public JpaSearchByQuery(BeanResolverStrategy beanResolver) {
 		super(beanResolver);
 		//this.entityManagerFactory = entityManagerFactory;
+		this.totalCountProvider = Optional.ofNullable(beanResolver.find(PageTotalCountProvider.class)).orElseGet(PageTotalCountProvider::new);
 	}
 	
 	@SuppressWarnings({ "unchecked", "rawtypes" })
@@ -81,7 +87,7 @@ public class JpaSearchByQuery extends AbstractDBSearchByQuery {
 			return queryDslExecutor.findOne(predicate, outputClass, projectionPaths, orderBy);
 
 		else if(criteria.getPageRequest() != null) 
-			return queryDslExecutor.findAll(predicate, outputClass, criteria.getPageRequest(), projectionPaths, orderBy);
+			return queryDslExecutor.findAll(predicate, outputClass, criteria, totalCountProvider, alias, projectionPaths, orderBy);
 		
 		else
 			return queryDslExecutor.findAll(predicate, outputClass, projectionPaths, orderBy, criteria.getLimit());
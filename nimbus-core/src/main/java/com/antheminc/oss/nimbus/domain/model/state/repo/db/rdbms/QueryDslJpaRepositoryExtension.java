@@ -23,7 +23,6 @@ import javax.persistence.EntityManager;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.ArrayUtils;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.jpa.repository.support.QuerydslJpaRepository;
@@ -34,6 +33,8 @@ import org.springframework.util.Assert;
 
 import com.antheminc.oss.nimbus.InvalidConfigException;
 import com.antheminc.oss.nimbus.domain.model.state.internal.AbstractListPaginatedParam.PageWrapper.PageRequestAndRespone;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.PageTotalCountProvider;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria;
 import com.antheminc.oss.nimbus.support.pojo.ClassLoadUtils;
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.EntityPath;
@@ -72,11 +73,12 @@ public class QueryDslJpaRepositoryExtension<T, ID extends Serializable> extends
 //		return PageableExecutionUtils.getPage(query.fetch(), pageable, countQuery::fetchCount);
 //	}
 	
-    public PageRequestAndRespone<?> findAll(Predicate predicate, Class<?> outputClass, Pageable pageable, PathBuilder<?>[] projectionPaths, OrderSpecifier<?>...orderBy) {
-        Assert.notNull(pageable, "Pageable must not be null!");
+    public PageRequestAndRespone<?> findAll(Predicate predicate, Class<?> outputClass, SearchCriteria<?> criteria, PageTotalCountProvider totalCountProvider, String alias, PathBuilder<?>[] projectionPaths, OrderSpecifier<?>...orderBy) {
+        Assert.notNull(criteria.getPageRequest(), "Pageable must not be null!");
 
 		final JPQLQuery<?> countQuery = createCountQuery(predicate);
-		final JPQLQuery<?> query = querydsl.applyPagination(pageable, createQuery(predicate, projectionPaths));
+		final JPQLQuery<?> query = querydsl.applyPagination(criteria.getPageRequest(), createQuery(predicate, projectionPaths));
+		query.limit(totalCountProvider.getFetchSize(criteria));
 		
 		if(ArrayUtils.isNotEmpty(orderBy)) 
 			query.orderBy(orderBy);
@@ -84,7 +86,8 @@ public class QueryDslJpaRepositoryExtension<T, ID extends Serializable> extends
 		List<?> results = query.fetch();
 		List<?> convertedResults = applyPrimitiveConversionToList(outputClass, results);
 		
-		return new PageRequestAndRespone<>(convertedResults, pageable, countQuery::fetchCount);
+		// JPA has no portable count estimate from table metadata, hence ESTIMATED falls back to CACHED
+		return totalCountProvider.toPage(alias, criteria, convertedResults, countQuery::fetchCount, null);
     }
 
     public List<?> findAll(Predicate predicate, Class<?> outputClass, PathBuilder<?>[] projectionPaths, OrderSpecifier<?> orderBy, Long limit) {
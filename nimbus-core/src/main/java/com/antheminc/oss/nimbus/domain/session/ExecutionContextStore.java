@@ -0,0 +1,56 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.session;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <p>Store outside of the http session holding the state of session cached execution contexts, written after each root
+ * command modifying the model. A context missing from the session of the node receiving a command, e.g. as the session
+ * was created on another node, is rebuilt from the stored state rather than loaded anew. So is a context of the session
+ * whose state was stored since by another node, as told by the version stored along with the state.
+ *
+ * <p>State is written as an opaque, versioned snapshot, keyed by the session id and the key of the context within the
+ * session. Implementations sharing state between nodes are expected to expire the entries of sessions no longer active.
+ */
+public interface ExecutionContextStore {
+
+	/**
+	 * <p>State stored along with its version, which increases with each write of the state of a context.
+	 */
+	@Getter @RequiredArgsConstructor
+	public static class StoredState {
+		
+		private final long version;
+		
+		private final byte[] state;
+	}
+	
+	public void save(String sessionId, String key, long version, byte[] state);
+	
+	/**
+	 * @return the state stored, or {@code null} if none
+	 */
+	public StoredState load(String sessionId, String key);
+	
+	/**
+	 * @return the version of the state stored, without reading the state itself, or {@code null} if none
+	 */
+	public Long findVersion(String sessionId, String key);
+	
+	public void remove(String sessionId, String key);
+}
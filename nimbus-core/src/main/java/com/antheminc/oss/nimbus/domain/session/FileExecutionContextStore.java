@@ -0,0 +1,121 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.session;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+import org.springframework.util.DigestUtils;
+
+import com.antheminc.oss.nimbus.FrameworkRuntimeException;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * <p>{@link ExecutionContextStore} holding state in files of a directory, one per session and context. Nodes sharing the
+ * directory, e.g. on a network mount, share the state stored.
+ *
+ * <p>Files are written to a temporary file first and moved in place, so that a concurrent load never reads a partially
+ * written state. A file starts with the version of the state it holds, which is read on its own when only the version
+ * is looked up. Files of sessions no longer active are not expired by this store.
+ */
+@Getter(value=AccessLevel.PROTECTED)
+public class FileExecutionContextStore implements ExecutionContextStore {
+
+	private final Path directory;
+	
+	public FileExecutionContextStore(String directory) {
+		this.directory = Paths.get(directory);
+		try {
+			Files.createDirectories(this.directory);
+		} catch (IOException ex) {
+			throw new FrameworkRuntimeException("Failed to create execution context store directory: "+directory, ex);
+		}
+	}
+	
+	@Override
+	public void save(String sessionId, String key, long version, byte[] state) {
+		Path file = toFile(sessionId, key);
+		Path tmp = getDirectory().resolve(file.getFileName() + "." + UUID.randomUUID() + ".tmp");
+		try {
+			try(DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+				out.writeLong(version);
+				out.write(state);
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ex) {
+			throw new FrameworkRuntimeException("Failed to write state of session: "+sessionId+" with key: "+key+" to file: "+file, ex);
+		} finally {
+			deleteQuietly(tmp);
+		}
+	}
+	
+	@Override
+	public StoredState load(String sessionId, String key) {
+		Path file = toFile(sessionId, key);
+		try {
+			ByteBuffer stored = ByteBuffer.wrap(Files.readAllBytes(file));
+			long version = stored.getLong();
+			byte[] state = new byte[stored.remaining()];
+			stored.get(state);
+			return new StoredState(version, state);
+		} catch (NoSuchFileException ex) {
+			return null;
+		} catch (IOException ex) {
+			throw new FrameworkRuntimeException("Failed to read state of session: "+sessionId+" with key: "+key+" from file: "+file, ex);
+		}
+	}
+	
+	@Override
+	public Long findVersion(String sessionId, String key) {
+		Path file = toFile(sessionId, key);
+		try(DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+			return in.readLong();
+		} catch (NoSuchFileException ex) {
+			return null;
+		} catch (IOException ex) {
+			throw new FrameworkRuntimeException("Failed to read state version of session: "+sessionId+" with key: "+key+" from file: "+file, ex);
+		}
+	}
+	
+	@Override
+	public void remove(String sessionId, String key) {
+		deleteQuietly(toFile(sessionId, key));
+	}
+	
+	/* keys are uris, so are hashed into a file name */
+	private Path toFile(String sessionId, String key) {
+		return getDirectory().resolve(DigestUtils.md5DigestAsHex((sessionId + key).getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	private void deleteQuietly(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException ex) {
+			// left for the directory to be cleaned up externally
+		}
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.session;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>{@link ExecutionContextStore} holding state in-heap, local to this node. Intended for testing the externalization of
+ * session state within a single node.
+ */
+public class InMemoryExecutionContextStore implements ExecutionContextStore {
+
+	private final Map<String, StoredState> states = new ConcurrentHashMap<>();
+	
+	@Override
+	public void save(String sessionId, String key, long version, byte[] state) {
+		states.put(toStoreKey(sessionId, key), new StoredState(version, state));
+	}
+	
+	@Override
+	public StoredState load(String sessionId, String key) {
+		return states.get(toStoreKey(sessionId, key));
+	}
+	
+	@Override
+	public Long findVersion(String sessionId, String key) {
+		StoredState stored = states.get(toStoreKey(sessionId, key));
+		return stored == null ? null : stored.getVersion();
+	}
+	
+	@Override
+	public void remove(String sessionId, String key) {
+		states.remove(toStoreKey(sessionId, key));
+	}
+	
+	public int size() {
+		return states.size();
+	}
+	
+	private String toStoreKey(String sessionId, String key) {
+		return sessionId + key;
+	}
+}
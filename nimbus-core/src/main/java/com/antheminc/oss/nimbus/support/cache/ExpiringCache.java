@@ -0,0 +1,270 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.support.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.antheminc.oss.nimbus.FrameworkRuntimeException;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <p>Thread-safe, size bounded cache whose entries expire after a fixed time-to-live.
+ *
+ * <p>Entries are kept in access order so that once {@code maxEntries} is reached the least recently used entry is evicted.
+ * Expired entries are removed lazily on access.
+ *
+ * <p>Values removed from the cache, whether expired, evicted, replaced or invalidated, are handed to the optional
+ * {@code onRemoved} callback once the cache lock is released.
+ */
+public class ExpiringCache<K, V> {
+
+	@Getter
+	private final long ttlMillis;
+
+	@Getter
+	private final int maxEntries;
+
+	private final Map<K, Entry<V>> entries;
+
+	/**
+	 * Loads in flight through {@link #computeIfAbsent(Object, Function)}, guarded by the cache lock.
+	 */
+	private final Map<K, FutureTask<V>> loads = new HashMap<>();
+
+	private final Consumer<V> onRemoved;
+
+	/**
+	 * Values removed while holding the cache lock, guarded by it and handed to {@code onRemoved} once it is released.
+	 */
+	private final List<V> removed = new ArrayList<>();
+
+	public ExpiringCache(long ttlMillis, int maxEntries) {
+		this(ttlMillis, maxEntries, null);
+	}
+
+	public ExpiringCache(long ttlMillis, int maxEntries, Consumer<V> onRemoved) {
+		this.ttlMillis = ttlMillis;
+		this.maxEntries = maxEntries;
+		this.onRemoved = onRemoved;
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				boolean evict = size() > ExpiringCache.this.maxEntries;
+				if(evict)
+					recordRemoved(eldest.getValue());
+				return evict;
+			}
+		};
+	}
+
+	@RequiredArgsConstructor @Getter
+	private static class Entry<V> {
+		private final V value;
+		private final long expiresAt;
+
+		boolean isExpired(long now) {
+			return now >= expiresAt;
+		}
+	}
+
+	public V get(K key) {
+		try {
+			synchronized(this) {
+				return find(key);
+			}
+		} finally {
+			notifyRemoved();
+		}
+	}
+
+	public void put(K key, V value) {
+		try {
+			synchronized(this) {
+				store(key, value);
+			}
+		} finally {
+			notifyRemoved();
+		}
+	}
+
+	private V find(K key) {
+		Entry<V> entry = entries.get(key);
+		if(entry == null)
+			return null;
+
+		if(entry.isExpired(System.currentTimeMillis())) {
+			recordRemoved(entries.remove(key));
+			return null;
+		}
+		return entry.getValue();
+	}
+
+	private void store(K key, V value) {
+		Entry<V> previous = (value == null)
+				? entries.remove(key)
+				: entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+
+		if(previous != null && previous.getValue() != value)
+			recordRemoved(previous);
+	}
+
+	/**
+	 * <p>Returns the cached value for the given key, or computes and caches it through {@code loader} when absent or expired.
+	 * The loader is invoked outside of the cache lock so that slow loads do not block readers of other keys, while concurrent
+	 * callers for the same key wait for the single load in flight instead of invoking the loader again.
+	 * A load that is invalidated while in flight is returned to its callers but not cached.
+	 * {@code null} values are returned but never cached.
+	 */
+	public V computeIfAbsent(K key, Function<K, V> loader) {
+		FutureTask<V> load;
+		boolean owner = false;
+		synchronized(this) {
+			V cached = find(key);
+			if(cached != null)
+				return cached;
+
+			load = loads.get(key);
+			if(load == null) {
+				load = new FutureTask<>(() -> loader.apply(key));
+				loads.put(key, load);
+				owner = true;
+			}
+		}
+
+		notifyRemoved();
+
+		if(owner) {
+			load.run();
+			try {
+				synchronized(this) {
+					if(loads.get(key) == load) {
+						loads.remove(key);
+						if(!isFailed(load))
+							store(key, await(load));
+					}
+				}
+			} finally {
+				notifyRemoved();
+			}
+		}
+		return await(load);
+	}
+
+	private static boolean isFailed(FutureTask<?> load) {
+		try {
+			load.get();
+			return false;
+		} catch (InterruptedException | ExecutionException ex) {
+			return true;
+		}
+	}
+
+	private static <V> V await(FutureTask<V> load) {
+		try {
+			return load.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new FrameworkRuntimeException("Interrupted while waiting for cache load", ex);
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if(cause instanceof RuntimeException)
+				throw (RuntimeException)cause;
+			if(cause instanceof Error)
+				throw (Error)cause;
+			throw new FrameworkRuntimeException(cause);
+		}
+	}
+
+	public void invalidate(K key) {
+		try {
+			synchronized(this) {
+				recordRemoved(entries.remove(key));
+				loads.remove(key);
+			}
+		} finally {
+			notifyRemoved();
+		}
+	}
+
+	public void invalidateIf(Predicate<K> keyFilter) {
+		try {
+			synchronized(this) {
+				Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+				while(it.hasNext()) {
+					Map.Entry<K, Entry<V>> entry = it.next();
+					if(keyFilter.test(entry.getKey())) {
+						recordRemoved(entry.getValue());
+						it.remove();
+					}
+				}
+				loads.keySet().removeIf(keyFilter);
+			}
+		} finally {
+			notifyRemoved();
+		}
+	}
+
+	public void clear() {
+		try {
+			synchronized(this) {
+				entries.values().forEach(this::recordRemoved);
+				entries.clear();
+				loads.clear();
+			}
+		} finally {
+			notifyRemoved();
+		}
+	}
+
+	/* called holding the cache lock */
+	private void recordRemoved(Entry<V> entry) {
+		if(entry != null && onRemoved != null)
+			removed.add(entry.getValue());
+	}
+
+	private void notifyRemoved() {
+		if(onRemoved == null)
+			return;
+
+		final List<V> values;
+		synchronized(this) {
+			if(removed.isEmpty())
+				return;
+
+			values = new ArrayList<>(removed);
+			removed.clear();
+		}
+		values.forEach(onRemoved);
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+}
@@ -1,75 +1,213 @@
-///**
-// *  Copyright 2016-2019 the original author or authors.
-// *
-// *  Licensed under the Apache License, Version 2.0 (the "License");
-// *  you may not use this file except in compliance with the License.
-// *  You may obtain a copy of the License at
-// *
-// *         http://www.apache.org/licenses/LICENSE-2.0
-// *
-// *  Unless required by applicable law or agreed to in writing, software
-// *  distributed under the License is distributed on an "AS IS" BASIS,
-// *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
-// *  See the License for the specific language governing permissions and
-// *  limitations under the License.
-// */
-//package com.antheminc.oss.nimbus.support.pojo;
-//
-//import java.lang.invoke.MethodHandle;
-//import java.util.Optional;
-//import java.util.function.BiConsumer;
-//import java.util.function.Function;
-//
-//import com.antheminc.oss.nimbus.InvalidConfigException;
-//import com.antheminc.oss.nimbus.domain.model.state.EntityState.ValueAccessor;
-//import com.antheminc.oss.nimbus.domain.model.state.InvalidStateException;
-//
-//
-///**
-// * @author Soham Chakravarti
-// *
-// */
-//public class JavaBeanHandlerLambda implements JavaBeanHandler {
-//
-//	private JavaBeanHandlerReflection reflection = new JavaBeanHandlerReflection();
-//	
-//	@SuppressWarnings({ "rawtypes", "unchecked" })
-//	@Override
-//	public <T> T getValue(ValueAccessor va, Object target) {
-//		if(target==null)
-//			return null;
-//		
-//		try {
-//			MethodHandle mh = Optional.ofNullable(va.getReadMethodHandle())
-//								.orElseThrow(()->new InvalidConfigException("getter called when none found: "+va));
-//			
-//			
-//			Function getter = (Function)mh.invoke();
-//			return (T)getter.apply(target);
-//			
-//		} catch (Throwable t) {
-//			throw new InvalidStateException("POJO Get failed for pd: "+va+" on target: "+target, t);
-//		}
-//	}
-//
-//	@SuppressWarnings({ "rawtypes", "unchecked" })
-//	@Override
-//	public <T> void setValue(ValueAccessor va, Object target, T value) {
-//		try {
-//			MethodHandle mh = Optional.ofNullable(va.getWriteMethodHandle())
-//					.orElseThrow(()->new InvalidConfigException("setter called when none found: "+va));
-//			
-//			BiConsumer setter = (BiConsumer)mh.invoke();
-//			setter.accept(target, value);
-//			
-//		} catch (Throwable t) {
-//			throw new InvalidStateException("POJO Set failed for pd: "+va+" on target: "+target+" with value: "+value, t);
-//		}
-//	}
-//
-//	@Override
-//	public <T> T instantiate(Class<T> clazz) {
-//		return reflection.instantiate(clazz);
-//	}
-//	
-//}
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.support.pojo;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.ClassUtils;
+
+import com.antheminc.oss.nimbus.FrameworkRuntimeException;
+import com.antheminc.oss.nimbus.InvalidConfigException;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.ValueAccessor;
+import com.antheminc.oss.nimbus.support.JustLogit;
+
+/**
+ * <p>{@link JavaBeanHandler} reading and writing properties through accessors generated with {@link LambdaMetafactory},
+ * which are invoked as plain interface calls rather than through {@link Method#invoke}.
+ *
+ * <p>Accessors are bound once per read or write method and held by the {@link ValueAccessor}s of the method. Methods
+ * which cannot be bound, e.g. of classes not public or not visible to the class loader of the framework, are invoked
+ * through {@link JavaBeanHandlerReflection} instead.
+ *
+ * <p>Any failure of an accessor, including errors and checked exceptions thrown undeclared through the generated
+ * interface, is wrapped as by {@link JavaBeanHandlerReflection}, which receives those wrapped by {@link Method#invoke}.
+ * Selected with {@code nimbus.pojo.beanHandler=lambda}, see {@code JavaBeanHandlerBenchmarkTest} to compare both.
+ *
+ * @author Soham Chakravarti
+ *
+ */
+public class JavaBeanHandlerLambda implements JavaBeanHandler {
+
+	private static final JustLogit logit = new JustLogit(JavaBeanHandlerLambda.class);
+	
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	
+	/* marks methods which could not be bound, to invoke those through reflection */
+	@SuppressWarnings("rawtypes")
+	private static final Function UNBOUND_READER = t -> null;
+	
+	@SuppressWarnings("rawtypes")
+	private static final BiConsumer UNBOUND_WRITER = (t, v) -> {};
+	
+	@SuppressWarnings("rawtypes")
+	private static final Supplier UNBOUND_CONSTRUCTOR = () -> null;
+	
+	private final JavaBeanHandlerReflection reflection = new JavaBeanHandlerReflection();
+	
+	private final Map<Method, Function<Object, Object>> readers = new ConcurrentHashMap<>();
+	
+	private final Map<Method, BiConsumer<Object, Object>> writers = new ConcurrentHashMap<>();
+	
+	private final Map<Class<?>, Supplier<Object>> constructors = new ConcurrentHashMap<>();
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T getValue(ValueAccessor va, Object target) {
+		if(target == null)
+			return null;
+		
+		Function<Object, Object> reader = va.getBoundReader();
+		if(reader == null) {
+			reader = va.getReadMethod() == null ? UNBOUND_READER : readers.computeIfAbsent(va.getReadMethod(), this::bindReader);
+			va.setBoundReader(reader);
+		}
+		
+		if(reader == UNBOUND_READER)
+			return reflection.getValue(va, target);
+		
+		try {
+			return (T)reader.apply(target);
+		} catch (Throwable ex) {
+			throw new FrameworkRuntimeException("Failed to execute read on : "+va.getReadMethod()+" with target "+target, ex);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> void setValue(ValueAccessor va, Object target, T value) {
+		BiConsumer<Object, Object> writer = va.getBoundWriter();
+		if(writer == null) {
+			writer = va.getWriteMethod() == null ? UNBOUND_WRITER : writers.computeIfAbsent(va.getWriteMethod(), this::bindWriter);
+			va.setBoundWriter(writer);
+		}
+		
+		if(writer == UNBOUND_WRITER) {
+			reflection.setValue(va, target, value);
+			return;
+		}
+		
+		try {
+			writer.accept(target, value);
+		} catch (Throwable ex) {
+			throw new FrameworkRuntimeException("Failed to execute write on : "+va.getWriteMethod()+" with value: "+value, ex);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T instantiate(Class<T> clazz) {
+		Supplier<Object> constructor = constructors.computeIfAbsent(clazz, this::bindConstructor);
+		if(constructor == UNBOUND_CONSTRUCTOR)
+			return reflection.instantiate(clazz);
+		
+		try {
+			return (T)constructor.get();
+		} catch (Throwable ex) {
+			throw new InvalidConfigException("Class could not be instantiated with blank constructor: " + clazz, ex);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Function<Object, Object> bindReader(Method m) {
+		if(!isBindable(m))
+			return UNBOUND_READER;
+		
+		try {
+			MethodHandle mh = LOOKUP.unreflect(m);
+			CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", 
+					MethodType.methodType(Function.class), 
+					MethodType.methodType(Object.class, Object.class), 
+					mh, 
+					MethodType.methodType(ClassUtils.primitiveToWrapper(m.getReturnType()), m.getDeclaringClass()));
+			
+			return (Function<Object, Object>)site.getTarget().invoke();
+		} catch (Throwable t) {
+			logit.debug(() -> "Failed to bind reader: "+m+", reading through reflection", t);
+			return UNBOUND_READER;
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private BiConsumer<Object, Object> bindWriter(Method m) {
+		if(!isBindable(m))
+			return UNBOUND_WRITER;
+		
+		try {
+			MethodHandle mh = LOOKUP.unreflect(m);
+			CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept", 
+					MethodType.methodType(BiConsumer.class), 
+					MethodType.methodType(void.class, Object.class, Object.class), 
+					mh, 
+					MethodType.methodType(void.class, m.getDeclaringClass(), ClassUtils.primitiveToWrapper(m.getParameterTypes()[0])));
+			
+			return (BiConsumer<Object, Object>)site.getTarget().invoke();
+		} catch (Throwable t) {
+			logit.debug(() -> "Failed to bind writer: "+m+", writing through reflection", t);
+			return UNBOUND_WRITER;
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Supplier<Object> bindConstructor(Class<?> clazz) {
+		if(!isBindable(clazz) || Modifier.isAbstract(clazz.getModifiers()))
+			return UNBOUND_CONSTRUCTOR;
+		
+		try {
+			MethodHandle mh = LOOKUP.findConstructor(clazz, MethodType.methodType(void.class));
+			CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get", 
+					MethodType.methodType(Supplier.class), 
+					MethodType.methodType(Object.class), 
+					mh, 
+					MethodType.methodType(clazz));
+			
+			return (Supplier<Object>)site.getTarget().invoke();
+		} catch (Throwable t) {
+			logit.debug(() -> "Failed to bind constructor of: "+clazz+", instantiating through reflection", t);
+			return UNBOUND_CONSTRUCTOR;
+		}
+	}
+	
+	private boolean isBindable(Method m) {
+		return m != null && Modifier.isPublic(m.getModifiers()) && !Modifier.isStatic(m.getModifiers()) 
+				&& isBindable(m.getDeclaringClass());
+	}
+	
+	/* generated accessors resolve the class through the class loader of the framework */
+	private boolean isBindable(Class<?> clazz) {
+		if(!Modifier.isPublic(clazz.getModifiers()))
+			return false;
+		
+		if(clazz.getEnclosingClass() != null && !isBindable(clazz.getEnclosingClass()))
+			return false;
+		
+		try {
+			return Class.forName(clazz.getName(), false, JavaBeanHandlerLambda.class.getClassLoader()) == clazz;
+		} catch (ClassNotFoundException | LinkageError ex) {
+			return false;
+		}
+	}
+}
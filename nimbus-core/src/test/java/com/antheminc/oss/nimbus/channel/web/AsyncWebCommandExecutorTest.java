@@ -0,0 +1,140 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.channel.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+
+public class AsyncWebCommandExecutorTest {
+
+	private AsyncWebCommandExecutor testee;
+	
+	private MockHttpServletRequest request;
+	
+	@Before
+	public void before() {
+		testee = new AsyncWebCommandExecutor(1, 1, 5000);
+		request = new MockHttpServletRequest();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+	
+	@After
+	public void after() {
+		RequestContextHolder.resetRequestAttributes();
+		SecurityContextHolder.clearContext();
+		testee.shutdown();
+	}
+	
+	@Test
+	public void testExecutesDetachedFromRequest() throws Exception {
+		request.setAttribute("attr", "value");
+		SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", null));
+		
+		CountDownLatch recycled = new CountDownLatch(1);
+		AtomicReference<Object> attr = new AtomicReference<>();
+		AtomicReference<Object> user = new AtomicReference<>();
+		
+		DeferredResult<Object> result = testee.submit(() -> {
+			await(recycled);
+			RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+			attr.set(attributes.getAttribute("attr", RequestAttributes.SCOPE_REQUEST));
+			attributes.setAttribute("sessionAttr", "sessionValue", RequestAttributes.SCOPE_SESSION);
+			user.set(SecurityContextHolder.getContext().getAuthentication().getName());
+			return "done";
+		});
+		
+		// the container recycles the request, e.g. once the result timed out
+		request.removeAttribute("attr");
+		recycled.countDown();
+		
+		assertEquals("done", awaitResult(result));
+		assertEquals("value", attr.get());
+		assertEquals("user", user.get());
+		assertEquals("sessionValue", request.getSession().getAttribute("sessionAttr"));
+	}
+	
+	@Test
+	public void testContextRemovedOnceExecuted() throws Exception {
+		AtomicReference<Object> attributesOfNext = new AtomicReference<>(Boolean.TRUE);
+		awaitResult(testee.submit(() -> "first"));
+		
+		RequestContextHolder.resetRequestAttributes();
+		awaitResult(testee.submit(() -> {
+			attributesOfNext.set(RequestContextHolder.getRequestAttributes());
+			return "next";
+		}));
+		assertNull(attributesOfNext.get());
+	}
+	
+	@Test
+	public void testAbandonedOnceCompletedAheadOfExecution() throws Exception {
+		testee.shutdown();
+		testee = new AsyncWebCommandExecutor(1, 2, 5000);
+		
+		CountDownLatch busy = new CountDownLatch(1);
+		DeferredResult<Object> first = testee.submit(() -> {
+			await(busy);
+			return "first";
+		});
+		
+		AtomicBoolean executed = new AtomicBoolean();
+		DeferredResult<Object> queued = testee.submit(() -> {
+			executed.set(true);
+			return "queued";
+		});
+		// completed by the container while queued, as on timeout
+		queued.setErrorResult(new IllegalStateException("timed out"));
+		busy.countDown();
+		
+		assertEquals("first", awaitResult(first));
+		awaitResult(testee.submit(() -> "next"));
+		assertFalse(executed.get());
+		assertTrue(queued.getResult() instanceof IllegalStateException);
+	}
+	
+	private static Object awaitResult(DeferredResult<Object> result) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while(!result.hasResult() && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+		return result.getResult();
+	}
+	
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -15,6 +15,8 @@
  */
 package com.antheminc.oss.nimbus.channel.web;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 import javax.servlet.http.HttpServletRequest;
 
 import org.junit.Assert;
@@ -28,7 +30,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.MultiOutput;
 import com.antheminc.oss.nimbus.domain.model.state.ModelEvent;
 import com.antheminc.oss.nimbus.support.Holder;
 
@@ -46,6 +54,9 @@ public class WebActionControllerTest {
 	@Mock
 	private WebCommandDispatcher dispatcher;
 	
+	@Mock
+	private WebCommandBuilder builder;
+	
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testHandleGet() {
@@ -54,11 +65,13 @@ public class WebActionControllerTest {
 		final String version = null;
 		final String json = "{}";
 		
-		final Object obj = new Object();
+		final Command cmd = Mockito.mock(Command.class);
+		final MultiOutput obj = Mockito.mock(MultiOutput.class);
 		
-		Mockito.when(this.dispatcher.handle(req, json)).thenReturn(obj);
+		Mockito.when(this.builder.build(req)).thenReturn(cmd);
+		Mockito.when(this.dispatcher.handle(cmd, json)).thenReturn(obj);
 		final Object response = this.testee.handleGet(req, json);
-		Mockito.verify(this.dispatcher, Mockito.times(1)).handle(req, json);
+		Mockito.verify(this.dispatcher, Mockito.times(1)).handle(cmd, json);
 		
 		Assert.assertTrue("Expected type: " + Holder.class + " but found " + response.getClass(), response.getClass().isAssignableFrom(Holder.class));
 		Assert.assertEquals(obj, ((Holder<Object>) response).getState());
@@ -72,11 +85,13 @@ public class WebActionControllerTest {
 		final String version = "1.0";
 		final String json = null;
 
-		final Object obj = new Object();
+		final Command cmd = Mockito.mock(Command.class);
+		final MultiOutput obj = Mockito.mock(MultiOutput.class);
 		
-		Mockito.when(this.dispatcher.handle(req, json)).thenReturn(obj);
+		Mockito.when(this.builder.build(req)).thenReturn(cmd);
+		Mockito.when(this.dispatcher.handle(cmd, json)).thenReturn(obj);
 		final Object response = this.testee.handleDelete(req, version);
-		Mockito.verify(this.dispatcher, Mockito.times(1)).handle(req, json);
+		Mockito.verify(this.dispatcher, Mockito.times(1)).handle(cmd, json);
 		
 		Assert.assertTrue("Expected type: " + Holder.class + " but found " + response.getClass(), response.getClass().isAssignableFrom(Holder.class));
 		Assert.assertEquals(obj, ((Holder<Object>) response).getState());
@@ -90,11 +105,13 @@ public class WebActionControllerTest {
 		final String version = null;
 		final String json = "{}";
 		
-		final Object obj = new Object();
+		final Command cmd = Mockito.mock(Command.class);
+		final MultiOutput obj = Mockito.mock(MultiOutput.class);
 		
-		Mockito.when(this.dispatcher.handle(req, json)).thenReturn(obj);
+		Mockito.when(this.builder.build(req)).thenReturn(cmd);
+		Mockito.when(this.dispatcher.handle(cmd, json)).thenReturn(obj);
 		final Object response = this.testee.handlePost(req, json);
-		Mockito.verify(this.dispatcher, Mockito.times(1)).handle(req, json);
+		Mockito.verify(this.dispatcher, Mockito.times(1)).handle(cmd, json);
 		
 		Assert.assertTrue("Expected type: " + Holder.class + " but found " + response.getClass(), response.getClass().isAssignableFrom(Holder.class));
 		Assert.assertEquals(obj, ((Holder<Object>) response).getState());
@@ -108,11 +125,13 @@ public class WebActionControllerTest {
 		final String version = "1.0";
 		final String json = "{}";
 		
-		final Object obj = new Object();
+		final Command cmd = Mockito.mock(Command.class);
+		final MultiOutput obj = Mockito.mock(MultiOutput.class);
 		
-		Mockito.when(this.dispatcher.handle(req, json)).thenReturn(obj);
+		Mockito.when(this.builder.build(req)).thenReturn(cmd);
+		Mockito.when(this.dispatcher.handle(cmd, json)).thenReturn(obj);
 		final Object response = this.testee.handlePut(req, version, json);
-		Mockito.verify(this.dispatcher, Mockito.times(1)).handle(req, json);
+		Mockito.verify(this.dispatcher, Mockito.times(1)).handle(cmd, json);
 		
 		Assert.assertTrue("Expected type: " + Holder.class + " but found " + response.getClass(), response.getClass().isAssignableFrom(Holder.class));
 		Assert.assertEquals(obj, ((Holder<Object>) response).getState());
@@ -126,11 +145,13 @@ public class WebActionControllerTest {
 		final String version = "1.0";
 		final String json = "{}";
 		
-		final Object obj = new Object();
+		final Command cmd = Mockito.mock(Command.class);
+		final MultiOutput obj = Mockito.mock(MultiOutput.class);
 		
-		Mockito.when(this.dispatcher.handle(req, json)).thenReturn(obj);
+		Mockito.when(this.builder.build(req)).thenReturn(cmd);
+		Mockito.when(this.dispatcher.handle(cmd, json)).thenReturn(obj);
 		final Object response = this.testee.handlePatch(req, version, json);
-		Mockito.verify(this.dispatcher, Mockito.times(1)).handle(req, json);
+		Mockito.verify(this.dispatcher, Mockito.times(1)).handle(cmd, json);
 		
 		Assert.assertTrue("Expected type: " + Holder.class + " but found " + response.getClass(), response.getClass().isAssignableFrom(Holder.class));
 		Assert.assertEquals(obj, ((Holder<Object>) response).getState());
@@ -142,16 +163,58 @@ public class WebActionControllerTest {
 		final HttpServletRequest req = new MockHttpServletRequest();
 		final ModelEvent<String> event = new ModelEvent<>();
 		
-		final Object obj = new Object();
+		final Command cmd = Mockito.mock(Command.class);
+		final MultiOutput obj = Mockito.mock(MultiOutput.class);
 		
-		Mockito.when(this.dispatcher.handle(req, event)).thenReturn(obj);
+		Mockito.when(this.builder.build(req, event)).thenReturn(cmd);
+		Mockito.when(this.dispatcher.handle(cmd, event.getPayload())).thenReturn(obj);
 		final Object response = this.testee.handleEventNotify(req, event);
-		Mockito.verify(this.dispatcher, Mockito.times(1)).handle(req, event);
+		Mockito.verify(this.dispatcher, Mockito.times(1)).handle(cmd, event.getPayload());
 		
 		Assert.assertTrue("Expected type: " + Holder.class + " but found " + response.getClass(), response.getClass().isAssignableFrom(Holder.class));
 		Assert.assertEquals(obj, ((Holder<Object>) response).getState());
 	}
 	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testHandleGetAsync() throws Exception {
+		final MockHttpServletRequest req = new MockHttpServletRequest();
+		req.setAttribute("attr", "value");
+		final String json = "{}";
+		
+		final Command cmd = Mockito.mock(Command.class);
+		final MultiOutput obj = Mockito.mock(MultiOutput.class);
+		final AtomicReference<RequestAttributes> executingAttributes = new AtomicReference<>();
+		
+		Mockito.when(this.builder.build(req)).thenReturn(cmd);
+		Mockito.when(this.dispatcher.handle(cmd, json)).thenAnswer(i -> {
+			executingAttributes.set(RequestContextHolder.getRequestAttributes());
+			return obj;
+		});
+		
+		this.testee.asyncExecutor = new AsyncWebCommandExecutor(1, 1, 5000);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(req));
+		try {
+			final Object response = this.testee.handleGet(req, json);
+			Mockito.verify(this.builder, Mockito.times(1)).build(req);
+			
+			Assert.assertTrue("Expected type: " + DeferredResult.class + " but found " + response.getClass(), response instanceof DeferredResult);
+			DeferredResult<Object> deferred = (DeferredResult<Object>) response;
+			
+			long deadline = System.currentTimeMillis() + 5000;
+			while(!deferred.hasResult() && System.currentTimeMillis() < deadline)
+				Thread.sleep(10);
+			
+			Assert.assertEquals(obj, ((Holder<Object>) deferred.getResult()).getState());
+			Assert.assertTrue(executingAttributes.get() instanceof DetachedRequestAttributes);
+			Assert.assertEquals(req.getSession().getId(), executingAttributes.get().getSessionId());
+			Assert.assertEquals("value", executingAttributes.get().getAttribute("attr", RequestAttributes.SCOPE_REQUEST));
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+			this.testee.asyncExecutor.shutdown();
+		}
+	}
+	
 	@Test
 	public void testLogin() {
 		final ResponseEntity<?> response = this.testee.login();
@@ -17,6 +17,7 @@ package com.antheminc.oss.nimbus.domain.cmd;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
 import java.util.HashMap;
@@ -167,4 +168,62 @@ public class CommandBuilderTest {
 		System.out.println(cmd.getRefId(Type.ProcessAlias));
 	}
 
+	@Test
+	public void t4_sameShape_resolvesOwnRefIds() {
+		Command cmd1 = CommandBuilder.withUri("/client_xyz/app_abc/p/domainRoot_alias:1/param_alias/_get?b=$execute").getCommand();
+		Command cmd2 = CommandBuilder.withUri("/client_xyz/app_abc/p/domainRoot_alias:2/param_alias/_get?b=$execute").getCommand();
+		
+		assertEquals(Long.valueOf(1), cmd1.getRefId(Type.DomainAlias).getId());
+		assertEquals(Long.valueOf(2), cmd2.getRefId(Type.DomainAlias).getId());
+		assertEquals("/domainRoot_alias:2/param_alias", cmd2.getAbsoluteDomainUri());
+		assertSame(Action._get, cmd2.getAction());
+		
+		cmd2.getRootDomainElement().setAlias("changed");
+		assertEquals("domainRoot_alias", CommandBuilder.withUri("/client_xyz/app_abc/p/domainRoot_alias:3/param_alias/_get").getCommand().getRootDomainAlias());
+	}
+	
+	@Test
+	public void t4_sameShape_keyValueRefIds() {
+		Command cmd1 = CommandBuilder.withUri("/client_xyz/app_abc/p/domainRoot_alias:a=1&b=2/_get").getCommand();
+		Command cmd2 = CommandBuilder.withUri("/client_xyz/app_abc/p/domainRoot_alias/_get").getCommand();
+		Command cmd3 = CommandBuilder.withUri("/client_xyz/app_abc/p/domainRoot_alias:null/_get").getCommand();
+		
+		assertEquals("2", cmd1.getRefId(Type.DomainAlias).findIfKeyValue().getValue().get("b"));
+		assertNull(cmd2.getRefId(Type.DomainAlias));
+		assertNull(cmd3.getRefId(Type.DomainAlias));
+		assertEquals("domainRoot_alias", cmd3.getRootDomainAlias());
+	}
+	
+	@Test
+	public void t4_sameShape_processAndEvent() {
+		for(String id : new String[] {"1", "2"}) {
+			Command cmd = CommandBuilder.withUri("/e_onLoad/xyz/admin/p/flow_patientenrollment/_loadTask:" + id + "/_process").getCommand();
+			
+			assertEquals("onLoad", cmd.getEvent());
+			assertSame(Action._process, cmd.getAction());
+			assertEquals(Long.valueOf(id), cmd.getRefId(Type.ProcessAlias).getId());
+		}
+	}
+	
+	@Test
+	public void t4_sameShape_numericSegments() {
+		String uri1 = "/client_xyz/app_abc/p/domainRoot_alias:1/list_alias/0/param_alias/_get";
+		String uri2 = "/client_xyz/app_abc/p/domainRoot_alias:2/list_alias/12/param_alias/_get";
+		assertEquals(CommandTemplate.shapeOf(uri1).getKey(), CommandTemplate.shapeOf(uri2).getKey());
+		
+		Command cmd1 = CommandBuilder.withUri(uri1).getCommand();
+		Command cmd2 = CommandBuilder.withUri(uri2).getCommand();
+		
+		assertEquals("/domainRoot_alias:1/list_alias/0/param_alias", cmd1.getAbsoluteDomainUri());
+		assertEquals("/domainRoot_alias:2/list_alias/12/param_alias", cmd2.getAbsoluteDomainUri());
+		assertSame(Action._get, cmd2.getAction());
+	}
+	
+	@Test
+	public void t4_sameShape_numericSegmentWithRefId() {
+		CommandBuilder.withUri("/client_xyz/app_abc/p/domainRoot_alias:1/list_alias/3:4/_get").getCommand();
+		Command cmd = CommandBuilder.withUri("/client_xyz/app_abc/p/domainRoot_alias:1/list_alias/5:6/_get").getCommand();
+		
+		assertEquals("/domainRoot_alias:1/list_alias/5:6", cmd.getAbsoluteDomainUri());
+	}
 }
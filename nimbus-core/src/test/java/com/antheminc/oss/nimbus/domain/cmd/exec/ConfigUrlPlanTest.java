@@ -0,0 +1,202 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
+import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
+import com.antheminc.oss.nimbus.domain.cmd.CommandMessageConverter;
+import com.antheminc.oss.nimbus.domain.cmd.exec.internal.DefaultCommandPathVariableResolver;
+import com.antheminc.oss.nimbus.domain.cmd.exec.internal.DefaultExecutionContextPathVariableResolver;
+import com.antheminc.oss.nimbus.domain.defn.Execution.Config;
+import com.antheminc.oss.nimbus.domain.model.config.ExecutionConfig;
+import com.antheminc.oss.nimbus.domain.model.config.builder.internal.ExecutionConfigFactory;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.session.SessionProvider;
+
+/**
+ * Urls resolved through a compiled {@link ConfigUrlPlan} must equal those resolved through the path variable resolvers
+ * on execution.
+ */
+public class ConfigUrlPlanTest {
+
+	private static final String CMD_URI = "/hooli/thebox/p/sample_view:1/page/grid/_get";
+
+	static class SampleConfigs {
+
+		@Config(url="/p/lookup/_search?fn=example&where=lookup.name.eq('<!/name!>')")
+		Object paramPath;
+
+		@Config(url="/name/_get")
+		Object relative;
+
+		@Config(url="/hooli/thebox/p/lookup/_get")
+		Object complete;
+
+		@Config(url="/p/${test.domain}/_search?fn=lookup&where=code.eq('<!/name!>')")
+		Object property;
+
+		@Config(url="${test.url}")
+		Object propertyWithPlatformMarker;
+
+		@Config(url="/p/lookup/_search?fn=query&<!page=y!>")
+		Object page;
+
+		@Config(url="/p/lookup/_search?fn=query&where=<!autocompletesearchvalue!>")
+		Object autoSearch;
+
+		@Config(url="/p/lookup/_search?fn=query&json=\"<!/missing!>\"&<!#env.test.query!>")
+		Object env;
+
+		@Config(url="/p/lookup/_search?fn=query&where=code.eq('<!${test.path}!>')")
+		Object propertyInPlaceholder;
+
+		@Config(url="/p/lookup/_search?fn=query&where=code.eq('${test.placeholder}')")
+		Object propertyAddingPlaceholder;
+	}
+
+	private ExecutionConfigFactory factory;
+
+	private ExecutionContextPathVariableResolver eCtxResolver;
+
+	private CommandPathVariableResolver cmdResolver;
+
+	private Param<?> cmdParam;
+
+	@Before
+	public void before() {
+		Map<String, Object> properties = new HashMap<>();
+		properties.put("test.domain", "lookup");
+		properties.put("test.url", "/p/lookup/_get");
+		properties.put("test.query", "where=lookup.code.eq('x')");
+		properties.put("test.path", "/name");
+		properties.put("test.placeholder", "<!/name!>");
+
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+
+		BeanResolverStrategy beanResolver = mock(BeanResolverStrategy.class);
+		when(beanResolver.get(CommandMessageConverter.class)).thenReturn(mock(CommandMessageConverter.class));
+		when(beanResolver.get(SessionProvider.class)).thenReturn(mock(SessionProvider.class));
+		when(beanResolver.get(Environment.class)).thenReturn(environment);
+
+		factory = new ExecutionConfigFactory(environment);
+		eCtxResolver = new DefaultExecutionContextPathVariableResolver(beanResolver);
+		cmdResolver = new DefaultCommandPathVariableResolver(beanResolver, environment);
+
+		cmdParam = mock(Param.class, RETURNS_DEEP_STUBS);
+		Param<?> name = mock(Param.class);
+		when(name.getState()).thenAnswer(inv -> "Jack");
+		when(cmdParam.findParamByPath("/name")).thenAnswer(inv -> name);
+	}
+
+	private ExecutionContext eCtx(String uri) {
+		return new ExecutionContext(CommandBuilder.withUri(uri).getCommand());
+	}
+
+	private ExecutionConfig build(String field) throws Exception {
+		return factory.build(SampleConfigs.class.getDeclaredField(field));
+	}
+
+	private ConfigUrlPlan findUrlPlan(String field) throws Exception {
+		ExecutionConfig executionConfig = build(field);
+		return executionConfig.findUrlPlan((Config)executionConfig.get().get(0));
+	}
+
+	private String resolveOnExecution(ExecutionContext eCtx, Config config) {
+		String completeConfigUri = eCtx.getCommandMessage().getCommand().getRelativeUri(config.url());
+		return cmdResolver.resolve(cmdParam, eCtxResolver.resolve(eCtx, cmdParam, completeConfigUri));
+	}
+
+	private String assertEquivalent(ExecutionContext eCtx, String field) throws Exception {
+		ExecutionConfig executionConfig = build(field);
+		Config config = (Config)executionConfig.get().get(0);
+
+		// plans are held by identity of the config annotation built along
+		ConfigUrlPlan plan = executionConfig.findUrlPlan(config);
+		assertNotNull("no plan compiled for: " + field, plan);
+
+		String expected = resolveOnExecution(eCtx, config);
+		assertEquals(expected, plan.resolve(eCtx, cmdParam, eCtxResolver, cmdResolver));
+		return expected;
+	}
+
+	@Test
+	public void testParamPathPlaceholder() throws Exception {
+		String url = assertEquivalent(eCtx(CMD_URI), "paramPath");
+		assertEquals("/hooli/thebox/p/lookup/_search?fn=example&where=lookup.name.eq('Jack')", url);
+	}
+
+	@Test
+	public void testRelativeAndCompleteUrls() throws Exception {
+		assertEquivalent(eCtx(CMD_URI), "relative");
+		assertEquals("/hooli/thebox/p/lookup/_get", assertEquivalent(eCtx(CMD_URI), "complete"));
+	}
+
+	@Test
+	public void testPropertyPlaceholders() throws Exception {
+		assertEquals("/hooli/thebox/p/lookup/_search?fn=lookup&where=code.eq('Jack')", assertEquivalent(eCtx(CMD_URI), "property"));
+	}
+
+	@Test
+	public void testPropertyWithPlatformMarkerPrefixedByDeclaredUrl() throws Exception {
+		// the declared url carries no platform marker, so is made relative to the domain root of the command
+		String url = assertEquivalent(eCtx(CMD_URI), "propertyWithPlatformMarker");
+		String domainRootPrefix = StringUtils.removeEnd(eCtx(CMD_URI).getCommandMessage().getCommand().getRelativeUri("/_get"), "/_get");
+		assertEquals(domainRootPrefix + "/p/lookup/_get", url);
+	}
+
+	@Test
+	public void testPageMarker() throws Exception {
+		assertEquals("/hooli/thebox/p/lookup/_search?fn=query&pageSize=5&page=0",
+				assertEquivalent(eCtx(CMD_URI + "?pageSize=5&page=0"), "page"));
+		assertEquals("/hooli/thebox/p/lookup/_search?fn=query&", assertEquivalent(eCtx(CMD_URI), "page"));
+	}
+
+	@Test
+	public void testSearchMarkerValuesResolvedAsParamPaths() throws Exception {
+		assertEquals("/hooli/thebox/p/lookup/_search?fn=query&where=Jack",
+				assertEquivalent(eCtx(CMD_URI + "?autocompletesearchvalue=<!/name!>"), "autoSearch"));
+		assertEquals("/hooli/thebox/p/lookup/_search?fn=query&where=null", assertEquivalent(eCtx(CMD_URI), "autoSearch"));
+	}
+
+	@Test
+	public void testEnvironmentAndNullValues() throws Exception {
+		assertEquivalent(eCtx(CMD_URI), "env");
+	}
+
+	@Test
+	public void testPropertiesAlteringPlaceholdersLeftToExecution() throws Exception {
+		assertNull(findUrlPlan("propertyInPlaceholder"));
+		assertNull(findUrlPlan("propertyAddingPlaceholder"));
+	}
+}
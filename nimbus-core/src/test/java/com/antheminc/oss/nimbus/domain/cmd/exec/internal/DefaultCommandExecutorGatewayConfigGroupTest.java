@@ -0,0 +1,289 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.antheminc.oss.nimbus.FrameworkRuntimeException;
+import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
+import com.antheminc.oss.nimbus.domain.cmd.Action;
+import com.antheminc.oss.nimbus.domain.cmd.Behavior;
+import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
+import com.antheminc.oss.nimbus.domain.cmd.CommandMessage;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.MultiOutput;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecutorGateway;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandPathVariableResolver;
+import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContext;
+import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContextLoader;
+import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContextPathVariableResolver;
+import com.antheminc.oss.nimbus.domain.config.builder.DomainConfigBuilder;
+import com.antheminc.oss.nimbus.domain.defn.Execution.Config;
+import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
+import com.antheminc.oss.nimbus.domain.model.config.builder.ExecutionConfigProvider;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.support.expr.ExpressionEvaluator;
+
+/**
+ * Execution of {@link Config#group() config groups} by {@link DefaultCommandExecutorGateway}, with the commands of the
+ * configs executed by a stub.
+ */
+public class DefaultCommandExecutorGatewayConfigGroupTest {
+
+	private static final String CMD_URI = "/hooli/thebox/p/sample_view:1/_get";
+	
+	private static final String GROUP = "lookups";
+
+	private ThreadPoolTaskExecutor executor;
+
+	private DefaultCommandExecutorGateway testee;
+
+	private ExecutionContext eCtx;
+
+	private Param<?> cmdParam;
+
+	private final Map<String, Function<CommandMessage, MultiOutput>> stubs = new ConcurrentHashMap<>();
+
+	private final Map<String, String> executingThreads = new ConcurrentHashMap<>();
+
+	private final Map<String, Boolean> whens = new ConcurrentHashMap<>();
+
+	private final Map<Config, Config> exceptionConfigs = new HashMap<>();
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Before
+	public void before() {
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(4);
+		executor.setMaxPoolSize(4);
+		executor.setQueueCapacity(4);
+		executor.initialize();
+
+		BeanResolverStrategy beanResolver = mock(BeanResolverStrategy.class);
+
+		CommandPathVariableResolver pathVariableResolver = mock(CommandPathVariableResolver.class);
+		when(pathVariableResolver.resolve(any(), anyString())).thenAnswer(inv -> inv.getArgument(1));
+		when(beanResolver.get(CommandPathVariableResolver.class)).thenReturn(pathVariableResolver);
+
+		ExecutionContextPathVariableResolver eCtxPathVariableResolver = mock(ExecutionContextPathVariableResolver.class);
+		when(eCtxPathVariableResolver.resolve(any(), any(), anyString())).thenAnswer(inv -> inv.getArgument(2));
+		when(beanResolver.get(ExecutionContextPathVariableResolver.class)).thenReturn(eCtxPathVariableResolver);
+
+		DomainConfigBuilder domainConfigBuilder = mock(DomainConfigBuilder.class);
+		when(domainConfigBuilder.getRootDomainOrThrowEx(anyString())).thenReturn((ModelConfig)mock(ModelConfig.class));
+		when(beanResolver.get(DomainConfigBuilder.class)).thenReturn(domainConfigBuilder);
+
+		ExpressionEvaluator expressionEvaluator = mock(ExpressionEvaluator.class);
+		when(expressionEvaluator.getValue(anyString(), any(), eq(Boolean.class))).thenAnswer(inv -> whens.getOrDefault(inv.getArgument(0), true));
+		when(beanResolver.get(ExpressionEvaluator.class)).thenReturn(expressionEvaluator);
+
+		ExecutionConfigProvider<Config> configProvider = mock(ExecutionConfigProvider.class);
+		when(configProvider.getMain(any())).thenAnswer(inv -> inv.getArgument(0));
+		when(configProvider.getException(any())).thenAnswer(inv -> exceptionConfigs.get(inv.getArgument(0)));
+		when(beanResolver.get(ExecutionConfigProvider.class, Config.class)).thenReturn(configProvider);
+
+		when(beanResolver.get(ExecutionContextLoader.class)).thenReturn(mock(ExecutionContextLoader.class));
+		when(beanResolver.find(ParallelConfigExecutor.class)).thenReturn(new ParallelConfigExecutor(executor, 5000));
+
+		testee = new DefaultCommandExecutorGateway(beanResolver);
+		testee.initDependencies();
+
+		CommandExecutorGateway self = mock(CommandExecutorGateway.class);
+		when(self.execute(any(CommandMessage.class))).thenAnswer(inv -> {
+			CommandMessage cmdMsg = inv.getArgument(0);
+			String uri = cmdMsg.getCommand().getAbsoluteUri();
+			executingThreads.put(uri, Thread.currentThread().getName());
+			return stubs.getOrDefault(uri, this::output).apply(cmdMsg);
+		});
+		ReflectionTestUtils.setField(testee, "self", self);
+
+		eCtx = new ExecutionContext(CommandBuilder.withUri(CMD_URI).getCommand());
+		cmdParam = mock(Param.class, RETURNS_DEEP_STUBS);
+		when(cmdParam.getConfig().getExecutionConfig()).thenReturn(null);
+	}
+
+	@After
+	public void after() {
+		executor.shutdown();
+	}
+
+	private MultiOutput output(CommandMessage cmdMsg) {
+		return new MultiOutput(cmdMsg.getCommand().getAbsoluteUri(), null, Action._get, Behavior.$execute);
+	}
+
+	private static String absolute(String url) {
+		return url.startsWith("/p/") ? "/hooli/thebox" + url : "/hooli/thebox/p/sample_view:1" + url;
+	}
+
+	private static Config config(String url, String when, long groupTimeoutMillis) {
+		Config config = mock(Config.class);
+		when(config.annotationType()).thenAnswer(inv -> Config.class);
+		when(config.url()).thenReturn(url);
+		when(config.when()).thenReturn(when);
+		when(config.col()).thenReturn(Config.COL);
+		when(config.group()).thenReturn(GROUP);
+		when(config.groupTimeoutMillis()).thenReturn(groupTimeoutMillis);
+		return config;
+	}
+
+	private static Config config(String url) {
+		return config(url, Config.TRUE, 0);
+	}
+
+	private List<String> executeConfig(Annotation... configs) {
+		return testee.executeConfig(eCtx, cmdParam, Arrays.asList(configs)).stream()
+				.map(MultiOutput::getInputCommandUri)
+				.collect(Collectors.toList());
+	}
+
+	/* each member of another domain waits for the other one to start: executed one after another, both would time out */
+	private void awaitEachOther(String... urls) {
+		CountDownLatch started = new CountDownLatch(urls.length);
+		for(String url : urls) {
+			stubs.put(absolute(url), cmdMsg -> {
+				started.countDown();
+				try {
+					assertTrue("members were not executed in parallel", started.await(5, TimeUnit.SECONDS));
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				return output(cmdMsg);
+			});
+		}
+	}
+
+	@Test
+	public void testMembersOfOtherDomainsExecuteConcurrentlyInDeclaredOrder() {
+		awaitEachOther("/p/lookup_a/_search", "/p/lookup_b/_search");
+
+		List<String> outputs = executeConfig(config("/p/lookup_a/_search"), config("/a/_get"), config("/p/lookup_b/_search"));
+
+		assertEquals(Arrays.asList(absolute("/p/lookup_a/_search"), absolute("/a/_get"), absolute("/p/lookup_b/_search")), outputs);
+
+		String callingThread = Thread.currentThread().getName();
+		assertEquals(callingThread, executingThreads.get(absolute("/a/_get")));
+		assertNotEquals(callingThread, executingThreads.get(absolute("/p/lookup_a/_search")));
+		assertNotEquals(callingThread, executingThreads.get(absolute("/p/lookup_b/_search")));
+	}
+
+	@Test
+	public void testWhenOfMemberEvaluatedAfterPrecedingInlineMembers() {
+		whens.put("afterInline", false);
+		stubs.put(absolute("/a/_replace"), cmdMsg -> {
+			whens.put("afterInline", true);
+			return output(cmdMsg);
+		});
+
+		List<String> outputs = executeConfig(config("/a/_replace"), config("/p/lookup_a/_search", "afterInline", 0));
+
+		assertEquals(Arrays.asList(absolute("/a/_replace"), absolute("/p/lookup_a/_search")), outputs);
+	}
+
+	@Test
+	public void testTimeoutOfGroupFailsCommand() {
+		CountDownLatch release = new CountDownLatch(1);
+		stubs.put(absolute("/p/lookup_a/_search"), cmdMsg -> {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return output(cmdMsg);
+		});
+
+		try {
+			executeConfig(config("/p/lookup_a/_search", "true", 100), config("/p/lookup_b/_search", "true", 100));
+			fail("timeout of the group must fail the command");
+			
+		} catch (FrameworkRuntimeException ex) {
+			assertTrue(ex.getMessage().startsWith("Timed out awaiting config /p/lookup_a/_search"));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	public void testFailureOfMemberPropagated() {
+		IllegalStateException failure = new IllegalStateException("backend unavailable");
+		stubs.put(absolute("/p/lookup_b/_search"), cmdMsg -> { throw failure; });
+
+		try {
+			executeConfig(config("/p/lookup_a/_search"), config("/p/lookup_b/_search"));
+			fail("failure of a member must fail the command");
+			
+		} catch (FrameworkRuntimeException ex) {
+			assertSame(failure, ex.getCause());
+		}
+	}
+
+	@Test
+	public void testFailureOfMemberExecutesItsExceptionConfig() {
+		stubs.put(absolute("/p/lookup_b/_search"), cmdMsg -> { throw new IllegalStateException("backend unavailable"); });
+		
+		Config onException = config("/p/lookup_c/_search");
+		when(onException.group()).thenReturn(Config.COL);
+		
+		Config lookupB = config("/p/lookup_b/_search");
+		exceptionConfigs.put(lookupB, onException);
+
+		List<String> outputs = executeConfig(config("/p/lookup_a/_search"), lookupB);
+
+		assertEquals(Collections.singletonList(absolute("/p/lookup_a/_search")), outputs);
+		assertTrue(executingThreads.containsKey(absolute("/p/lookup_c/_search")));
+	}
+
+	@Test
+	public void testUngroupedConfigsExecuteOnCallingThread() {
+		Config a = config("/p/lookup_a/_search");
+		when(a.group()).thenReturn(Config.COL);
+		Config b = config("/p/lookup_b/_search");
+		when(b.group()).thenReturn(Config.COL);
+
+		List<String> outputs = new ArrayList<>(executeConfig(a, b));
+
+		assertEquals(Arrays.asList(absolute("/p/lookup_a/_search"), absolute("/p/lookup_b/_search")), outputs);
+		assertEquals(Thread.currentThread().getName(), executingThreads.get(absolute("/p/lookup_a/_search")));
+		assertEquals(Thread.currentThread().getName(), executingThreads.get(absolute("/p/lookup_b/_search")));
+	}
+}
@@ -0,0 +1,154 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
+import com.antheminc.oss.nimbus.domain.cmd.Action;
+import com.antheminc.oss.nimbus.domain.cmd.Behavior;
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.Input;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.Output;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecutor;
+import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContext;
+import com.antheminc.oss.nimbus.domain.config.builder.DomainConfigBuilder;
+import com.antheminc.oss.nimbus.domain.defn.Repo;
+import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
+import com.antheminc.oss.nimbus.domain.model.state.ExecutionRuntime;
+import com.antheminc.oss.nimbus.domain.model.state.QuadModel;
+import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionEntity;
+import com.antheminc.oss.nimbus.domain.session.SessionProvider;
+
+public class DefaultExecutionContextLoaderTest {
+
+	private static final String URI = "/hooli/thebox/p/sample_core:1/_get";
+
+	private DefaultExecutionContextLoader testee;
+
+	private CommandExecutor<?> executorActionGet;
+
+	private final Map<String, Object> sessionAttributes = new ConcurrentHashMap<>();
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Before
+	public void before() {
+		Repo repo = Mockito.mock(Repo.class);
+		Mockito.when(repo.cache()).thenReturn(Repo.Cache.rep_device);
+
+		ModelConfig<?> rootDomainConfig = Mockito.mock(ModelConfig.class);
+		Mockito.doReturn(repo).when(rootDomainConfig).getRepo();
+
+		DomainConfigBuilder domainConfigBuilder = Mockito.mock(DomainConfigBuilder.class);
+		Mockito.doReturn(rootDomainConfig).when(domainConfigBuilder).getRootDomainOrThrowEx(anyString());
+
+		SessionProvider sessionProvider = Mockito.mock(SessionProvider.class);
+		Mockito.when(sessionProvider.getSessionId()).thenReturn("session-1");
+		Mockito.when(sessionProvider.getAttribute(anyString())).thenAnswer(inv -> sessionAttributes.get(inv.getArgument(0)));
+		Mockito.doAnswer(inv -> sessionAttributes.put(inv.getArgument(0), inv.getArgument(1)))
+			.when(sessionProvider).setAttribute(anyString(), any());
+
+		executorActionGet = Mockito.mock(CommandExecutor.class);
+
+		BeanResolverStrategy beanResolver = Mockito.mock(BeanResolverStrategy.class);
+		Mockito.when(beanResolver.get(DomainConfigBuilder.class)).thenReturn(domainConfigBuilder);
+		Mockito.when(beanResolver.get(SessionProvider.class)).thenReturn(sessionProvider);
+		Mockito.when(beanResolver.get(CommandExecutor.class, Action._get.name() + Behavior.$execute.name())).thenReturn(executorActionGet);
+
+		testee = new DefaultExecutionContextLoader(beanResolver);
+	}
+
+	private Command command() {
+		return CommandBuilder.withUri(URI).getCommand();
+	}
+
+	@SuppressWarnings("unchecked")
+	private Output<?> loaded(Input input) throws Exception {
+		ExecutionRuntime runtime = Mockito.mock(ExecutionRuntime.class);
+		Mockito.when(runtime.tryAcquireExecution(eq(false), anyLong())).thenReturn(true);
+
+		ExecutionEntity<Object, Object>.ExModel root = Mockito.mock(ExecutionEntity.ExModel.class);
+		Mockito.when(root.getExecutionRuntime()).thenReturn(runtime);
+
+		QuadModel<Object, Object> q = Mockito.mock(QuadModel.class);
+		Mockito.when(q.getRoot()).thenReturn(root);
+
+		ExecutionContext eCtx = input.getContext();
+		eCtx.setQuadModel(q);
+		return new Output<>(input.getInputCommandUri(), eCtx, Action._get, Behavior.$execute);
+	}
+
+	@Test
+	public void testConcurrentFirstCommandsOfSessionLoadOnce() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Mockito.doAnswer(inv -> {
+			loads.incrementAndGet();
+			loading.countDown();
+			await(release);
+			return loaded(inv.getArgument(0));
+		}).when(executorActionGet).execute(any(Input.class));
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<ExecutionContext> first = executor.submit(() -> testee.load(command()));
+			loading.await(5, TimeUnit.SECONDS);
+			Future<ExecutionContext> second = executor.submit(() -> testee.load(command()));
+
+			// second command missed the model in session as well, and waits for the load of the first
+			ReentrantLock lock = testee.getSessionLoadLocks().values().iterator().next();
+			while(!lock.hasQueuedThreads())
+				Thread.sleep(1);
+
+			release.countDown();
+			assertSame(first.get(5, TimeUnit.SECONDS).getQuadModel(), second.get(5, TimeUnit.SECONDS).getQuadModel());
+			assertEquals(1, loads.get());
+			assertEquals(0, testee.getSessionLoadLocks().size());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
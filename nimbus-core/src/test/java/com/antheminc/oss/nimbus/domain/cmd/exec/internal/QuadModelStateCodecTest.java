@@ -0,0 +1,290 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.lang3.mutable.MutableInt;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.antheminc.oss.nimbus.FrameworkRuntimeException;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandPathVariableResolver;
+import com.antheminc.oss.nimbus.domain.cmd.exec.internal.QuadModelStateCodec.Snapshot;
+import com.antheminc.oss.nimbus.domain.defn.extension.Content.Label;
+import com.antheminc.oss.nimbus.domain.model.config.ParamValue;
+import com.antheminc.oss.nimbus.domain.model.config.extension.LabelStateEventHandler;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.ExecutionModel;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param.LabelState;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param.Message;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param.StyleState;
+import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionEntity;
+import com.antheminc.oss.nimbus.entity.process.ProcessFlow;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidTypeIdException;
+
+public class QuadModelStateCodecTest {
+
+	private final QuadModelStateCodec testee = new QuadModelStateCodec(new ObjectMapper(), Collections.emptyList());
+	
+	public static class Shape {
+		private String name;
+	}
+	
+	public static class Circle extends Shape {
+		private int radius;
+	}
+	
+	public static class Core {
+		private String name;
+		@JsonIgnore private String ignoredByClient;
+		private Shape shape;
+		private Object any;
+		private List<Shape> shapes;
+		private Date date;
+		private String[] codes;
+	}
+	
+	public static class View {
+		private Core core;
+		private long count;
+	}
+	
+	@Test
+	public void testEntityStateRoundTrip() {
+		Circle circle = new Circle();
+		circle.name = "circle";
+		circle.radius = 3;
+		
+		Core core = new Core();
+		core.name = "core";
+		core.ignoredByClient = "kept";
+		core.shape = circle;
+		core.any = circle;
+		core.shapes = new ArrayList<>(Arrays.asList(new Shape(), circle));
+		core.date = new Date(1000L);
+		core.codes = new String[] {"a", "b"};
+		
+		View view = new View();
+		view.core = core;
+		view.count = 2;
+		
+		ExecutionEntity<View, Core> eState = new ExecutionEntity<>(view, core);
+		eState.setId(5L);
+		eState.setFlow(new ProcessFlow());
+		eState.getFlow().setProcessExecutionId("p1");
+		
+		Snapshot snapshot = testee.read(testee.write(rootModel(eState)));
+		
+		ExecutionEntity<?, ?> read = snapshot.getEntityState();
+		assertEquals(Long.valueOf(5L), read.getId());
+		assertEquals("p1", read.getFlow().getProcessExecutionId());
+		
+		Core readCore = (Core)read.getCore();
+		assertEquals("core", readCore.name);
+		assertEquals("kept", readCore.ignoredByClient);
+		assertEquals(Circle.class, readCore.shape.getClass());
+		assertEquals(3, ((Circle)readCore.shape).radius);
+		assertEquals(Circle.class, readCore.any.getClass());
+		assertEquals(Shape.class, readCore.shapes.get(0).getClass());
+		assertEquals(Circle.class, readCore.shapes.get(1).getClass());
+		assertEquals(new Date(1000L), readCore.date);
+		assertArrayEquals(new String[] {"a", "b"}, readCore.codes);
+		
+		View readView = (View)read.getView();
+		assertEquals(2, readView.count);
+		assertEquals("kept", readView.core.ignoredByClient);
+	}
+	
+	@Test
+	public void testUiStateRoundTrip() {
+		Param<?> hidden = param("/root/hidden");
+		when(hidden.isVisible()).thenReturn(false);
+		
+		Param<?> labeled = param("/root/labeled");
+		when(labeled.getLabels()).thenReturn(Collections.singleton(new LabelState("Label")));
+		when(labeled.getMessages()).thenReturn(Collections.singleton(new Message("m1", "Message", Message.Type.WARNING, Message.Context.TOAST, null)));
+		when(labeled.getValues()).thenReturn(Arrays.asList(new ParamValue("A", "a"), new ParamValue(2, "two")));
+		
+		Param<?> inactive = param("/root/inactive");
+		when(inactive.isActive()).thenReturn(false);
+		
+		Param<?> untouched = param("/root/untouched");
+		
+		ExecutionModel<?> written = rootModel(new ExecutionEntity<>(), hidden, labeled, inactive, untouched);
+		Snapshot snapshot = testee.read(testee.write(written));
+		
+		// rebuilt model, whose params are initialized to other than written
+		Param<?> rHidden = param("/root/hidden");
+		Param<?> rLabeled = param("/root/labeled");
+		Param<?> rInactive = param("/root/inactive");
+		Param<?> rUntouched = param("/root/untouched");
+		when(rUntouched.isEnabled()).thenReturn(false);
+		
+		testee.restoreUiState(rootModel(snapshot.getEntityState(), rHidden, rLabeled, rInactive, rUntouched), snapshot);
+		
+		verify(rHidden).setVisible(false);
+		verify(rHidden).setEnabled(true);
+		verify(rInactive).deactivate();
+		verify(rInactive, never()).setVisible(anyBoolean());
+		verify(rUntouched).setEnabled(true);
+		verify(rUntouched).setLabels(null);
+		
+		verify(rLabeled).setLabels(Collections.singleton(new LabelState("Label")));
+		verify(rLabeled).setValues(Arrays.asList(new ParamValue("A", "a"), new ParamValue(2, "two")));
+		verify(rLabeled).setMessages(any());
+	}
+	
+	/* shared style states have no default constructor, as is the case here */
+	private static class ConstantStyleState extends StyleState {
+		
+		private ConstantStyleState(String cssClass) {
+			super.setCssClass(cssClass);
+		}
+	}
+	
+	@Label(value="Static Label", helpText="Static help")
+	private String staticLabel;
+	
+	@Test @SuppressWarnings("unchecked")
+	public void testSharedLabelAndStyleRoundTrip() throws Exception {
+		CommandPathVariableResolver pathResolver = mock(CommandPathVariableResolver.class);
+		when(pathResolver.resolve(any(), any())).thenAnswer(i -> i.getArgument(1));
+		
+		Label label = QuadModelStateCodecTest.class.getDeclaredField("staticLabel").getAnnotation(Label.class);
+		Param<?> p = param("/root/p");
+		LabelState shared = new LabelStateEventHandler(pathResolver).resolve(label, p);
+		when(p.getLabels()).thenReturn(Collections.singleton(shared));
+		when(p.getStyle()).thenReturn(new ConstantStyleState("highlight"));
+		
+		Snapshot snapshot = testee.read(testee.write(rootModel(new ExecutionEntity<>(), p)));
+		
+		Param<?> restored = param("/root/p");
+		testee.restoreUiState(rootModel(snapshot.getEntityState(), restored), snapshot);
+		
+		ArgumentCaptor<Set<LabelState>> labels = ArgumentCaptor.forClass(Set.class);
+		verify(restored).setLabels(labels.capture());
+		LabelState l = labels.getValue().iterator().next();
+		assertEquals(LabelState.class, l.getClass());
+		assertEquals("Static Label", l.getText());
+		assertEquals("Static help", l.getHelpText());
+		assertEquals(shared.getLocale(), l.getLocale());
+		
+		ArgumentCaptor<StyleState> style = ArgumentCaptor.forClass(StyleState.class);
+		verify(restored).setStyle(style.capture());
+		assertEquals(StyleState.class, style.getValue().getClass());
+		assertEquals("highlight", style.getValue().getCssClass());
+	}
+	
+	@Test
+	public void testNewerVersionNotRead() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(OutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(("{\"version\":" + (QuadModelStateCodec.VERSION + 1) + ",\"format\":\"unknown\"}").getBytes(StandardCharsets.UTF_8));
+		}
+		assertNull(testee.read(bytes.toByteArray()));
+	}
+	
+	@Test
+	public void testRestoredMessages() {
+		Param<?> p = param("/root/p");
+		when(p.getMessages()).thenReturn(Collections.singleton(new Message("m1", "Message", Message.Type.WARNING, Message.Context.TOAST, "css")));
+		Snapshot snapshot = testee.read(testee.write(rootModel(new ExecutionEntity<>(), p)));
+		
+		Param<?> restored = param("/root/p");
+		Holder holder = new Holder();
+		doAnswer(i -> holder.messages = i.getArgument(0)).when(restored).setMessages(any());
+		testee.restoreUiState(rootModel(snapshot.getEntityState(), restored), snapshot);
+		
+		assertEquals(1, holder.messages.size());
+		Message m = holder.messages.iterator().next();
+		assertEquals("m1", m.getUniqueId());
+		assertEquals("Message", m.getText());
+		assertSame(Message.Type.WARNING, m.getType());
+		assertSame(Message.Context.TOAST, m.getContext());
+		assertEquals("css", m.getStyleClass());
+		assertTrue(m.isTransient());
+	}
+	
+	@Test
+	public void testTypesOutsideAllowedPackagesNotRead() throws Exception {
+		byte[] compressed = compressed("{\"version\":" + QuadModelStateCodec.VERSION + ",\"core\":[\"org.apache.commons.lang3.mutable.MutableInt\",{\"value\":3}]}");
+		try {
+			testee.read(compressed);
+			fail("Expected type outside allowed packages to fail the read");
+		} catch (FrameworkRuntimeException ex) {
+			assertEquals(InvalidTypeIdException.class, ex.getCause().getClass());
+		}
+		
+		QuadModelStateCodec codec = new QuadModelStateCodec(new ObjectMapper(), Arrays.asList("org.apache.commons.lang3.mutable"));
+		assertEquals(new MutableInt(3), codec.read(compressed).getEntityState().getCore());
+	}
+	
+	private static byte[] compressed(String json) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(OutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(json.getBytes(StandardCharsets.UTF_8));
+		}
+		return bytes.toByteArray();
+	}
+	
+	private static class Holder {
+		private Set<Message> messages;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static ExecutionModel<?> rootModel(ExecutionEntity<?, ?> eState, Param<?>... params) {
+		ExecutionModel<Object> rootModel = mock(ExecutionModel.class);
+		when(rootModel.getState()).thenReturn(eState);
+		when(rootModel.getParams()).thenReturn(Arrays.asList(params));
+		return rootModel;
+	}
+	
+	private static Param<?> param(String path) {
+		Param<?> p = mock(Param.class);
+		when(p.getPath()).thenReturn(path);
+		when(p.isActive()).thenReturn(true);
+		when(p.isVisible()).thenReturn(true);
+		when(p.isEnabled()).thenReturn(true);
+		when(p.getValues()).thenReturn(null);
+		return p;
+	}
+}
@@ -0,0 +1,191 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContext;
+import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
+import com.antheminc.oss.nimbus.domain.model.state.ExecutionRuntime;
+import com.antheminc.oss.nimbus.domain.model.state.QuadModel;
+import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionEntity;
+import com.antheminc.oss.nimbus.entity.user.UserRole;
+
+public class SharedQuadModelCacheTest {
+
+	private static final String URI = "/client/org/app/p/dashboard:1";
+
+	private SharedQuadModelCache testee;
+
+	private ModelConfig<?> rootDomainConfig;
+
+	private AtomicInteger loads;
+
+	@Before
+	public void before() {
+		testee = new SharedQuadModelCache(60000, 100, 1000);
+		loads = new AtomicInteger();
+
+		rootDomainConfig = Mockito.mock(ModelConfig.class);
+		Mockito.when(rootDomainConfig.getRepoAlias()).thenReturn("dashboard");
+	}
+
+	private ExecutionContext load() {
+		loads.incrementAndGet();
+		return Mockito.mock(ExecutionContext.class);
+	}
+
+	private UserRole role(String code) {
+		UserRole role = new UserRole();
+		role.setRoleCode(code);
+		return role;
+	}
+
+	@Test
+	public void testSharedPerRoleSet() {
+		ExecutionContext first = testee.get(rootDomainConfig, URI, Arrays.asList(role("a"), role("b")), this::load);
+		ExecutionContext second = testee.get(rootDomainConfig, URI, Arrays.asList(role("b"), role("a")), this::load);
+
+		assertEquals(1, loads.get());
+		assertSame(first, second);
+
+		testee.get(rootDomainConfig, URI, Arrays.asList(role("a")), this::load);
+		testee.get(rootDomainConfig, URI, null, this::load);
+		testee.get(rootDomainConfig, "/client/org/app/p/dashboard:2", null, this::load);
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	public void testEvictByAlias() {
+		testee.get(rootDomainConfig, URI, null, this::load);
+		testee.evict("other");
+		testee.get(rootDomainConfig, URI, null, this::load);
+		assertEquals(1, loads.get());
+
+		testee.evict("dashboard");
+		testee.get(rootDomainConfig, URI, null, this::load);
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void testLoadRacingWithWriteNotCached() {
+		testee.get(rootDomainConfig, URI, null, () -> {
+			testee.evict("dashboard");
+			return load();
+		});
+		testee.get(rootDomainConfig, URI, null, this::load);
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void testConcurrentGetLoadsOnce() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<ExecutionContext> first = executor.submit(() -> testee.get(rootDomainConfig, URI, null, () -> {
+				loading.countDown();
+				await(release);
+				return load();
+			}));
+			loading.await(5, TimeUnit.SECONDS);
+			Future<ExecutionContext> second = executor.submit(() -> testee.get(rootDomainConfig, URI, null, this::load));
+			
+			release.countDown();
+			assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+			assertEquals(1, loads.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void testEvictStopsRuntime() throws Exception {
+		ExecutionRuntime runtime = Mockito.mock(ExecutionRuntime.class);
+		Mockito.when(runtime.tryAcquireExecution(eq(false), anyLong())).thenReturn(true);
+		
+		testee.get(rootDomainConfig, URI, null, () -> context(runtime));
+		Mockito.verify(runtime, Mockito.never()).stop();
+		
+		testee.evict("dashboard");
+		Mockito.verify(runtime).tryAcquireExecution(eq(false), anyLong());
+		Mockito.verify(runtime).releaseExecution(false);
+		Mockito.verify(runtime).stop();
+	}
+	
+	@Test
+	public void testExpiryStopsRuntime() throws Exception {
+		testee = new SharedQuadModelCache(1, 100, 1000);
+		ExecutionRuntime runtime = Mockito.mock(ExecutionRuntime.class);
+		Mockito.when(runtime.tryAcquireExecution(eq(false), anyLong())).thenReturn(true);
+		
+		testee.get(rootDomainConfig, URI, null, () -> context(runtime));
+		Thread.sleep(10);
+		testee.get(rootDomainConfig, URI, null, this::load);
+		
+		Mockito.verify(runtime).stop();
+		assertEquals(1, loads.get());
+	}
+	
+	@Test
+	public void testClearStopsRuntimeOfBusyModelAfterTimeout() throws Exception {
+		ExecutionRuntime runtime = Mockito.mock(ExecutionRuntime.class);
+		Mockito.when(runtime.tryAcquireExecution(eq(false), anyLong())).thenReturn(false);
+		
+		testee.get(rootDomainConfig, URI, null, () -> context(runtime));
+		testee.clear();
+		
+		Mockito.verify(runtime, Mockito.never()).releaseExecution(false);
+		Mockito.verify(runtime).stop();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private ExecutionContext context(ExecutionRuntime runtime) {
+		ExecutionEntity<Object, Object>.ExModel root = Mockito.mock(ExecutionEntity.ExModel.class);
+		Mockito.when(root.getExecutionRuntime()).thenReturn(runtime);
+		
+		QuadModel<Object, Object> q = Mockito.mock(QuadModel.class);
+		Mockito.when(q.getRoot()).thenReturn(root);
+		
+		ExecutionContext eCtx = Mockito.mock(ExecutionContext.class);
+		Mockito.doReturn(q).when(eCtx).getQuadModel();
+		return eCtx;
+	}
+	
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
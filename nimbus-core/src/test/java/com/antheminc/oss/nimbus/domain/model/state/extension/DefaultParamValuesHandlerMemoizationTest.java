@@ -0,0 +1,118 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.extension;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
+import com.antheminc.oss.nimbus.domain.cmd.Action;
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandPathVariableResolver;
+import com.antheminc.oss.nimbus.domain.defn.Model.Param.Values;
+import com.antheminc.oss.nimbus.domain.defn.Model.Param.Values.EMPTY;
+import com.antheminc.oss.nimbus.domain.model.config.ParamValue;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.ParamEvent;
+import com.antheminc.oss.nimbus.domain.model.state.StateEventDelegator;
+import com.antheminc.oss.nimbus.domain.model.state.internal.DefaultExecutionRuntime;
+import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionScope;
+
+public class DefaultParamValuesHandlerMemoizationTest {
+
+	private static final String VALUES_URI = "/hooli/thebox/p/sampletask/_search?fn=lookup&projection.mapsTo=code:id,label:taskName";
+
+	private DefaultParamValuesHandler testee;
+
+	private DefaultExecutionRuntime runtime;
+
+	private final AtomicInteger searches = new AtomicInteger();
+
+	@Before
+	public void before() {
+		CommandPathVariableResolver pathVariableResolver = mock(CommandPathVariableResolver.class);
+		when(pathVariableResolver.resolve(any(), anyString())).thenAnswer(inv -> inv.getArgument(1));
+
+		BeanResolverStrategy beanResolver = mock(BeanResolverStrategy.class);
+		when(beanResolver.get(CommandPathVariableResolver.class)).thenReturn(pathVariableResolver);
+
+		testee = new DefaultParamValuesHandler(beanResolver) {
+			@Override
+			protected List<ParamValue> execute(Command cmd) {
+				searches.incrementAndGet();
+				return new ArrayList<>(Arrays.asList(new ParamValue("1", "Task 1")));
+			}
+		};
+		runtime = new DefaultExecutionRuntime(null, mock(StateEventDelegator.class));
+	}
+
+	private Param<?> param(String alias, String mapsToAlias) {
+		Param<?> param = mock(Param.class, RETURNS_DEEP_STUBS);
+		when(param.getRootDomain().getConfig().getAlias()).thenReturn(alias);
+		when(param.getRootDomain().getConfig().isMapped()).thenReturn(true);
+		when(param.getRootDomain().getConfig().findIfMapped().getMapsToConfig().getAlias()).thenReturn(mapsToAlias);
+		when(param.getRootExecution().getRootCommand().getRelativeUri(anyString())).thenAnswer(inv -> inv.getArgument(0));
+		when(param.getRootExecution().getExecutionRuntime()).thenReturn(runtime);
+		return param;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testGridRowsWithSameValuesSearchOnce() {
+		Values values = mock(Values.class);
+		when(values.value()).thenReturn((Class)EMPTY.class);
+		when(values.url()).thenReturn(VALUES_URI);
+
+		Param<?> grid = param("sample_view", "sample_core");
+
+		ExecutionScope.detached().execute(() -> {
+			runtime.getTxnContext().startMemoization();
+
+			List<ParamValue> previous = null;
+			for(int row = 0; row < 5; row++) {
+				// as emitted by each element added to the grid
+				runtime.emitEvent(new ParamEvent(Action._new, grid));
+
+				Param<?> rowParam = param("sample_view", "sample_core");
+				List<ParamValue> rowValues = testee.buildParamValues(values, rowParam, rowParam);
+				assertEquals("1", rowValues.get(0).getCode());
+				if(previous != null)
+					assertNotSame(previous, rowValues);
+				previous = rowValues;
+			}
+			assertEquals(1, searches.get());
+
+			// a change to the domain the values are searched from discards them
+			runtime.emitEvent(new ParamEvent(Action._update, param("sampletask", "sampletask")));
+			testee.buildParamValues(values, grid, grid);
+			assertEquals(2, searches.get());
+			return null;
+		});
+	}
+}
@@ -0,0 +1,117 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.extension;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
+import com.antheminc.oss.nimbus.domain.cmd.CommandMessage;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.MultiOutput;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecutorGateway;
+import com.antheminc.oss.nimbus.domain.model.config.ParamValue;
+import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionScope;
+import com.antheminc.oss.nimbus.domain.model.state.repo.StaticCodeValueIndex;
+import com.antheminc.oss.nimbus.entity.StaticCodeValue;
+
+public class StaticCodeValueBasedCodeToLabelConverterTest {
+
+	private CommandExecutorGateway gateway;
+
+	private StaticCodeValueIndex index;
+
+	private BeanResolverStrategy beanResolver;
+
+	@Before
+	public void before() {
+		gateway = mock(CommandExecutorGateway.class);
+		index = new StaticCodeValueIndex(() -> Arrays.asList(
+				new StaticCodeValue("/status", Arrays.asList(new ParamValue("ACL", "Anticardiolpin Antibodies"), new ParamValue("DUP", "Duplicate"))),
+				new StaticCodeValue("/reason", Arrays.asList(new ParamValue("DUP", "Duplicate Reason")))), 0);
+		index.refresh();
+
+		beanResolver = mock(BeanResolverStrategy.class);
+		when(beanResolver.find(CommandExecutorGateway.class)).thenReturn(gateway);
+		when(beanResolver.find(StaticCodeValueIndex.class)).thenReturn(index);
+	}
+
+	private String serializeWithinRootCommand(StaticCodeValueBasedCodeToLabelConverter testee, String code) {
+		Command rootCmd = CommandBuilder.withUri("/hooli/thebox/p/sample_view:1/_get").getCommand();
+		return ExecutionScope.detached().execute(() -> {
+			ExecutionScope.current().setRootCommand(rootCmd);
+			return testee.serialize(code);
+		});
+	}
+
+	@Test
+	public void testLabelFromIndex() {
+		StaticCodeValueBasedCodeToLabelConverter testee = new StaticCodeValueBasedCodeToLabelConverter(beanResolver);
+
+		assertEquals("Anticardiolpin Antibodies", serializeWithinRootCommand(testee, "ACL"));
+		verify(gateway, never()).execute(any(CommandMessage.class));
+	}
+
+	@Test
+	public void testSearchedOnIndexMiss() {
+		MultiOutput mOut = mock(MultiOutput.class);
+		when(mOut.getSingleResult()).thenReturn(Arrays.asList(new ParamValue("dup", "Duplicate Reason")));
+		when(gateway.execute(any(CommandMessage.class))).thenReturn(mOut);
+
+		// held by more than one record, hence not indexed
+		StaticCodeValueBasedCodeToLabelConverter testee = new StaticCodeValueBasedCodeToLabelConverter(beanResolver);
+		assertEquals("Duplicate Reason", serializeWithinRootCommand(testee, "DUP"));
+
+		ArgumentCaptor<CommandMessage> cmdMsg = ArgumentCaptor.forClass(CommandMessage.class);
+		verify(gateway).execute(cmdMsg.capture());
+		Command search = cmdMsg.getValue().getCommand();
+		assertTrue(search.getAbsoluteUri().startsWith("/hooli/thebox/p/staticCodeValue/_search"));
+		assertEquals("staticCodeValue.paramValues.any().code.eq('DUP')", search.getFirstParameterValue("where"));
+	}
+
+	@Test
+	public void testSearchedWithoutIndex() {
+		MultiOutput mOut = mock(MultiOutput.class);
+		when(mOut.getSingleResult()).thenReturn(Collections.emptyList());
+		when(gateway.execute(any(CommandMessage.class))).thenReturn(mOut);
+		when(beanResolver.find(StaticCodeValueIndex.class)).thenReturn(null);
+
+		StaticCodeValueBasedCodeToLabelConverter testee = new StaticCodeValueBasedCodeToLabelConverter(beanResolver);
+		assertEquals("ACL", serializeWithinRootCommand(testee, "ACL"));
+		verify(gateway).execute(any(CommandMessage.class));
+	}
+
+	@Test
+	public void testCodeReturnedOutsideRootCommand() {
+		StaticCodeValueBasedCodeToLabelConverter testee = new StaticCodeValueBasedCodeToLabelConverter(beanResolver);
+
+		assertEquals("DUP", ExecutionScope.detached().execute(() -> testee.serialize("DUP")));
+		verify(gateway, never()).execute(any(CommandMessage.class));
+	}
+}
@@ -0,0 +1,190 @@
+/**
+ *  Copyright 2016-2018 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.internal;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.antheminc.oss.nimbus.domain.cmd.Action;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.InvalidStateException;
+import com.antheminc.oss.nimbus.domain.model.state.ParamEvent;
+import com.antheminc.oss.nimbus.domain.model.state.StateEventDelegator;
+
+public class DefaultExecutionRuntimeTest {
+
+	private final DefaultExecutionRuntime testee = new DefaultExecutionRuntime(null, null);
+
+	private final ExecutorService otherThread = Executors.newSingleThreadExecutor();
+
+	@After
+	public void after() {
+		otherThread.shutdownNow();
+	}
+
+	private boolean tryAcquireOnOtherThread(boolean readOnly) throws Exception {
+		return otherThread.submit(() -> {
+			boolean admitted = testee.tryAcquireExecution(readOnly, 50);
+			if(admitted)
+				testee.releaseExecution(readOnly);
+			return admitted;
+		}).get();
+	}
+
+	@Test
+	public void testReadOnlyAdmittedConcurrently() throws Exception {
+		Assert.assertTrue(testee.tryAcquireExecution(true, 0));
+		try {
+			Assert.assertTrue(tryAcquireOnOtherThread(true));
+			Assert.assertFalse(tryAcquireOnOtherThread(false));
+		} finally {
+			testee.releaseExecution(true);
+		}
+		Assert.assertTrue(tryAcquireOnOtherThread(false));
+	}
+
+	@Test
+	public void testExclusiveAdmitsNested() throws Exception {
+		Assert.assertTrue(testee.tryAcquireExecution(false, 0));
+		try {
+			Assert.assertFalse(tryAcquireOnOtherThread(true));
+
+			Assert.assertTrue(testee.tryAcquireExecution(true, 0));
+			testee.releaseExecution(true);
+
+			Assert.assertTrue(testee.tryAcquireExecution(false, 0));
+			testee.releaseExecution(false);
+		} finally {
+			testee.releaseExecution(false);
+		}
+		Assert.assertTrue(tryAcquireOnOtherThread(true));
+	}
+
+	@Test(expected=InvalidStateException.class)
+	public void testExclusiveNestedInReadOnlyRejected() throws Exception {
+		Assert.assertTrue(testee.tryAcquireExecution(true, 0));
+		try {
+			testee.tryAcquireExecution(false, 0);
+		} finally {
+			testee.releaseExecution(true);
+		}
+	}
+
+	@Test
+	public void testExclusiveAwaitsHeldOutputs() throws Exception {
+		Assert.assertTrue(testee.tryAcquireExecution(false, 0));
+		Runnable first = testee.holdOutput();
+		testee.releaseExecution(false);
+		Runnable second = otherThread.submit(testee::holdOutput).get();
+
+		Assert.assertTrue(tryAcquireOnOtherThread(true));
+		Assert.assertFalse(tryAcquireOnOtherThread(false));
+
+		first.run();
+		first.run();
+		Assert.assertFalse(tryAcquireOnOtherThread(false));
+
+		second.run();
+		Assert.assertTrue(tryAcquireOnOtherThread(false));
+	}
+
+	@Test
+	public void testScopeReleasesItsHeldOutputs() throws Exception {
+		ExecutionScope scope = ExecutionScope.detached();
+		scope.startHoldingOutputs();
+		scope.holdOutput(testee);
+		scope.holdOutput(testee);
+		Assert.assertFalse(tryAcquireOnOtherThread(false));
+
+		scope.releaseOutput(testee);
+		Assert.assertTrue(tryAcquireOnOtherThread(false));
+
+		scope.holdOutput(testee);
+		Runnable release = scope.stopHoldingOutputs();
+		Assert.assertFalse(tryAcquireOnOtherThread(false));
+
+		release.run();
+		Assert.assertTrue(tryAcquireOnOtherThread(false));
+	}
+
+	@Test
+	public void testMemoizedStatesDiscardedOnChangeOfTheirDomainOnly() {
+		DefaultExecutionRuntime runtime = new DefaultExecutionRuntime(null, mock(StateEventDelegator.class));
+		String detachedKey = "/hooli/thebox/p/sample_core/_search?fn=example";
+		String valuesKey = "@Values:/hooli/thebox/p/staticCodeValue/_search?fn=lookup&where=staticCodeValue.paramCode.eq('/status')";
+
+		ExecutionScope.detached().execute(() -> {
+			runtime.getTxnContext().startMemoization();
+			Map<String, Object> memoizedStates = runtime.getTxnContext().getMemoizedStates();
+			memoizedStates.put(detachedKey, "detached");
+			memoizedStates.put(valuesKey, "values");
+
+			runtime.emitEvent(new ParamEvent(Action._update, changedParam("sample_view", "sample_unrelated")));
+			Assert.assertEquals(2, memoizedStates.size());
+
+			runtime.emitEvent(new ParamEvent(Action._update, changedParam("sample_view", "sample_core")));
+			Assert.assertEquals(1, memoizedStates.size());
+			Assert.assertTrue(memoizedStates.containsKey(valuesKey));
+			return null;
+		});
+	}
+
+	@Test
+	public void testMemoizedStatesDiscardedOnChangeWithinDetachedScope() throws Exception {
+		DefaultExecutionRuntime runtime = new DefaultExecutionRuntime(null, mock(StateEventDelegator.class));
+		String searchKey = "/hooli/thebox/p/sample_core/_search?fn=example";
+
+		ExecutionScope outer = ExecutionScope.detached();
+		outer.execute(() -> {
+			outer.setRootCommandId("root");
+			runtime.getTxnContext().startMemoization();
+			runtime.findMemoizedStates().put(searchKey, "stale");
+
+			// config of another domain updating the domain searched by the outer root command
+			outer.detach().execute(() -> {
+				runtime.emitEvent(new ParamEvent(Action._update, changedParam("sample_view", "sample_core")));
+				return null;
+			});
+			Assert.assertFalse(runtime.findMemoizedStates().containsKey(searchKey));
+
+			// member of a parallel config group, on another thread
+			runtime.findMemoizedStates().put(searchKey, "stale");
+			otherThread.submit(ExecutionScope.detachedWithCallerContext(() -> {
+				runtime.emitEvent(new ParamEvent(Action._update, changedParam("sample_view", "sample_core")));
+				return null;
+			})).get();
+			Assert.assertFalse(runtime.findMemoizedStates().containsKey(searchKey));
+			return null;
+		});
+	}
+
+	private Param<?> changedParam(String alias, String mapsToAlias) {
+		Param<?> param = mock(Param.class, RETURNS_DEEP_STUBS);
+		when(param.getRootDomain().getConfig().getAlias()).thenReturn(alias);
+		when(param.getRootDomain().getConfig().isMapped()).thenReturn(true);
+		when(param.getRootDomain().getConfig().findIfMapped().getMapsToConfig().getAlias()).thenReturn(mapsToAlias);
+		return param;
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ *  Copyright 2016-2018 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExecutionScopeTest {
+
+	@Test
+	public void testExecuteRestoresPrevious() {
+		ExecutionScope outer = ExecutionScope.current();
+		ExecutionScope inner = ExecutionScope.detached();
+
+		Assert.assertNotSame(outer, inner);
+		Assert.assertSame(inner, inner.execute(ExecutionScope::current));
+		Assert.assertSame(outer, ExecutionScope.current());
+	}
+
+	@Test
+	public void testDetachedIsolatedFromRootCommand() {
+		ExecutionScope scope = ExecutionScope.current();
+		scope.setRootCommandId("root");
+		try {
+			Assert.assertFalse(ExecutionScope.detached().execute(() -> ExecutionScope.current().isRootCommandInProgress()));
+			Assert.assertTrue(ExecutionScope.current().isRootCommandInProgress());
+		} finally {
+			scope.setRootCommandId(null);
+		}
+	}
+
+	@Test
+	public void testCapturedBoundOnOtherThread() throws Exception {
+		ExecutionScope captured = ExecutionScope.capture();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Assert.assertSame(captured, executor.submit(captured.bind(ExecutionScope::current)).get());
+			Assert.assertNotSame(captured, executor.submit(ExecutionScope::current).get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testModelIdsCarriedToDetachedOnOtherThread() throws Exception {
+		ExecutionScope outer = ExecutionScope.detached();
+		outer.getAdmittedModelIds().add("model:1");
+		outer.setAwaitingModelIds(Collections.singleton("model:2"));
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			ExecutionScope inner = executor.submit(outer.detach().bind(ExecutionScope::current)).get();
+			Assert.assertEquals(Arrays.asList("model:1"), inner.getAdmittedModelIds());
+			Assert.assertEquals(Collections.singleton("model:2"), inner.getAwaitingModelIds());
+
+			Assert.assertTrue(executor.submit(ExecutionScope::current).get().getAdmittedModelIds().isEmpty());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandPathVariableResolver;
+import com.antheminc.oss.nimbus.domain.defn.Repo.Cache;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+
+public class DefaultParamStateRepositoryDetachedTest {
+
+	private static final String URI = "/hooli/thebox/p/sample_core/_search?fn=example";
+
+	private DefaultParamStateRepositoryDetached testee;
+
+	private AtomicInteger executions;
+
+	@Before
+	public void before() {
+		CommandPathVariableResolver pathVariableResolver = mock(CommandPathVariableResolver.class);
+		when(pathVariableResolver.resolve(any(), anyString())).thenAnswer(inv -> inv.getArgument(1));
+
+		BeanResolverStrategy beanResolver = mock(BeanResolverStrategy.class);
+		when(beanResolver.get(CommandPathVariableResolver.class)).thenReturn(pathVariableResolver);
+
+		executions = new AtomicInteger();
+		testee = new DefaultParamStateRepositoryDetached(beanResolver) {
+			@SuppressWarnings("unchecked")
+			@Override
+			protected <P> P execute(String resolvedUri) {
+				executions.incrementAndGet();
+				return (P)new ArrayList<>(Arrays.asList(resolvedUri));
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private Param<List<String>> detachedParam(String uri, Cache cacheState, Map<String, Object> memoizedStates) {
+		Param<List<String>> param = mock(Param.class, RETURNS_DEEP_STUBS);
+		when(param.getConfig().findIfMapped().getPath().value()).thenReturn(uri);
+		when(param.getConfig().findIfMapped().getPath().detachedState().cacheState()).thenReturn(cacheState);
+		when(param.getRootExecution().getRootCommand().getRelativeUri(anyString())).thenAnswer(inv -> inv.getArgument(0));
+		when(param.getRootExecution().getExecutionRuntime().findMemoizedStates()).thenReturn(memoizedStates);
+		return param;
+	}
+
+	@Test
+	public void testMemoizedPerResolvedUri() {
+		Map<String, Object> memoizedStates = new HashMap<>();
+
+		List<String> first = testee._get(detachedParam(URI, Cache.rep_none, memoizedStates));
+		List<String> second = testee._get(detachedParam(URI, Cache.rep_none, memoizedStates));
+		assertEquals(1, executions.get());
+		assertEquals(first, second);
+
+		testee._get(detachedParam(URI + "&where=x", Cache.rep_none, memoizedStates));
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	public void testMemoizedStateCopiedPerRead() {
+		Map<String, Object> memoizedStates = new HashMap<>();
+
+		List<String> first = testee._get(detachedParam(URI, Cache.rep_none, memoizedStates));
+		first.add("mutated");
+
+		List<String> second = testee._get(detachedParam(URI, Cache.rep_none, memoizedStates));
+		assertNotSame(first, second);
+		assertEquals(Arrays.asList(URI), second);
+		assertEquals(Arrays.asList(URI), memoizedStates.get(URI));
+	}
+
+	@Test
+	public void testNotMemoizedOutsideRootCommand() {
+		testee._get(detachedParam(URI, Cache.rep_none, null));
+		testee._get(detachedParam(URI, Cache.rep_none, null));
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	public void testAppCacheSharedAcrossExecutions() {
+		List<String> first = testee._get(detachedParam(URI, Cache.rep_app_detached, new HashMap<>()));
+		List<String> second = testee._get(detachedParam(URI, Cache.rep_app_detached, new HashMap<>()));
+		assertEquals(1, executions.get());
+		assertEquals(first, second);
+		assertNotSame(first, second);
+
+		// the entity repository cache tier of a domain does not apply to detached params
+		testee._get(detachedParam(URI, Cache.rep_app, new HashMap<>()));
+		assertEquals(2, executions.get());
+	}
+}
@@ -0,0 +1,111 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+
+import com.antheminc.oss.nimbus.domain.cmd.RefId;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.QuerySearchCriteria;
+
+public class ModelRepositoryCacheTest {
+
+	private ModelRepositoryCache testee;
+
+	private AtomicInteger loads;
+
+	@Before
+	public void before() {
+		testee = new ModelRepositoryCache(60000, 100, true);
+		loads = new AtomicInteger();
+	}
+
+	private ArrayList<String> load(String... values) {
+		loads.incrementAndGet();
+		return new ArrayList<>(Arrays.asList(values));
+	}
+
+	private QuerySearchCriteria criteria(String where) {
+		QuerySearchCriteria criteria = new QuerySearchCriteria();
+		criteria.setWhere(where);
+		return criteria;
+	}
+
+	@Test
+	public void testEntityReadThroughReturnsCopies() {
+		ArrayList<String> first = testee.getEntity("plan", RefId.with(1L), () -> load("a"));
+		ArrayList<String> second = testee.getEntity("plan", RefId.with(1L), () -> load("a"));
+
+		assertEquals(1, loads.get());
+		assertEquals(first, second);
+		assertNotSame(first, second);
+
+		testee.getEntity("plan", RefId.with(2L), () -> load("b"));
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void testEvictByAlias() {
+		testee.getEntity("plan", RefId.with(1L), () -> load("a"));
+		testee.getEntity("provider", RefId.with(1L), () -> load("a"));
+		testee.getSearchResult("plan", criteria("plan.code.eq('x')"), () -> load("a"));
+		assertEquals(3, loads.get());
+
+		testee.evict("plan");
+
+		testee.getEntity("plan", RefId.with(1L), () -> load("a"));
+		testee.getEntity("provider", RefId.with(1L), () -> load("a"));
+		testee.getSearchResult("plan", criteria("plan.code.eq('x')"), () -> load("a"));
+		assertEquals(5, loads.get());
+	}
+
+	@Test
+	public void testSearchCaching() {
+		testee.getSearchResult("plan", criteria("plan.code.eq('x')"), () -> load("a"));
+		testee.getSearchResult("plan", criteria(" plan.code.eq('x') "), () -> load("a"));
+		assertEquals(1, loads.get());
+
+		QuerySearchCriteria paged = criteria("plan.code.eq('x')");
+		paged.setPageRequest(PageRequest.of(0, 10));
+		testee.getSearchResult("plan", paged, () -> load("a"));
+		testee.getSearchResult("plan", paged, () -> load("a"));
+		assertEquals(3, loads.get());
+
+		ModelRepositoryCache searchDisabled = new ModelRepositoryCache();
+		searchDisabled.getSearchResult("plan", criteria("plan.code.eq('x')"), () -> load("a"));
+		searchDisabled.getSearchResult("plan", criteria("plan.code.eq('x')"), () -> load("a"));
+		assertEquals(5, loads.get());
+	}
+
+	@Test
+	public void testLoadRacingWithEvictIsNotCached() {
+		testee.getEntity("plan", RefId.with(1L), () -> {
+			testee.evict("plan");
+			return load("stale");
+		});
+
+		testee.getEntity("plan", RefId.with(1L), () -> load("fresh"));
+		assertEquals(2, loads.get());
+	}
+}
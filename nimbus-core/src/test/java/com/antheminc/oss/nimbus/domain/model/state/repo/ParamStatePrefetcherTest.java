@@ -0,0 +1,158 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandPathVariableResolver;
+import com.antheminc.oss.nimbus.domain.defn.Model.Param.Values;
+import com.antheminc.oss.nimbus.domain.defn.Model.Param.Values.EMPTY;
+import com.antheminc.oss.nimbus.domain.model.config.ParamValue;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.ExecutionModel;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.StateEventDelegator;
+import com.antheminc.oss.nimbus.domain.model.state.extension.DefaultParamValuesHandler;
+import com.antheminc.oss.nimbus.domain.model.state.extension.ParamValuesOnLoadHandler;
+import com.antheminc.oss.nimbus.domain.model.state.internal.DefaultExecutionRuntime;
+import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionScope;
+
+public class ParamStatePrefetcherTest {
+
+	private static final String URI_A = "/hooli/thebox/p/lookup_a/_search?fn=query";
+	private static final String URI_B = "/hooli/thebox/p/lookup_b/_search?fn=query";
+
+	private ThreadPoolTaskExecutor executor;
+
+	private ParamStatePrefetcher testee;
+
+	private DefaultParamValuesHandler valuesHandler;
+
+	private DefaultExecutionRuntime runtime;
+
+	private final AtomicInteger executions = new AtomicInteger();
+
+	private final Set<String> executingThreads = new HashSet<>();
+
+	/* each load waits for the other one to start: loaded one after another, both would time out */
+	private final CountDownLatch loadsStarted = new CountDownLatch(2);
+
+	@Before
+	public void before() {
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(2);
+		executor.setMaxPoolSize(2);
+		executor.setQueueCapacity(2);
+		executor.initialize();
+
+		CommandPathVariableResolver pathVariableResolver = mock(CommandPathVariableResolver.class);
+		when(pathVariableResolver.resolve(any(), anyString())).thenAnswer(inv -> inv.getArgument(1));
+
+		BeanResolverStrategy beanResolver = mock(BeanResolverStrategy.class);
+		when(beanResolver.get(CommandPathVariableResolver.class)).thenReturn(pathVariableResolver);
+
+		valuesHandler = new DefaultParamValuesHandler(beanResolver) {
+			@Override
+			protected List<ParamValue> execute(Command cmd) {
+				executions.incrementAndGet();
+				synchronized(executingThreads) {
+					executingThreads.add(Thread.currentThread().getName());
+				}
+				loadsStarted.countDown();
+				try {
+					assertTrue("loads were not executed in parallel", loadsStarted.await(5, TimeUnit.SECONDS));
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				return new ArrayList<>(Arrays.asList(new ParamValue(cmd.getRootDomainAlias(), cmd.getRootDomainAlias())));
+			}
+		};
+		when(beanResolver.find(ParamValuesOnLoadHandler.class)).thenReturn(valuesHandler);
+
+		testee = new ParamStatePrefetcher(beanResolver, executor);
+		runtime = new DefaultExecutionRuntime(null, mock(StateEventDelegator.class));
+	}
+
+	@After
+	public void after() {
+		executor.shutdown();
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Param<?> valuesParam(String url) {
+		Values values = mock(Values.class);
+		when(values.value()).thenReturn((Class)EMPTY.class);
+		when(values.url()).thenReturn(url);
+
+		Param<?> param = mock(Param.class, RETURNS_DEEP_STUBS);
+		when(param.getConfig().getValues()).thenReturn(values);
+		when(param.getConfig().isMapped()).thenReturn(false);
+		when(param.isNested()).thenReturn(false);
+		when(param.getRootExecution().getRootCommand().getRelativeUri(anyString())).thenAnswer(inv -> inv.getArgument(0));
+		when(param.getRootExecution().getExecutionRuntime()).thenReturn(runtime);
+		return param;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testLoadsInParallelAndPrefetchedValuesUsed() {
+		Param<?> a = valuesParam(URI_A);
+		Param<?> b = valuesParam(URI_B);
+
+		ExecutionModel rootModel = mock(ExecutionModel.class);
+		when(rootModel.isStateInitialized()).thenReturn(false);
+		when(rootModel.getExecutionRuntime()).thenReturn(runtime);
+		when(rootModel.getParams()).thenReturn(Arrays.asList(a, b));
+		runtime.setRootExecution(rootModel);
+
+		ExecutionScope.detached().execute(() -> {
+			testee.prefetch(rootModel);
+
+			assertEquals(2, executions.get());
+			assertEquals(2, executingThreads.size());
+			assertEquals(2, runtime.getPrefetchedStates().size());
+
+			// read while the root model is initialized
+			List<ParamValue> valuesA = valuesHandler.buildParamValues(a.getConfig().getValues(), a, a);
+			List<ParamValue> valuesB = valuesHandler.buildParamValues(b.getConfig().getValues(), b, b);
+			assertEquals("lookup_a", valuesA.get(0).getCode());
+			assertEquals("lookup_b", valuesB.get(0).getCode());
+			assertEquals(2, executions.get());
+			return null;
+		});
+	}
+}
@@ -0,0 +1,124 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.antheminc.oss.nimbus.domain.model.config.ParamValue;
+import com.antheminc.oss.nimbus.entity.StaticCodeValue;
+
+public class StaticCodeValueIndexTest {
+
+	private StaticCodeValueIndex testee;
+
+	private List<StaticCodeValue> records = new ArrayList<>();
+
+	@After
+	public void after() {
+		if(testee != null)
+			testee.shutdown();
+	}
+
+	private void add(String paramCode, ParamValue... values) {
+		records.add(new StaticCodeValue(paramCode, new ArrayList<>(Arrays.asList(values))));
+	}
+
+	@Test
+	public void testLookups() {
+		add("/status", new ParamValue("A", "Active"), new ParamValue("I", "Inactive"));
+		add("/state", new ParamValue("VA", "Virginia"));
+		testee = new StaticCodeValueIndex(() -> records, 0);
+		testee.start();
+
+		List<ParamValue> values = testee.findParamValues("/status");
+		assertEquals(2, values.size());
+		assertEquals("Active", values.get(0).getLabel());
+		assertNotSame(values, testee.findParamValues("/status"));
+		assertNull(testee.findParamValues("/missing"));
+
+		assertEquals("Virginia", testee.findLabel("VA").get());
+		assertFalse(testee.findLabel("XX").isPresent());
+	}
+
+	@Test
+	public void testAmbiguousEntriesAreNotIndexed() {
+		add("/status", new ParamValue("A", "Active"));
+		add("/status", new ParamValue("B", "Blocked"));
+		add("/other", new ParamValue("A", "Approved"));
+		testee = new StaticCodeValueIndex(() -> records, 0);
+		testee.start();
+
+		assertNull(testee.findParamValues("/status"));
+		assertEquals(1, testee.findParamValues("/other").size());
+		assertFalse(testee.findLabel("A").isPresent());
+		assertEquals("Blocked", testee.findLabel("B").get());
+	}
+
+	@Test
+	public void testStaleUntilRefreshed() throws Exception {
+		add("/status", new ParamValue("A", "Active"));
+		List<StaticCodeValue> updated = new ArrayList<>();
+		updated.add(new StaticCodeValue("/status", new ArrayList<>(Arrays.asList(new ParamValue("A", "Archived")))));
+
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch reloadReleased = new CountDownLatch(1);
+		CountDownLatch reloaded = new CountDownLatch(1);
+		testee = new StaticCodeValueIndex(() -> {
+			if(loads.incrementAndGet() == 1)
+				return records;
+
+			try {
+				reloadReleased.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return updated;
+		}, 0) {
+			@Override
+			public void refresh() {
+				super.refresh();
+				if(loads.get() > 1)
+					reloaded.countDown();
+			}
+		};
+		testee.start();
+		assertEquals("Active", testee.findLabel("A").get());
+
+		testee.requestRefresh();
+		assertFalse(testee.findLabel("A").isPresent());
+		assertNull(testee.findParamValues("/status"));
+
+		reloadReleased.countDown();
+		assertTrue(reloaded.await(5, TimeUnit.SECONDS));
+
+		assertEquals("Archived", testee.findLabel("A").get());
+		assertEquals(2, loads.get());
+	}
+}
@@ -0,0 +1,186 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.repo.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+
+import com.antheminc.oss.nimbus.domain.model.state.internal.AbstractListPaginatedParam.PageWrapper.PageRequestAndRespone;
+import com.antheminc.oss.nimbus.domain.model.state.internal.AbstractListPaginatedParam.PageWrapper.TotalSupplier;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.ExampleSearchCriteria;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.QuerySearchCriteria;
+import com.antheminc.oss.nimbus.domain.model.state.repo.db.SearchCriteria.TotalCountStrategy;
+
+public class PageTotalCountProviderTest {
+
+	private PageTotalCountProvider testee;
+
+	private AtomicInteger countQueries;
+
+	private Supplier<Long> exactCount;
+
+	@Before
+	public void before() {
+		testee = new PageTotalCountProvider();
+		countQueries = new AtomicInteger();
+		exactCount = () -> {
+			countQueries.incrementAndGet();
+			return 42L;
+		};
+	}
+
+	private QuerySearchCriteria criteria(TotalCountStrategy strategy, String where, int page, int pageSize) {
+		QuerySearchCriteria criteria = new QuerySearchCriteria();
+		criteria.setWhere(where);
+		criteria.setPageRequest(PageRequest.of(page, pageSize));
+		criteria.setTotalCountStrategy(strategy);
+		return criteria;
+	}
+
+	@Test
+	public void testExact() {
+		QuerySearchCriteria criteria = criteria(TotalCountStrategy.EXACT, "a.b.eq(1)", 0, 2);
+		assertEquals(2, testee.getFetchSize(criteria));
+
+		PageRequestAndRespone<String> page = testee.toPage("alias", criteria, Arrays.asList("1", "2"), exactCount, null);
+		assertEquals(Long.valueOf(42), page.getTotalSupplier().get());
+		assertEquals(Long.valueOf(42), page.getTotalSupplier().get());
+		assertEquals(1, countQueries.get());
+		assertFalse(((TotalSupplier)page.getTotalSupplier()).isApproximate());
+	}
+
+	@Test
+	public void testCachedByNormalizedCriteria() {
+		testee.toPage("alias", criteria(TotalCountStrategy.CACHED, "a.b.eq(1)", 0, 2), Arrays.asList("1", "2"), exactCount, null).getTotalSupplier().get();
+		testee.toPage("alias", criteria(TotalCountStrategy.CACHED, "a.b.eq(1)  ", 1, 2), Arrays.asList("3", "4"), exactCount, null).getTotalSupplier().get();
+		assertEquals(1, countQueries.get());
+
+		testee.toPage("alias", criteria(TotalCountStrategy.CACHED, "a.b.eq(2)", 0, 2), Arrays.asList("1", "2"), exactCount, null).getTotalSupplier().get();
+		assertEquals(2, countQueries.get());
+
+		testee.evict("alias");
+		testee.toPage("alias", criteria(TotalCountStrategy.CACHED, "a.b.eq(1)", 0, 2), Arrays.asList("1", "2"), exactCount, null).getTotalSupplier().get();
+		assertEquals(3, countQueries.get());
+	}
+
+	@Test
+	public void testEstimated() {
+		PageRequestAndRespone<String> page = testee.toPage("alias", criteria(TotalCountStrategy.ESTIMATED, null, 0, 2), Arrays.asList("1", "2"), exactCount, () -> 100L);
+		assertEquals(Long.valueOf(100), page.getTotalSupplier().get());
+		assertTrue(((TotalSupplier)page.getTotalSupplier()).isApproximate());
+		assertEquals(0, countQueries.get());
+	}
+
+	@Test
+	public void testEstimatedNotUsedForFilteredCriteria() {
+		PageRequestAndRespone<String> page = testee.toPage("alias", criteria(TotalCountStrategy.ESTIMATED, "a.b.eq(1)", 0, 2), Arrays.asList("1", "2"), exactCount, () -> 100L);
+		assertEquals(Long.valueOf(42), page.getTotalSupplier().get());
+		assertFalse(((TotalSupplier)page.getTotalSupplier()).isApproximate());
+		assertEquals(1, countQueries.get());
+	}
+
+	@Test
+	public void testCachedByExampleCriteria() {
+		Map<String, Object> example1 = new LinkedHashMap<>();
+		example1.put("a", 1);
+		example1.put("b", Arrays.asList("x", "y"));
+
+		Map<String, Object> example2 = new LinkedHashMap<>();
+		example2.put("b", Arrays.asList("x", "y"));
+		example2.put("a", 1);
+
+		testee.toPage("alias", exampleCriteria(example1), Arrays.asList("1", "2"), exactCount, null).getTotalSupplier().get();
+		testee.toPage("alias", exampleCriteria(example2), Arrays.asList("1", "2"), exactCount, null).getTotalSupplier().get();
+		assertEquals(1, countQueries.get());
+
+		example2.put("b", Arrays.asList("x", "z"));
+		testee.toPage("alias", exampleCriteria(example2), Arrays.asList("1", "2"), exactCount, null).getTotalSupplier().get();
+		assertEquals(2, countQueries.get());
+	}
+
+	private ExampleSearchCriteria<Map<String, Object>> exampleCriteria(Map<String, Object> example) {
+		ExampleSearchCriteria<Map<String, Object>> criteria = new ExampleSearchCriteria<>();
+		criteria.setWhere(example);
+		criteria.setPageRequest(PageRequest.of(0, 2));
+		criteria.setTotalCountStrategy(TotalCountStrategy.CACHED);
+		return criteria;
+	}
+
+	@Test
+	public void testCachedConcurrentLoadsCountOnce() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Supplier<Long> slowCount = () -> {
+			countQueries.incrementAndGet();
+			loading.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return 42L;
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Long> first = executor.submit(() -> testee.toPage("alias", criteria(TotalCountStrategy.CACHED, "a.b.eq(1)", 0, 2), Arrays.asList("1", "2"), slowCount, null).getTotalSupplier().get());
+			assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+			Future<Long> second = executor.submit(() -> testee.toPage("alias", criteria(TotalCountStrategy.CACHED, "a.b.eq(1)", 1, 2), Arrays.asList("3", "4"), slowCount, null).getTotalSupplier().get());
+			release.countDown();
+
+			assertEquals(Long.valueOf(42), first.get(5, TimeUnit.SECONDS));
+			assertEquals(Long.valueOf(42), second.get(5, TimeUnit.SECONDS));
+			assertEquals(1, countQueries.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testHasNext() {
+		QuerySearchCriteria criteria = criteria(TotalCountStrategy.HAS_NEXT, null, 1, 2);
+		assertEquals(3, testee.getFetchSize(criteria));
+
+		PageRequestAndRespone<String> page = testee.toPage("alias", criteria, Arrays.asList("3", "4", "5"), exactCount, null);
+		List<String> content = page.getContent();
+		assertEquals(Arrays.asList("3", "4"), content);
+		assertEquals(Long.valueOf(5), page.getTotalSupplier().get());
+		assertTrue(((TotalSupplier)page.getTotalSupplier()).isApproximate());
+
+		PageRequestAndRespone<String> lastPage = testee.toPage("alias", criteria, Arrays.asList("3"), exactCount, null);
+		assertEquals(Long.valueOf(3), lastPage.getTotalSupplier().get());
+		assertFalse(((TotalSupplier)lastPage.getTotalSupplier()).isApproximate());
+		assertEquals(0, countQueries.get());
+	}
+}
@@ -0,0 +1,50 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.session;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileExecutionContextStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSaveLoadRemove() throws Exception {
+		FileExecutionContextStore testee = new FileExecutionContextStore(folder.getRoot().getPath());
+
+		Assert.assertNull(testee.load("s1", "{/a/p/domain:1}"));
+		Assert.assertNull(testee.findVersion("s1", "{/a/p/domain:1}"));
+
+		testee.save("s1", "{/a/p/domain:1}", 1, new byte[] {1, 2});
+		testee.save("s1", "{/a/p/domain:1}", 2, new byte[] {3});
+		testee.save("s2", "{/a/p/domain:1}", 1, new byte[] {4});
+
+		Assert.assertArrayEquals(new byte[] {3}, testee.load("s1", "{/a/p/domain:1}").getState());
+		Assert.assertEquals(2, testee.load("s1", "{/a/p/domain:1}").getVersion());
+		Assert.assertEquals(Long.valueOf(2), testee.findVersion("s1", "{/a/p/domain:1}"));
+		Assert.assertArrayEquals(new byte[] {4}, testee.load("s2", "{/a/p/domain:1}").getState());
+		Assert.assertEquals(2, folder.getRoot().list().length);
+
+		testee.remove("s1", "{/a/p/domain:1}");
+		Assert.assertNull(testee.load("s1", "{/a/p/domain:1}"));
+		Assert.assertNull(testee.findVersion("s1", "{/a/p/domain:1}"));
+		Assert.assertArrayEquals(new byte[] {4}, testee.load("s2", "{/a/p/domain:1}").getState());
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.support.pojo;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.function.Consumer;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.ValueAccessor;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <p>Micro-benchmark of get, set and instantiate through {@link JavaBeanHandlerLambda} against
+ * {@link JavaBeanHandlerReflection}, reporting the average time per operation of each after warming both up.
+ *
+ * <p>Run on demand, e.g. {@code mvn test -Dtest=JavaBeanHandlerBenchmarkTest}, after removing the {@link Ignore}, on
+ * the JVM the application is deployed to before selecting {@code nimbus.pojo.beanHandler=lambda}.
+ */
+@Ignore("micro-benchmark, run on demand")
+public class JavaBeanHandlerBenchmarkTest {
+
+	private static final int WARMUP_ITERATIONS = 200_000;
+	private static final int MEASURED_ITERATIONS = 2_000_000;
+	
+	@Getter @Setter
+	public static class Bean {
+		private String name;
+		private int count;
+	}
+	
+	private final JavaBeanHandler reflection = new JavaBeanHandlerReflection();
+	private final JavaBeanHandler lambda = new JavaBeanHandlerLambda();
+	
+	private final ValueAccessor name = JavaBeanHandlerUtils.constructValueAccessor(Bean.class, "name");
+	private final ValueAccessor count = JavaBeanHandlerUtils.constructValueAccessor(Bean.class, "count");
+	
+	/* consumed results, to keep the measured operations from being eliminated */
+	private long sink;
+	
+	@Test
+	public void compareGet() {
+		Bean bean = new Bean();
+		bean.setName("a");
+		bean.setCount(1);
+		
+		compare("get", h -> {
+			String n = h.getValue(name, bean);
+			Integer c = h.getValue(count, bean);
+			sink += n.length() + c;
+		});
+	}
+	
+	@Test
+	public void compareSet() {
+		Bean bean = new Bean();
+		
+		compare("set", h -> {
+			h.setValue(name, bean, "a");
+			h.setValue(count, bean, 1);
+			sink += bean.getCount();
+		});
+	}
+	
+	@Test
+	public void compareInstantiate() {
+		compare("instantiate", h -> sink += h.instantiate(Bean.class).getCount() + 1);
+	}
+	
+	private void compare(String op, Consumer<JavaBeanHandler> operation) {
+		sink = 0;
+		run(reflection, operation, WARMUP_ITERATIONS);
+		run(lambda, operation, WARMUP_ITERATIONS);
+		
+		long reflectionNanos = run(reflection, operation, MEASURED_ITERATIONS);
+		long lambdaNanos = run(lambda, operation, MEASURED_ITERATIONS);
+		
+		System.out.println(String.format("%-12s reflection: %6.1f ns/op, lambda: %6.1f ns/op, speedup: %.2fx", op, 
+				(double)reflectionNanos / MEASURED_ITERATIONS, (double)lambdaNanos / MEASURED_ITERATIONS, (double)reflectionNanos / lambdaNanos));
+		
+		assertTrue(sink > 0);
+	}
+	
+	private long run(JavaBeanHandler handler, Consumer<JavaBeanHandler> operation, int iterations) {
+		long start = System.nanoTime();
+		for(int i = 0; i < iterations; i++)
+			operation.accept(handler);
+		return System.nanoTime() - start;
+	}
+}
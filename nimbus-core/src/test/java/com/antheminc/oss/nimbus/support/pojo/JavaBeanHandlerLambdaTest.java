@@ -0,0 +1,122 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.support.pojo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.antheminc.oss.nimbus.FrameworkRuntimeException;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.ValueAccessor;
+
+import lombok.Getter;
+import lombok.Setter;
+
+public class JavaBeanHandlerLambdaTest {
+
+	private final JavaBeanHandlerLambda testee = new JavaBeanHandlerLambda();
+
+	@Getter @Setter
+	public static class Bean {
+		private String name;
+		private int count;
+		private boolean active;
+	}
+
+	public static class FailingBean {
+		public String getName() {
+			throw new AssertionError("unreadable");
+		}
+		public void setName(String name) {
+			throw new StackOverflowError();
+		}
+	}
+
+	@Getter @Setter
+	static class HiddenBean {
+		private String name;
+	}
+
+	@Test
+	public void testReadWrite() {
+		Bean bean = testee.instantiate(Bean.class);
+		ValueAccessor name = JavaBeanHandlerUtils.constructValueAccessor(Bean.class, "name");
+		ValueAccessor count = JavaBeanHandlerUtils.constructValueAccessor(Bean.class, "count");
+		ValueAccessor active = JavaBeanHandlerUtils.constructValueAccessor(Bean.class, "active");
+
+		testee.setValue(name, bean, "a");
+		testee.setValue(count, bean, 2);
+		testee.setValue(active, bean, true);
+
+		assertEquals("a", testee.getValue(name, bean));
+		assertEquals(Integer.valueOf(2), testee.getValue(count, bean));
+		assertEquals(Boolean.TRUE, testee.getValue(active, bean));
+		assertNull(testee.getValue(name, null));
+	}
+
+	@Test
+	public void testBoundOncePerMethod() {
+		Bean bean = new Bean();
+		ValueAccessor first = JavaBeanHandlerUtils.constructValueAccessor(Bean.class, "name");
+		ValueAccessor second = JavaBeanHandlerUtils.constructValueAccessor(Bean.class, "name");
+
+		testee.getValue(first, bean);
+		testee.getValue(second, bean);
+
+		assertSame(first.getBoundReader(), second.getBoundReader());
+	}
+
+	@Test
+	public void testNotPublicFallsBackToReflection() {
+		HiddenBean bean = testee.instantiate(HiddenBean.class);
+		ValueAccessor name = JavaBeanHandlerUtils.constructValueAccessor(HiddenBean.class, "name");
+
+		testee.setValue(name, bean, "a");
+		assertEquals("a", testee.getValue(name, bean));
+	}
+
+	@Test
+	public void testFailureWrapped() {
+		ValueAccessor count = JavaBeanHandlerUtils.constructValueAccessor(Bean.class, "count");
+		try {
+			testee.setValue(count, new Bean(), null);
+		} catch (FrameworkRuntimeException ex) {
+			assertTrue(ex.getMessage().contains("setCount"));
+			return;
+		}
+		throw new AssertionError("Expected failure to write null to primitive");
+	}
+
+	@Test
+	public void testErrorWrapped() {
+		ValueAccessor name = JavaBeanHandlerUtils.constructValueAccessor(FailingBean.class, "name");
+		try {
+			testee.getValue(name, new FailingBean());
+			throw new IllegalStateException("Expected failure to read");
+		} catch (FrameworkRuntimeException ex) {
+			assertTrue(ex.getCause() instanceof AssertionError);
+		}
+		try {
+			testee.setValue(name, new FailingBean(), "a");
+			throw new IllegalStateException("Expected failure to write");
+		} catch (FrameworkRuntimeException ex) {
+			assertTrue(ex.getCause() instanceof StackOverflowError);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.test.scenarios.s0.core;
+
+import com.antheminc.oss.nimbus.domain.defn.Domain;
+import com.antheminc.oss.nimbus.domain.defn.Domain.ListenerType;
+import com.antheminc.oss.nimbus.domain.defn.Repo;
+import com.antheminc.oss.nimbus.domain.defn.Repo.Cache;
+import com.antheminc.oss.nimbus.domain.defn.Repo.Database;
+import com.antheminc.oss.nimbus.entity.AbstractEntity.IdLong;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Read by the sessions of all users alike, with the filter of each user served by {@link SampleSharedOverlay}.
+ */
+@Domain(value="sample_shared", includeListeners={ListenerType.persistence})
+@Repo(alias="sample_shared", value=Database.rep_mongodb, cache=Cache.rep_shared, overlay="sample_shared_overlay")
+@Getter @Setter
+public class SampleSharedEntity extends IdLong {
+
+	private static final long serialVersionUID = 1L;
+
+	private String title;
+	
+	private String description;
+}
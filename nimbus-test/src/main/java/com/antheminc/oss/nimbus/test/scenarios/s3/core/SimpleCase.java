@@ -20,6 +20,7 @@ import java.util.List;
 import com.antheminc.oss.nimbus.domain.defn.Domain;
 import com.antheminc.oss.nimbus.domain.defn.Domain.ListenerType;
 import com.antheminc.oss.nimbus.domain.defn.Model;
+import com.antheminc.oss.nimbus.domain.defn.Model.Param.ElemKey;
 import com.antheminc.oss.nimbus.domain.defn.Repo;
 import com.antheminc.oss.nimbus.domain.defn.Repo.Cache;
 import com.antheminc.oss.nimbus.domain.defn.Repo.Database;
@@ -59,4 +60,7 @@ public class SimpleCase extends AbstractEntity.IdLong {
 	private List<ServiceLine> serviceLines;
 	
 	private List<ServiceLine> serviceLinesConverted;
+	
+	@ElemKey("elemId")
+	private List<ServiceLine> keyedServiceLines;
 }
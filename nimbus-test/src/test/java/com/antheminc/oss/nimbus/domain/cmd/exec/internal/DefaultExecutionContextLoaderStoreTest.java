@@ -0,0 +1,169 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
+import com.antheminc.oss.nimbus.domain.AbstractFrameworkIngerationPersistableTests;
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
+import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContext;
+import com.antheminc.oss.nimbus.domain.model.state.ExecutionRuntime;
+import com.antheminc.oss.nimbus.domain.session.ExecutionContextStore;
+import com.antheminc.oss.nimbus.domain.session.InMemoryExecutionContextStore;
+import com.antheminc.oss.nimbus.domain.session.SessionProvider;
+import com.antheminc.oss.nimbus.test.domain.session.TestSessionProvider;
+
+/**
+ * <p>Two loaders, each with a session of its own, stand for two nodes serving the same session and sharing a store.
+ */
+public class DefaultExecutionContextLoaderStoreTest extends AbstractFrameworkIngerationPersistableTests {
+
+	@Autowired BeanResolverStrategy beanResolver;
+	
+	private InMemoryExecutionContextStore store;
+	
+	private DefaultExecutionContextLoader nodeA;
+	
+	private DefaultExecutionContextLoader nodeB;
+	
+	private Command getCmd;
+	
+	@Before
+	public void createEntity() {
+		store = new InMemoryExecutionContextStore();
+		nodeA = node();
+		nodeB = node();
+		
+		ExecutionContext created = nodeA.load(CommandBuilder.withUri(CORE_PARAM_ROOT + "/_new").getCommand());
+		Long id = created.getRootModel().findStateByPath("/sample_core/id");
+		getCmd = CommandBuilder.withUri(CORE_PARAM_ROOT + ":" + id + "/_get").getCommand();
+	}
+	
+	@Test
+	public void t01_storeRestore() {
+		ExecutionContext eA = nodeA.load(getCmd);
+		execute(eA, () -> {
+			eA.getRootModel().findParamByPath("/sample_core/attr_String").setState("fromA");
+			eA.getRootModel().findParamByPath("/sample_core/for_set_param_context").setVisible(true);
+		});
+		assertEquals(0, store.size());
+		
+		nodeA.onRootCommandExecuted(eA).run();
+		assertEquals(1, store.size());
+		
+		ExecutionContext eB = nodeB.load(getCmd);
+		assertNotSame(eA.getQuadModel(), eB.getQuadModel());
+		assertEquals("fromA", eB.getRootModel().findStateByPath("/sample_core/attr_String"));
+		assertTrue(eB.getRootModel().findParamByPath("/sample_core/for_set_param_context").isVisible());
+		assertFalse(eB.getRootModel().findParamByPath("/sample_core/for_set_param_context").isEnabled());
+		
+		// restored into the session of node B
+		assertSame(eB.getQuadModel(), nodeB.load(getCmd).getQuadModel());
+	}
+	
+	@Test
+	public void t02_storedSinceByOtherNode() {
+		ExecutionContext eA = nodeA.load(getCmd);
+		execute(eA, () -> eA.getRootModel().findParamByPath("/sample_core/attr_String").setState("fromA"));
+		nodeA.onRootCommandExecuted(eA).run();
+		
+		ExecutionContext eB = nodeB.load(getCmd);
+		execute(eB, () -> eB.getRootModel().findParamByPath("/sample_core/attr_String").setState("fromB"));
+		nodeB.onRootCommandExecuted(eB).run();
+		
+		// node A restores the state stored by node B, rather than serving its own stale model
+		ExecutionContext eA2 = nodeA.load(getCmd);
+		assertNotSame(eA.getQuadModel(), eA2.getQuadModel());
+		assertEquals("fromB", eA2.getRootModel().findStateByPath("/sample_core/attr_String"));
+		
+		// and serves it from its session until stored by another node again
+		assertSame(eA2.getQuadModel(), nodeA.load(getCmd).getQuadModel());
+	}
+	
+	@Test
+	public void t03_writesOutOfOrderKeepLatest() {
+		ExecutionContext eA = nodeA.load(getCmd);
+		execute(eA, () -> eA.getRootModel().findParamByPath("/sample_core/attr_String").setState("first"));
+		Runnable first = nodeA.onRootCommandExecuted(eA);
+		
+		execute(eA, () -> eA.getRootModel().findParamByPath("/sample_core/attr_String").setState("second"));
+		Runnable second = nodeA.onRootCommandExecuted(eA);
+		
+		second.run();
+		long version = store.findVersion("test-session", "{" + eA.getId() + "}");
+		first.run();
+		assertEquals(version, store.findVersion("test-session", "{" + eA.getId() + "}").longValue());
+		
+		assertEquals("second", nodeB.load(getCmd).getRootModel().findStateByPath("/sample_core/attr_String"));
+	}
+	
+	@Test
+	public void t04_storeFailureNotPropagated() {
+		ExecutionContext eA = nodeA.load(getCmd);
+		store = null;
+		
+		Runnable write = nodeA.onRootCommandExecuted(eA);
+		assertNotNull(write);
+		write.run();
+	}
+	
+	private DefaultExecutionContextLoader node() {
+		SessionProvider session = new TestSessionProvider();
+		return new DefaultExecutionContextLoader(beanResolver) {
+			@Override
+			protected SessionProvider getSessionProvider() {
+				return session;
+			}
+			
+			@Override
+			protected Optional<ExecutionContextStore> findStore() {
+				return Optional.of(store == null ? failingStore() : store);
+			}
+		};
+	}
+	
+	private ExecutionContextStore failingStore() {
+		return new InMemoryExecutionContextStore() {
+			@Override
+			public void save(String sessionId, String key, long version, byte[] state) {
+				throw new IllegalStateException("store unavailable");
+			}
+		};
+	}
+	
+	private void execute(ExecutionContext eCtx, Runnable change) {
+		ExecutionRuntime runtime = eCtx.getRootModel().getExecutionRuntime();
+		runtime.onStartCommandExecution(getCmd);
+		try {
+			change.run();
+		} finally {
+			runtime.onStopCommandExecution(getCmd);
+		}
+	}
+}
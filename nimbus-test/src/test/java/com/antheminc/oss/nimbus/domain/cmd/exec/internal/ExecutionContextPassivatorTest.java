@@ -0,0 +1,221 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
+import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContext;
+import com.antheminc.oss.nimbus.domain.cmd.exec.PassivatedQuadModel;
+import com.antheminc.oss.nimbus.domain.model.config.ParamValue;
+import com.antheminc.oss.nimbus.domain.model.state.AbstractStateEventHandlerTests;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.ExecutionModel;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param.LabelState;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param.Message;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param.StyleState;
+import com.antheminc.oss.nimbus.domain.model.state.ExecutionRuntime;
+import com.antheminc.oss.nimbus.domain.model.state.QuadModel;
+
+public class ExecutionContextPassivatorTest extends AbstractStateEventHandlerTests {
+
+	@Autowired BeanResolverStrategy beanResolver;
+	
+	@Autowired QuadModelStateCodec codec;
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private ExecutionContextPassivator testee;
+	
+	@Override
+	protected Command createCommand() {
+		return CommandBuilder.withUri("/hooli/thebox/p/sample_core/_new").getCommand();
+	}
+	
+	@After
+	public void shutdown() {
+		if(testee != null)
+			testee.shutdown();
+	}
+	
+	@Test
+	public void t01_activateRestoresUiState() {
+		testee = new ExecutionContextPassivator(codec, 0, TimeUnit.HOURS.toMillis(1), null);
+		ExecutionContext sessionCtx = sessionCtx();
+		
+		ExecutionModel<?> rootModel = _q.getRoot();
+		rootModel.findParamByPath("/sample_core/attr_visible_trigger").setState("Y");
+		rootModel.findParamByPath("/sample_core/attr_enable_trigger").setState("Y");
+		
+		// deviates from the param context configured, which initializing the rebuilt model would apply again
+		Param<?> pContext = rootModel.findParamByPath("/sample_core/for_set_param_context");
+		assertFalse(pContext.isVisible());
+		pContext.setVisible(true);
+		pContext.setEnabled(true);
+		
+		Param<?> pString = rootModel.findParamByPath("/sample_core/attr_String");
+		pString.setState("hello");
+		pString.setLabels(Collections.singleton(new LabelState("Greeting")));
+		StyleState style = new StyleState();
+		style.setCssClass("highlight");
+		pString.setStyle(style);
+		pString.setMessages(Collections.singleton(new Message("greeting", "Hello", Message.Type.INFO, Message.Context.INLINE, "info")));
+		pString.setValues(Arrays.asList(new ParamValue("hello", "Hello"), new ParamValue(1L, "One")));
+		
+		rootModel.findParamByPath("/sample_core/unmapped_attr").deactivate();
+		
+		testee.register(sessionCtx);
+		testee.sweep();
+		
+		assertTrue(sessionCtx.isPassivated());
+		assertNull(sessionCtx.getQuadModel());
+		assertNotNull(sessionCtx.getPassivatedQuadModel().getCompressed());
+		
+		QuadModel<?, ?> q = activate(sessionCtx);
+		assertNotSame(_q, q);
+		assertFalse(sessionCtx.isPassivated());
+		assertNotSame(rootModel, sessionCtx.getRootModel());
+		
+		ExecutionModel<?> restored = q.getRoot();
+		assertEquals("Y", restored.findStateByPath("/sample_core/attr_visible_trigger"));
+		assertTrue(restored.findParamByPath("/sample_core/attr_visible_nested").isVisible());
+		assertTrue(restored.findParamByPath("/sample_core/attr_visible_nested/visible_p1").isVisible());
+		assertTrue(restored.findParamByPath("/sample_core/attr_enable_nested").isEnabled());
+		
+		Param<?> pContextRestored = restored.findParamByPath("/sample_core/for_set_param_context");
+		assertTrue(pContextRestored.isVisible());
+		assertTrue(pContextRestored.isEnabled());
+		
+		Param<?> pStringRestored = restored.findParamByPath("/sample_core/attr_String");
+		assertEquals("hello", pStringRestored.getState());
+		assertEquals("Greeting", pStringRestored.getLabels().iterator().next().getText());
+		assertEquals("highlight", pStringRestored.getStyle().getCssClass());
+		Message msg = pStringRestored.getMessages().iterator().next();
+		assertEquals("greeting", msg.getUniqueId());
+		assertEquals(Message.Type.INFO, msg.getType());
+		assertEquals(Arrays.asList(new ParamValue("hello", "Hello"), new ParamValue(1L, "One")), pStringRestored.getValues());
+		
+		assertFalse(restored.findParamByPath("/sample_core/unmapped_attr").isActive());
+	}
+	
+	@Test
+	public void t02_activateRestoresConditionalHiddenState() {
+		testee = new ExecutionContextPassivator(codec, 0, TimeUnit.HOURS.toMillis(1), null);
+		ExecutionContext sessionCtx = sessionCtx();
+		
+		ExecutionModel<?> rootModel = _q.getRoot();
+		rootModel.findParamByPath("/sample_core/attr_visible_trigger").setState("Y");
+		rootModel.findParamByPath("/sample_core/attr_enable_trigger").setState("Y");
+		rootModel.findParamByPath("/sample_core/attr_visible_trigger").setState("N");
+		rootModel.findParamByPath("/sample_core/attr_enable_trigger").setState("N");
+		
+		assertFalse(rootModel.findParamByPath("/sample_core/attr_visible_nested").isVisible());
+		assertFalse(rootModel.findParamByPath("/sample_core/attr_enable_nested").isEnabled());
+		
+		testee.register(sessionCtx);
+		testee.sweep();
+		assertTrue(sessionCtx.isPassivated());
+		
+		ExecutionModel<?> restored = activate(sessionCtx).getRoot();
+		assertFalse(restored.findParamByPath("/sample_core/attr_visible_nested").isVisible());
+		assertFalse(restored.findParamByPath("/sample_core/attr_visible_nested/visible_p1").isVisible());
+		assertFalse(restored.findParamByPath("/sample_core/attr_enable_nested").isEnabled());
+		assertTrue(restored.findParamByPath("/sample_core/attr_visible_trigger").isVisible());
+	}
+	
+	@Test
+	public void t03_passivatedToStoreDirectory() {
+		testee = new ExecutionContextPassivator(codec, 0, TimeUnit.HOURS.toMillis(1), folder.getRoot().getPath());
+		ExecutionContext sessionCtx = sessionCtx();
+		_q.getRoot().findParamByPath("/sample_core/attr_String").setState("stored");
+		
+		testee.register(sessionCtx);
+		testee.sweep();
+		
+		PassivatedQuadModel passivated = sessionCtx.getPassivatedQuadModel();
+		assertNotNull(passivated);
+		assertNull(passivated.getCompressed());
+		assertTrue(new File(passivated.getFile()).exists());
+		
+		QuadModel<?, ?> q = activate(sessionCtx);
+		assertEquals("stored", q.getRoot().findStateByPath("/sample_core/attr_String"));
+		assertFalse(new File(passivated.getFile()).exists());
+	}
+	
+	@Test
+	public void t04_notPassivatedWhileExecutingOrBusy() throws InterruptedException {
+		testee = new ExecutionContextPassivator(codec, TimeUnit.HOURS.toMillis(1), TimeUnit.HOURS.toMillis(1), null);
+		ExecutionContext sessionCtx = sessionCtx();
+		
+		testee.register(sessionCtx);
+		testee.sweep();
+		assertFalse("not yet idle", sessionCtx.isPassivated());
+		
+		testee = new ExecutionContextPassivator(codec, 0, TimeUnit.HOURS.toMillis(1), null);
+		testee.register(sessionCtx);
+		
+		ExecutionRuntime runtime = _q.getRoot().getExecutionRuntime();
+		assertTrue(runtime.tryAcquireExecution(true, 0));
+		try {
+			testee.sweep();
+			assertFalse("executing", sessionCtx.isPassivated());
+		} finally {
+			runtime.releaseExecution(true);
+		}
+		
+		testee.sweep();
+		assertTrue(sessionCtx.isPassivated());
+	}
+	
+	@Test
+	public void t05_activateOfActiveContext() {
+		testee = new ExecutionContextPassivator(codec, 0, TimeUnit.HOURS.toMillis(1), null);
+		ExecutionContext sessionCtx = sessionCtx();
+		
+		assertSame(_q, activate(sessionCtx));
+	}
+	
+	private ExecutionContext sessionCtx() {
+		ExecutionContext sessionCtx = new ExecutionContext(_cmd);
+		sessionCtx.setQuadModel(_q);
+		return sessionCtx;
+	}
+	
+	private QuadModel<?, ?> activate(ExecutionContext sessionCtx) {
+		DefaultExecutionContextLoader loader = new DefaultExecutionContextLoader(beanResolver);
+		return testee.activate(sessionCtx, (ctx, snapshot) -> loader.restore(ctx, snapshot, false));
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.cmd.exec.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import com.antheminc.oss.nimbus.InvalidOperationAttemptedException;
+import com.antheminc.oss.nimbus.context.BeanResolverStrategy;
+import com.antheminc.oss.nimbus.domain.AbstractFrameworkIngerationPersistableTests;
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
+import com.antheminc.oss.nimbus.domain.cmd.CommandMessage;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecutorGateway;
+import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContext;
+import com.antheminc.oss.nimbus.domain.cmd.exec.ExecutionContextLoader;
+import com.antheminc.oss.nimbus.domain.session.SessionProvider;
+import com.antheminc.oss.nimbus.test.domain.session.TestSessionProvider;
+import com.antheminc.oss.nimbus.test.scenarios.s0.core.SampleSharedEntity;
+
+/**
+ * <p>Loaders with a session of their own each stand for the sessions of two users reading the same shared model.
+ */
+public class SharedQuadModelTest extends AbstractFrameworkIngerationPersistableTests {
+
+	private static final String SHARED_ROOT = PLATFORM_ROOT + "/sample_shared:1";
+	private static final String OVERLAY_ROOT = PLATFORM_ROOT + "/sample_shared_overlay:1";
+	
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	
+	@Autowired BeanResolverStrategy beanResolver;
+	
+	@Autowired ExecutionContextLoader executionContextLoader;
+	
+	@Autowired SharedQuadModelCache sharedQuadModelCache;
+	
+	@Autowired
+	@Qualifier("default.processGateway")
+	CommandExecutorGateway commandGateway;
+	
+	@Before
+	public void createEntity() {
+		SampleSharedEntity entity = new SampleSharedEntity();
+		entity.setId(1L);
+		entity.setTitle("shared");
+		mongo.insert(entity, "sample_shared");
+	}
+	
+	@After
+	public void clearShared() {
+		sharedQuadModelCache.clear();
+	}
+	
+	@Test
+	public void t01_sameModelAcrossSessions() {
+		Command getCmd = CommandBuilder.withUri(SHARED_ROOT + "/_get").getCommand();
+		
+		ExecutionContext eA = node().load(getCmd);
+		ExecutionContext eB = node().load(getCmd);
+		
+		assertSame(eA.getQuadModel(), eB.getQuadModel());
+		assertEquals("shared", eB.getRootModel().findStateByPath("/sample_shared/title"));
+	}
+	
+	@Test
+	public void t02_gatewayRejectsWrite() {
+		thrown.expect(InvalidOperationAttemptedException.class);
+		
+		commandGateway.execute(new CommandMessage(CommandBuilder.withUri(SHARED_ROOT + "/title/_update").getCommand(), "\"changed\""));
+	}
+	
+	@Test
+	public void t03_gatewayRoutesOverlayParamToSession() {
+		commandGateway.execute(new CommandMessage(CommandBuilder.withUri(SHARED_ROOT + "/filter/_update").getCommand(), "\"mine\""));
+		
+		Command overlayGetCmd = CommandBuilder.withUri(OVERLAY_ROOT + "/_get").getCommand();
+		ExecutionContext overlay = executionContextLoader.load(overlayGetCmd);
+		assertEquals("mine", overlay.getRootModel().findStateByPath("/sample_shared_overlay/filter"));
+		
+		// overlay of another session is its own
+		ExecutionContext other = node().load(overlayGetCmd);
+		assertNotSame(overlay.getQuadModel(), other.getQuadModel());
+		assertNull(other.getRootModel().findStateByPath("/sample_shared_overlay/filter"));
+		
+		// while both read the same shared model
+		Command getCmd = CommandBuilder.withUri(SHARED_ROOT + "/_get").getCommand();
+		assertSame(executionContextLoader.load(getCmd).getQuadModel(), node().load(getCmd).getQuadModel());
+	}
+	
+	private DefaultExecutionContextLoader node() {
+		SessionProvider session = new TestSessionProvider();
+		return new DefaultExecutionContextLoader(beanResolver) {
+			@Override
+			protected SessionProvider getSessionProvider() {
+				return session;
+			}
+		};
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.config.builder;
+
+import static org.junit.Assert.assertNotNull;
+
+import org.hamcrest.core.StringContains;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.antheminc.oss.nimbus.InvalidConfigException;
+import com.antheminc.oss.nimbus.domain.defn.Domain;
+import com.antheminc.oss.nimbus.domain.defn.Execution.Config;
+import com.antheminc.oss.nimbus.domain.defn.Model;
+import com.antheminc.oss.nimbus.domain.defn.Repo;
+import com.antheminc.oss.nimbus.domain.defn.Repo.Cache;
+import com.antheminc.oss.nimbus.domain.defn.Repo.Database;
+import com.antheminc.oss.nimbus.domain.model.config.ModelConfig;
+import com.antheminc.oss.nimbus.domain.model.config.builder.EntityConfigVisitor;
+import com.antheminc.oss.nimbus.domain.model.config.builder.internal.DefaultEntityConfigBuilder;
+import com.antheminc.oss.nimbus.test.domain.support.AbstractFrameworkIntegrationTests;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <p>Shared domains are validated as loaded, for these are built once under the security context of the first user reading them.
+ */
+public class DomainConfigBuilderSharedTest extends AbstractFrameworkIntegrationTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	
+	@Autowired DefaultEntityConfigBuilder handler;
+	
+	@Autowired DomainConfigBuilder domainConfigBuilder;
+	
+	@Domain("test_shared_valid")
+	@Repo(value=Database.rep_none, cache=Cache.rep_shared, overlay="sample_shared_overlay")
+	@Getter @Setter
+	public static class TestSharedValid {
+		
+		@Config(url="/<!#this!>/../title/_get")
+		private String title;
+		
+		private TestSharedNested nested;
+	}
+	
+	@Model
+	@Getter @Setter
+	public static class TestSharedNested {
+		
+		@Config(url="/p/clientuser/_search?fn=query&where=clientuser.loginId.eq('<!#self.loginId!>')")
+		private String owner;
+	}
+	
+	@Domain("test_shared_user_dependent")
+	@Repo(value=Database.rep_none, cache=Cache.rep_shared)
+	@Getter @Setter
+	public static class TestSharedUserDependent {
+		
+		private TestSharedNested nested;
+	}
+	
+	@Domain("test_shared_bad_overlay")
+	@Repo(value=Database.rep_none, cache=Cache.rep_shared, overlay="sample_shared")
+	@Getter @Setter
+	public static class TestSharedBadOverlay {
+		
+		private String title;
+	}
+	
+	@Domain("test_device")
+	@Repo(value=Database.rep_none, cache=Cache.rep_device)
+	@Getter @Setter
+	public static class TestDevice {
+		
+		private TestSharedNested nested;
+	}
+	
+	@Test
+	public void t01_sharedDomainLoaded() {
+		assertNotNull(domainConfigBuilder.getRootDomain("sample_shared"));
+	}
+	
+	@Test
+	public void t02_userResolvedPathRejectedAtAnyDepth() {
+		ModelConfig<?> mConfig = handler.load(TestSharedUserDependent.class, new EntityConfigVisitor());
+		
+		thrown.expect(InvalidConfigException.class);
+		thrown.expectMessage(new StringContains("Param \"owner\""));
+		domainConfigBuilder.validateShared(mConfig);
+	}
+	
+	@Test
+	public void t03_userResolvedPathAllowedOutsideShared() {
+		domainConfigBuilder.validateShared(handler.load(TestDevice.class, new EntityConfigVisitor()));
+	}
+	
+	@Test
+	public void t04_overlayMustBeCachedInSession() {
+		ModelConfig<?> mConfig = handler.load(TestSharedBadOverlay.class, new EntityConfigVisitor());
+		
+		thrown.expect(InvalidConfigException.class);
+		thrown.expectMessage(new StringContains("Overlay \"sample_shared\""));
+		domainConfigBuilder.validateShared(mConfig);
+	}
+}
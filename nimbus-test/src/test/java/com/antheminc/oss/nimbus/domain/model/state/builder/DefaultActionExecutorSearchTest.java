@@ -51,6 +51,7 @@ import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecutorGateway;
 import com.antheminc.oss.nimbus.domain.model.config.ParamValue;
 import com.antheminc.oss.nimbus.domain.model.state.extension.StaticCodeValueBasedCodeToLabelConverter;
 import com.antheminc.oss.nimbus.domain.model.state.internal.AbstractListPaginatedParam.PageWrapper.PageRequestAndRespone;
+import com.antheminc.oss.nimbus.domain.model.state.repo.StaticCodeValueIndex;
 import com.antheminc.oss.nimbus.entity.StaticCodeValue;
 import com.antheminc.oss.nimbus.entity.VStaticCodeValue;
 import com.antheminc.oss.nimbus.entity.client.Client;
@@ -86,6 +87,9 @@ public class DefaultActionExecutorSearchTest extends AbstractFrameworkIntegratio
 	@Autowired
 	StaticCodeValueBasedCodeToLabelConverter labelConverter;
 	
+	@Autowired
+	StaticCodeValueIndex staticCodeValueIndex;
+	
 	@Autowired
 	@Qualifier("default.processGateway")
 	CommandExecutorGateway commandGateway;
@@ -206,6 +210,8 @@ public class DefaultActionExecutorSearchTest extends AbstractFrameworkIntegratio
 		expected.setId(new Random().nextLong());
 		this.mongoOps.insert(expected, Constants.PARAM_VALUES_DOMAIN_ALIAS.code);
 		
+		// written directly to the database, bypassing the framework
+		this.staticCodeValueIndex.refresh();
 		assertEquals("Anticardiolpin Antibodies", this.labelConverter.serialize("ACL"));
 	}
 
@@ -616,7 +622,30 @@ public class DefaultActionExecutorSearchTest extends AbstractFrameworkIntegratio
 		
 		assertEquals("1", response.getContent().get(0).getAttr_String());
 	}
-	
+
+	@Test
+	public void t15a_testSearchByAggregationPageableWithSort() {
+		cleanInsertSampleCoreAccess(new String[] {"1","2","3","4","5","6"});
+
+		String query = "{ \"aggregate\": \"sample_core_access\", \"pipeline\": [ { $match: { \"attr_String\": { $ne: \"1\" } } } ] }";
+		CommandMessage cmdMsg = build(PLATFORM_ROOT+"/sample_core_access/_search?fn=query&where="+query+"&pageSize=2&page=1&sortBy=attr_String,DESC");
+
+		MultiOutput multiOp = this.commandGateway.execute(cmdMsg);
+		List<Output<?>> ops  = multiOp.getOutputs();
+
+		assertNotNull(ops);
+
+		PageRequestAndRespone<SampleCoreEntityAccess> response = (PageRequestAndRespone<SampleCoreEntityAccess>)ops.get(0).getValue();
+
+		assertNotNull(response);
+		assertNotNull(response.getContent());
+		assertEquals(2, response.getContent().size());
+
+		assertEquals("4", response.getContent().get(0).getAttr_String());
+		assertEquals("3", response.getContent().get(1).getAttr_String());
+		assertEquals(Long.valueOf(5), response.getTotalSupplier().get());
+	}
+
 	@Test
 	public void t16_testSearchByQueryPageable_SimulatePageNavigation() {
 		cleanInsertSampleCoreAccess(new String[] {"1","2","3","4","5","6"});
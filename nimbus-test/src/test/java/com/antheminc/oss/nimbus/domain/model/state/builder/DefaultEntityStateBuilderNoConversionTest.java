@@ -0,0 +1,104 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
+import com.antheminc.oss.nimbus.domain.model.config.ParamConfig;
+import com.antheminc.oss.nimbus.domain.model.config.internal.MappedDefaultParamConfig;
+import com.antheminc.oss.nimbus.domain.model.state.AbstractStateEventHandlerTests;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.QuadModel;
+
+/**
+ * Params of a model mapped to the same class are built from no-conversion configs simulated once per model config.
+ */
+public class DefaultEntityStateBuilderNoConversionTest extends AbstractStateEventHandlerTests {
+
+	private static final String VIEW_PARAM_nc_nested0_Details = "/sample_view/page_green/tile/view_sample_form/view_nc_form/nc_nested0_Details";
+	private static final String CORE_PARAM_nc_nested0_Details = "/sample_core/nc_form/nc_nested0_Details";
+	
+	@Override
+	protected Command createCommand() {
+		return CommandBuilder.withUri("/hooli/thebox/p/sample_view/_new").getCommand();
+	}
+	
+	private QuadModel<?, ?> build() {
+		executionContextLoader.clear();
+		
+		QuadModel<?, ?> q = executionContextLoader.load(createCommand()).getQuadModel();
+		assertNotNull(q);
+		return q;
+	}
+	
+	@Test
+	public void t01_noConversionConfigs() {
+		Param<?> p = _q.getRoot().findParamByPath(VIEW_PARAM_nc_nested0_Details);
+		assertNotNull(p);
+		assertTrue(p.getConfig() instanceof MappedDefaultParamConfig.NoConversion);
+		
+		ParamConfig<?> mapsToConfig = _q.getRoot().findParamByPath(CORE_PARAM_nc_nested0_Details).getConfig();
+		assertSame(mapsToConfig, p.getConfig().findIfMapped().getMapsToConfig());
+		
+		Param<?> pNested = p.findParamByPath("/nc_nested_level1");
+		assertNotNull(pNested);
+		assertTrue(pNested.getConfig() instanceof MappedDefaultParamConfig.NoConversion);
+	}
+	
+	@Test
+	public void t02_noConversionConfigsSharedAcrossBuilds() {
+		Param<?> p1 = _q.getRoot().findParamByPath(VIEW_PARAM_nc_nested0_Details);
+		Param<?> p1Nested = p1.findParamByPath("/nc_nested_level1");
+		
+		QuadModel<?, ?> q2 = build();
+		assertNotSame(_q, q2);
+		
+		Param<?> p2 = q2.getRoot().findParamByPath(VIEW_PARAM_nc_nested0_Details);
+		Param<?> p2Nested = p2.findParamByPath("/nc_nested_level1");
+		
+		// same configs, new states
+		assertNotSame(p1, p2);
+		assertSame(p1.getConfig(), p2.getConfig());
+		assertSame(p1Nested.getConfig(), p2Nested.getConfig());
+		
+		// each state is linked to the mapsTo param of its own build
+		assertSame(q2.getRoot().findParamByPath(CORE_PARAM_nc_nested0_Details), p2.findIfMapped().getMapsTo());
+		assertNotSame(p1.findIfMapped().getMapsTo(), p2.findIfMapped().getMapsTo());
+	}
+	
+	@Test
+	public void t03_noConversionConfigsInModelOrder() {
+		Param<?> p = _q.getRoot().findParamByPath(VIEW_PARAM_nc_nested0_Details);
+		Param<?> mapsTo = p.findIfMapped().getMapsTo();
+		
+		assertEquals(mapsTo.findIfNested().getParams().size(), p.findIfNested().getParams().size());
+		for(int i=0; i<p.findIfNested().getParams().size(); i++) {
+			Param<?> pChild = p.findIfNested().getParams().get(i);
+			Param<?> mapsToChild = mapsTo.findIfNested().getParams().get(i);
+			
+			assertEquals(mapsToChild.getConfig().getCode(), pChild.getConfig().getCode());
+			assertSame(mapsToChild.getConfig(), pChild.getConfig().findIfMapped().getMapsToConfig());
+		}
+	}
+}
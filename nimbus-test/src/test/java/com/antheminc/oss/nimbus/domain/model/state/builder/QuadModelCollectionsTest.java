@@ -24,9 +24,13 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
 
 import org.junit.Before;
 import org.junit.FixMethodOrder;
@@ -51,8 +55,10 @@ import com.antheminc.oss.nimbus.domain.model.state.EntityState.ListModel;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.ListParam;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.Model;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.ParamEvent;
 import com.antheminc.oss.nimbus.domain.model.state.QuadModel;
 import com.antheminc.oss.nimbus.domain.model.state.StateType;
+import com.antheminc.oss.nimbus.domain.model.state.internal.DefaultExecutionTxnContext;
 import com.antheminc.oss.nimbus.domain.model.state.internal.DefaultListParamState;
 import com.antheminc.oss.nimbus.domain.model.state.internal.DefaultParamState;
 import com.antheminc.oss.nimbus.domain.model.state.internal.ExecutionEntity;
@@ -1287,6 +1293,242 @@ public class QuadModelCollectionsTest {
 		assertSame(vpOneServiceLineService.getState(), mapsToService.getState());
 	}
 	
+	@Test
+	public void tv25_nested_attached_conversion_leafStateReusedUntilChanged() {
+		QuadModel<VRSimpleCaseFlow, SimpleCase> q = sessionProvider.getAttribute(create_view_main().getRootDomainUri());
+		
+		Param<Section_ServiceLine> vpOneServiceLine = q.getView().findParamByPath("/pg3/viewAttachedOneServiceLineConverted");
+		Param<String> vpOneServiceLineService = q.getView().findParamByPath("/pg3/viewAttachedOneServiceLineConverted/service");
+		
+		vpOneServiceLineService.setState("Batman");
+		
+		Section_ServiceLine leaf = vpOneServiceLine.getLeafState();
+		assertEquals("Batman", leaf.getService());
+		assertSame(leaf, vpOneServiceLine.getLeafState());
+		
+		// assembled anew for callers keeping or modifying it, without affecting the shared one
+		Section_ServiceLine own = vpOneServiceLine.assembleLeafState();
+		assertNotSame(leaf, own);
+		own.setService("Joker");
+		assertSame(leaf, vpOneServiceLine.getLeafState());
+		assertEquals("Batman", leaf.getService());
+		
+		// detached params are not reused
+		Param<?> vpPg3 = q.getView().findParamByPath("/pg3");
+		assertNotSame(vpPg3.getLeafState(), vpPg3.getLeafState());
+		
+		vpOneServiceLineService.setState("Robin");
+		
+		Section_ServiceLine changedLeaf = vpOneServiceLine.getLeafState();
+		assertNotSame(leaf, changedLeaf);
+		assertEquals("Robin", changedLeaf.getService());
+	}
+	
+	@Test
+	public void tv26_col_set_changedElemsOnly() {
+		QuadModel<VRSimpleCaseFlow, SimpleCase> q = sessionProvider.getAttribute(create_view_main().getRootDomainUri());
+		
+		ListParam<ServiceLine> cp_ServiceLines = q.getCore().findParamByPath("/serviceLines").findIfCollection();
+		
+		ServiceLine sl_0 = new ServiceLine();
+		sl_0.setService("Batman");
+		
+		ServiceLine sl_1 = new ServiceLine();
+		sl_1.setService("Robin");
+		
+		List<ServiceLine> serviceLines = new ArrayList<>();
+		serviceLines.add(sl_0);
+		serviceLines.add(sl_1);
+		cp_ServiceLines.setState(serviceLines);
+		
+		Param<?> cp_elem0 = q.getCore().findParamByPath("/serviceLines/0");
+		Param<?> cp_elem1 = q.getCore().findParamByPath("/serviceLines/1");
+		
+		// same state again
+		assertNull(cp_ServiceLines.setState(serviceLines("Batman", "Robin")));
+		
+		ServiceLine sl_1_changed = new ServiceLine();
+		sl_1_changed.setService("Alfred");
+		
+		List<ServiceLine> changed = new ArrayList<>(cp_ServiceLines.getState());
+		changed.set(1, sl_1_changed);
+		changed.add(sl_0);
+		assertNotNull(cp_ServiceLines.setState(changed));
+		
+		assertEquals(3, cp_ServiceLines.size());
+		assertSame(cp_elem0, q.getCore().findParamByPath("/serviceLines/0"));
+		assertSame(cp_elem1, q.getCore().findParamByPath("/serviceLines/1"));
+		assertEquals("Alfred", q.getCore().findParamByPath("/serviceLines/1/service").getState());
+		assertEquals("Batman", q.getCore().findParamByPath("/serviceLines/2/service").getState());
+		
+		changed.remove(2);
+		assertNotNull(cp_ServiceLines.setState(changed));
+		assertEquals(2, cp_ServiceLines.size());
+	}
+	
+	private static List<ServiceLine> serviceLines(String... services) {
+		List<ServiceLine> serviceLines = new ArrayList<>();
+		for(String service : services) {
+			ServiceLine sl = new ServiceLine();
+			sl.setService(service);
+			serviceLines.add(sl);
+		}
+		return serviceLines;
+	}
+	
+	private static List<Section_ServiceLine> sectionServiceLines(String... services) {
+		List<Section_ServiceLine> serviceLines = new ArrayList<>();
+		for(String service : services) {
+			Section_ServiceLine sl = new Section_ServiceLine();
+			sl.setService(service);
+			serviceLines.add(sl);
+		}
+		return serviceLines;
+	}
+	
+	private static List<ParamEvent> clearEvents(QuadModel<?, ?> q) {
+		List<ParamEvent> events = ((DefaultExecutionTxnContext)q.getRoot().getExecutionRuntime().getTxnContext()).getEvents();
+		events.clear();
+		return events;
+	}
+	
+	private static List<Action> findEventActions(List<ParamEvent> events, String path) {
+		return events.stream()
+				.filter(e -> StringUtils.equals(path, e.getParam().getPath()))
+				.map(ParamEvent::getAction)
+				.collect(Collectors.toList());
+	}
+	
+	private static ServiceLine keyedServiceLine(String elemId, String service) {
+		ServiceLine sl = new ServiceLine();
+		sl.setElemId(elemId);
+		sl.setService(service);
+		return sl;
+	}
+	
+	@Test
+	public void tv27_col_set_byElemKey() {
+		QuadModel<VRSimpleCaseFlow, SimpleCase> q = sessionProvider.getAttribute(create_view_main().getRootDomainUri());
+		
+		ListParam<ServiceLine> cp_ServiceLines = q.getCore().findParamByPath("/keyedServiceLines").findIfCollection();
+		
+		List<ServiceLine> serviceLines = new ArrayList<>();
+		serviceLines.add(keyedServiceLine("A", "Batman"));
+		serviceLines.add(keyedServiceLine("B", "Robin"));
+		serviceLines.add(keyedServiceLine("C", "Alfred"));
+		cp_ServiceLines.setState(serviceLines);
+		
+		Param<?> cp_elemA = q.getCore().findParamByPath("/keyedServiceLines/0");
+		Param<?> cp_elemC = q.getCore().findParamByPath("/keyedServiceLines/2");
+		
+		// in order: B removed, C updated, E added
+		List<ServiceLine> replaced = new ArrayList<>();
+		replaced.add(keyedServiceLine("A", "Batman"));
+		replaced.add(keyedServiceLine("C", "Joker"));
+		replaced.add(keyedServiceLine("E", "Bane"));
+		assertNotNull(cp_ServiceLines.setState(replaced));
+		
+		// retained elements keep their params
+		assertEquals(3, cp_ServiceLines.size());
+		assertSame(cp_elemA, cp_ServiceLines.findIfNested().getParams().get(0));
+		assertSame(cp_elemC, cp_ServiceLines.findIfNested().getParams().get(1));
+		assertEquals("Batman", cp_elemA.findIfNested().templateParams().find("service").getState());
+		assertEquals("Joker", cp_elemC.findIfNested().templateParams().find("service").getState());
+		assertEquals(Arrays.asList("A", "C", "E"), elemIds(cp_ServiceLines.getState()));
+		
+		assertNull(cp_ServiceLines.setState(replaced));
+		
+		// reordered: set by position, in the order of the new state
+		List<ServiceLine> reordered = new ArrayList<>();
+		reordered.add(keyedServiceLine("C", "Joker"));
+		reordered.add(keyedServiceLine("D", "Bane"));
+		reordered.add(keyedServiceLine("A", "Batman"));
+		assertNotNull(cp_ServiceLines.setState(reordered));
+		
+		assertEquals(3, cp_ServiceLines.size());
+		assertEquals(Arrays.asList("C", "D", "A"), elemIds(cp_ServiceLines.getState()));
+		assertEquals("Joker", q.getCore().findParamByPath("/keyedServiceLines/0/service").getState());
+		
+		assertNull(cp_ServiceLines.setState(reordered));
+		assertEquals(Arrays.asList("C", "D", "A"), elemIds(cp_ServiceLines.getState()));
+	}
+	
+	private static List<String> elemIds(List<ServiceLine> serviceLines) {
+		return serviceLines.stream().map(ServiceLine::getElemId).collect(Collectors.toList());
+	}
+	
+	@Test
+	public void tv28_col_set_modifiedInPlace() {
+		QuadModel<VRSimpleCaseFlow, SimpleCase> q = sessionProvider.getAttribute(create_view_main().getRootDomainUri());
+		
+		ListParam<ServiceLine> cp_ServiceLines = q.getCore().findParamByPath("/serviceLines").findIfCollection();
+		cp_ServiceLines.setState(serviceLines("Batman", "Robin"));
+		
+		String elem0Path = cp_ServiceLines.getPath()+"/0";
+		String elem1Path = cp_ServiceLines.getPath()+"/1";
+		
+		// elements modified in place by the caller cannot be compared with, so are reported as changed
+		List<ServiceLine> elems = new ArrayList<>(cp_ServiceLines.getState());
+		elems.get(0).setService("Joker");
+		
+		List<ParamEvent> events = clearEvents(q);
+		assertEquals(Action._new, cp_ServiceLines.setState(elems));
+		assertEquals("Joker", q.getCore().findParamByPath("/serviceLines/0/service").getState());
+		assertTrue(findEventActions(events, elem0Path).contains(Action._replace));
+		assertTrue(findEventActions(events, elem1Path).contains(Action._replace));
+		
+		// as is the current list itself, with its elements modified, added or removed in place
+		List<ServiceLine> live = cp_ServiceLines.getState();
+		live.get(1).setService("Bane");
+		live.add(serviceLines("Alfred").get(0));
+		
+		events = clearEvents(q);
+		assertEquals(Action._new, cp_ServiceLines.setState(live));
+		assertEquals(3, cp_ServiceLines.size());
+		assertEquals("Joker", q.getCore().findParamByPath("/serviceLines/0/service").getState());
+		assertEquals("Bane", q.getCore().findParamByPath("/serviceLines/1/service").getState());
+		assertEquals("Alfred", q.getCore().findParamByPath("/serviceLines/2/service").getState());
+		assertFalse(events.isEmpty());
+	}
+	
+	@Test
+	public void tv29_col_attached_conversion_set_changedElemsOnly() {
+		QuadModel<VRSimpleCaseFlow, SimpleCase> q = sessionProvider.getAttribute(create_view_main().getRootDomainUri());
+		
+		@SuppressWarnings("unchecked")
+		ListParam<Section_ServiceLine> vp_list = 
+				q.getRoot().findParamByPath("/view_simplecase/pg3/viewAttachedServiceLinesConverted").findIfCollection();
+		
+		vp_list.setState(sectionServiceLines("Batman", "Robin"));
+		
+		Param<?> vp_elem0 = q.getRoot().findParamByPath("/view_simplecase/pg3/viewAttachedServiceLinesConverted/0");
+		Param<?> vp_elem1 = q.getRoot().findParamByPath("/view_simplecase/pg3/viewAttachedServiceLinesConverted/1");
+		Param<?> cp_elem1 = q.getCore().findParamByPath("/serviceLinesConverted/1");
+		
+		// equal state again: no change, no events
+		List<ParamEvent> events = clearEvents(q);
+		assertNull(vp_list.setState(sectionServiceLines("Batman", "Robin")));
+		assertTrue(events.isEmpty());
+		
+		// one element changed: events of its changed param, element and list only, in view and core
+		events = clearEvents(q);
+		assertEquals(Action._new, vp_list.setState(sectionServiceLines("Batman", "Alfred")));
+		
+		assertSame(vp_elem0, q.getRoot().findParamByPath("/view_simplecase/pg3/viewAttachedServiceLinesConverted/0"));
+		assertSame(vp_elem1, q.getRoot().findParamByPath("/view_simplecase/pg3/viewAttachedServiceLinesConverted/1"));
+		assertSame(cp_elem1, q.getCore().findParamByPath("/serviceLinesConverted/1"));
+		assertEquals("Alfred", q.getCore().findParamByPath("/serviceLinesConverted/1/service").getState());
+		
+		assertTrue(findEventActions(events, vp_elem1.getPath()+"/service").contains(Action._update));
+		assertTrue(findEventActions(events, vp_elem1.getPath()).contains(Action._replace));
+		assertTrue(findEventActions(events, vp_list.getPath()).contains(Action._new));
+		assertTrue(findEventActions(events, cp_elem1.getPath()+"/service").contains(Action._update));
+		
+		assertTrue(findEventActions(events, vp_elem0.getPath()).isEmpty());
+		assertTrue(findEventActions(events, vp_elem0.getPath()+"/service").isEmpty());
+		assertTrue(findEventActions(events, q.getCore().findParamByPath("/serviceLinesConverted/0/service").getPath()).isEmpty());
+	}
+	
 	//@After
 	public void after() {
 		QuadModel<VRSimpleCaseFlow, SimpleCase> q = sessionProvider.getAttribute(create_view_main().getRootDomainUri());
@@ -16,7 +16,9 @@
 package com.antheminc.oss.nimbus.domain.model.state.extension;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.junit.Assert;
@@ -28,7 +30,10 @@ import org.springframework.mock.web.MockHttpServletRequest;
 
 import com.antheminc.oss.nimbus.domain.AbstractFrameworkIngerationPersistableTests;
 import com.antheminc.oss.nimbus.domain.cmd.Action;
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
 import com.antheminc.oss.nimbus.domain.defn.Constants;
+import com.antheminc.oss.nimbus.domain.defn.Model.Param.Values;
 import com.antheminc.oss.nimbus.domain.model.config.ParamValue;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
 import com.antheminc.oss.nimbus.entity.StaticCodeValue;
@@ -45,6 +50,9 @@ public class DefaultParamValuesHandlerTest extends AbstractFrameworkIngerationPe
 	@Autowired
 	private CacheManager cacheManager;
 	
+	@Autowired
+	private ParamValuesOnLoadHandler paramValuesHandler;
+	
 	@Before
 	@Override
 	public void before() {
@@ -89,4 +97,43 @@ public class DefaultParamValuesHandlerTest extends AbstractFrameworkIngerationPe
 		Param<String> actual = viewRoot.findParamByPath("/page_green/tile/view_sample_form/comboBoxStaticCodeValuesLookup"); 
 		Assert.assertTrue(CollectionUtils.isEqualCollection(expected, actual.getValues()));
 	}
+	
+	@Test
+	public void testPrefetchedValuesReleasedOnRootCommandCompletion() {
+		MockHttpServletRequest request = MockHttpRequestBuilder.withUri(VIEW_PARAM_ROOT).addAction(Action._new).getMock();
+		Object response = controller.handleGet(request, null);
+		
+		Param<String> viewRoot = ParamUtils.extractResponseByParamPath(response, "/sample_view");
+		Param<String> actual = viewRoot.findParamByPath("/page_green/tile/view_sample_form/comboBoxStaticCodeValuesLookup");
+		Assert.assertTrue(CollectionUtils.isEqualCollection(getSampleValues().getParamValues(), actual.getValues()));
+		Assert.assertTrue(viewRoot.getRootExecution().getExecutionRuntime().getPrefetchedStates().isEmpty());
+	}
+	
+	@Test
+	public void testLoadBatch() {
+		StaticCodeValue other = new StaticCodeValue("/other", new ArrayList<>());
+		other.setId(2L);
+		other.getParamValues().add(new ParamValue("qux", "Qux"));
+		mongo.insert(other, Constants.PARAM_VALUES_DOMAIN_ALIAS.code);
+		
+		DefaultParamValuesHandler handler = (DefaultParamValuesHandler)paramValuesHandler;
+		
+		Command foo = CommandBuilder.withUri(PLATFORM_ROOT + "/staticCodeValue/_search?fn=lookup&where=staticCodeValue.paramCode.eq('/foo')").getCommand();
+		Command bar = CommandBuilder.withUri(PLATFORM_ROOT + "/staticCodeValue/_search?fn=lookup&where=staticCodeValue.paramCode.eq('/other')").getCommand();
+		Command missing = CommandBuilder.withUri(PLATFORM_ROOT + "/staticCodeValue/_search?fn=lookup&where=staticCodeValue.paramCode.eq('/missing')").getCommand();
+		Command ordered = CommandBuilder.withUri(PLATFORM_ROOT + "/staticCodeValue/_search?fn=lookup&where=staticCodeValue.paramCode.eq('/foo')&orderby=label.asc()").getCommand();
+		Assert.assertTrue(handler.isBatchable(foo));
+		Assert.assertFalse(handler.isBatchable(ordered));
+		
+		Map<Command, Values> lookups = new LinkedHashMap<>();
+		lookups.put(foo, null);
+		lookups.put(bar, null);
+		lookups.put(missing, null);
+		
+		Map<String, List<ParamValue>> actual = handler.loadBatch(lookups);
+		Assert.assertEquals(2, actual.size());
+		Assert.assertTrue(CollectionUtils.isEqualCollection(getSampleValues().getParamValues(), actual.get(handler.buildLoadKey(foo))));
+		Assert.assertTrue(CollectionUtils.isEqualCollection(other.getParamValues(), actual.get(handler.buildLoadKey(bar))));
+		Assert.assertFalse(actual.containsKey(handler.buildLoadKey(missing)));
+	}
 }
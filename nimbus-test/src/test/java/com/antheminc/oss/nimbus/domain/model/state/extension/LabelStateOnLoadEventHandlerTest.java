@@ -19,6 +19,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -34,6 +35,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import com.antheminc.oss.nimbus.FrameworkRuntimeException;
 import com.antheminc.oss.nimbus.InvalidConfigException;
@@ -42,6 +44,7 @@ import com.antheminc.oss.nimbus.domain.defn.Domain;
 import com.antheminc.oss.nimbus.domain.defn.MapsTo.Type;
 import com.antheminc.oss.nimbus.domain.defn.Model;
 import com.antheminc.oss.nimbus.domain.defn.extension.Content.Label;
+import com.antheminc.oss.nimbus.domain.model.config.extension.LabelStateEventHandler;
 import com.antheminc.oss.nimbus.domain.model.config.ParamConfig;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.ListParam;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
@@ -75,6 +78,9 @@ public class LabelStateOnLoadEventHandlerTest extends AbstractFrameworkIntegrati
 	
 	public static final Long CORE_REF_ID_1 = new Long(1);
 	
+	@Autowired
+	private LabelStateEventHandler labelHandler;
+	
 	private Object prepareParam(String viewRoot) {
 		Sample_Core_Label_Entity sc_main = new Sample_Core_Label_Entity();
 		sc_main.setId(CORE_REF_ID_1);
@@ -536,6 +542,19 @@ public class LabelStateOnLoadEventHandlerTest extends AbstractFrameworkIntegrati
 		assertEquals("This label color is null",getLabelState(label_a_p, Locale.getDefault()).getText());
 	}
 	
+	@Test
+	public void t14_label_state_shared() {
+		Object sv_newResp = prepareParam(VIEW_ROOT);
+		Param<Sample_View_Label_Entity> view_param = ExtractResponseOutputUtils.extractOutput(sv_newResp, 0);
+		
+		Param<?> label_a_p = view_param.findParamByPath("/label_a_en");
+		Label label = label_a_p.getConfig().getLabels().iterator().next();
+		
+		LabelState shared = getLabelState(label_a_p, Locale.getDefault());
+		assertSame(shared, labelHandler.resolve(label, label_a_p));
+		assertSame(shared, labelHandler.resolve(label, view_param));
+	}
+	
 	/**
 	 * https://anthemopensource.atlassian.net/browse/NIMBUS-51 When a collection
 	 * has a collection element that contains variables decorated with Label
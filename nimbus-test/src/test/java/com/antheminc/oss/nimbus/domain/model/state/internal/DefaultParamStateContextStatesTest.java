@@ -0,0 +1,191 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.domain.model.state.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.antheminc.oss.nimbus.domain.cmd.Command;
+import com.antheminc.oss.nimbus.domain.cmd.CommandBuilder;
+import com.antheminc.oss.nimbus.domain.defn.extension.ValidateConditional.GROUP_1;
+import com.antheminc.oss.nimbus.domain.defn.extension.ValidateConditional.ValidationGroup;
+import com.antheminc.oss.nimbus.domain.model.state.AbstractStateEventHandlerTests;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Model;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param.Message;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param.Message.Context;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param.Message.Type;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Context states and event subscribers of a param are allocated once first changed from their defaults.
+ */
+public class DefaultParamStateContextStatesTest extends AbstractStateEventHandlerTests {
+
+	private static final String PLAIN_PATH = "/sample_core/attr_String";
+
+	@Override
+	protected Command createCommand() {
+		return CommandBuilder.withUri("/hooli/thebox/p/sample_core/_new").getCommand();
+	}
+
+	private DefaultParamState<?> findPlain() {
+		Param<?> p = _q.getRoot().findParamByPath(PLAIN_PATH);
+		assertNotNull(p);
+		return (DefaultParamState<?>)p;
+	}
+
+	private JsonNode toJson(Param<?> p) throws Exception {
+		return om.readTree(om.writeValueAsString(p));
+	}
+
+	@Test
+	public void t01_defaultsAllocateNothing() {
+		DefaultParamState<?> p = findPlain();
+		assertNull(p.findContextStates(false));
+		assertNull(p.eventSubscribers);
+
+		addListener();
+		p.setVisible(true);
+		p.setEnabled(true);
+		p.setMessages(null);
+		p.setMessages(Collections.emptySet());
+		p.setLabels(null);
+		p.setStyle(null);
+		p.setActiveValidationGroups(new Class[0]);
+
+		assertTrue(p.isVisible());
+		assertTrue(p.isEnabled());
+		assertNull(p.getMessages());
+		assertNull(p.getLabels());
+		assertNull(p.getStyle());
+		assertEquals(0, p.getActiveValidationGroups().length);
+		assertTrue(p.getEventSubscribers().isEmpty());
+		assertFalse(p.hasContextStateChanged());
+
+		assertNull(p.findContextStates(false));
+		assertNull(p.eventSubscribers);
+		assertNull(_paramEvents);
+	}
+
+	@Test
+	public void t02_conditionalSetAndReset() {
+		DefaultParamState<?> p = findPlain();
+
+		addListener();
+		p.setVisible(false);
+		assertNotNull(p.findContextStates(false));
+		assertFalse(p.isVisible());
+		assertTrue(p.hasContextStateChanged());
+		assertTrue(_paramEvents.stream().anyMatch(pe -> pe.getParam() == p));
+
+		clearListenerEntries();
+		p.setVisible(true);
+		assertTrue(p.isVisible());
+		assertTrue(_paramEvents.stream().anyMatch(pe -> pe.getParam() == p));
+
+		// an inactive param is neither made visible nor enabled
+		p.deactivate();
+		assertFalse(p.isVisible());
+		assertFalse(p.isEnabled());
+
+		p.setVisible(true);
+		p.setEnabled(true);
+		assertFalse(p.isVisible());
+		assertFalse(p.isEnabled());
+
+		p.activate();
+		assertTrue(p.isVisible());
+		assertTrue(p.isEnabled());
+	}
+
+	@Test
+	public void t03_activeValidationGroupsSetAndReset() {
+		DefaultParamState<?> p = findPlain();
+
+		@SuppressWarnings("unchecked")
+		Class<? extends ValidationGroup>[] groups = new Class[] { GROUP_1.class };
+		p.setActiveValidationGroups(groups);
+		assertArrayEquals(groups, p.getActiveValidationGroups());
+		assertTrue(p.hasContextStateChanged());
+
+		p.setActiveValidationGroups(new Class[0]);
+		assertEquals(0, p.getActiveValidationGroups().length);
+	}
+
+	@Test
+	public void t04_serializedAsWithDefaults() throws Exception {
+		DefaultParamState<?> p = findPlain();
+		JsonNode unallocated = toJson(p);
+		assertFalse(unallocated.has(EntityStateJsonFilter.FIELD_NAME_VISIBLE));
+		assertFalse(unallocated.has(EntityStateJsonFilter.FIELD_NAME_ENABLED));
+
+		p.setVisible(false);
+		p.setMessages(Collections.singleton(new Message("t04", "message", Type.INFO, Context.INLINE, "")));
+		JsonNode changed = toJson(p);
+		assertFalse(changed.get(EntityStateJsonFilter.FIELD_NAME_VISIBLE).asBoolean());
+		assertEquals(1, changed.get("messages").size());
+
+		p.setVisible(true);
+		p.setMessages(null);
+		assertNotNull(p.findContextStates(false));
+		assertEquals(unallocated, toJson(p));
+	}
+
+	@Test
+	public void t05_paramsAtDefaultsAllocateNothing() {
+		List<DefaultParamState<?>> params = new ArrayList<>();
+		collectParams(_q.getRoot(), params);
+
+		List<DefaultParamState<?>> atDefaults = params.stream().filter(this::isAtDefaults).collect(Collectors.toList());
+		assertFalse(atDefaults.isEmpty());
+
+		List<String> allocated = atDefaults.stream()
+				.filter(p -> p.findContextStates(false) != null || p.eventSubscribers != null)
+				.map(Param::getPath)
+				.collect(Collectors.toList());
+		assertTrue("Expected params at their defaults to allocate nothing, found: " + allocated, allocated.isEmpty());
+	}
+
+	private boolean isAtDefaults(DefaultParamState<?> p) {
+		return p.isVisible() && p.isEnabled() && p.getLabels() == null && p.getMessages() == null && p.getStyle() == null
+				&& p.getActiveValidationGroups().length == 0 && p.getEventSubscribers().isEmpty();
+	}
+
+	private void collectParams(Model<?> m, List<DefaultParamState<?>> params) {
+		if(m == null || m.getParams() == null)
+			return;
+
+		for(Param<?> p : m.getParams()) {
+			if(p instanceof DefaultParamState)
+				params.add((DefaultParamState<?>)p);
+
+			if(p.isNested() && !p.isCollection())
+				collectParams(p.findIfNested().getModel(), params);
+		}
+	}
+}
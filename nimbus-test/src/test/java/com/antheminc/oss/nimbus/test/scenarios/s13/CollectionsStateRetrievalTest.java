@@ -15,18 +15,24 @@
  */
 package com.antheminc.oss.nimbus.test.scenarios.s13;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mock.web.MockHttpServletRequest;
 
 import com.antheminc.oss.nimbus.domain.AbstractFrameworkIngerationPersistableTests;
 import com.antheminc.oss.nimbus.domain.cmd.Action;
 import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.MultiOutput;
+import com.antheminc.oss.nimbus.domain.cmd.exec.internal.search.ViewProjectionPathsResolver;
 import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
 import com.antheminc.oss.nimbus.domain.model.state.ModelEvent;
 import com.antheminc.oss.nimbus.support.Holder;
@@ -50,6 +56,9 @@ public class CollectionsStateRetrievalTest extends AbstractFrameworkIngerationPe
 	public static final String CORE_PARAM_ROOT = PLATFORM_ROOT + "/" + CORE_DOMAIN_ALIAS;
 	public static final String VIEW_PARAM_ROOT = PLATFORM_ROOT + "/" + VIEW_DOMAIN_ALIAS;
 	
+	@Autowired
+	private ViewProjectionPathsResolver viewProjectionPathsResolver;
+	
 	private Long refId;
 	private Param<S13View> rootParam;
 	
@@ -161,6 +170,21 @@ public class CollectionsStateRetrievalTest extends AbstractFrameworkIngerationPe
 		Assert.assertEquals(sampleCore2.getAttr_int(), gridParam.getLeafState().get(1).getAttr_int());
 	}
 	
+	@Test
+	public void t02_viewProjectionPaths() {
+		Param<?> gridParam = this.rootParam.findParamByPath("/page/tile/section1/grid");
+		Set<String> expected = new LinkedHashSet<>(Arrays.asList("id", "attr_String", "attr_int"));
+		
+		Optional<Set<String>> paths = this.viewProjectionPathsResolver.resolve(gridParam, CORE_DOMAIN_ALIAS);
+		Assert.assertEquals(expected, paths.get());
+		
+		// resolved through the event subscribers when the search results are assigned to the mapsTo param
+		Optional<Set<String>> mapsToPaths = this.viewProjectionPathsResolver.resolve(gridParam.findIfMapped().getMapsTo(), CORE_DOMAIN_ALIAS);
+		Assert.assertEquals(expected, mapsToPaths.get());
+		
+		Assert.assertFalse(this.viewProjectionPathsResolver.resolve(gridParam, "sample_core").isPresent());
+	}
+	
 	@SuppressWarnings("unchecked")
 	private Holder<MultiOutput> selectFilter(int filterNum) throws JsonProcessingException {
 		
@@ -0,0 +1,150 @@
+/**
+ *  Copyright 2016-2019 the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.antheminc.oss.nimbus.test.scenarios.s9;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.antheminc.oss.nimbus.InvalidArgumentException;
+import com.antheminc.oss.nimbus.channel.web.BatchCommand;
+import com.antheminc.oss.nimbus.domain.cmd.Action;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.MultiOutput;
+import com.antheminc.oss.nimbus.domain.cmd.exec.CommandExecution.Output;
+import com.antheminc.oss.nimbus.domain.model.state.EntityState.Param;
+import com.antheminc.oss.nimbus.support.Holder;
+import com.antheminc.oss.nimbus.test.domain.support.AbstractFrameworkIntegrationTests;
+import com.antheminc.oss.nimbus.test.domain.support.utils.ExtractResponseOutputUtils;
+import com.antheminc.oss.nimbus.test.domain.support.utils.MockHttpRequestBuilder;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+public class S9_BatchCommandTest extends AbstractFrameworkIntegrationTests {
+
+	private static final String VIEW_ROOT = PLATFORM_ROOT + "/s9v_main";
+
+	private Long createView() {
+		Object resp = controller.handleGet(MockHttpRequestBuilder.withUri(VIEW_ROOT).addAction(Action._new).getMock(), null);
+		return ExtractResponseOutputUtils.extractDomainRootRefId(resp);
+	}
+
+	private MockHttpServletRequest batchRequest() {
+		return MockHttpRequestBuilder.withUri(HttpMethod.POST, PLATFORM_ROOT).addNested("/batch").getMock();
+	}
+
+	private BatchCommand batchCommand(String uri, String payload) {
+		BatchCommand batchCommand = new BatchCommand();
+		batchCommand.setUri(uri);
+		batchCommand.setPayload(payload == null ? null : TextNode.valueOf(payload));
+		return batchCommand;
+	}
+
+	private List<Output<?>> extractOutputs(Object resp) {
+		return MultiOutput.class.cast(Holder.class.cast(resp).getState()).getOutputs();
+	}
+
+	@Test
+	public void t01_sharedParamsOnce() {
+		Long refId = createView();
+		String uri = VIEW_ROOT + ":" + refId + "/_get";
+
+		Object resp = controller.handleBatch(batchRequest(), Arrays.asList(batchCommand(uri, null), batchCommand(uri, null)));
+
+		List<Output<?>> outputs = extractOutputs(resp);
+		assertEquals(1, outputs.size());
+		assertEquals("/s9v_main", Param.class.cast(outputs.get(0).getValue()).getPath());
+	}
+
+	@Test
+	public void t02_executedInOrder() {
+		Long refId = createView();
+		String root = VIEW_ROOT + ":" + refId;
+
+		Object resp = controller.handleBatch(batchRequest(), Arrays.asList(
+				batchCommand(root + "/vp/vt/vs/vf/v1/_update", "code1"),
+				batchCommand(root + "/vp/vt/vs/vf/v2/_get", null)));
+
+		List<Output<?>> outputs = extractOutputs(resp);
+		Param<?> p_v2 = outputs.stream()
+				.map(o -> Param.class.cast(o.getValue()))
+				.filter(p -> p.getPath().equals("/s9v_main/vp/vt/vs/vf/v2"))
+				.findFirst().get();
+
+		assertTrue(p_v2.isActive());
+		assertEquals(1, outputs.stream().filter(o -> o.getValue() == p_v2).count());
+	}
+
+	@Test
+	public void t04_nonParamOutputsKept() {
+		Long refId = createView();
+		String root = VIEW_ROOT + ":" + refId;
+
+		Object resp = controller.handleBatch(batchRequest(), Arrays.asList(
+				batchCommand(root + "/vp/vt/vs/vf/v1/_update", "code1"),
+				batchCommand(root + "/vp/vt/vs/vf/v2/_update", "code2"),
+				batchCommand(root + "/vp/vt/vs/vf/v1/_delete", null)));
+
+		List<Output<?>> outputs = extractOutputs(resp);
+		List<Action> executedActions = outputs.stream()
+				.filter(o -> !(o.getValue() instanceof Param))
+				.map(Output::getAction)
+				.collect(Collectors.toList());
+		assertEquals(Arrays.asList(Action._update, Action._update, Action._delete), executedActions);
+
+		List<String> paramPaths = outputs.stream()
+				.filter(o -> o.getValue() instanceof Param)
+				.map(o -> Param.class.cast(o.getValue()).getPath())
+				.collect(Collectors.toList());
+		assertEquals(new HashSet<>(paramPaths).size(), paramPaths.size());
+		assertTrue(paramPaths.contains("/s9v_main/vp/vt/vs/vf/v1"));
+		assertTrue(paramPaths.contains("/s9v_main/vp/vt/vs/vf/v2"));
+	}
+
+	@Test
+	public void t05_paramsOfEachRefIdKept() {
+		Long refId1 = createView();
+		Long refId2 = createView();
+
+		Object resp = controller.handleBatch(batchRequest(), Arrays.asList(
+				batchCommand(VIEW_ROOT + ":" + refId1 + "/_get", null),
+				batchCommand(VIEW_ROOT + ":" + refId2 + "/_get", null),
+				batchCommand(VIEW_ROOT + ":" + refId1 + "/_get", null)));
+
+		List<Output<?>> outputs = extractOutputs(resp);
+		assertEquals(2, outputs.size());
+
+		Param<?> p1 = Param.class.cast(outputs.get(0).getValue());
+		Param<?> p2 = Param.class.cast(outputs.get(1).getValue());
+		assertEquals("/s9v_main", p1.getPath());
+		assertEquals("/s9v_main", p2.getPath());
+		assertNotSame(p1, p2);
+		assertEquals(refId1, outputs.get(0).getRootDomainId());
+		assertEquals(refId2, outputs.get(1).getRootDomainId());
+	}
+
+	@Test(expected=InvalidArgumentException.class)
+	public void t03_otherClientRejected() {
+		controller.handleBatch(batchRequest(), Arrays.asList(batchCommand("/other/thebox/p/s9v_main/_new", null)));
+	}
+}